@@ -0,0 +1,54 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar: run benchmarks with the standard JMH command line
+ * options, and always with the GC profiler so that allocation rate is reported along
+ * with throughput.
+ *
+ * <br>
+ *
+ * Usage:
+ *
+ * <pre><code>
+ *   java -jar target/benchmarks.jar                     # Run all benchmarks.
+ *   java -jar target/benchmarks.jar TagHandlerBenchmark # Run benchmarks matching a pattern.
+ * </code></pre>
+ */
+public final class BenchmarkRunner {
+
+	// Ensure non instantiation.
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+}
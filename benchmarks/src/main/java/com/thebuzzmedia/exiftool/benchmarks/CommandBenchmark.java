@@ -0,0 +1,92 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.command.CommandBuilder;
+import com.thebuzzmedia.exiftool.process.command.DefaultCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of commands with {@link CommandBuilder} (see {@link DefaultCommand}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandBenchmark {
+
+	/**
+	 * Number of arguments of the command.
+	 */
+	@Param({"5", "50"})
+	private int size;
+
+	/**
+	 * Arguments of the command.
+	 */
+	private List<String> arguments;
+
+	@Setup
+	public void setUp() {
+		arguments = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			arguments.add("-Tag" + i);
+		}
+	}
+
+	@Benchmark
+	public Command stayOpen() {
+		return CommandBuilder.builder("exiftool")
+				.addArgument("-stay_open", "True", "-@", "-")
+				.build();
+	}
+
+	@Benchmark
+	public Command addAll() {
+		return CommandBuilder.builder("exiftool", size)
+				.addAll(arguments)
+				.build();
+	}
+
+	@Benchmark
+	public Command addArgument() {
+		CommandBuilder builder = CommandBuilder.builder("exiftool", size);
+		for (String argument : arguments) {
+			builder.addArgument(argument);
+		}
+
+		return builder.build();
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.ExifTool;
+import com.thebuzzmedia.exiftool.ExifToolBuilder;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardFormat;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading metadata of an image with {@link ExifTool#getImageMeta(File, com.thebuzzmedia.exiftool.Format, java.util.Collection)}:
+ * building the arguments of the command, wrapping the handler and parsing the output.
+ *
+ * <br>
+ *
+ * Commands are not run by an exiftool process: the execution strategy replays the same output
+ * (see {@link Stubs.ReplayStrategy}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetImageMetaBenchmark {
+
+	/**
+	 * Number of tags read by the command.
+	 */
+	@Param({"1", "10", "50"})
+	private int size;
+
+	/**
+	 * Image, it must exist to be read.
+	 */
+	private File image;
+
+	/**
+	 * Tags read by the command.
+	 */
+	private List<Tag> tags;
+
+	/**
+	 * ExifTool instance.
+	 */
+	private ExifTool exifTool;
+
+	@Setup
+	public void setUp() throws IOException {
+		image = File.createTempFile("exiftool-benchmark", ".jpg");
+
+		StandardTag[] values = StandardTag.values();
+		int nbTags = Math.min(size, values.length);
+
+		tags = new ArrayList<>(nbTags);
+		List<String> output = new ArrayList<>(nbTags + 1);
+		for (int i = 0; i < nbTags; i++) {
+			tags.add(values[i]);
+			output.add(values[i].getName() + ": " + i);
+		}
+
+		output.add("{ready}");
+
+		exifTool = new ExifToolBuilder()
+				.withPath("exiftool")
+				.withExecutor(new Stubs.VersionExecutor("11.00"))
+				.withStrategy(new Stubs.ReplayStrategy(output))
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		exifTool.close();
+		if (!image.delete()) {
+			image.deleteOnExit();
+		}
+	}
+
+	@Benchmark
+	public Map<Tag, String> getImageMeta() throws IOException {
+		return exifTool.getImageMeta(image, StandardFormat.NUMERIC, tags);
+	}
+
+	@Benchmark
+	public Map<Tag, String> getImageMetaHumanReadable() throws IOException {
+		return exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags);
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.commons.io.IOs;
+import com.thebuzzmedia.exiftool.commons.io.LineReader;
+import com.thebuzzmedia.exiftool.commons.io.StreamVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading of a command output with {@link IOs#readInputStream(java.io.InputStream, StreamVisitor)}, used
+ * by one-shot commands, compared to {@link LineReader}, used by stay_open processes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IOsBenchmark {
+
+	/**
+	 * Number of output lines.
+	 */
+	@Param({"10", "1000"})
+	private int lines;
+
+	/**
+	 * Output of the command, encoded in UTF-8.
+	 */
+	private byte[] output;
+
+	@Setup
+	public void setUp() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < lines; i++) {
+			sb.append("Tag").append(i).append(": Value of tag ").append(i).append('\n');
+		}
+
+		output = sb.toString().getBytes(Charset.forName("UTF-8"));
+	}
+
+	@Benchmark
+	public void readInputStream(final Blackhole blackhole) throws IOException {
+		IOs.readInputStream(new ByteArrayInputStream(output), new StreamVisitor() {
+			@Override
+			public boolean readLine(String line) {
+				blackhole.consume(line);
+				return line != null;
+			}
+		});
+	}
+
+	@Benchmark
+	public void readChars(Blackhole blackhole) throws IOException {
+		LineReader reader = new LineReader(new ByteArrayInputStream(output));
+
+		CharSequence line;
+		while ((line = reader.readChars()) != null) {
+			blackhole.consume(line);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.PoolStrategy;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Arrays.asList;
+
+/**
+ * Acquisition and release of strategies of a {@link PoolStrategy}, with more threads than
+ * strategies: strategies do not run any process, so the benchmark measures the cost of the
+ * pool itself under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PoolStrategyBenchmark {
+
+	/**
+	 * Number of strategies in the pool.
+	 */
+	@Param({"1", "4", "8"})
+	private int size;
+
+	/**
+	 * The pool.
+	 */
+	private PoolStrategy pool;
+
+	/**
+	 * Executor given to the pool.
+	 */
+	private CommandExecutor executor;
+
+	/**
+	 * Arguments of commands.
+	 */
+	private List<String> arguments;
+
+	/**
+	 * Handler of commands.
+	 */
+	private OutputHandler handler;
+
+	@Setup
+	public void setUp() {
+		List<ExecutionStrategy> strategies = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strategies.add(new Stubs.ReplayStrategy(Collections.singletonList("{ready}")));
+		}
+
+		pool = new PoolStrategy(strategies);
+		executor = new Stubs.VersionExecutor("11.00");
+		arguments = asList("-S", "-ver", "-execute");
+		handler = stopHandler();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		pool.close();
+	}
+
+	@Benchmark
+	public void execute() throws IOException {
+		pool.execute(executor, "exiftool", arguments, handler);
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.executor.DefaultCommandResult;
+
+import java.util.List;
+
+/**
+ * Executor and strategy running commands without any exiftool process: benchmarks only
+ * measure the Java side of the library.
+ */
+final class Stubs {
+
+	// Ensure non instantiation.
+	private Stubs() {
+	}
+
+	/**
+	 * Executor returning the given version for all commands.
+	 */
+	static final class VersionExecutor implements CommandExecutor {
+
+		/**
+		 * Returned version.
+		 */
+		private final String version;
+
+		VersionExecutor(String version) {
+			this.version = version;
+		}
+
+		@Override
+		public CommandResult execute(Command command) {
+			return new DefaultCommandResult(0, version);
+		}
+
+		@Override
+		public CommandResult execute(Command command, OutputHandler handler) {
+			throw new UnsupportedOperationException("Commands must be run by the execution strategy");
+		}
+
+		@Override
+		public CommandProcess start(Command command) {
+			throw new UnsupportedOperationException("Commands must be run by the execution strategy");
+		}
+	}
+
+	/**
+	 * Strategy giving the same output to all commands.
+	 */
+	static final class ReplayStrategy implements ExecutionStrategy {
+
+		/**
+		 * Output lines, the last one should end the output.
+		 */
+		private final List<String> output;
+
+		ReplayStrategy(List<String> output) {
+			this.output = output;
+		}
+
+		@Override
+		public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) {
+			for (String line : output) {
+				if (!handler.readLine(line)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean isRunning() {
+			return true;
+		}
+
+		@Override
+		public boolean isSupported(Version version) {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void shutdown() {
+		}
+	}
+}
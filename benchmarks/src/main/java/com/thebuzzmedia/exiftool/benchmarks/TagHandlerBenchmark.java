@@ -0,0 +1,118 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.handlers.StandardTagHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the output of a command reading metadata with {@link StandardTagHandler}.
+ *
+ * <br>
+ *
+ * Output is given as strings (see {@link StandardTagHandler#readLine(String)}) or as views
+ * over a reused buffer (see {@link StandardTagHandler#readChars(CharSequence)}), as done
+ * by the stay_open strategies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TagHandlerBenchmark {
+
+	/**
+	 * Number of tags read by the command.
+	 */
+	@Param({"10", "100"})
+	private int size;
+
+	/**
+	 * Tags read by the command.
+	 */
+	private List<Tag> tags;
+
+	/**
+	 * Output lines, including the {@code {ready}} line.
+	 */
+	private List<String> lines;
+
+	/**
+	 * Output lines, as buffers.
+	 */
+	private List<CharBuffer> buffers;
+
+	@Setup
+	public void setUp() {
+		StandardTag[] values = StandardTag.values();
+
+		tags = new ArrayList<>(size);
+		lines = new ArrayList<>(size + 1);
+		for (int i = 0; i < size; i++) {
+			StandardTag tag = values[i % values.length];
+			tags.add(tag);
+			lines.add(tag.getName() + ": " + i);
+		}
+
+		lines.add("{ready}");
+
+		buffers = new ArrayList<>(lines.size());
+		for (String line : lines) {
+			buffers.add(CharBuffer.wrap(line));
+		}
+	}
+
+	@Benchmark
+	public Map<Tag, String> readLine() {
+		StandardTagHandler handler = new StandardTagHandler(tags);
+		for (String line : lines) {
+			handler.readLine(line);
+		}
+
+		return handler.getTags();
+	}
+
+	@Benchmark
+	public Map<Tag, String> readChars() {
+		StandardTagHandler handler = new StandardTagHandler(tags);
+		for (CharBuffer buffer : buffers) {
+			handler.readChars(buffer.duplicate());
+		}
+
+		return handler.getTags();
+	}
+}
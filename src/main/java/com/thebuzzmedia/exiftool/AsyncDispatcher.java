@@ -0,0 +1,433 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
+import com.thebuzzmedia.exiftool.process.CommandContext;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.CommandProcesses;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Dispatcher running asynchronous requests of an {@link ExifTool} instance.
+ *
+ * <br>
+ *
+ * By default, requests are run by a bounded number of threads, and pending requests are
+ * kept in a bounded queue: a request submitted while the queue is full is rejected with a
+ * {@link RejectedExecutionException}. Threads are created when the first request is
+ * submitted, and are released when they are idle.
+ *
+ * <br>
+ *
+ * Requests may also be run by an {@link Executor} given by the caller (for example, an executor
+ * starting a virtual thread per task): in this case, the number of requests submitted and not
+ * yet completed is bounded, and the executor is not shutdown with the dispatcher.
+ *
+ * <br>
+ *
+ * Cancelling the {@link Future} of a request:
+ * <ul>
+ *   <li>Removes the request from the queue if it has not been started yet.</li>
+ *   <li>
+ *     Prevents its command from being written if the request is waiting for an exiftool
+ *     process (see {@link ProcessAwareOutputHandler#isAborted()}).
+ *   </li>
+ *   <li>
+ *     Destroys the exiftool process running the command otherwise: a daemon is
+ *     started again by the next request.
+ *   </li>
+ *   <li>
+ *     If the command is running on a daemon shared with other commands (see
+ *     {@link com.thebuzzmedia.exiftool.core.strategies.PipelinedStayOpenStrategy}), the daemon
+ *     is not destroyed: the command is dropped, and its output is skipped.
+ *   </li>
+ * </ul>
+ */
+final class AsyncDispatcher {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(AsyncDispatcher.class);
+
+	/**
+	 * Time to live of idle threads, in seconds.
+	 */
+	private static final long KEEP_ALIVE = 60;
+
+	/**
+	 * Counter used to name dispatcher threads.
+	 */
+	private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+	/**
+	 * Request run by current thread, if current thread is a dispatcher thread.
+	 */
+	private static final ThreadLocal<AsyncFuture<?>> current = new ThreadLocal<>();
+
+	/**
+	 * Get the handler to use to run a command: if current thread runs an asynchronous
+	 * request, handler is decorated so that the request can be aborted while the
+	 * command is running.
+	 *
+	 * @param handler Command handler.
+	 * @return The handler to use.
+	 */
+	static OutputHandler decorate(OutputHandler handler) {
+		AsyncFuture<?> future = current.get();
+		return future == null ? handler : future.new AbortableHandler(handler);
+	}
+
+	/**
+	 * Maximum number of threads.
+	 */
+	private final int threads;
+
+	/**
+	 * Maximum number of pending requests.
+	 */
+	private final int queueSize;
+
+	/**
+	 * Executor running requests: internal executor is created with the first request.
+	 */
+	private Executor executor;
+
+	/**
+	 * Permits of requests that may be submitted to an executor given by the caller,
+	 * {@code null} with internal executor.
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * Flag to know if dispatcher has been shutdown.
+	 */
+	private boolean shutdown;
+
+	/**
+	 * Create dispatcher.
+	 *
+	 * @param threads Maximum number of threads.
+	 * @param queueSize Maximum number of pending requests.
+	 * @throws IllegalArgumentException If {@code threads} or {@code queueSize} are not strictly positive.
+	 */
+	AsyncDispatcher(int threads, int queueSize) {
+		this.threads = isPositive(threads, "Number of threads must be positive");
+		this.queueSize = isPositive(queueSize, "Queue size must be positive");
+		this.permits = null;
+	}
+
+	/**
+	 * Create dispatcher running requests with given executor.
+	 *
+	 * @param executor The executor.
+	 * @param maxPending Maximum number of requests submitted and not yet completed.
+	 * @throws NullPointerException If {@code executor} is {@code null}.
+	 * @throws IllegalArgumentException If {@code maxPending} is not strictly positive.
+	 */
+	AsyncDispatcher(Executor executor, int maxPending) {
+		this.executor = notNull(executor, "Executor should not be null");
+		this.threads = 0;
+		this.queueSize = isPositive(maxPending, "Queue size must be positive");
+		this.permits = new Semaphore(maxPending);
+	}
+
+	/**
+	 * Submit request.
+	 *
+	 * @param task The request.
+	 * @param <T> Type of result.
+	 * @return Future result.
+	 * @throws RejectedExecutionException If queue is full, or if dispatcher has been shutdown.
+	 */
+	<T> Future<T> submit(Callable<T> task) {
+		Executor executor = getExecutor();
+		if (permits != null && !permits.tryAcquire()) {
+			throw new RejectedExecutionException("Too many pending requests");
+		}
+
+		AsyncFuture<T> future = new AsyncFuture<>(executor, permits, task);
+		try {
+			executor.execute(future);
+		}
+		catch (RuntimeException ex) {
+			if (permits != null) {
+				permits.release();
+			}
+
+			throw ex;
+		}
+
+		return future;
+	}
+
+	/**
+	 * Stop dispatcher threads: pending requests are cancelled, running requests are
+	 * interrupted. An executor given by the caller is left untouched.
+	 */
+	synchronized void shutdown() {
+		shutdown = true;
+		if (executor instanceof ThreadPoolExecutor && permits == null) {
+			for (Runnable runnable : ((ThreadPoolExecutor) executor).shutdownNow()) {
+				((Future<?>) runnable).cancel(false);
+			}
+		}
+	}
+
+	private synchronized Executor getExecutor() {
+		if (shutdown) {
+			throw new RejectedExecutionException("ExifTool has been closed");
+		}
+
+		if (executor == null) {
+			log.debug("Start dispatcher with {} threads", threads);
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new DispatcherThreadFactory());
+			executor.allowCoreThreadTimeOut(true);
+			this.executor = executor;
+		}
+
+		return executor;
+	}
+
+	/**
+	 * Factory creating daemon threads: pending requests should not prevent the JVM from exiting.
+	 */
+	private static class DispatcherThreadFactory implements ThreadFactory {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "exiftool-async-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * Future of an asynchronous request.
+	 *
+	 * @param <T> Type of result.
+	 */
+	private static final class AsyncFuture<T> extends FutureTask<T> {
+
+		/**
+		 * Executor running the request.
+		 */
+		private final Executor executor;
+
+		/**
+		 * Permits of submitted requests, released once request is done (may be {@code null}).
+		 */
+		private final Semaphore permits;
+
+		/**
+		 * Process running the command of the request, {@code null} if no command is running.
+		 */
+		private CommandProcess process;
+
+		/**
+		 * Task dropping the command of the request from a shared process, {@code null} if no command is running.
+		 */
+		private Runnable abortTask;
+
+		/**
+		 * Flag to know if request has been aborted.
+		 */
+		private boolean aborted;
+
+		private AsyncFuture(Executor executor, Semaphore permits, Callable<T> task) {
+			super(task);
+			this.executor = executor;
+			this.permits = permits;
+		}
+
+		@Override
+		public void run() {
+			current.set(this);
+			try {
+				super.run();
+			}
+			finally {
+				current.remove();
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+			// If request is not queued anymore, it is running: abort its command.
+			if (cancelled && !remove()) {
+				abort();
+			}
+
+			return cancelled;
+		}
+
+		@Override
+		protected void done() {
+			if (permits != null) {
+				permits.release();
+			}
+		}
+
+		private boolean remove() {
+			// Other executors will just skip the cancelled request.
+			return executor instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executor).remove(this);
+		}
+
+		private void abort() {
+			Runnable task;
+			synchronized (this) {
+				aborted = true;
+				if (process != null) {
+					log.debug("Request cancelled, destroy exiftool process");
+					CommandProcesses.destroy(process);
+					process = null;
+				}
+
+				task = abortTask;
+				abortTask = null;
+			}
+
+			if (task != null) {
+				log.debug("Request cancelled, drop its command");
+				task.run();
+			}
+		}
+
+		private synchronized boolean isAborted() {
+			// Future is cancelled just before the request is aborted.
+			return aborted || isCancelled();
+		}
+
+		private synchronized void attach(CommandProcess process) {
+			if (aborted) {
+				log.debug("Request cancelled, destroy exiftool process");
+				CommandProcesses.destroy(process);
+			}
+			else {
+				this.process = process;
+			}
+		}
+
+		private void onAbort(Runnable task) {
+			synchronized (this) {
+				if (!aborted) {
+					abortTask = task;
+					return;
+				}
+			}
+
+			task.run();
+		}
+
+		private synchronized void detach() {
+			process = null;
+			abortTask = null;
+		}
+
+		/**
+		 * Handler of a command run by the request: process (or the task dropping the command) is attached
+		 * to the request until the end of the command output, so that it can be aborted if request is cancelled.
+		 */
+		private final class AbortableHandler implements ProcessAwareOutputHandler, ContextOutputHandler, CharSequenceOutputHandler, ErrorOutputHandler {
+
+			/**
+			 * Command handler.
+			 */
+			private final OutputHandler handler;
+
+			private AbortableHandler(OutputHandler handler) {
+				this.handler = handler;
+			}
+
+			@Override
+			public boolean isAborted() {
+				return AsyncFuture.this.isAborted();
+			}
+
+			@Override
+			public void onRead(CommandProcess process) {
+				attach(process);
+			}
+
+			@Override
+			public void onAbort(Runnable task) {
+				AsyncFuture.this.onAbort(task);
+			}
+
+			@Override
+			public CommandContext getContext() {
+				return CommandContext.of(handler);
+			}
+
+			@Override
+			public boolean readLine(String line) {
+				return next(line, handler.readLine(line));
+			}
+
+			@Override
+			public boolean readChars(CharSequence line) {
+				if (handler instanceof CharSequenceOutputHandler) {
+					return next(line, ((CharSequenceOutputHandler) handler).readChars(line));
+				}
+
+				return readLine(line == null ? null : line.toString());
+			}
+
+			@Override
+			public void readError(String line) {
+				if (handler instanceof ErrorOutputHandler) {
+					((ErrorOutputHandler) handler).readError(line);
+				}
+				else {
+					log.warn("exiftool: {}", line);
+				}
+			}
+
+			private boolean next(CharSequence line, boolean hasNext) {
+				// Process may be used by other commands once output of this command has been read.
+				if (line == null || !hasNext) {
+					detach();
+				}
+
+				return hasNext;
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener notifying a list of listeners: an exception thrown by a listener is logged, and
+ * does not prevent other listeners (and the command) from running.
+ */
+final class CompositeExecutionListener implements ExecutionListener {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(CompositeExecutionListener.class);
+
+	/**
+	 * Listeners.
+	 */
+	private final List<ExecutionListener> listeners;
+
+	/**
+	 * Create listener.
+	 *
+	 * @param listeners Listeners.
+	 */
+	CompositeExecutionListener(List<ExecutionListener> listeners) {
+		this.listeners = new ArrayList<>(listeners);
+	}
+
+	@Override
+	public void onStart(ExecutionEvent event) {
+		for (ExecutionListener listener : listeners) {
+			try {
+				listener.onStart(event);
+			}
+			catch (RuntimeException ex) {
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+	}
+
+	@Override
+	public void onComplete(ExecutionEvent event) {
+		for (ExecutionListener listener : listeners) {
+			try {
+				listener.onComplete(event);
+			}
+			catch (RuntimeException ex) {
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+	}
+}
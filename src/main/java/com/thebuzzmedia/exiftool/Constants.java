@@ -37,4 +37,11 @@ public final class Constants {
 	 * OS independent line break.
 	 */
 	public static final String BR = System.getProperty("line.separator");
+
+	/**
+	 * Line printed by exiftool on error output (using {@code -echo4} option) once a
+	 * command has been processed: error lines printed before this marker belong to
+	 * this command.
+	 */
+	public static final String ERROR_MARKER = "{ready_errors}";
 }
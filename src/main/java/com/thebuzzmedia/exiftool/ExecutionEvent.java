@@ -0,0 +1,301 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description of an exiftool command, given to {@link ExecutionListener}.
+ *
+ * <br>
+ *
+ * Durations are in nanoseconds. The time spent by a command is split in:
+ * <ul>
+ *   <li>Queue wait: time spent waiting for an available strategy of a pool.</li>
+ *   <li>Write time: time spent writing the command to the exiftool process.</li>
+ *   <li>Compute time: time spent by exiftool until the first output line.</li>
+ *   <li>Read time: time spent reading the output, from the first output line.</li>
+ * </ul>
+ *
+ * A duration that is not reported by the execution strategy (for example, the queue wait of a
+ * strategy that is not a pool) is zero.
+ *
+ * <strong>Note:</strong> this implementation is immutable and thread safe.
+ */
+public final class ExecutionEvent {
+
+	/**
+	 * Number of arguments of the command.
+	 */
+	private final int arguments;
+
+	/**
+	 * Files processed by the command.
+	 */
+	private final List<File> files;
+
+	/**
+	 * Flag set if command writes metadata.
+	 */
+	private final boolean write;
+
+	/**
+	 * Command priority.
+	 */
+	private final Priority priority;
+
+	/**
+	 * Name of the strategy of the pool that ran the command, {@code null} if command has not been run by a pool.
+	 */
+	private final String strategy;
+
+	/**
+	 * Identifier of the exiftool process that ran the command, {@code -1} if it is not known.
+	 */
+	private final long pid;
+
+	/**
+	 * Time spent waiting for an available strategy.
+	 */
+	private final long queueWait;
+
+	/**
+	 * Time spent writing the command.
+	 */
+	private final long writeTime;
+
+	/**
+	 * Time spent by exiftool until the first output line.
+	 */
+	private final long computeTime;
+
+	/**
+	 * Time spent reading the output.
+	 */
+	private final long readTime;
+
+	/**
+	 * Total duration of the command.
+	 */
+	private final long duration;
+
+	/**
+	 * Number of bytes read from the output (including line breaks).
+	 */
+	private final long outputSize;
+
+	/**
+	 * Outcome of the command, {@code null} if command is not completed.
+	 */
+	private final Outcome outcome;
+
+	/**
+	 * Failure of the command, {@code null} if command is not completed or has succeeded.
+	 */
+	private final Exception failure;
+
+	ExecutionEvent(int arguments, List<File> files, boolean write, Priority priority, String strategy, long pid, long queueWait, long writeTime, long computeTime, long readTime, long duration, long outputSize, Outcome outcome, Exception failure) {
+		this.arguments = arguments;
+		this.files = files;
+		this.write = write;
+		this.priority = priority;
+		this.strategy = strategy;
+		this.pid = pid;
+		this.queueWait = queueWait;
+		this.writeTime = writeTime;
+		this.computeTime = computeTime;
+		this.readTime = readTime;
+		this.duration = duration;
+		this.outputSize = outputSize;
+		this.outcome = outcome;
+		this.failure = failure;
+	}
+
+	/**
+	 * Get {@link #arguments}
+	 *
+	 * @return {@link #arguments}
+	 */
+	public int getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * Get {@link #files}
+	 *
+	 * @return {@link #files}
+	 */
+	public List<File> getFiles() {
+		return files;
+	}
+
+	/**
+	 * Get {@link #write}
+	 *
+	 * @return {@link #write}
+	 */
+	public boolean isWrite() {
+		return write;
+	}
+
+	/**
+	 * Get {@link #priority}
+	 *
+	 * @return {@link #priority}
+	 */
+	public Priority getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Get {@link #strategy}
+	 *
+	 * @return {@link #strategy}
+	 */
+	public String getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Get {@link #pid}
+	 *
+	 * @return {@link #pid}
+	 */
+	public long getPid() {
+		return pid;
+	}
+
+	/**
+	 * Get {@link #queueWait}
+	 *
+	 * @return {@link #queueWait}
+	 */
+	public long getQueueWait() {
+		return queueWait;
+	}
+
+	/**
+	 * Get {@link #writeTime}
+	 *
+	 * @return {@link #writeTime}
+	 */
+	public long getWriteTime() {
+		return writeTime;
+	}
+
+	/**
+	 * Get {@link #computeTime}
+	 *
+	 * @return {@link #computeTime}
+	 */
+	public long getComputeTime() {
+		return computeTime;
+	}
+
+	/**
+	 * Get {@link #readTime}
+	 *
+	 * @return {@link #readTime}
+	 */
+	public long getReadTime() {
+		return readTime;
+	}
+
+	/**
+	 * Get {@link #duration}
+	 *
+	 * @return {@link #duration}
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Get {@link #outputSize}
+	 *
+	 * @return {@link #outputSize}
+	 */
+	public long getOutputSize() {
+		return outputSize;
+	}
+
+	/**
+	 * Get {@link #outcome}
+	 *
+	 * @return {@link #outcome}
+	 */
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * Get {@link #failure}
+	 *
+	 * @return {@link #failure}
+	 */
+	public Exception getFailure() {
+		return failure;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("arguments", arguments)
+				.append("files", files)
+				.append("write", write)
+				.append("priority", priority)
+				.append("strategy", strategy)
+				.append("pid", pid)
+				.append("queueWait", millis(queueWait))
+				.append("writeTime", millis(writeTime))
+				.append("computeTime", millis(computeTime))
+				.append("readTime", millis(readTime))
+				.append("duration", millis(duration))
+				.append("outputSize", outputSize)
+				.append("outcome", outcome)
+				.build();
+	}
+
+	private static long millis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	/**
+	 * Outcome of a command.
+	 */
+	public enum Outcome {
+		/**
+		 * Command has succeeded.
+		 */
+		SUCCESS,
+
+		/**
+		 * Command has failed.
+		 */
+		FAILURE,
+
+		/**
+		 * Command has failed because its deadline has been missed.
+		 */
+		TIMEOUT
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+/**
+ * Listener notified around each exiftool command run by an {@link ExifTool} instance
+ * (see {@link ExifToolBuilder#withExecutionListener(ExecutionListener)}): it may be used
+ * to trace commands, or to log slow commands (see {@link SlowExecutionListener}).
+ *
+ * <br>
+ *
+ * Both methods are called on the thread running the command: they should be fast, since
+ * they delay the command. An exception thrown by a listener is logged and ignored.
+ */
+public interface ExecutionListener {
+
+	/**
+	 * Called before the command is given to the execution strategy: only arguments,
+	 * files and priority of the event are available.
+	 *
+	 * @param event The command.
+	 */
+	void onStart(ExecutionEvent event);
+
+	/**
+	 * Called once the command is completed, successfully or not.
+	 *
+	 * @param event The command.
+	 */
+	void onComplete(ExecutionEvent event);
+}
@@ -18,32 +18,62 @@
 package com.thebuzzmedia.exiftool;
 
 import com.thebuzzmedia.exiftool.core.StandardFormat;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.StandardTagValues;
 import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
 import com.thebuzzmedia.exiftool.core.cache.VersionCacheFactory;
 import com.thebuzzmedia.exiftool.core.handlers.AllTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.BatchTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.JsonTagHandler;
 import com.thebuzzmedia.exiftool.core.handlers.StandardTagHandler;
 import com.thebuzzmedia.exiftool.core.handlers.TagHandler;
+import com.thebuzzmedia.exiftool.core.strategies.PoolStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.RoutingStrategy;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
 import com.thebuzzmedia.exiftool.exceptions.UnsupportedFeatureException;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.metrics.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.metrics.MetricsFactory;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isReadable;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isWritable;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notBlank;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
 import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableMap;
 
 /**
  * Class used to provide a Java-like interface to Phil Harvey's excellent,
@@ -278,6 +308,11 @@ public class ExifTool implements AutoCloseable {
 	 */
 	private static final Logger log = LoggerFactory.getLogger(ExifTool.class);
 
+	/**
+	 * Metrics.
+	 */
+	private static final ExifToolMetrics metrics = MetricsFactory.getMetrics();
+
 	/**
 	 * Cache used to store {@code exiftool} version:
 	 *
@@ -288,6 +323,34 @@ public class ExifTool implements AutoCloseable {
 	 */
 	private static final VersionCache cache = VersionCacheFactory.newCache();
 
+	/**
+	 * Maximum length of images path given on the command line during a batch
+	 * read operation: above this limit, an argument file is used instead (this
+	 * limit is kept low enough to stay under the Windows command line limit).
+	 */
+	private static final int MAX_PATHS_LENGTH = 30000;
+
+	/**
+	 * Encoding of argument files.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Minimum version of {@code exiftool} used to print {@link Constants#ERROR_MARKER}
+	 * on error output with the {@code -echo4} option.
+	 */
+	private static final Version V10_16 = new Version("10.16");
+
+	/**
+	 * Default maximum number of pending asynchronous requests.
+	 */
+	static final int DEFAULT_ASYNC_QUEUE_SIZE = 1000;
+
+	/**
+	 * Command executed to start exiftool process.
+	 */
+	private static final List<String> WARM_UP = asList("-ver", "-execute");
+
 	/**
 	 * Command Executor.
 	 * This withExecutor will be used to execute exiftool process and commands.
@@ -314,21 +377,75 @@ public class ExifTool implements AutoCloseable {
 	 */
 	private final ExecutionStrategy strategy;
 
+	/**
+	 * If {@code true}, tags read when querying all tags are mapped to {@link StandardTag}
+	 * constants when possible (see {@link AllTagHandler}).
+	 */
+	private final boolean standardTags;
+
+	/**
+	 * If {@code true}, values frequently repeated across files are deduplicated when
+	 * querying all tags (see {@link AllTagHandler}).
+	 */
+	private final boolean deduplicateValues;
+
+	/**
+	 * Cache of metadata, {@code null} if metadata are not cached.
+	 */
+	private final MetadataCache metadataCache;
+
+	/**
+	 * Dispatcher of asynchronous requests.
+	 */
+	private final AsyncDispatcher dispatcher;
+
+	/**
+	 * Default timeout of commands in nanoseconds, commands do not have a deadline if it is zero.
+	 */
+	private final long commandTimeout;
+
+	/**
+	 * Priority of commands, see {@link Priority}.
+	 */
+	private final Priority priority;
+
+	/**
+	 * Listener notified around each command, {@code null} if commands are not traced.
+	 */
+	private final ExecutionListener listener;
+
+	/**
+	 * Future completed once exiftool processes have been started, see {@link #prewarm(boolean)}.
+	 */
+	private volatile Future<Void> readiness;
+
+	/**
+	 * Management beans registered for this instance, see {@link #registerMBeans(String)}.
+	 */
+	private volatile List<ObjectName> mbeans;
+
 	/**
 	 * Create new ExifTool instance.
 	 * When exiftool is created, it will try to activate some features.
 	 * If feature is not available on this specific exiftool version, then
 	 * an it an {@link UnsupportedFeatureException} will be thrown.
 	 *
-	 * @param path ExifTool withPath.
-	 * @param executor Executor used to handle command line.
-	 * @param strategy Execution strategy.
+	 * @param settings Settings resolved by {@link ExifToolBuilder}.
 	 */
-	ExifTool(String path, CommandExecutor executor, ExecutionStrategy strategy) {
-		this.executor = notNull(executor, "Executor should not be null");
-		this.path = notBlank(path, "ExifTool path should not be null");
-		this.strategy = notNull(strategy, "Execution strategy should not be null");
+	ExifTool(ExifToolBuilder.Settings settings) {
+		this.priority = notNull(settings.priority, "Priority should not be null");
+		this.listener = settings.listener;
+		this.commandTimeout = TimeUnit.MILLISECONDS.toNanos(settings.commandTimeout);
+		this.standardTags = settings.standardTags;
+		this.deduplicateValues = settings.deduplicateValues;
+		this.metadataCache = settings.metadataCache;
+		this.dispatcher = notNull(settings.dispatcher, "Dispatcher should not be null");
+		this.executor = notNull(settings.executor, "Executor should not be null");
+		this.path = notBlank(settings.path, "ExifTool path should not be null");
+		this.strategy = notNull(settings.strategy, "Execution strategy should not be null");
 		this.version = cache.load(path, executor);
+		this.readiness = ready();
+		this.mbeans = emptyList();
 
 		// Check if this instance may be used safely.
 		if (!strategy.isSupported(version)) {
@@ -336,6 +453,28 @@ public class ExifTool implements AutoCloseable {
 		}
 	}
 
+	/**
+	 * Create a view of an ExifTool instance, running commands with another priority.
+	 *
+	 * @param exifTool The instance.
+	 * @param priority Priority of commands.
+	 */
+	private ExifTool(ExifTool exifTool, Priority priority) {
+		this.priority = priority;
+		this.listener = exifTool.listener;
+		this.commandTimeout = exifTool.commandTimeout;
+		this.standardTags = exifTool.standardTags;
+		this.deduplicateValues = exifTool.deduplicateValues;
+		this.metadataCache = exifTool.metadataCache;
+		this.dispatcher = exifTool.dispatcher;
+		this.executor = exifTool.executor;
+		this.path = exifTool.path;
+		this.strategy = exifTool.strategy;
+		this.version = exifTool.version;
+		this.readiness = exifTool.readiness;
+		this.mbeans = exifTool.mbeans;
+	}
+
 	/**
 	 * This method should be used to clean previous execution.
 	 *
@@ -347,7 +486,14 @@ public class ExifTool implements AutoCloseable {
 	 */
 	@Override
 	public void close() throws Exception {
-		strategy.shutdown();
+		unregisterMBeans();
+
+		try {
+			dispatcher.shutdown();
+		}
+		finally {
+			strategy.shutdown();
+		}
 	}
 
 	/**
@@ -390,6 +536,66 @@ public class ExifTool implements AutoCloseable {
 		return version;
 	}
 
+	/**
+	 * Get a future completed once exiftool processes have been started.
+	 *
+	 * <br>
+	 *
+	 * If prewarming has been enabled with {@link ExifToolBuilder#enablePrewarm(boolean)} and
+	 * processes are started in background, the future is done once all processes are
+	 * ready: this can be used to report the application as ready only once commands will not pay
+	 * for exiftool startup.
+	 * Otherwise, the future is already done.
+	 *
+	 * @return The readiness future, failed if a process could not be started.
+	 */
+	public Future<Void> getReadiness() {
+		return readiness;
+	}
+
+	/**
+	 * Get the priority of commands run by this instance.
+	 *
+	 * @return The priority.
+	 */
+	public Priority getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Get an instance running commands with given priority: returned instance shares
+	 * the processes, the metadata cache and the asynchronous dispatcher of this
+	 * instance, so it can be used for a single call:
+	 *
+	 * <pre><code>
+	 *   exifTool.withPriority(Priority.HIGH).getImageMeta(image, format, tags);
+	 * </code></pre>
+	 *
+	 * Priorities are only used by a pool configured with a priority policy (see
+	 * {@link ExifToolBuilder#withPriorityPolicy}).
+	 *
+	 * <br>
+	 *
+	 * <strong>NOTE: Closing the returned instance closes the processes of this instance.</strong>
+	 *
+	 * @param priority Priority of commands.
+	 * @return ExifTool instance with given priority, this instance if priority is the same.
+	 * @throws NullPointerException If {@code priority} is {@code null}.
+	 */
+	public ExifTool withPriority(Priority priority) {
+		notNull(priority, "Priority should not be null");
+		return priority == this.priority ? this : new ExifTool(this, priority);
+	}
+
+	/**
+	 * Get cache of metadata, used to get statistics or invalidate entries.
+	 *
+	 * @return The cache, {@code null} if metadata are not cached.
+	 */
+	public MetadataCache getMetadataCache() {
+		return metadataCache;
+	}
+
 	/**
 	 * Parse image metadata for all tags.
 	 * Output format is numeric.
@@ -420,7 +626,8 @@ public class ExifTool implements AutoCloseable {
 
 		log.debug("Querying all tags from image: {}", image);
 
-		return getImageMeta(image, format, singleton(new UnspecifiedTag("All")), new AllTagHandler());
+		TagHandler tagHandler = isJson(format) ? new JsonTagHandler() : new AllTagHandler(standardTags, deduplicateValues);
+		return getImageMeta(image, format, singleton(new UnspecifiedTag("All")), tagHandler, commandTimeout);
 	}
 
 	/**
@@ -459,26 +666,189 @@ public class ExifTool implements AutoCloseable {
 
 		// Create a result map big enough to hold results for each of the tags
 		// and avoid collisions while inserting.
-		StandardTagHandler tagHandler = new StandardTagHandler(tags);
+		TagHandler tagHandler = isJson(format) ? new JsonTagHandler(tags) : new StandardTagHandler(tags);
 
-		return getImageMeta(image, format, tags, tagHandler);
+		return getImageMeta(image, format, tags, tagHandler, commandTimeout);
 	}
 
-	private Map<Tag, String> getImageMeta(File image, Format format, Collection<? extends Tag> tags, TagHandler tagHandler) throws IOException {
+	/**
+	 * Parse image metadata, with a deadline.
+	 *
+	 * <br>
+	 *
+	 * If the command is not completed in time, a {@link CommandTimeoutException} is thrown: with
+	 * {@code stay_open} feature, the exiftool process running the command is destroyed and replaced.
+	 * Time spent waiting for an available process is included in the timeout.
+	 *
+	 * @param image Image.
+	 * @param format Output format.
+	 * @param tags List of tags to extract.
+	 * @param timeout Maximum time to wait for the command.
+	 * @param unit Unit of {@code timeout}.
+	 * @return Pair of tag associated with the value.
+	 * @throws CommandTimeoutException If command is not completed in time.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty, or if timeout is not strictly positive.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If image cannot be read.
+	 */
+	public Map<Tag, String> getImageMeta(File image, Format format, Collection<? extends Tag> tags, long timeout, TimeUnit unit) throws IOException {
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+		isPositive(timeout, "Timeout must be positive");
+		notNull(unit, "Time unit should not be null");
+
+		log.debug("Querying {} tags from image: {}", tags.size(), image);
+
+		TagHandler tagHandler = isJson(format) ? new JsonTagHandler(tags) : new StandardTagHandler(tags);
+		return getImageMeta(image, format, tags, tagHandler, unit.toNanos(timeout));
+	}
+
+	/**
+	 * Parse metadata of several images using a single exiftool command.
+	 *
+	 * <br>
+	 *
+	 * Images are processed with one exiftool invocation (or with one {@code -execute}
+	 * block if {@code stay_open} feature is enabled), instead of one command per image.
+	 *
+	 * <br>
+	 *
+	 * A failure on one image does not abort the whole batch: each image gets its own
+	 * {@link ImageMetaResult}, and the error (unreadable file, unknown file type, etc.)
+	 * is available on failed results.
+	 *
+	 * @param images Images.
+	 * @param format Output format.
+	 * @param tags List of tags to extract.
+	 * @return Results, indexed by image, in the same order than given images.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of images or list of tag is empty.
+	 */
+	public Map<File, ImageMetaResult> getImageMeta(Collection<File> images, Format format, Collection<? extends Tag> tags) throws IOException {
+		notEmpty(images, "Images cannot be null and must contain 1 or more image to query.");
+		notNull(format, "Format cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+
+		log.debug("Querying {} tags from {} images", tags.size(), images.size());
+
+		// Unreadable images are reported as failures, without being sent to exiftool.
+		Map<File, ImageMetaResult> failures = new HashMap<>();
+		List<File> readable = new ArrayList<>(images.size());
+		for (File image : images) {
+			notNull(image, "Image cannot be null and must be a valid stream of image data.");
+			if (image.exists() && image.canRead()) {
+				readable.add(image);
+			}
+			else {
+				failures.put(image, ImageMetaResult.failure(image, "Unable to read the given image, ensure that the image exists and that the executing Java process has permissions to read it."));
+			}
+		}
+
+		Map<File, ImageMetaResult> results = new LinkedHashMap<>();
+		if (!readable.isEmpty()) {
+			BatchTagHandler handler = new BatchTagHandler(readable, tags, isJson(format));
+			File argFile = null;
+
+			try {
+				// Very long list of images may not fit on the command line, use an argument file instead.
+				if (pathsLength(readable) > MAX_PATHS_LENGTH) {
+					argFile = createArgFile(readable);
+				}
+
+				List<String> args = getImageMetaArguments(format, readable, argFile, tags);
+				execute(args, handler, commandTimeout, readable, false);
+			}
+			finally {
+				if (argFile != null && !argFile.delete()) {
+					log.warn("Unable to delete argument file: {}", argFile);
+				}
+			}
+
+			results.putAll(handler.getResults());
+			for (String warning : handler.getWarnings()) {
+				log.warn("exiftool: {}", warning);
+			}
+		}
+
+		// Keep the order of given images.
+		Map<File, ImageMetaResult> ordered = new LinkedHashMap<>();
+		for (File image : images) {
+			ImageMetaResult result = failures.get(image);
+			ordered.put(image, result == null ? results.get(image) : result);
+		}
+
+		log.debug("Images Meta Processed [queried {} images, {} failures]", images.size(), failures.size());
+
+		return unmodifiableMap(ordered);
+	}
+
+	/**
+	 * Parse image metadata for given standard tags, and get values parsed to their
+	 * native type.
+	 *
+	 * <br>
+	 *
+	 * Numeric values are parsed once and can be read without boxing with
+	 * {@link StandardTagValues#getInt(StandardTag)}, {@link StandardTagValues#getLong(StandardTag)}
+	 * or {@link StandardTagValues#getDouble(StandardTag)}. If {@code format} is a JSON format,
+	 * numbers decoded from exiftool output are used as is.
+	 *
+	 * @param image Image.
+	 * @param format Output format.
+	 * @param tags List of tags to extract.
+	 * @return Values of tags found in the image.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If image cannot be read.
+	 */
+	public StandardTagValues getImageValues(File image, Format format, Collection<StandardTag> tags) throws IOException {
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+
+		log.debug("Querying {} tags from image: {}", tags.size(), image);
+
+		if (isJson(format)) {
+			JsonTagHandler tagHandler = new JsonTagHandler(tags);
+			Map<Tag, String> meta = getImageMeta(image, format, tags, tagHandler, commandTimeout);
+
+			// Decoded values are not available if metadata have been read from the cache.
+			return StandardTagValues.of(tagHandler.size() == 0 ? meta : tagHandler.getValues());
+		}
+
+		return StandardTagValues.of(getImageMeta(image, format, tags, new StandardTagHandler(tags), commandTimeout));
+	}
+
+	private Map<Tag, String> getImageMeta(File image, Format format, Collection<? extends Tag> tags, TagHandler tagHandler, long timeout) throws IOException {
 		notNull(image, "Image cannot be null and must be a valid stream of image data.");
 		notNull(format, "Format cannot be null.");
 		isReadable(image, "Unable to read the given image [%s], ensure that the image exists at the given withPath and that the executing Java process has permissions to read it.", image);
 
+		// Use cached metadata if the image has not been modified since it has been read.
+		MetadataCacheKey key = metadataCache == null ? null : MetadataCacheKey.of(image, format, tags);
+		if (key != null) {
+			Map<Tag, String> cached = metadataCache.get(key);
+			if (cached != null) {
+				log.debug("Image Meta found in cache [found {} values]", cached.size());
+				return cached;
+			}
+		}
+
 		// Build list of exiftool arguments.
 		List<String> args = getImageMetaArguments(format, image, tags);
 
 		// Execute ExifTool command
-		strategy.execute(executor, path, args, tagHandler);
+		execute(args, tagHandler, timeout, singletonList(image), false);
 
 		// Add some debugging log
 		log.debug("Image Meta Processed [queried {}, found {} values]", tagHandler.size(), tagHandler.size());
 
-		return tagHandler.getTags();
+		Map<Tag, String> results = tagHandler.getTags();
+		if (key != null) {
+			metadataCache.put(key, results);
+		}
+
+		return results;
 	}
 
 	/**
@@ -502,6 +872,34 @@ public class ExifTool implements AutoCloseable {
 	 * @throws IOException If an error occurs during write operation.
 	 */
 	public void setImageMeta(File image, Format format, Map<? extends Tag, String> tags) throws IOException {
+		setImageMeta(image, format, tags, commandTimeout);
+	}
+
+	/**
+	 * Write image metadata in a specific format, with a deadline.
+	 *
+	 * <br>
+	 *
+	 * If the command is not completed in time, a {@link CommandTimeoutException} is thrown: with
+	 * {@code stay_open} feature, the exiftool process running the command is destroyed and replaced.
+	 * Image may have been partially written.
+	 *
+	 * @param image Image.
+	 * @param format Specified format.
+	 * @param tags Tags to write.
+	 * @param timeout Maximum time to wait for the command.
+	 * @param unit Unit of {@code timeout}.
+	 * @throws CommandTimeoutException If command is not completed in time.
+	 * @throws IOException If an error occurs during write operation.
+	 * @throws IllegalArgumentException If timeout is not strictly positive.
+	 */
+	public void setImageMeta(File image, Format format, Map<? extends Tag, String> tags, long timeout, TimeUnit unit) throws IOException {
+		isPositive(timeout, "Timeout must be positive");
+		notNull(unit, "Time unit should not be null");
+		setImageMeta(image, format, tags, unit.toNanos(timeout));
+	}
+
+	private void setImageMeta(File image, Format format, Map<? extends Tag, String> tags, long timeout) throws IOException {
 		notNull(image, "Image cannot be null and must be a valid stream of image data.");
 		notNull(format, "Format cannot be null.");
 		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
@@ -515,11 +913,290 @@ public class ExifTool implements AutoCloseable {
 		List<String> args = setImageMetaArguments(format, image, tags);
 
 		// Execute ExifTool command
-		strategy.execute(executor, path, args, stopHandler());
+		try {
+			execute(args, stopHandler(), timeout, singletonList(image), true);
+		}
+		finally {
+			// Cached metadata of this image are now outdated.
+			if (metadataCache != null) {
+				metadataCache.invalidate(image);
+			}
+		}
 
 		log.debug("Image Meta Processed in {} ms [write {} tags]", System.currentTimeMillis() - startTime, tags.size());
 	}
 
+	/**
+	 * Parse image metadata for all tags, asynchronously.
+	 * Output format is numeric.
+	 *
+	 * @param image Image.
+	 * @return Future pair of tag associated with the value.
+	 * @throws NullPointerException If image is null.
+	 * @throws java.util.concurrent.RejectedExecutionException If too many requests are pending, or if this instance has been closed.
+	 * @see #getImageMetaAsync(File, Format, Collection)
+	 */
+	public Future<Map<Tag, String>> getImageMetaAsync(File image) {
+		return getImageMetaAsync(image, StandardFormat.NUMERIC);
+	}
+
+	/**
+	 * Parse image metadata for all tags, asynchronously.
+	 *
+	 * @param image Image.
+	 * @param format Output format.
+	 * @return Future pair of tag associated with the value.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws java.util.concurrent.RejectedExecutionException If too many requests are pending, or if this instance has been closed.
+	 * @see #getImageMetaAsync(File, Format, Collection)
+	 */
+	public Future<Map<Tag, String>> getImageMetaAsync(final File image, final Format format) {
+		notNull(image, "Image cannot be null and must be a valid stream of image data.");
+		notNull(format, "Format cannot be null.");
+
+		return dispatcher.submit(new Callable<Map<Tag, String>>() {
+			@Override
+			public Map<Tag, String> call() throws Exception {
+				return getImageMeta(image, format);
+			}
+		});
+	}
+
+	/**
+	 * Parse image metadata, asynchronously: request is run by a bounded pool of threads
+	 * (see {@link ExifToolBuilder#withAsyncDispatcher(int, int)}), and waits in a bounded
+	 * queue until a thread is available.
+	 *
+	 * <br>
+	 *
+	 * Cancelling the returned future removes the request from the queue if it has not been
+	 * started yet, and its command is not written if the request is still waiting for an exiftool
+	 * process. Otherwise, the exiftool process running the command is destroyed (a new daemon will
+	 * be started by the next request), except with {@link ExifToolBuilder#enablePipelining()}: the
+	 * daemon is shared with other requests, so the command is dropped and its output is skipped.
+	 *
+	 * @param image Image.
+	 * @param format Output format.
+	 * @param tags List of tags to extract.
+	 * @return Future pair of tag associated with the value.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws java.util.concurrent.RejectedExecutionException If too many requests are pending, or if this instance has been closed.
+	 */
+	public Future<Map<Tag, String>> getImageMetaAsync(final File image, final Format format, final Collection<? extends Tag> tags) {
+		notNull(image, "Image cannot be null and must be a valid stream of image data.");
+		notNull(format, "Format cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+
+		return dispatcher.submit(new Callable<Map<Tag, String>>() {
+			@Override
+			public Map<Tag, String> call() throws Exception {
+				return getImageMeta(image, format, tags);
+			}
+		});
+	}
+
+	/**
+	 * Write image metadata, asynchronously.
+	 * Default format is numeric.
+	 *
+	 * @param image Image.
+	 * @param tags Tags to write.
+	 * @return Future completed once metadata have been written.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws java.util.concurrent.RejectedExecutionException If too many requests are pending, or if this instance has been closed.
+	 * @see #setImageMetaAsync(File, Format, Map)
+	 */
+	public Future<Void> setImageMetaAsync(File image, Map<? extends Tag, String> tags) {
+		return setImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+	}
+
+	/**
+	 * Write image metadata in a specific format, asynchronously.
+	 *
+	 * <br>
+	 *
+	 * Cancellation of the returned future follows the same rules than
+	 * {@link #getImageMetaAsync(File, Format, Collection)}: note that metadata may
+	 * have been partially written if the request is cancelled while it is running.
+	 *
+	 * @param image Image.
+	 * @param format Specified format.
+	 * @param tags Tags to write.
+	 * @return Future completed once metadata have been written.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws java.util.concurrent.RejectedExecutionException If too many requests are pending, or if this instance has been closed.
+	 */
+	public Future<Void> setImageMetaAsync(final File image, final Format format, final Map<? extends Tag, String> tags) {
+		notNull(image, "Image cannot be null and must be a valid stream of image data.");
+		notNull(format, "Format cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+
+		return dispatcher.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				setImageMeta(image, format, tags);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Register pools used by this instance in the platform JMX server.
+	 * A pool that cannot be registered is logged and ignored.
+	 *
+	 * @param name Name of the instance.
+	 */
+	void registerMBeans(String name) {
+		Map<String, PoolStrategy> pools = new LinkedHashMap<>();
+		if (strategy instanceof PoolStrategy) {
+			pools.put("", (PoolStrategy) strategy);
+		}
+		else if (strategy instanceof RoutingStrategy) {
+			RoutingStrategy routing = (RoutingStrategy) strategy;
+			List<RoutingStrategy.Route> routes = routing.getRoutes();
+			for (int i = 0; i < routes.size(); i++) {
+				if (routes.get(i).getStrategy() instanceof PoolStrategy) {
+					pools.put(",route=" + i, (PoolStrategy) routes.get(i).getStrategy());
+				}
+			}
+
+			if (routing.getDefaultStrategy() instanceof PoolStrategy) {
+				pools.put(",route=default", (PoolStrategy) routing.getDefaultStrategy());
+			}
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		List<ObjectName> names = new ArrayList<>(pools.size());
+		for (Map.Entry<String, PoolStrategy> entry : pools.entrySet()) {
+			try {
+				ObjectName objectName = new ObjectName("com.thebuzzmedia.exiftool:type=PoolStrategy,name=" + ObjectName.quote(name) + entry.getKey());
+				server.registerMBean(entry.getValue(), objectName);
+				names.add(objectName);
+				log.debug("Pool registered in JMX server: {}", objectName);
+			}
+			catch (JMException ex) {
+				log.warn("Cannot register pool in JMX server: {}", ex.getMessage());
+			}
+		}
+
+		this.mbeans = names;
+	}
+
+	/**
+	 * Unregister management beans of this instance.
+	 */
+	private void unregisterMBeans() {
+		List<ObjectName> names = mbeans;
+		if (names.isEmpty()) {
+			return;
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName objectName : names) {
+			try {
+				server.unregisterMBean(objectName);
+			}
+			catch (JMException ex) {
+				log.debug("Cannot unregister {} from JMX server: {}", objectName, ex.getMessage());
+			}
+		}
+
+		this.mbeans = emptyList();
+	}
+
+	/**
+	 * Start exiftool processes: with a pool, processes of all available strategies
+	 * are started in parallel.
+	 *
+	 * @param background Start processes in a background thread, or wait for all processes to be started.
+	 */
+	void prewarm(boolean background) {
+		FutureTask<Void> task = new FutureTask<>(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				log.debug("Prewarm exiftool processes");
+				if (strategy instanceof PoolStrategy) {
+					((PoolStrategy) strategy).prewarm(executor, path);
+				}
+				else if (strategy instanceof RoutingStrategy) {
+					((RoutingStrategy) strategy).prewarm(executor, path);
+				}
+				else {
+					strategy.execute(executor, path, WARM_UP, stopHandler());
+				}
+
+				log.debug("ExifTool processes are ready");
+				return null;
+			}
+		});
+
+		this.readiness = task;
+
+		if (background) {
+			Thread thread = new Thread(task, "exiftool-prewarm");
+			thread.setDaemon(true);
+			thread.start();
+			return;
+		}
+
+		task.run();
+		try {
+			task.get();
+		}
+		catch (ExecutionException ex) {
+			log.warn("ExifTool processes cannot be started, they will be started by first commands", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			log.warn(ex.getMessage());
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Execute exiftool command with the execution strategy, with a deadline.
+	 *
+	 * @param args Command arguments.
+	 * @param handler Output handler.
+	 * @param timeout Timeout in nanoseconds, command does not have a deadline if it is zero.
+	 * @param files Files processed by the command.
+	 * @param write {@code true} if command writes metadata, {@code false} if it only reads metadata.
+	 * @throws IOException If an error occurs during execution.
+	 */
+	private void execute(List<String> args, OutputHandler handler, long timeout, List<File> files, boolean write) throws IOException {
+		long start = System.nanoTime();
+		OutputHandler request = RequestHandler.wrap(handler, timeout, priority, files, write, listener != null);
+		ExecutionEvent.Outcome outcome = ExecutionEvent.Outcome.FAILURE;
+		Exception failure = null;
+
+		if (listener != null) {
+			listener.onStart(((RequestHandler) request).toEvent(args.size(), null, null));
+		}
+
+		try {
+			strategy.execute(executor, path, args, AsyncDispatcher.decorate(request));
+			outcome = ExecutionEvent.Outcome.SUCCESS;
+		}
+		catch (CommandTimeoutException ex) {
+			metrics.commandTimedOut();
+			outcome = ExecutionEvent.Outcome.TIMEOUT;
+			failure = ex;
+			throw ex;
+		}
+		catch (IOException | RuntimeException ex) {
+			failure = ex;
+			throw ex;
+		}
+		finally {
+			metrics.commandCompleted(System.nanoTime() - start, outcome == ExecutionEvent.Outcome.SUCCESS);
+			if (listener != null) {
+				listener.onComplete(((RequestHandler) request).toEvent(args.size(), outcome, failure));
+			}
+		}
+	}
+
 	/**
 	 * Build argument list to parse image metadata using exiftool command
 	 * line.
@@ -532,7 +1209,7 @@ public class ExifTool implements AutoCloseable {
 	private List<String> getImageMetaArguments(Format format, File image, Collection<? extends Tag> tags) {
 		// Create list of arguments: deduce expected number of arguments.
 		List<String> formatArgs = format.getArgs();
-		int nbArgs = tags.size() + formatArgs.size() + 3;
+		int nbArgs = tags.size() + formatArgs.size() + 5;
 		List<String> args = new ArrayList<>(nbArgs);
 
 		// Format output.
@@ -549,11 +1226,142 @@ public class ExifTool implements AutoCloseable {
 		// Add image argument.
 		args.add(image.getAbsolutePath());
 
-		// Add last argument.
+		// Add last arguments.
+		addExecute(args);
+
+		return args;
+	}
+
+	/**
+	 * Build argument list to parse metadata of several images using exiftool command
+	 * line.
+	 *
+	 * @param format Output format.
+	 * @param images Images.
+	 * @param argFile Argument file containing images path, {@code null} to give images on the command line.
+	 * @param tags List of tags.
+	 * @return List of associated arguments.
+	 */
+	private List<String> getImageMetaArguments(Format format, List<File> images, File argFile, Collection<? extends Tag> tags) {
+		List<String> formatArgs = format.getArgs();
+		int nbImages = argFile == null ? images.size() : 2;
+		int nbArgs = tags.size() + formatArgs.size() + nbImages + 5;
+		List<String> args = new ArrayList<>(nbArgs);
+
+		// Format output.
+		args.addAll(formatArgs);
+
+		// Compact output.
+		args.add("-S");
+
+		// Add tags arguments.
+		for (Tag tag : tags) {
+			args.add("-" + tag.getName());
+		}
+
+		// Error tag is used to detect images that cannot be read.
+		args.add("-Error");
+
+		// Add images arguments.
+		if (argFile == null) {
+			for (File image : images) {
+				args.add(image.getAbsolutePath());
+			}
+		}
+		else {
+			args.add("-@");
+			args.add(argFile.getAbsolutePath());
+		}
+
+		// Add last arguments.
+		addExecute(args);
+
+		return args;
+	}
+
+	/**
+	 * Add last arguments of a command.
+	 *
+	 * @param args Command arguments.
+	 */
+	private void addExecute(List<String> args) {
+		// Error output of the command is followed by a marker, so that error lines
+		// can be read and attributed to this command.
+		if (V10_16.compareTo(version) <= 0) {
+			args.add("-echo4");
+			args.add(Constants.ERROR_MARKER);
+		}
+
 		// This argument will only be used by exiftool if stay_open flag has been set.
 		args.add("-execute");
+	}
 
-		return args;
+	/**
+	 * Create a future that is already done.
+	 *
+	 * @return The future.
+	 */
+	private static Future<Void> ready() {
+		FutureTask<Void> task = new FutureTask<>(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}, null);
+
+		task.run();
+		return task;
+	}
+
+	/**
+	 * Check if given format prints output in JSON format (i.e with the {@code -j} option).
+	 *
+	 * @param format Output format.
+	 * @return {@code true} if output is printed in JSON format, {@code false} otherwise.
+	 */
+	private static boolean isJson(Format format) {
+		return format != null && format.getArgs().contains("-j");
+	}
+
+	/**
+	 * Compute the total length of images path.
+	 *
+	 * @param images Images.
+	 * @return Total length.
+	 */
+	private static long pathsLength(List<File> images) {
+		long length = 0;
+		for (File image : images) {
+			length += image.getAbsolutePath().length() + 1;
+		}
+
+		return length;
+	}
+
+	/**
+	 * Create an exiftool argument file (see {@code -@} option) containing
+	 * one image path per line.
+	 *
+	 * @param images Images.
+	 * @return The argument file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	private static File createArgFile(List<File> images) throws IOException {
+		File argFile = File.createTempFile("exiftool", ".args");
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(argFile), UTF_8)) {
+			for (File image : images) {
+				writer.write(image.getAbsolutePath());
+				writer.write('\n');
+			}
+		}
+		catch (IOException ex) {
+			if (!argFile.delete()) {
+				log.warn("Unable to delete argument file: {}", argFile);
+			}
+
+			throw ex;
+		}
+
+		return argFile;
 	}
 
 	/**
@@ -567,7 +1375,7 @@ public class ExifTool implements AutoCloseable {
 	 */
 	private List<String> setImageMetaArguments(Format format, File image, Map<? extends Tag, String> tags) {
 		List<String> formatArgs = format.getArgs();
-		int nbArgs = tags.size() + formatArgs.size() + 3;
+		int nbArgs = tags.size() + formatArgs.size() + 5;
 		List<String> args = new ArrayList<>(nbArgs);
 
 		// Format output.
@@ -584,9 +1392,8 @@ public class ExifTool implements AutoCloseable {
 		// Add image argument.
 		args.add(image.getAbsolutePath());
 
-		// Add last argument.
-		// This argument will only be used by exiftool if stay_open flag has been set.
-		args.add("-execute");
+		// Add last arguments.
+		addExecute(args);
 
 		return args;
 	}
@@ -17,10 +17,16 @@
 
 package com.thebuzzmedia.exiftool;
 
-import com.thebuzzmedia.exiftool.core.schedulers.DefaultScheduler;
+import com.thebuzzmedia.exiftool.core.cache.MetadataCacheFactory;
+import com.thebuzzmedia.exiftool.core.schedulers.IdleScheduler;
 import com.thebuzzmedia.exiftool.core.schedulers.NoOpScheduler;
+import com.thebuzzmedia.exiftool.core.strategies.AdmissionPolicy;
 import com.thebuzzmedia.exiftool.core.strategies.DefaultStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.ExecutionStrategyFactory;
+import com.thebuzzmedia.exiftool.core.strategies.PipelinedStayOpenStrategy;
 import com.thebuzzmedia.exiftool.core.strategies.PoolStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.PriorityPolicy;
+import com.thebuzzmedia.exiftool.core.strategies.RecyclePolicy;
 import com.thebuzzmedia.exiftool.core.strategies.StayOpenStrategy;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
@@ -30,7 +36,12 @@ import com.thebuzzmedia.exiftool.process.executor.CommandExecutors;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notBlank;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
 import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.millis;
 import static com.thebuzzmedia.exiftool.process.executor.CommandExecutors.newExecutor;
 
@@ -163,6 +174,11 @@ public class ExifToolBuilder {
 	 */
 	private Boolean stayOpen;
 
+	/**
+	 * Check if commands sent to the {@code stay_open} process should be pipelined.
+	 */
+	private Boolean pipelining;
+
 	/**
 	 * Cleanup Delay.
 	 */
@@ -183,6 +199,96 @@ public class ExifToolBuilder {
 	 */
 	private int poolSize;
 
+	/**
+	 * Maximum pool size of an elastic pool, zero if pool size is fixed.
+	 */
+	private int poolMaxSize;
+
+	/**
+	 * Time to wait for an available strategy before an elastic pool grows (in milliseconds).
+	 */
+	private long poolGrowThreshold;
+
+	/**
+	 * Time after which an unused strategy is removed from an elastic pool (in milliseconds).
+	 */
+	private long poolIdleTimeout;
+
+	/**
+	 * Default timeout of commands (in milliseconds).
+	 */
+	private long commandTimeout;
+
+	/**
+	 * Policy used to retire {@code stay_open} processes.
+	 */
+	private RecyclePolicy recyclePolicy;
+
+	/**
+	 * Policy applied to commands waiting for an available strategy of a pool.
+	 */
+	private AdmissionPolicy admissionPolicy;
+
+	/**
+	 * Policy ordering commands waiting for an available strategy of a pool.
+	 */
+	private PriorityPolicy priorityPolicy;
+
+	/**
+	 * Priority of commands.
+	 */
+	private Priority priority;
+
+	/**
+	 * Start exiftool processes when instance is built.
+	 */
+	private boolean prewarm;
+
+	/**
+	 * Start exiftool processes in background, instead of waiting for them during build.
+	 */
+	private boolean prewarmInBackground;
+
+	/**
+	 * Name used to register management beans, {@code null} if they are not registered.
+	 */
+	private String jmxName;
+
+	/**
+	 * Listeners notified around each command.
+	 */
+	private final List<ExecutionListener> listeners = new ArrayList<>();
+
+	/**
+	 * Map tags to standard tags when querying all tags.
+	 */
+	private boolean standardTags;
+
+	/**
+	 * Deduplicate values frequently repeated across files when querying all tags.
+	 */
+	private boolean deduplicateValues;
+
+	/**
+	 * Cache of metadata.
+	 */
+	private MetadataCache metadataCache;
+
+	/**
+	 * Maximum number of threads running asynchronous requests.
+	 */
+	private int asyncThreads;
+
+	/**
+	 * Maximum number of pending asynchronous requests.
+	 */
+	private int asyncQueueSize;
+
+	/**
+	 * Executor running asynchronous requests, if given by the caller.
+	 */
+	private Executor asyncExecutor;
+
 	public ExifToolBuilder() {
 	}
 
@@ -321,6 +427,28 @@ public class ExifToolBuilder {
 		return this;
 	}
 
+	/**
+	 * Enable {@code stay_open} feature, and pipeline commands sent to the {@code exiftool}
+	 * process: several threads may write their command to the same process without
+	 * waiting for the output of previous commands (see {@link PipelinedStayOpenStrategy}).
+	 *
+	 * <strong>Note:</strong> This setting is ignored if {@link #withStrategy} or
+	 * {@link #withPoolSize} is called.
+	 *
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder enablePipelining() {
+		log.debug("Enable 'stay_open' feature with pipelining");
+
+		if (strategy != null) {
+			log.warn("A custom strategy is defined, enabling 'stay_open' feature will be ignored");
+		}
+
+		this.stayOpen = true;
+		this.pipelining = true;
+		return this;
+	}
+
 	/**
 	 * Override default execution strategy.
 	 *
@@ -359,6 +487,7 @@ public class ExifToolBuilder {
 
 		if (poolSize > 0) {
 			this.poolSize = poolSize;
+			this.poolMaxSize = 0;
 			this.cleanupDelay = cleanupDelay;
 		}
 		else {
@@ -384,6 +513,7 @@ public class ExifToolBuilder {
 
 		if (poolSize > 0) {
 			this.poolSize = poolSize;
+			this.poolMaxSize = 0;
 			this.cleanupDelay = 0L;
 		}
 		else {
@@ -393,15 +523,376 @@ public class ExifToolBuilder {
 		return this;
 	}
 
+	/**
+	 * Override default execution strategy with an elastic pool of {@link StayOpenStrategy}:
+	 *
+	 * <ul>
+	 *   <li>The pool starts with {@code minSize} strategies, and may grow up to {@code maxSize} strategies.</li>
+	 *   <li>
+	 *     A new strategy is created (and its exiftool process started in background) when a command waits
+	 *     for an available strategy longer than {@code growThreshold} milliseconds.
+	 *   </li>
+	 *   <li>
+	 *     Strategies that have not been used during {@code idleTimeout} milliseconds are closed, until
+	 *     the pool is back to its minimum size.
+	 *   </li>
+	 *   <li>No cleanup scheduler will be used by strategies of the pool.</li>
+	 * </ul>
+	 *
+	 * @param minSize Minimum pool size.
+	 * @param maxSize Maximum pool size.
+	 * @param growThreshold Time to wait for an available strategy before the pool grows, in milliseconds.
+	 * @param idleTimeout Time after which an unused strategy is removed from the pool, in milliseconds.
+	 * @return Current builder.
+	 * @throws IllegalArgumentException If a size or a delay is not strictly positive, or if {@code maxSize} is less than {@code minSize}.
+	 */
+	public ExifToolBuilder withPoolSize(int minSize, int maxSize, long growThreshold, long idleTimeout) {
+		log.debug("Overriding default strategy");
+
+		isPositive(minSize, "Pool minimum size must be positive");
+		isPositive(growThreshold, "Grow threshold must be positive");
+		isPositive(idleTimeout, "Idle timeout must be positive");
+		if (maxSize < minSize) {
+			throw new IllegalArgumentException("Pool maximum size must be greater than minimum size");
+		}
+
+		this.poolSize = minSize;
+		this.poolMaxSize = maxSize;
+		this.poolGrowThreshold = growThreshold;
+		this.poolIdleTimeout = idleTimeout;
+		this.cleanupDelay = 0L;
+		return this;
+	}
+
+	/**
+	 * Map names read when querying all tags (see {@link ExifTool#getImageMeta(File)}) to
+	 * {@link com.thebuzzmedia.exiftool.core.StandardTag} constants when possible, instead of
+	 * {@link com.thebuzzmedia.exiftool.core.UnspecifiedTag} instances: values of these tags can
+	 * then be parsed to their native type with {@link Tag#parse(String)}.
+	 *
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder enableStandardTags() {
+		log.debug("Enable standard tags");
+		this.standardTags = true;
+		return this;
+	}
+
+	/**
+	 * Deduplicate values read when querying all tags (see {@link ExifTool#getImageMeta(File)}) that
+	 * are frequently repeated across files (Make, Model, LensModel and FileType): identical values
+	 * share the same string instance, instead of allocating a new string for each file.
+	 * This is useful when metadata of many files are kept in memory.
+	 *
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder enableValueDeduplication() {
+		log.debug("Enable value deduplication");
+		this.deduplicateValues = true;
+		return this;
+	}
+
+	/**
+	 * Cache metadata read by exiftool: reading again the same tags of an image that has not
+	 * been modified (same size, same last modification date) does not run any exiftool command.
+	 * Entries of an image are invalidated when metadata are written with {@link ExifTool#setImageMeta}.
+	 *
+	 * <br>
+	 *
+	 * The cache implementation is chosen by {@link MetadataCacheFactory}: Guava is used
+	 * if it is available on the classpath.
+	 *
+	 * @param maximumSize Maximum number of entries.
+	 * @param expireAfterWrite Time to live of each entry, zero if entries never expire.
+	 * @param unit Unit of {@code expireAfterWrite}.
+	 * @return Current builder.
+	 * @throws IllegalArgumentException If {@code maximumSize} is not strictly positive.
+	 */
+	public ExifToolBuilder enableMetadataCache(long maximumSize, long expireAfterWrite, TimeUnit unit) {
+		return withMetadataCache(MetadataCacheFactory.newCache(maximumSize, expireAfterWrite, unit));
+	}
+
+	/**
+	 * Cache metadata read by exiftool in given cache (see {@link #enableMetadataCache(long, long, TimeUnit)}).
+	 *
+	 * @param metadataCache The cache.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withMetadataCache(MetadataCache metadataCache) {
+		log.debug("Enable metadata cache");
+		this.metadataCache = metadataCache;
+		return this;
+	}
+
+	/**
+	 * Set bounds of the dispatcher running asynchronous requests (see {@link ExifTool#getImageMetaAsync(File, Format, java.util.Collection)}):
+	 * <ul>
+	 *   <li>Requests are run by at most {@code threads} threads.</li>
+	 *   <li>
+	 *     At most {@code queueSize} requests may wait for a thread: once this limit is reached,
+	 *     new requests are rejected with a {@link java.util.concurrent.RejectedExecutionException}.
+	 *   </li>
+	 * </ul>
+	 *
+	 * If not set, the number of threads is the (maximum) pool size (see {@link #withPoolSize(int)}) or one
+	 * thread if pool is not enabled, and at most {@code 1000} requests may be pending.
+	 *
+	 * @param threads Maximum number of threads.
+	 * @param queueSize Maximum number of pending requests.
+	 * @return Current builder.
+	 * @throws IllegalArgumentException If {@code threads} or {@code queueSize} are not strictly positive.
+	 */
+	public ExifToolBuilder withAsyncDispatcher(int threads, int queueSize) {
+		log.debug("Set async dispatcher: {} threads, {} pending requests", threads, queueSize);
+		this.asyncThreads = isPositive(threads, "Number of threads must be positive");
+		this.asyncQueueSize = isPositive(queueSize, "Queue size must be positive");
+		this.asyncExecutor = null;
+		return this;
+	}
+
+	/**
+	 * Run asynchronous requests (see {@link ExifTool#getImageMetaAsync(File, Format, java.util.Collection)})
+	 * with given executor, for example an executor starting a virtual thread for each task: threads
+	 * waiting for an exiftool process are parked, they do not hold a monitor.
+	 *
+	 * <br>
+	 *
+	 * At most {@code maxPending} requests may be submitted and not yet completed: once this limit is
+	 * reached, new requests are rejected with a {@link java.util.concurrent.RejectedExecutionException}.
+	 * The executor is owned by the caller: it is not shutdown when exiftool is closed.
+	 *
+	 * @param executor The executor.
+	 * @param maxPending Maximum number of pending requests.
+	 * @return Current builder.
+	 * @throws NullPointerException If {@code executor} is {@code null}.
+	 * @throws IllegalArgumentException If {@code maxPending} is not strictly positive.
+	 */
+	public ExifToolBuilder withAsyncDispatcher(Executor executor, int maxPending) {
+		log.debug("Set async executor: {}, {} pending requests", executor, maxPending);
+		this.asyncExecutor = notNull(executor, "Executor should not be null");
+		this.asyncQueueSize = isPositive(maxPending, "Queue size must be positive");
+		this.asyncThreads = 0;
+		return this;
+	}
+
+	/**
+	 * Set the default timeout of commands: a command that is not completed in time fails with a
+	 * {@link com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException}. With {@code stay_open}
+	 * feature, the process running the command is destroyed and replaced, so that a process
+	 * hanging on a file does not block next commands.
+	 *
+	 * <br>
+	 *
+	 * Time spent waiting for an available process is included in the timeout. A specific
+	 * timeout may also be given to each command, see {@link ExifTool#getImageMeta(File, Format, java.util.Collection, long, TimeUnit)}.
+	 *
+	 * <br>
+	 *
+	 * Deadlines are enforced by all strategies created by this builder: without {@code stay_open}
+	 * feature, the one-shot process is destroyed by the {@link com.thebuzzmedia.exiftool.process.executor.DefaultCommandExecutor}
+	 * (a custom executor must enforce them itself). With pipelining, other commands queued on the destroyed
+	 * process fail as well.
+	 *
+	 * @param commandTimeout Timeout in milliseconds.
+	 * @return Current builder.
+	 * @throws IllegalArgumentException If {@code commandTimeout} is not strictly positive.
+	 */
+	public ExifToolBuilder withCommandTimeout(long commandTimeout) {
+		log.debug("Set command timeout: {}", commandTimeout);
+		this.commandTimeout = isPositive(commandTimeout, "Command timeout must be positive");
+		return this;
+	}
+
+	/**
+	 * Retire {@code stay_open} processes according to given policy: after a number of
+	 * commands, an amount of output or a memory threshold. A replacement process is started
+	 * in background before the old process is closed, so recycling does not add latency
+	 * to commands.
+	 *
+	 * <br>
+	 *
+	 * This policy is used by {@code stay_open} strategies created by this builder, including
+	 * strategies of a pool and pipelined strategies. It is ignored if {@code stay_open} feature
+	 * is not enabled, or if a custom strategy is defined.
+	 *
+	 * <br>
+	 *
+	 * <strong>Note:</strong> Memory threshold is only supported on Linux, where resident memory of
+	 * processes is read from {@code /proc}. On other platforms (such as macOS or Windows) it is ignored,
+	 * and a warning is logged the first time it is checked.
+	 *
+	 * @param recyclePolicy The policy.
+	 * @return Current builder.
+	 * @throws NullPointerException If {@code recyclePolicy} is {@code null}.
+	 */
+	public ExifToolBuilder withRecyclePolicy(RecyclePolicy recyclePolicy) {
+		log.debug("Set recycle policy: {}", recyclePolicy);
+		this.recyclePolicy = notNull(recyclePolicy, "Recycle policy should not be null");
+		return this;
+	}
+
+	/**
+	 * Bound the commands waiting for an available strategy of the pool: maximum number of
+	 * waiting commands and maximum waiting time. Rejected commands fail fast with a
+	 * {@link com.thebuzzmedia.exiftool.exceptions.PoolRejectedException}, or run with a one-shot
+	 * process, depending on the policy.
+	 *
+	 * <br>
+	 *
+	 * This policy is only used if pool is enabled (see {@link #withPoolSize(int)}) and no
+	 * custom strategy is defined.
+	 *
+	 * @param admissionPolicy The policy.
+	 * @return Current builder.
+	 * @throws NullPointerException If {@code admissionPolicy} is {@code null}.
+	 */
+	public ExifToolBuilder withAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+		log.debug("Set admission policy: {}", admissionPolicy);
+		this.admissionPolicy = notNull(admissionPolicy, "Admission policy should not be null");
+		return this;
+	}
+
+	/**
+	 * Order commands waiting for an available strategy of the pool by {@link Priority}, and
+	 * optionally reserve strategies for {@link Priority#HIGH} commands.
+	 *
+	 * <br>
+	 *
+	 * This policy is only used if pool is enabled (see {@link #withPoolSize(int)}) and no
+	 * custom strategy is defined. To share a pool between instances with different priorities,
+	 * use {@link ExifTool#withPriority(Priority)}.
+	 *
+	 * @param priorityPolicy The policy.
+	 * @return Current builder.
+	 * @throws NullPointerException If {@code priorityPolicy} is {@code null}.
+	 */
+	public ExifToolBuilder withPriorityPolicy(PriorityPolicy priorityPolicy) {
+		log.debug("Set priority policy: {}", priorityPolicy);
+		this.priorityPolicy = notNull(priorityPolicy, "Priority policy should not be null");
+		return this;
+	}
+
+	/**
+	 * Set the priority of commands run by the instance, default is {@link Priority#NORMAL}.
+	 * This is useful when the instance uses a pool shared with other instances (see {@link #withStrategy}).
+	 *
+	 * @param priority The priority.
+	 * @return Current builder.
+	 * @throws NullPointerException If {@code priority} is {@code null}.
+	 */
+	public ExifToolBuilder withPriority(Priority priority) {
+		log.debug("Set priority: {}", priority);
+		this.priority = notNull(priority, "Priority should not be null");
+		return this;
+	}
+
+	/**
+	 * Start exiftool processes when instance is built, instead of starting them lazily
+	 * with the first commands.
+	 *
+	 * <br>
+	 *
+	 * This is mostly useful with {@code stay_open} feature: with a pool, all processes are
+	 * started in parallel. Processes may be started:
+	 *
+	 * <ul>
+	 *   <li>During {@link #build()}, that returns once all processes are started.</li>
+	 *   <li>
+	 *     In background: {@link #build()} returns immediately, and {@link ExifTool#getReadiness()}
+	 *     can be used to know when processes are started.
+	 *   </li>
+	 * </ul>
+	 *
+	 * A process that cannot be started does not fail the build: it will be started by the
+	 * next command.
+	 *
+	 * @param background Start processes in background.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder enablePrewarm(boolean background) {
+		log.debug("Enable prewarm (background: {})", background);
+		this.prewarm = true;
+		this.prewarmInBackground = background;
+		return this;
+	}
+
+	/**
+	 * Register the pool of exiftool processes in the platform JMX server, so that it can be
+	 * inspected (size, busy processes, waiting commands, latency of recent commands) and controlled
+	 * (resized, recycled or drained) at runtime: see {@link com.thebuzzmedia.exiftool.core.strategies.PoolStrategyMXBean}.
+	 *
+	 * <br>
+	 *
+	 * Pool is registered with name {@code com.thebuzzmedia.exiftool:type=PoolStrategy,name=<name>} (a
+	 * {@code route} key is added for pools of a {@link com.thebuzzmedia.exiftool.core.strategies.RoutingStrategy}),
+	 * and is unregistered when instance is closed. Nothing is registered if instance does not use a pool.
+	 *
+	 * @param name Name of the instance, must be unique in the JMX server.
+	 * @return Current builder.
+	 * @throws NullPointerException If {@code name} is {@code null}.
+	 * @throws IllegalArgumentException If {@code name} is blank.
+	 */
+	public ExifToolBuilder enableJmx(String name) {
+		log.debug("Enable JMX: {}", name);
+		this.jmxName = notBlank(name, "JMX name should not be blank");
+		return this;
+	}
+
+	/**
+	 * Add a listener notified around each command run by the instance, with the details of
+	 * the command: arguments, files, process that ran it, time spent waiting for a process, writing
+	 * the command, running it and reading its output (see {@link ExecutionEvent}).
+	 *
+	 * @param listener The listener.
+	 * @return Current builder.
+	 * @throws NullPointerException If {@code listener} is {@code null}.
+	 */
+	public ExifToolBuilder withExecutionListener(ExecutionListener listener) {
+		log.debug("Add execution listener: {}", listener);
+		this.listeners.add(notNull(listener, "Execution listener should not be null"));
+		return this;
+	}
+
+	/**
+	 * Log (with {@code WARN} level) commands that take longer than given threshold, with
+	 * the details of the command (see {@link SlowExecutionListener}).
+	 *
+	 * @param threshold Threshold in milliseconds.
+	 * @return Current builder.
+	 * @throws IllegalArgumentException If {@code threshold} is not strictly positive.
+	 */
+	public ExifToolBuilder enableSlowExecutionLog(long threshold) {
+		return withExecutionListener(new SlowExecutionListener(threshold));
+	}
+
 	/**
 	 * Create exiftool instance with previous settings.
 	 *
 	 * @return Exiftool instance.
 	 */
 	public ExifTool build() {
+		ExifTool exifTool = new ExifTool(settings());
+		if (jmxName != null) {
+			exifTool.registerMBeans(jmxName);
+		}
+
+		if (prewarm) {
+			exifTool.prewarm(prewarmInBackground);
+		}
+
+		return exifTool;
+	}
+
+	/**
+	 * Resolve settings of the new {@link ExifTool} instance: default values
+	 * are used for settings that have not been set on this builder.
+	 *
+	 * @return Settings.
+	 */
+	Settings settings() {
 		String path = firstNonNull(this.path, PATH);
 		CommandExecutor executor = firstNonNull(this.executor, EXECUTOR);
-		ExecutionStrategy strategy = firstNonNull(this.strategy, new StrategyFunction(stayOpen, cleanupDelay, scheduler, poolSize));
+		ExecutionStrategy strategy = firstNonNull(this.strategy, new StrategyFunction(stayOpen, pipelining, cleanupDelay, scheduler, poolSize, poolMaxSize, poolGrowThreshold, poolIdleTimeout, recyclePolicy, admissionPolicy, priorityPolicy));
 
 		// Add some debugging information
 		if (log.isDebugEnabled()) {
@@ -410,9 +901,86 @@ public class ExifToolBuilder {
 			log.debug(" - Executor: {}", executor);
 			log.debug(" - Strategy: {}", strategy);
 			log.debug(" - StayOpen: {}", stayOpen);
+			log.debug(" - Pipelining: {}", pipelining);
+			log.debug(" - Standard tags: {}", standardTags);
+			log.debug(" - Value deduplication: {}", deduplicateValues);
+			log.debug(" - Metadata cache: {}", metadataCache);
 		}
 
-		return new ExifTool(path, executor, strategy);
+		int threads = asyncThreads > 0 ? asyncThreads : Math.max(Math.max(poolSize, poolMaxSize), 1);
+		int queueSize = asyncQueueSize > 0 ? asyncQueueSize : ExifTool.DEFAULT_ASYNC_QUEUE_SIZE;
+		AsyncDispatcher dispatcher = asyncExecutor == null ? new AsyncDispatcher(threads, queueSize) : new AsyncDispatcher(asyncExecutor, queueSize);
+
+		ExecutionListener listener = listeners.isEmpty() ? null : new CompositeExecutionListener(listeners);
+		return new Settings(path, executor, strategy, standardTags, deduplicateValues, metadataCache, dispatcher, commandTimeout, priority == null ? Priority.NORMAL : priority, listener);
+	}
+
+	/**
+	 * Settings of an {@link ExifTool} instance, resolved by {@link #settings()}.
+	 */
+	static final class Settings {
+		/**
+		 * ExifTool path.
+		 */
+		final String path;
+
+		/**
+		 * Executor used to handle command line.
+		 */
+		final CommandExecutor executor;
+
+		/**
+		 * Execution strategy.
+		 */
+		final ExecutionStrategy strategy;
+
+		/**
+		 * Map tags to {@link com.thebuzzmedia.exiftool.core.StandardTag} constants when querying all tags.
+		 */
+		final boolean standardTags;
+
+		/**
+		 * Deduplicate values frequently repeated across files when querying all tags.
+		 */
+		final boolean deduplicateValues;
+
+		/**
+		 * Cache of metadata, may be {@code null}.
+		 */
+		final MetadataCache metadataCache;
+
+		/**
+		 * Dispatcher of asynchronous requests.
+		 */
+		final AsyncDispatcher dispatcher;
+
+		/**
+		 * Default timeout of commands in milliseconds, zero to disable it.
+		 */
+		final long commandTimeout;
+
+		/**
+		 * Priority of commands.
+		 */
+		final Priority priority;
+
+		/**
+		 * Listener notified around each command, may be {@code null}.
+		 */
+		final ExecutionListener listener;
+
+		private Settings(String path, CommandExecutor executor, ExecutionStrategy strategy, boolean standardTags, boolean deduplicateValues, MetadataCache metadataCache, AsyncDispatcher dispatcher, long commandTimeout, Priority priority, ExecutionListener listener) {
+			this.path = path;
+			this.executor = executor;
+			this.strategy = strategy;
+			this.standardTags = standardTags;
+			this.deduplicateValues = deduplicateValues;
+			this.metadataCache = metadataCache;
+			this.dispatcher = dispatcher;
+			this.commandTimeout = commandTimeout;
+			this.priority = priority;
+			this.listener = listener;
+		}
 	}
 
 	/**
@@ -510,7 +1078,7 @@ public class ExifToolBuilder {
 	 * Default scheduler will depend on the given {@code delay}:
 	 * <ul>
 	 * <li>If {@code delay} is less than or equal to zero, then an instance of {@link NoOpScheduler} will be returned.</li>
-	 * <li>If {@code delay} is greater than zero, then an instance of {@link DefaultScheduler} will be returned.</li>
+	 * <li>If {@code delay} is greater than zero, then an instance of {@link IdleScheduler}, checked by the JVM-wide reaper thread, will be returned.</li>
 	 * </ul>
 	 */
 	private static class SchedulerFunction implements FactoryFunction<Scheduler> {
@@ -526,7 +1094,7 @@ public class ExifToolBuilder {
 			// We have to look up the delay between automatic clean and create
 			// the scheduler.
 			final long delay = firstNonNull(this.delay, DELAY);
-			return delay > 0 ? new DefaultScheduler(millis(delay)) : new NoOpScheduler();
+			return delay > 0 ? new IdleScheduler(millis(delay)) : new NoOpScheduler();
 		}
 	}
 
@@ -538,43 +1106,75 @@ public class ExifToolBuilder {
 	 *
 	 * <h3>StayOpen</h3>
 	 * If the {@code stay_open} has been enabled, then an instance of {@link StayOpenStrategy}
-	 * will be created. For this strategy, a scheduler will be created. This scheduler will be used to run
+	 * (or {@link PipelinedStayOpenStrategy} if pipelining has been enabled) will be created.
+	 * For this strategy, a scheduler will be created. This scheduler will be used to run
 	 * a task to clean resources used by this strategy. This task will run automatically after a specified
 	 * delay.
 	 */
 	private static class StrategyFunction implements FactoryFunction<ExecutionStrategy> {
 		private final Boolean stayOpen;
 
+		private final Boolean pipelining;
+
 		private final Long delay;
 
 		private final Scheduler scheduler;
 
 		private int poolSize;
 
-		public StrategyFunction(Boolean stayOpen, Long delay, Scheduler scheduler, int poolSize) {
+		private final int poolMaxSize;
+
+		private final long poolGrowThreshold;
+
+		private final long poolIdleTimeout;
+
+		private final RecyclePolicy recyclePolicy;
+
+		private final AdmissionPolicy admissionPolicy;
+
+		private final PriorityPolicy priorityPolicy;
+
+		public StrategyFunction(Boolean stayOpen, Boolean pipelining, Long delay, Scheduler scheduler, int poolSize, int poolMaxSize, long poolGrowThreshold, long poolIdleTimeout, RecyclePolicy recyclePolicy, AdmissionPolicy admissionPolicy, PriorityPolicy priorityPolicy) {
 			this.stayOpen = stayOpen;
+			this.pipelining = pipelining;
 			this.delay = delay;
 			this.scheduler = scheduler;
 			this.poolSize = poolSize;
+			this.poolMaxSize = poolMaxSize;
+			this.poolGrowThreshold = poolGrowThreshold;
+			this.poolIdleTimeout = poolIdleTimeout;
+			this.recyclePolicy = recyclePolicy == null ? RecyclePolicy.NEVER : recyclePolicy;
+			this.admissionPolicy = admissionPolicy == null ? AdmissionPolicy.UNBOUNDED : admissionPolicy;
+			this.priorityPolicy = priorityPolicy;
 		}
 
 		@Override
 		public ExecutionStrategy apply() {
-			// First, try the pool strategy.
-			if (poolSize > 0) {
-				List<ExecutionStrategy> strategies = new ArrayList<>(poolSize);
-				for (int i = 0; i < poolSize; i++) {
-					Scheduler scheduler = new SchedulerFunction(delay).apply();
-					StayOpenStrategy strategy = new StayOpenStrategy(scheduler);
-					strategies.add(strategy);
+			ExecutionStrategyFactory factory = new ExecutionStrategyFactory() {
+				@Override
+				public ExecutionStrategy create() {
+					return new StayOpenStrategy(new SchedulerFunction(delay).apply(), recyclePolicy);
 				}
+			};
+
+			// First, try the elastic pool strategy.
+			if (poolSize > 0 && poolMaxSize > 0) {
+				return new PoolStrategy(poolSize, poolMaxSize, poolGrowThreshold, poolIdleTimeout, factory, admissionPolicy, priorityPolicy);
+			}
 
-				return new PoolStrategy(strategies);
+			// Then, try the pool strategy.
+			if (poolSize > 0) {
+				return new PoolStrategy(poolSize, factory, admissionPolicy, priorityPolicy);
 			}
 
 			// Try the stayOpen strategy.
 			if (stayOpen != null && stayOpen) {
-				return new StayOpenStrategy(firstNonNull(scheduler, new SchedulerFunction(delay)));
+				Scheduler scheduler = firstNonNull(this.scheduler, new SchedulerFunction(delay));
+				if (pipelining != null && pipelining) {
+					return new PipelinedStayOpenStrategy(scheduler, recyclePolicy);
+				}
+
+				return new StayOpenStrategy(scheduler, recyclePolicy);
 			}
 
 			// Simple use case: nothing has been parametrized, so
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Metadata extracted for a single file during a batch read operation.
+ *
+ * <br>
+ *
+ * A result is either:
+ * <ul>
+ *   <li>A success: tags found in the file are available with {@link #getTags()}.</li>
+ *   <li>A failure: no tags are available and {@link #getError()} returns the error message.</li>
+ * </ul>
+ *
+ * In both cases, lines printed by exiftool on error output for this file (warnings, etc.)
+ * are available with {@link #getWarnings()}.
+ *
+ * <strong>Note:</strong> this implementation is immutable and thread safe.
+ */
+public final class ImageMetaResult {
+
+	/**
+	 * Create a successful result.
+	 *
+	 * @param file The file.
+	 * @param tags Tags found in the file.
+	 * @return The result.
+	 * @throws NullPointerException If {@code file} or {@code tags} is {@code null}.
+	 */
+	public static ImageMetaResult success(File file, Map<Tag, String> tags) {
+		return success(file, tags, Collections.<String>emptyList());
+	}
+
+	/**
+	 * Create a successful result.
+	 *
+	 * @param file The file.
+	 * @param tags Tags found in the file.
+	 * @param warnings Warnings printed by exiftool for this file.
+	 * @return The result.
+	 * @throws NullPointerException If {@code file}, {@code tags} or {@code warnings} is {@code null}.
+	 */
+	public static ImageMetaResult success(File file, Map<Tag, String> tags, List<String> warnings) {
+		return new ImageMetaResult(file, notNull(tags, "Tags should not be null"), null, warnings);
+	}
+
+	/**
+	 * Create a failed result.
+	 *
+	 * @param file The file.
+	 * @param error The error message.
+	 * @return The result.
+	 * @throws NullPointerException If {@code file} or {@code error} is {@code null}.
+	 */
+	public static ImageMetaResult failure(File file, String error) {
+		return failure(file, error, Collections.<String>emptyList());
+	}
+
+	/**
+	 * Create a failed result.
+	 *
+	 * @param file The file.
+	 * @param error The error message.
+	 * @param warnings Warnings printed by exiftool for this file.
+	 * @return The result.
+	 * @throws NullPointerException If {@code file}, {@code error} or {@code warnings} is {@code null}.
+	 */
+	public static ImageMetaResult failure(File file, String error, List<String> warnings) {
+		return new ImageMetaResult(file, Collections.<Tag, String>emptyMap(), notNull(error, "Error should not be null"), warnings);
+	}
+
+	/**
+	 * The file.
+	 */
+	private final File file;
+
+	/**
+	 * Tags found in the file (empty if result is a failure).
+	 */
+	private final Map<Tag, String> tags;
+
+	/**
+	 * The error message, {@code null} if result is a success.
+	 */
+	private final String error;
+
+	/**
+	 * Warnings printed by exiftool for this file.
+	 */
+	private final List<String> warnings;
+
+	private ImageMetaResult(File file, Map<Tag, String> tags, String error, List<String> warnings) {
+		notNull(warnings, "Warnings should not be null");
+
+		this.file = notNull(file, "File should not be null");
+		this.tags = unmodifiableMap(new LinkedHashMap<>(tags));
+		this.error = error;
+		this.warnings = warnings.isEmpty() ? Collections.<String>emptyList() : unmodifiableList(new ArrayList<>(warnings));
+	}
+
+	/**
+	 * Get {@link #file}
+	 *
+	 * @return {@link #file}
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Get {@link #tags}
+	 *
+	 * @return {@link #tags}
+	 */
+	public Map<Tag, String> getTags() {
+		return tags;
+	}
+
+	/**
+	 * Get {@link #error}
+	 *
+	 * @return {@link #error}
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * Get {@link #warnings}
+	 *
+	 * @return {@link #warnings}
+	 */
+	public List<String> getWarnings() {
+		return warnings;
+	}
+
+	/**
+	 * Check if metadata have been successfully extracted.
+	 *
+	 * @return {@code true} if result is a success, {@code false} otherwise.
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	/**
+	 * Check if metadata extraction failed.
+	 *
+	 * @return {@code true} if result is a failure, {@code false} otherwise.
+	 */
+	public boolean isFailure() {
+		return error != null;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("file", file)
+				.append("tags", tags)
+				.append("error", error)
+				.append("warnings", warnings)
+				.build();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+
+		if (o instanceof ImageMetaResult) {
+			ImageMetaResult r = (ImageMetaResult) o;
+			return Objects.equals(file, r.file) && Objects.equals(tags, r.tags) && Objects.equals(error, r.error) && Objects.equals(warnings, r.warnings);
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(file, tags, error, warnings);
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Cache of metadata read by {@link ExifTool}.
+ *
+ * <br>
+ *
+ * Entries are indexed by {@link MetadataCacheKey}: path of the image, size and last modification
+ * date of the file, output format and list of requested tags. A file modified since the entry was
+ * put in the cache does not match the entry anymore.
+ *
+ * <br>
+ *
+ * Implementations must be thread safe, and should be bounded (maximum number
+ * of entries, expiration of entries, etc.).
+ */
+public interface MetadataCache {
+
+	/**
+	 * Get metadata associated with given key.
+	 *
+	 * @param key The key.
+	 * @return Metadata, {@code null} if metadata is not in the cache (or has expired).
+	 */
+	Map<Tag, String> get(MetadataCacheKey key);
+
+	/**
+	 * Put metadata in the cache.
+	 *
+	 * @param key The key.
+	 * @param tags Metadata.
+	 */
+	void put(MetadataCacheKey key, Map<Tag, String> tags);
+
+	/**
+	 * Invalidate all entries of given image (should be called when the image is updated).
+	 *
+	 * @param image The image.
+	 */
+	void invalidate(File image);
+
+	/**
+	 * Get current size of cache (a.k.a number of entries).
+	 *
+	 * @return Cache Size.
+	 */
+	long size();
+
+	/**
+	 * Get statistics of the cache.
+	 *
+	 * @return Statistics.
+	 */
+	MetadataCacheStats stats();
+
+	/**
+	 * Invalidate all entries.
+	 */
+	void clear();
+}
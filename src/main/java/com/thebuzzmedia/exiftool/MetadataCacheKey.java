@@ -0,0 +1,259 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Key of entries in a {@link MetadataCache}: an entry matches the image only if
+ * the file has not been modified (same file, same size, same last modification date), and if
+ * the same format and the same tags are requested.
+ *
+ * <strong>Note:</strong> this implementation is immutable and thread safe.
+ */
+public final class MetadataCacheKey {
+
+	/**
+	 * Create key for given image.
+	 *
+	 * @param image The image.
+	 * @param format Output format.
+	 * @param tags Requested tags.
+	 * @return The key.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 */
+	public static MetadataCacheKey of(File image, Format format, Collection<? extends Tag> tags) {
+		notNull(image, "Image should not be null");
+		notNull(format, "Format should not be null");
+		notNull(tags, "Tags should not be null");
+
+		Set<String> names = new HashSet<>();
+		for (Tag tag : tags) {
+			names.add(tag.getName());
+		}
+
+		// Read all attributes at once, if possible.
+		String fileKey = null;
+		long size;
+		long lastModified;
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(image.toPath(), BasicFileAttributes.class);
+			fileKey = attributes.fileKey() == null ? null : attributes.fileKey().toString();
+			size = attributes.size();
+			lastModified = attributes.lastModifiedTime().toMillis();
+		}
+		catch (IOException | InvalidPathException ex) {
+			size = image.length();
+			lastModified = image.lastModified();
+		}
+
+		return new MetadataCacheKey(canonicalPath(image), fileKey, size, lastModified, new ArrayList<>(format.getArgs()), names);
+	}
+
+	/**
+	 * Create key.
+	 *
+	 * @param path Canonical path of the image.
+	 * @param fileKey Identifier of the file on the file system (such as the inode on Unix systems), may be {@code null}.
+	 * @param size Size of the file.
+	 * @param lastModified Last modification date of the file.
+	 * @param format Arguments of the output format.
+	 * @param tags Names of requested tags.
+	 * @return The key.
+	 */
+	public static MetadataCacheKey of(String path, String fileKey, long size, long lastModified, List<String> format, Set<String> tags) {
+		return new MetadataCacheKey(
+				notNull(path, "Path should not be null"),
+				fileKey,
+				size,
+				lastModified,
+				new ArrayList<>(notNull(format, "Format should not be null")),
+				new HashSet<>(notNull(tags, "Tags should not be null"))
+		);
+	}
+
+	/**
+	 * Get canonical path of given file, so that the same file gives the same key
+	 * even if it is given with different paths.
+	 *
+	 * @param file The file.
+	 * @return Canonical path, or absolute path if canonical path cannot be resolved.
+	 */
+	public static String canonicalPath(File file) {
+		try {
+			return file.getCanonicalPath();
+		}
+		catch (IOException ex) {
+			return file.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * Canonical path of the image.
+	 */
+	private final String path;
+
+	/**
+	 * Identifier of the file on the file system (such as the inode on Unix systems), {@code null}
+	 * if it is not available: a file replaced by another file with the same path does not match.
+	 */
+	private final String fileKey;
+
+	/**
+	 * Size of the file.
+	 */
+	private final long size;
+
+	/**
+	 * Last modification date of the file.
+	 */
+	private final long lastModified;
+
+	/**
+	 * Arguments of the output format.
+	 */
+	private final List<String> format;
+
+	/**
+	 * Names of requested tags.
+	 */
+	private final Set<String> tags;
+
+	/**
+	 * Hash code, computed once.
+	 */
+	private final int hashCode;
+
+	private MetadataCacheKey(String path, String fileKey, long size, long lastModified, List<String> format, Set<String> tags) {
+		this.path = path;
+		this.fileKey = fileKey;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.format = unmodifiableList(format);
+		this.tags = unmodifiableSet(tags);
+		this.hashCode = Objects.hash(path, fileKey, size, lastModified, format, tags);
+	}
+
+	/**
+	 * Get {@link #path}
+	 *
+	 * @return {@link #path}
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Get {@link #fileKey}
+	 *
+	 * @return {@link #fileKey}
+	 */
+	public String getFileKey() {
+		return fileKey;
+	}
+
+	/**
+	 * Get {@link #size}
+	 *
+	 * @return {@link #size}
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Get {@link #lastModified}
+	 *
+	 * @return {@link #lastModified}
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Get {@link #format}
+	 *
+	 * @return {@link #format}
+	 */
+	public List<String> getFormat() {
+		return format;
+	}
+
+	/**
+	 * Get {@link #tags}
+	 *
+	 * @return {@link #tags}
+	 */
+	public Set<String> getTags() {
+		return tags;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+
+		if (o instanceof MetadataCacheKey) {
+			MetadataCacheKey k = (MetadataCacheKey) o;
+			return hashCode == k.hashCode
+					&& size == k.size
+					&& lastModified == k.lastModified
+					&& Objects.equals(path, k.path)
+					&& Objects.equals(fileKey, k.fileKey)
+					&& Objects.equals(format, k.format)
+					&& Objects.equals(tags, k.tags);
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("path", path)
+				.append("fileKey", fileKey)
+				.append("size", size)
+				.append("lastModified", lastModified)
+				.append("format", format)
+				.append("tags", tags)
+				.build();
+	}
+}
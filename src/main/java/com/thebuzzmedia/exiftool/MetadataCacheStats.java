@@ -0,0 +1,103 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+/**
+ * Statistics of a {@link MetadataCache}.
+ *
+ * <strong>Note:</strong> this implementation is immutable and thread safe.
+ */
+public final class MetadataCacheStats {
+
+	/**
+	 * Number of lookups that returned a cached value.
+	 */
+	private final long hitCount;
+
+	/**
+	 * Number of lookups that did not return a cached value.
+	 */
+	private final long missCount;
+
+	/**
+	 * Number of entries evicted from the cache (because of size or expiration).
+	 */
+	private final long evictionCount;
+
+	/**
+	 * Create statistics.
+	 *
+	 * @param hitCount Number of lookups that returned a cached value.
+	 * @param missCount Number of lookups that did not return a cached value.
+	 * @param evictionCount Number of entries evicted from the cache.
+	 */
+	public MetadataCacheStats(long hitCount, long missCount, long evictionCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+	}
+
+	/**
+	 * Get {@link #hitCount}
+	 *
+	 * @return {@link #hitCount}
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Get {@link #missCount}
+	 *
+	 * @return {@link #missCount}
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Get {@link #evictionCount}
+	 *
+	 * @return {@link #evictionCount}
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Get the ratio of lookups that returned a cached value.
+	 *
+	 * @return Hit rate, {@code 1.0} if no lookup has been done.
+	 */
+	public double getHitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("hitCount", hitCount)
+				.append("missCount", missCount)
+				.append("evictionCount", evictionCount)
+				.build();
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+/**
+ * Priority of commands sent to a pool of exiftool processes.
+ *
+ * <br>
+ *
+ * Priorities are only used by a pool configured with a priority policy (see
+ * {@link com.thebuzzmedia.exiftool.core.strategies.PriorityPolicy}): other strategies
+ * execute commands in arrival order.
+ */
+public enum Priority {
+
+	/**
+	 * Latency-sensitive commands (e.g. interactive requests): may use the strategies
+	 * reserved by the priority policy.
+	 */
+	HIGH,
+
+	/**
+	 * Default priority.
+	 */
+	NORMAL,
+
+	/**
+	 * Background commands (e.g. bulk jobs).
+	 */
+	LOW
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
+import com.thebuzzmedia.exiftool.process.CommandContext;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Handler of a command with a context (deadline, priority or known workload): all calls are
+ * delegated to the original handler.
+ *
+ * <br>
+ *
+ * When command is traced, the handler also records how the command has been executed, to
+ * build the {@link ExecutionEvent} given to {@link ExecutionListener}.
+ */
+final class RequestHandler implements ContextOutputHandler, CharSequenceOutputHandler, ErrorOutputHandler {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(RequestHandler.class);
+
+	/**
+	 * Get the handler to use to run a command with a timeout and a priority.
+	 *
+	 * @param handler Command handler.
+	 * @param timeout Timeout in nanoseconds, the command does not have a deadline if it is less than or equal to zero.
+	 * @param priority Command priority.
+	 * @param files Files processed by the command.
+	 * @param write {@code true} if command writes metadata.
+	 * @param traced {@code true} if command is traced.
+	 * @return The handler to use.
+	 */
+	static OutputHandler wrap(OutputHandler handler, long timeout, Priority priority, List<File> files, boolean write, boolean traced) {
+		if (!traced && timeout <= 0 && priority == Priority.NORMAL && files.isEmpty()) {
+			return handler;
+		}
+
+		return new RequestHandler(handler, new CommandContext(System.nanoTime(), timeout, priority, files, write, traced));
+	}
+
+	/**
+	 * Command handler.
+	 */
+	private final OutputHandler handler;
+
+	/**
+	 * Command context.
+	 */
+	private final CommandContext context;
+
+	/**
+	 * Date the first output line has been read, as a value of {@link System#nanoTime()}, zero if no line has been read.
+	 */
+	private volatile long firstLineAt;
+
+	/**
+	 * Number of bytes read from the output (including line breaks).
+	 */
+	private volatile long outputSize;
+
+	private RequestHandler(OutputHandler handler, CommandContext context) {
+		this.handler = handler;
+		this.context = context;
+	}
+
+	@Override
+	public CommandContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Build the event describing the command.
+	 *
+	 * @param arguments Number of arguments of the command.
+	 * @param outcome Outcome of the command, {@code null} if command is not completed.
+	 * @param failure Failure of the command, may be {@code null}.
+	 * @return The event.
+	 */
+	ExecutionEvent toEvent(int arguments, ExecutionEvent.Outcome outcome, Exception failure) {
+		List<File> files = context.getFiles();
+		Priority priority = context.getPriority();
+		if (outcome == null) {
+			return new ExecutionEvent(arguments, files, context.isWrite(), priority, null, -1, 0, 0, 0, 0, 0, 0, null, null);
+		}
+
+		long end = System.nanoTime();
+		long start = context.getStart();
+		long queueWait = context.getQueueWait();
+		long computeStart = context.getSentAt() != 0 ? context.getSentAt() : start + queueWait;
+		long firstLine = firstLineAt != 0 ? firstLineAt : end;
+		long computeTime = Math.max(0, firstLine - computeStart);
+		long readTime = Math.max(0, end - firstLine);
+		return new ExecutionEvent(arguments, files, context.isWrite(), priority, context.getStrategy(), context.getPid(), queueWait, context.getWriteTime(), computeTime, readTime, end - start, outputSize, outcome, failure);
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		onRead(line);
+		return handler.readLine(line);
+	}
+
+	@Override
+	public boolean readChars(CharSequence line) {
+		onRead(line);
+		if (handler instanceof CharSequenceOutputHandler) {
+			return ((CharSequenceOutputHandler) handler).readChars(line);
+		}
+
+		return handler.readLine(line == null ? null : line.toString());
+	}
+
+	@Override
+	public void readError(String line) {
+		if (handler instanceof ErrorOutputHandler) {
+			((ErrorOutputHandler) handler).readError(line);
+		}
+		else {
+			log.warn("exiftool: {}", line);
+		}
+	}
+
+	private void onRead(CharSequence line) {
+		if (firstLineAt == 0) {
+			firstLineAt = System.nanoTime();
+		}
+
+		if (line != null) {
+			// Handlers are called by a single thread, add the line terminator.
+			outputSize += utf8Length(line) + 1;
+		}
+	}
+
+	/**
+	 * Get the number of bytes of given line, once encoded in {@code UTF-8} (the
+	 * encoding of exiftool output), without creating the encoded bytes.
+	 *
+	 * @param line The line.
+	 * @return Number of bytes.
+	 */
+	static long utf8Length(CharSequence line) {
+		long length = 0;
+		int size = line.length();
+		for (int i = 0; i < size; i++) {
+			char c = line.charAt(i);
+			if (c < 0x80) {
+				length++;
+			}
+			else if (c < 0x800) {
+				length += 2;
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(line.charAt(i + 1))) {
+				// Supplementary character: four bytes for the surrogate pair.
+				length += 4;
+				i++;
+			}
+			else {
+				length += 3;
+			}
+		}
+
+		return length;
+	}
+}
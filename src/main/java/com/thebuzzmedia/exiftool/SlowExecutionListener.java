@@ -0,0 +1,71 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+
+/**
+ * Listener logging (with {@code WARN} level) commands that take longer than a threshold.
+ */
+public class SlowExecutionListener implements ExecutionListener {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(SlowExecutionListener.class);
+
+	/**
+	 * Threshold, in nanoseconds.
+	 */
+	private final long threshold;
+
+	/**
+	 * Create listener.
+	 *
+	 * @param threshold Minimum duration of logged commands, in milliseconds.
+	 * @throws IllegalArgumentException If {@code threshold} is not strictly positive.
+	 */
+	public SlowExecutionListener(long threshold) {
+		this.threshold = TimeUnit.MILLISECONDS.toNanos(isPositive(threshold, "Threshold must be positive"));
+	}
+
+	/**
+	 * Get threshold.
+	 *
+	 * @return Threshold, in milliseconds.
+	 */
+	public long getThreshold() {
+		return TimeUnit.NANOSECONDS.toMillis(threshold);
+	}
+
+	@Override
+	public void onStart(ExecutionEvent event) {
+	}
+
+	@Override
+	public void onComplete(ExecutionEvent event) {
+		if (event.getDuration() >= threshold) {
+			log.warn("Slow exiftool command ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(event.getDuration()), event);
+		}
+	}
+}
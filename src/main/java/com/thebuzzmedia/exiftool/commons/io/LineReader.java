@@ -0,0 +1,323 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Line reader working directly on the bytes of an {@link InputStream}.
+ *
+ * <br>
+ *
+ * Contrary to a {@link java.io.BufferedReader} created for each read operation, this reader
+ * is meant to be created once and used for the whole lifetime of the stream:
+ *
+ * <ul>
+ *   <li>Bytes read after the last returned line are kept and returned by the next read operation.</li>
+ *   <li>Internal buffers are allocated once and reused for each line (they only grow if a line does not fit).</li>
+ * </ul>
+ *
+ * Lines are decoded using {@code UTF-8}, ASCII lines being copied without going
+ * through a {@link CharsetDecoder}. A line is terminated by {@code \n}, {@code \r}
+ * or {@code \r\n} (as with {@link java.io.BufferedReader#readLine()}).
+ *
+ * <br>
+ *
+ * <strong>Note:</strong> This implementation is not thread safe.
+ */
+public final class LineReader {
+
+	/**
+	 * Encoding.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Default size of internal buffers.
+	 */
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	/**
+	 * Line feed character.
+	 */
+	private static final byte LF = '\n';
+
+	/**
+	 * Carriage return character.
+	 */
+	private static final byte CR = '\r';
+
+	/**
+	 * Input stream.
+	 */
+	private final InputStream is;
+
+	/**
+	 * Buffer of bytes read from input stream.
+	 */
+	private final byte[] buffer;
+
+	/**
+	 * Position of the next byte to read in {@link #buffer}.
+	 */
+	private int position;
+
+	/**
+	 * Number of valid bytes in {@link #buffer}.
+	 */
+	private int limit;
+
+	/**
+	 * Bytes of the current line.
+	 */
+	private byte[] bytes;
+
+	/**
+	 * Number of bytes of the current line.
+	 */
+	private int length;
+
+	/**
+	 * Byte view of {@link #bytes}, used to decode non ASCII lines.
+	 */
+	private ByteBuffer byteView;
+
+	/**
+	 * Decoded current line, returned to the caller.
+	 */
+	private CharBuffer chars;
+
+	/**
+	 * Decoder, used for non ASCII lines.
+	 */
+	private final CharsetDecoder decoder;
+
+	/**
+	 * Flag set when a {@code \r} has been read: a following {@code \n} must be skipped.
+	 */
+	private boolean skipLF;
+
+	/**
+	 * Flag set when end of stream has been reached.
+	 */
+	private boolean eof;
+
+	/**
+	 * Number of bytes consumed by returned lines, including line terminators.
+	 */
+	private long bytesRead;
+
+	/**
+	 * Create reader.
+	 *
+	 * @param is Input stream.
+	 * @throws NullPointerException If {@code is} is {@code null}.
+	 */
+	public LineReader(InputStream is) {
+		this(is, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create reader.
+	 *
+	 * @param is Input stream.
+	 * @param bufferSize Initial size of internal buffers.
+	 * @throws NullPointerException If {@code is} is {@code null}.
+	 */
+	public LineReader(InputStream is, int bufferSize) {
+		this.is = notNull(is, "Input stream should not be null");
+		this.buffer = new byte[bufferSize];
+		this.bytes = new byte[bufferSize];
+		this.byteView = ByteBuffer.wrap(bytes);
+		this.chars = CharBuffer.allocate(bufferSize);
+		this.decoder = UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Read next line.
+	 *
+	 * <br>
+	 *
+	 * Returned sequence is a view of an internal buffer: it is only valid until the next
+	 * read operation and should be copied (for example using {@link CharSequence#toString()})
+	 * if it must be kept.
+	 *
+	 * @return The line, without line terminator, {@code null} if end of stream has been reached.
+	 * @throws IOException If an error occurred while reading stream.
+	 */
+	public CharSequence readChars() throws IOException {
+		return nextLine() ? decode() : null;
+	}
+
+	/**
+	 * Read next line.
+	 *
+	 * @return The line, without line terminator, {@code null} if end of stream has been reached.
+	 * @throws IOException If an error occurred while reading stream.
+	 */
+	public String readLine() throws IOException {
+		CharSequence line = readChars();
+		return line == null ? null : line.toString();
+	}
+
+	/**
+	 * Get the number of bytes consumed by lines read so far, including line terminators.
+	 * Bytes read ahead from the stream, not returned yet, are not counted.
+	 *
+	 * @return Number of bytes.
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Read bytes of next line into {@link #bytes}.
+	 *
+	 * @return {@code true} if a line has been read, {@code false} if end of stream has been reached.
+	 * @throws IOException If an error occurred while reading stream.
+	 */
+	private boolean nextLine() throws IOException {
+		length = 0;
+
+		while (true) {
+			if (position >= limit && !fill()) {
+				// Last line may not be terminated.
+				return length > 0;
+			}
+
+			if (skipLF) {
+				skipLF = false;
+				if (buffer[position] == LF) {
+					position++;
+					bytesRead++;
+					continue;
+				}
+			}
+
+			int start = position;
+			while (position < limit) {
+				byte b = buffer[position];
+				if (b == LF || b == CR) {
+					append(start, position - start);
+					position++;
+					bytesRead += position - start;
+					skipLF = b == CR;
+					return true;
+				}
+
+				position++;
+			}
+
+			append(start, position - start);
+			bytesRead += position - start;
+		}
+	}
+
+	/**
+	 * Fill the buffer with bytes from the input stream.
+	 *
+	 * @return {@code true} if bytes have been read, {@code false} if end of stream has been reached.
+	 * @throws IOException If an error occurred while reading stream.
+	 */
+	private boolean fill() throws IOException {
+		if (eof) {
+			return false;
+		}
+
+		// A read operation should block until some bytes are available: a stream
+		// returning no bytes is considered as closed.
+		int n = is.read(buffer, 0, buffer.length);
+		if (n <= 0) {
+			eof = true;
+			return false;
+		}
+
+		position = 0;
+		limit = n;
+		return true;
+	}
+
+	/**
+	 * Append bytes from {@link #buffer} to the current line.
+	 *
+	 * @param offset Offset of first byte.
+	 * @param count Number of bytes.
+	 */
+	private void append(int offset, int count) {
+		if (count == 0) {
+			return;
+		}
+
+		int required = length + count;
+		if (required > bytes.length) {
+			byte[] newBytes = new byte[Math.max(required, bytes.length * 2)];
+			System.arraycopy(bytes, 0, newBytes, 0, length);
+			bytes = newBytes;
+			byteView = ByteBuffer.wrap(bytes);
+		}
+
+		System.arraycopy(buffer, offset, bytes, length, count);
+		length = required;
+	}
+
+	/**
+	 * Decode current line.
+	 *
+	 * @return The decoded line.
+	 */
+	private CharSequence decode() {
+		// Decoded line never has more chars than bytes.
+		if (chars.capacity() < length) {
+			chars = CharBuffer.allocate(bytes.length);
+		}
+
+		chars.clear();
+
+		char[] array = chars.array();
+		int i = 0;
+		while (i < length && bytes[i] >= 0) {
+			array[i] = (char) bytes[i];
+			i++;
+		}
+
+		if (i == length) {
+			chars.limit(length);
+			return chars;
+		}
+
+		// Non ASCII line, go through the decoder.
+		byteView.clear();
+		byteView.limit(length);
+		decoder.reset();
+		decoder.decode(byteView, chars, true);
+		decoder.flush(chars);
+		chars.flip();
+		return chars;
+	}
+}
@@ -23,12 +23,14 @@ import java.io.File;
 import java.util.Collection;
 import java.util.List;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 
 /**
- * Enum used to define the 2 different output formats that {@link StandardTag}
- * values can be returned in: numeric or human-readable text.
+ * Enum used to define the different output formats that {@link StandardTag}
+ * values can be returned in: numeric or human-readable text, optionally printed
+ * in JSON format.
  *
  * <br>
  *
@@ -78,5 +80,27 @@ public enum StandardFormat implements Format {
 		public List<String> getArgs() {
 			return emptyList();
 		}
+	},
+
+	/**
+	 * Human-readable values, printed in JSON format: output is decoded with a
+	 * {@link com.thebuzzmedia.exiftool.core.handlers.JsonTagHandler}.
+	 */
+	JSON {
+		@Override
+		public List<String> getArgs() {
+			return singletonList("-j");
+		}
+	},
+
+	/**
+	 * Numeric values, printed in JSON format: output is decoded with a
+	 * {@link com.thebuzzmedia.exiftool.core.handlers.JsonTagHandler}.
+	 */
+	NUMERIC_JSON {
+		@Override
+		public List<String> getArgs() {
+			return asList("-j", "-n");
+		}
 	}
 }
@@ -20,6 +20,8 @@ package com.thebuzzmedia.exiftool.core;
 import com.thebuzzmedia.exiftool.Constants;
 import com.thebuzzmedia.exiftool.Tag;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.regex.Pattern;
 
 /**
@@ -128,6 +130,72 @@ public enum StandardTag implements Tag {
 	@Deprecated
 	CREATION_DATE("CreationDate", Type.STRING);
 
+	/**
+	 * Standard tags, sorted by display name, used to map a name printed by exiftool back
+	 * to a tag (see {@link #fromName(CharSequence)}).
+	 * This lookup is immutable and shared by all readers.
+	 */
+	private static final StandardTag[] SORTED_BY_NAME;
+
+	static {
+		StandardTag[] tags = values();
+		Arrays.sort(tags, new Comparator<StandardTag>() {
+			@Override
+			public int compare(StandardTag o1, StandardTag o2) {
+				return o1.name.compareTo(o2.name);
+			}
+		});
+
+		SORTED_BY_NAME = tags;
+	}
+
+	/**
+	 * Find the standard tag with given display name.
+	 *
+	 * <br>
+	 *
+	 * The lookup does not allocate anything: the name may be a view over a line
+	 * read from exiftool output.
+	 *
+	 * @param name Display name of the tag, as printed by exiftool (e.g. "Orientation", "ISO", etc.).
+	 * @return The tag, {@code null} if no standard tag has this name.
+	 */
+	public static StandardTag fromName(CharSequence name) {
+		int low = 0;
+		int high = SORTED_BY_NAME.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			StandardTag tag = SORTED_BY_NAME[mid];
+			int cmp = compare(tag.name, name);
+			if (cmp < 0) {
+				low = mid + 1;
+			}
+			else if (cmp > 0) {
+				high = mid - 1;
+			}
+			else {
+				return tag;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compare a string and a char sequence, with the same ordering than {@link String#compareTo(String)}.
+	 */
+	private static int compare(String str, CharSequence chars) {
+		int length = Math.min(str.length(), chars.length());
+		for (int i = 0; i < length; i++) {
+			int diff = str.charAt(i) - chars.charAt(i);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+
+		return str.length() - chars.length();
+	}
+
 	/**
 	 * Used to get the name of the tag (e.g. "Orientation", "ISO", etc.).
 	 */
@@ -159,6 +227,15 @@ public enum StandardTag implements Tag {
 		return type.parse(value);
 	}
 
+	/**
+	 * Check if values of this tag are expected to be numbers (integer, long or double).
+	 *
+	 * @return {@code true} if tag values are numbers, {@code false} otherwise.
+	 */
+	boolean isNumeric() {
+		return type == Type.INTEGER || type == Type.LONG || type == Type.DOUBLE;
+	}
+
 	@SuppressWarnings("unchecked")
 	private enum Type {
 		INTEGER {
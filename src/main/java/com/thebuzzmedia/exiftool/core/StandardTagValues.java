@@ -0,0 +1,433 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Constants;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Values of {@link StandardTag}, parsed once and stored in primitive arrays
+ * indexed by {@link StandardTag#ordinal()}.
+ *
+ * <br>
+ *
+ * Numeric values (ISO, FNumber, GPS coordinates, etc.) are parsed when the
+ * instance is created, so reading them with {@link #getInt(StandardTag)},
+ * {@link #getLong(StandardTag)} or {@link #getDouble(StandardTag)} does not
+ * box or allocate anything.
+ *
+ * <br>
+ *
+ * Values that cannot be parsed to a number (for example, values printed with
+ * {@link StandardFormat#HUMAN_READABLE} such as {@code "1/60"}) are still
+ * available with {@link #getString(StandardTag)}.
+ *
+ * <strong>Note:</strong> this implementation is immutable and thread safe.
+ */
+public final class StandardTagValues {
+
+	/**
+	 * The standard tags, indexed by ordinal.
+	 */
+	private static final StandardTag[] TAGS = StandardTag.values();
+
+	/**
+	 * No value available.
+	 */
+	private static final byte NONE = 0;
+
+	/**
+	 * A value that is not a number.
+	 */
+	private static final byte STRING = 1;
+
+	/**
+	 * An integral value, stored in {@link #longs}.
+	 */
+	private static final byte LONG = 2;
+
+	/**
+	 * A decimal value, stored in {@link #doubles}.
+	 */
+	private static final byte DOUBLE = 3;
+
+	/**
+	 * Create values from the result of a metadata read operation.
+	 *
+	 * <br>
+	 *
+	 * Values may be strings (as returned by {@link com.thebuzzmedia.exiftool.ExifTool#getImageMeta(java.io.File)})
+	 * or already decoded values (numbers and lists, as read with {@link StandardFormat#JSON}).
+	 * Tags that do not match a {@link StandardTag} are ignored.
+	 *
+	 * @param values Values, indexed by tag.
+	 * @return The typed values.
+	 * @throws NullPointerException If {@code values} is {@code null}.
+	 */
+	public static StandardTagValues of(Map<? extends Tag, ?> values) {
+		notNull(values, "Values should not be null");
+
+		StandardTagValues result = new StandardTagValues();
+		for (Map.Entry<? extends Tag, ?> entry : values.entrySet()) {
+			StandardTag tag = toStandardTag(entry.getKey());
+			if (tag != null && entry.getValue() != null) {
+				result.put(tag, entry.getValue());
+			}
+		}
+
+		return result;
+	}
+
+	private static StandardTag toStandardTag(Tag tag) {
+		if (tag instanceof StandardTag) {
+			return (StandardTag) tag;
+		}
+
+		return tag == null ? null : StandardTag.fromName(tag.getDisplayName());
+	}
+
+	/**
+	 * Kind of value, for each tag.
+	 */
+	private final byte[] kinds;
+
+	/**
+	 * Integral values.
+	 */
+	private final long[] longs;
+
+	/**
+	 * Decimal values.
+	 */
+	private final double[] doubles;
+
+	/**
+	 * String values: values are always available for non numeric values,
+	 * and numeric values read as strings.
+	 */
+	private final String[] strings;
+
+	/**
+	 * Number of values.
+	 */
+	private int size;
+
+	private StandardTagValues() {
+		this.kinds = new byte[TAGS.length];
+		this.longs = new long[TAGS.length];
+		this.doubles = new double[TAGS.length];
+		this.strings = new String[TAGS.length];
+	}
+
+	private void put(StandardTag tag, Object value) {
+		int i = tag.ordinal();
+		if (kinds[i] == NONE) {
+			size++;
+		}
+
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			kinds[i] = LONG;
+			longs[i] = ((Number) value).longValue();
+			strings[i] = null;
+		}
+		else if (value instanceof Number) {
+			kinds[i] = DOUBLE;
+			doubles[i] = ((Number) value).doubleValue();
+			strings[i] = null;
+		}
+		else {
+			String str = value instanceof Collection ? join((Collection<?>) value) : value.toString();
+			strings[i] = str;
+			kinds[i] = tag.isNumeric() ? parse(str, i) : STRING;
+		}
+	}
+
+	/**
+	 * Parse numeric value, and store it at given index.
+	 *
+	 * @param value String value.
+	 * @param i Index.
+	 * @return The kind of value.
+	 */
+	private byte parse(String value, int i) {
+		if (parseLong(value, i)) {
+			return LONG;
+		}
+
+		if (value.isEmpty() || !isDecimal(value)) {
+			return STRING;
+		}
+
+		try {
+			doubles[i] = Double.parseDouble(value);
+			return DOUBLE;
+		}
+		catch (NumberFormatException ex) {
+			return STRING;
+		}
+	}
+
+	/**
+	 * Parse an integral value without allocating anything.
+	 *
+	 * @param value String value.
+	 * @param i Index of the value.
+	 * @return {@code true} if value is a valid long, {@code false} otherwise.
+	 */
+	private boolean parseLong(String value, int i) {
+		int length = value.length();
+		int start = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+		if (start == length || length - start > 18) {
+			// Empty values, or values too large to be parsed without overflow checks.
+			return false;
+		}
+
+		long result = 0;
+		for (int j = start; j < length; j++) {
+			char c = value.charAt(j);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+
+			result = result * 10 + (c - '0');
+		}
+
+		longs[i] = value.charAt(0) == '-' ? -result : result;
+		return true;
+	}
+
+	/**
+	 * Check that given value only contains characters that may appear in a decimal number, so
+	 * that values such as {@code "1/60"} or {@code "Infinity"} are rejected without an exception.
+	 *
+	 * @param value String value.
+	 * @return {@code true} if value may be a decimal number, {@code false} otherwise.
+	 */
+	private static boolean isDecimal(String value) {
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char c = value.charAt(i);
+			if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static String join(Collection<?> values) {
+		StringBuilder sb = new StringBuilder();
+		Iterator<?> it = values.iterator();
+		while (it.hasNext()) {
+			sb.append(it.next());
+			if (it.hasNext()) {
+				sb.append(Constants.SEPARATOR);
+			}
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Check if a value is available for given tag.
+	 *
+	 * @param tag The tag.
+	 * @return {@code true} if a value is available, {@code false} otherwise.
+	 */
+	public boolean has(StandardTag tag) {
+		return kinds[tag.ordinal()] != NONE;
+	}
+
+	/**
+	 * Check if a numeric value is available for given tag.
+	 *
+	 * @param tag The tag.
+	 * @return {@code true} if a numeric value is available, {@code false} otherwise.
+	 */
+	public boolean isNumber(StandardTag tag) {
+		byte kind = kinds[tag.ordinal()];
+		return kind == LONG || kind == DOUBLE;
+	}
+
+	/**
+	 * Get value of given tag, as an {@code int}.
+	 *
+	 * @param tag The tag.
+	 * @return The value.
+	 * @throws NoSuchElementException If no value is available for this tag.
+	 * @throws IllegalStateException If value is not an integer.
+	 */
+	public int getInt(StandardTag tag) {
+		long value = getLong(tag);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new IllegalStateException(String.format("Value of tag %s is not an integer: %s", tag, value));
+		}
+
+		return (int) value;
+	}
+
+	/**
+	 * Get value of given tag, as an {@code int}, or a default value if it is not available.
+	 *
+	 * @param tag The tag.
+	 * @param defaultValue Value returned if tag is not available, or is not an integer.
+	 * @return The value.
+	 */
+	public int getInt(StandardTag tag, int defaultValue) {
+		int i = tag.ordinal();
+		return kinds[i] == LONG && longs[i] >= Integer.MIN_VALUE && longs[i] <= Integer.MAX_VALUE ? (int) longs[i] : defaultValue;
+	}
+
+	/**
+	 * Get value of given tag, as a {@code long}.
+	 *
+	 * @param tag The tag.
+	 * @return The value.
+	 * @throws NoSuchElementException If no value is available for this tag.
+	 * @throws IllegalStateException If value is not an integer.
+	 */
+	public long getLong(StandardTag tag) {
+		int i = tag.ordinal();
+		if (kinds[i] != LONG) {
+			throw unavailable(tag, "an integer");
+		}
+
+		return longs[i];
+	}
+
+	/**
+	 * Get value of given tag, as a {@code long}, or a default value if it is not available.
+	 *
+	 * @param tag The tag.
+	 * @param defaultValue Value returned if tag is not available, or is not an integer.
+	 * @return The value.
+	 */
+	public long getLong(StandardTag tag, long defaultValue) {
+		int i = tag.ordinal();
+		return kinds[i] == LONG ? longs[i] : defaultValue;
+	}
+
+	/**
+	 * Get value of given tag, as a {@code double}.
+	 * Integral values are converted to {@code double}.
+	 *
+	 * @param tag The tag.
+	 * @return The value.
+	 * @throws NoSuchElementException If no value is available for this tag.
+	 * @throws IllegalStateException If value is not a number.
+	 */
+	public double getDouble(StandardTag tag) {
+		int i = tag.ordinal();
+		if (kinds[i] == LONG) {
+			return longs[i];
+		}
+
+		if (kinds[i] != DOUBLE) {
+			throw unavailable(tag, "a number");
+		}
+
+		return doubles[i];
+	}
+
+	/**
+	 * Get value of given tag, as a {@code double}, or a default value if it is not available.
+	 *
+	 * @param tag The tag.
+	 * @param defaultValue Value returned if tag is not available, or is not a number.
+	 * @return The value.
+	 */
+	public double getDouble(StandardTag tag, double defaultValue) {
+		int i = tag.ordinal();
+		if (kinds[i] == LONG) {
+			return longs[i];
+		}
+
+		return kinds[i] == DOUBLE ? doubles[i] : defaultValue;
+	}
+
+	/**
+	 * Get value of given tag, as a string.
+	 *
+	 * @param tag The tag.
+	 * @return The value, {@code null} if no value is available for this tag.
+	 */
+	public String getString(StandardTag tag) {
+		int i = tag.ordinal();
+		if (strings[i] != null) {
+			return strings[i];
+		}
+
+		switch (kinds[i]) {
+			case LONG:
+				return Long.toString(longs[i]);
+			case DOUBLE:
+				return Double.toString(doubles[i]);
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Get the number of available values.
+	 *
+	 * @return Number of values.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get available values, as strings.
+	 *
+	 * @return Values, indexed by tag.
+	 */
+	public Map<StandardTag, String> toMap() {
+		Map<StandardTag, String> map = new EnumMap<>(StandardTag.class);
+		for (StandardTag tag : TAGS) {
+			if (has(tag)) {
+				map.put(tag, getString(tag));
+			}
+		}
+
+		return map;
+	}
+
+	private RuntimeException unavailable(StandardTag tag, String expected) {
+		if (kinds[tag.ordinal()] == NONE) {
+			return new NoSuchElementException(String.format("No value available for tag %s", tag));
+		}
+
+		return new IllegalStateException(String.format("Value of tag %s is not %s: %s", tag, expected, getString(tag)));
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("values", toMap())
+				.build();
+	}
+}
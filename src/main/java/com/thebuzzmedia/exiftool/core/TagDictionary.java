@@ -0,0 +1,200 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Tag;
+
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * JVM-wide dictionary of tags and values read from exiftool output.
+ *
+ * <br>
+ *
+ * Reading all tags of many files returns the same tag names (and often the same values)
+ * again and again: this dictionary returns canonical instances, so that identical tags
+ * and values are not allocated for each line.
+ *
+ * <br>
+ *
+ * The dictionary is bounded: each entry is stored in a fixed-size table, indexed by
+ * the hash of the name (or value), and an entry simply replaces the previous one on
+ * collision. Lookups are lock-free and do not allocate anything when the entry is found.
+ *
+ * <strong>Note:</strong> this class is thread safe.
+ */
+public final class TagDictionary {
+
+	/**
+	 * Number of entries in the table of tags.
+	 */
+	private static final int TAGS_SIZE = 4096;
+
+	/**
+	 * Number of entries in the table of values.
+	 */
+	private static final int VALUES_SIZE = 1024;
+
+	/**
+	 * Values longer than this size are not stored in the dictionary.
+	 */
+	private static final int MAX_VALUE_LENGTH = 64;
+
+	/**
+	 * Canonical tags, indexed by hash of the name.
+	 */
+	private static final AtomicReferenceArray<UnspecifiedTag> TAGS = new AtomicReferenceArray<>(TAGS_SIZE);
+
+	/**
+	 * Canonical values, indexed by hash of the value.
+	 */
+	private static final AtomicReferenceArray<String> VALUES = new AtomicReferenceArray<>(VALUES_SIZE);
+
+	/**
+	 * Tags whose values are frequently repeated across files.
+	 */
+	private static final EnumSet<StandardTag> REPEATED_VALUES = EnumSet.of(
+			StandardTag.MAKE,
+			StandardTag.MODEL,
+			StandardTag.LENS_MODEL,
+			StandardTag.FILE_TYPE
+	);
+
+	// Ensure non instantiation.
+	private TagDictionary() {
+	}
+
+	/**
+	 * Get the canonical tag for given name:
+	 *
+	 * <ul>
+	 *   <li>If name is the name of a {@link StandardTag}, this constant is returned.</li>
+	 *   <li>Otherwise, the canonical {@link UnspecifiedTag} is returned (see {@link #unspecifiedTag(CharSequence)}).</li>
+	 * </ul>
+	 *
+	 * @param name Tag name, as printed by exiftool.
+	 * @return The tag.
+	 */
+	public static Tag tag(CharSequence name) {
+		StandardTag tag = StandardTag.fromName(name);
+		return tag == null ? unspecifiedTag(name) : tag;
+	}
+
+	/**
+	 * Get the canonical {@link UnspecifiedTag} for given name.
+	 *
+	 * @param name Tag name, as printed by exiftool.
+	 * @return The tag.
+	 */
+	public static UnspecifiedTag unspecifiedTag(CharSequence name) {
+		int index = hash(name, 0, name.length()) & (TAGS_SIZE - 1);
+		UnspecifiedTag tag = TAGS.get(index);
+		if (tag != null && tag.getName().contentEquals(name)) {
+			return tag;
+		}
+
+		UnspecifiedTag newTag = new UnspecifiedTag(name.toString());
+		TAGS.set(index, newTag);
+		return newTag;
+	}
+
+	/**
+	 * Check if values of given tag are frequently repeated across files (Make, Model,
+	 * LensModel and FileType), and should be read with {@link #value(CharSequence, int, int)}.
+	 *
+	 * Result is resolved once for each {@link UnspecifiedTag}, so this check is cheap for canonical tags.
+	 *
+	 * @param tag The tag.
+	 * @return {@code true} if values should be deduplicated, {@code false} otherwise.
+	 */
+	public static boolean hasRepeatedValues(Tag tag) {
+		if (tag instanceof StandardTag) {
+			return isRepeated((StandardTag) tag);
+		}
+
+		if (tag instanceof UnspecifiedTag) {
+			return ((UnspecifiedTag) tag).hasRepeatedValues();
+		}
+
+		return isRepeated(StandardTag.fromName(tag.getDisplayName()));
+	}
+
+	/**
+	 * Check if values of given standard tag are frequently repeated across files.
+	 *
+	 * @param tag The tag, may be {@code null}.
+	 * @return {@code true} if values should be deduplicated, {@code false} otherwise.
+	 */
+	static boolean isRepeated(StandardTag tag) {
+		return tag != null && REPEATED_VALUES.contains(tag);
+	}
+
+	/**
+	 * Get the canonical string for the given region of a char sequence.
+	 *
+	 * @param chars Char sequence (for example, a line of exiftool output).
+	 * @param start Index of the first char of the value.
+	 * @param end Index after the last char of the value.
+	 * @return The value.
+	 */
+	public static String value(CharSequence chars, int start, int end) {
+		int length = end - start;
+		if (length > MAX_VALUE_LENGTH) {
+			return chars.subSequence(start, end).toString();
+		}
+
+		int index = hash(chars, start, end) & (VALUES_SIZE - 1);
+		String value = VALUES.get(index);
+		if (value != null && regionEquals(value, chars, start, end)) {
+			return value;
+		}
+
+		String newValue = chars.subSequence(start, end).toString();
+		VALUES.set(index, newValue);
+		return newValue;
+	}
+
+	private static boolean regionEquals(String value, CharSequence chars, int start, int end) {
+		if (value.length() != end - start) {
+			return false;
+		}
+
+		for (int i = start; i < end; i++) {
+			if (value.charAt(i - start) != chars.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Compute hash of given region, same as {@link String#hashCode()} with
+	 * high bits spread to lower bits.
+	 */
+	private static int hash(CharSequence chars, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + chars.charAt(i);
+		}
+
+		return h ^ (h >>> 16);
+	}
+}
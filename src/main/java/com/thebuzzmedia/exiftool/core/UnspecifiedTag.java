@@ -44,8 +44,15 @@ public final class UnspecifiedTag implements Tag {
 	 */
 	private final String name;
 
+	/**
+	 * Whether values of this tag are frequently repeated across files, resolved once
+	 * (see {@link TagDictionary#hasRepeatedValues(Tag)}).
+	 */
+	private final boolean repeatedValues;
+
 	public UnspecifiedTag(String name) {
 		this.name = name;
+		this.repeatedValues = name != null && TagDictionary.isRepeated(StandardTag.fromName(name));
 	}
 
 	@Override
@@ -58,6 +65,15 @@ public final class UnspecifiedTag implements Tag {
 		return name;
 	}
 
+	/**
+	 * Check if values of this tag are frequently repeated across files.
+	 *
+	 * @return {@code true} if values should be deduplicated, {@code false} otherwise.
+	 */
+	boolean hasRepeatedValues() {
+		return repeatedValues;
+	}
+
 	@Override
 	public <T> T parse(String value) {
 		// Clearly this won't work if caller is expecting anything other than
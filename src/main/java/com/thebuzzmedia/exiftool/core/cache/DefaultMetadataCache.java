@@ -0,0 +1,154 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.MetadataCacheKey;
+import com.thebuzzmedia.exiftool.MetadataCacheStats;
+import com.thebuzzmedia.exiftool.Tag;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Default implementation for {@link MetadataCache}.
+ * Internally, this implementation use a {@link LinkedHashMap} in access-order: the least
+ * recently used entry is evicted when the maximum size is reached.
+ */
+class DefaultMetadataCache implements MetadataCache {
+
+	/**
+	 * Cached entries.
+	 */
+	private final LinkedHashMap<MetadataCacheKey, CacheEntry> cache;
+
+	/**
+	 * Maximum number of entries.
+	 */
+	private final long maximumSize;
+
+	/**
+	 * Time to live of each entry (in milliseconds), zero or negative if entries never expire.
+	 */
+	private final long expireAfterWrite;
+
+	/**
+	 * Number of lookups that returned a cached value.
+	 */
+	private long hitCount;
+
+	/**
+	 * Number of lookups that did not return a cached value.
+	 */
+	private long missCount;
+
+	/**
+	 * Number of evicted entries.
+	 */
+	private long evictionCount;
+
+	/**
+	 * Create cache.
+	 *
+	 * @param maximumSize Maximum number of entries.
+	 * @param expireAfterWrite Time to live of each entry (in milliseconds), zero or negative if entries never expire.
+	 */
+	DefaultMetadataCache(long maximumSize, long expireAfterWrite) {
+		this.maximumSize = maximumSize;
+		this.expireAfterWrite = expireAfterWrite;
+		this.cache = new LinkedHashMap<MetadataCacheKey, CacheEntry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<MetadataCacheKey, CacheEntry> eldest) {
+				boolean evict = size() > DefaultMetadataCache.this.maximumSize;
+				if (evict) {
+					evictionCount++;
+				}
+
+				return evict;
+			}
+		};
+	}
+
+	@Override
+	public synchronized Map<Tag, String> get(MetadataCacheKey key) {
+		CacheEntry entry = cache.get(key);
+		if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+			cache.remove(key);
+			evictionCount++;
+			entry = null;
+		}
+
+		if (entry == null) {
+			missCount++;
+			return null;
+		}
+
+		hitCount++;
+		return entry.tags;
+	}
+
+	@Override
+	public synchronized void put(MetadataCacheKey key, Map<Tag, String> tags) {
+		long expiresAt = expireAfterWrite > 0 ? System.currentTimeMillis() + expireAfterWrite : Long.MAX_VALUE;
+		cache.put(key, new CacheEntry(tags, expiresAt));
+	}
+
+	@Override
+	public synchronized void invalidate(File image) {
+		String path = MetadataCacheKey.canonicalPath(image);
+		Iterator<MetadataCacheKey> it = cache.keySet().iterator();
+		while (it.hasNext()) {
+			if (Objects.equals(it.next().getPath(), path)) {
+				it.remove();
+			}
+		}
+	}
+
+	@Override
+	public synchronized long size() {
+		return cache.size();
+	}
+
+	@Override
+	public synchronized MetadataCacheStats stats() {
+		return new MetadataCacheStats(hitCount, missCount, evictionCount);
+	}
+
+	@Override
+	public synchronized void clear() {
+		cache.clear();
+	}
+
+	private static class CacheEntry {
+		private final Map<Tag, String> tags;
+		private final long expiresAt;
+
+		private CacheEntry(Map<Tag, String> tags, long expiresAt) {
+			this.tags = tags;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+}
@@ -0,0 +1,1004 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.MetadataCacheKey;
+import com.thebuzzmedia.exiftool.MetadataCacheStats;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.NonConvertedTag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagDictionary;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Implementation of {@link MetadataCache} stored on disk, so that entries survive restarts.
+ *
+ * <br>
+ *
+ * Entries are appended to a single log file, each record being protected by a checksum (a record
+ * partially written when the process was killed is discarded on startup). Only keys are kept in memory,
+ * in an index giving the position of the last record of each entry: values are read from the file
+ * when an entry is found.
+ *
+ * <br>
+ *
+ * Stale entries (image modified, or replaced by another file) are detected when the entry is looked up,
+ * by comparing the file identifier (inode on Unix systems), the size and the last modification date
+ * of the image with the ones stored in the entry.
+ *
+ * <br>
+ *
+ * When the log file becomes larger than the maximum size, it is compacted: outdated records are removed,
+ * and the oldest entries are evicted until the live entries use half of the maximum size.
+ * Compaction runs in a background thread: entries can still be read and added while live entries are
+ * written to a temporary file, that replaces the log file once done (if compaction fails, the cache keeps
+ * using the previous log file and no entry is evicted). The log file may therefore temporarily be larger
+ * than the maximum size.
+ *
+ * <br>
+ *
+ * The index is guarded by the monitor of the cache, which is only held to update or look up the index:
+ * records are read from the log file without holding any lock, and writes are serialized by another lock.
+ *
+ * <br>
+ *
+ * The log file is locked while the cache is open: a cache directory cannot be used by several caches
+ * at the same time, in the same process or in another one.
+ *
+ * <br>
+ *
+ * Only entries whose tags are {@link StandardTag}, {@link UnspecifiedTag} or {@link NonConvertedTag} instances
+ * are stored.
+ */
+class FileMetadataCache implements MetadataCache, Closeable {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(FileMetadataCache.class);
+
+	/**
+	 * Name of the log file, in the cache directory.
+	 */
+	static final String FILE_NAME = "metadata.log";
+
+	/**
+	 * Size of the header of each record: length of the payload and checksum.
+	 */
+	private static final int HEADER_SIZE = 4 + 8;
+
+	/**
+	 * Record type: put an entry.
+	 */
+	private static final byte PUT = 'P';
+
+	/**
+	 * Record type: invalidate all entries of an image.
+	 */
+	private static final byte INVALIDATE = 'I';
+
+	/**
+	 * Tag type: {@link StandardTag}.
+	 */
+	private static final byte STANDARD_TAG = 'S';
+
+	/**
+	 * Tag type: {@link UnspecifiedTag}.
+	 */
+	private static final byte UNSPECIFIED_TAG = 'U';
+
+	/**
+	 * Tag type: {@link NonConvertedTag}.
+	 */
+	private static final byte NON_CONVERTED_TAG = 'N';
+
+	/**
+	 * Charset used to write strings.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Default executor running compaction of the log file: a new daemon thread
+	 * is started for each compaction.
+	 */
+	private static final Executor COMPACTION_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			Thread thread = new Thread(command, "exiftool-cache-compaction");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	};
+
+	/**
+	 * The log file.
+	 */
+	private final File file;
+
+	/**
+	 * Maximum size of the log file, in bytes.
+	 */
+	private final long maximumSize;
+
+	/**
+	 * Executor running compaction of the log file.
+	 */
+	private final Executor compactionExecutor;
+
+	/**
+	 * Position of each entry in the log file, in the order entries have been written.
+	 * Guarded by the monitor of this cache, which is only held to read or update the index.
+	 */
+	private final LinkedHashMap<String, Location> index;
+
+	/**
+	 * Lock serializing writes to the log file (and the replacement of the log file once
+	 * it has been compacted). Lookups never acquire this lock.
+	 * When both are needed, this lock is acquired before the monitor of this cache.
+	 */
+	private final ReentrantLock writeLock;
+
+	/**
+	 * Condition signaled when a compaction ends.
+	 */
+	private final Condition compacted;
+
+	/**
+	 * Channel used to read and write the log file.
+	 * Replaced while holding both {@link #writeLock} and the monitor of this cache.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Size of the log file, guarded by {@link #writeLock}.
+	 */
+	private long end;
+
+	/**
+	 * Flag set while the log file is being compacted, guarded by {@link #writeLock}.
+	 */
+	private boolean compacting;
+
+	/**
+	 * Size of records in the index.
+	 */
+	private long liveSize;
+
+	/**
+	 * Number of lookups that returned a cached value.
+	 */
+	private long hitCount;
+
+	/**
+	 * Number of lookups that did not return a cached value.
+	 */
+	private long missCount;
+
+	/**
+	 * Number of evicted entries.
+	 */
+	private long evictionCount;
+
+	/**
+	 * Create cache, and load entries already stored in given directory.
+	 * The log file is compacted in a background thread.
+	 *
+	 * @param directory Directory of the cache.
+	 * @param maximumSize Maximum size of the log file, in bytes.
+	 * @throws IOException If the log file cannot be opened.
+	 */
+	FileMetadataCache(File directory, long maximumSize) throws IOException {
+		this(directory, maximumSize, COMPACTION_EXECUTOR);
+	}
+
+	/**
+	 * Create cache, and load entries already stored in given directory.
+	 *
+	 * @param directory Directory of the cache.
+	 * @param maximumSize Maximum size of the log file, in bytes.
+	 * @param compactionExecutor Executor running compaction of the log file.
+	 * @throws IOException If the log file cannot be opened.
+	 */
+	FileMetadataCache(File directory, long maximumSize, Executor compactionExecutor) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create metadata cache directory: " + directory);
+		}
+
+		this.file = new File(directory, FILE_NAME);
+		this.maximumSize = maximumSize;
+		this.compactionExecutor = compactionExecutor;
+		this.index = new LinkedHashMap<>();
+		this.writeLock = new ReentrantLock();
+		this.compacted = writeLock.newCondition();
+		this.channel = open(file);
+		load();
+	}
+
+	/**
+	 * Open and lock given file.
+	 *
+	 * @param file The file.
+	 * @return Channel used to read and write the file.
+	 * @throws IOException If the file cannot be opened, or is already locked.
+	 */
+	private static FileChannel open(File file) throws IOException {
+		FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+		try {
+			if (channel.tryLock() == null) {
+				throw new IOException("Metadata cache file " + file + " is used by another process");
+			}
+
+			return channel;
+		}
+		catch (OverlappingFileLockException ex) {
+			channel.close();
+			throw new IOException("Metadata cache file " + file + " is already used by another cache", ex);
+		}
+		catch (IOException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Read all records to build the index.
+	 * The log file is truncated after the last valid record.
+	 */
+	private void load() throws IOException {
+		long size = channel.size();
+		long position = 0;
+		while (position < size) {
+			byte[] payload = readRecord(channel, position, size - position);
+			if (payload == null) {
+				log.warn("Metadata cache file {} is truncated at position {}, ignore following records", file, position);
+				channel.truncate(position);
+				break;
+			}
+
+			DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+			byte type = input.readByte();
+			if (type == PUT) {
+				MetadataCacheKey key = readKey(input);
+				index(key, new Location(position, HEADER_SIZE + payload.length, key));
+			}
+			else if (type == INVALIDATE) {
+				remove(readString(input));
+			}
+
+			position += HEADER_SIZE + payload.length;
+		}
+
+		end = position;
+		log.debug("Metadata cache loaded from {} [{} entries]", file, index.size());
+	}
+
+	/**
+	 * Read payload of record at given position.
+	 * Positional reads are thread safe: this method does not need any lock.
+	 *
+	 * @param channel Channel of the log file.
+	 * @param position Position of the record.
+	 * @param available Number of bytes available after this position.
+	 * @return Payload, {@code null} if record is truncated or corrupted.
+	 */
+	private static byte[] readRecord(FileChannel channel, long position, long available) throws IOException {
+		if (available < HEADER_SIZE) {
+			return null;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(channel, header, position);
+		header.flip();
+
+		int length = header.getInt();
+		long checksum = header.getLong();
+		if (length <= 0 || length > available - HEADER_SIZE) {
+			return null;
+		}
+
+		ByteBuffer payload = ByteBuffer.allocate(length);
+		readFully(channel, payload, position + HEADER_SIZE);
+		return checksum(payload.array()) == checksum ? payload.array() : null;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0) {
+				throw new EOFException();
+			}
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+	}
+
+	/**
+	 * Get the entry: the monitor of this cache is only held to look up the index,
+	 * the record is read from the log file without holding any lock.
+	 * If the log file is replaced (or cleared) meanwhile, the entry is looked up again.
+	 */
+	@Override
+	public Map<Tag, String> get(MetadataCacheKey key) {
+		String id = id(key);
+		while (true) {
+			Location location;
+			FileChannel source;
+			synchronized (this) {
+				location = index.get(id);
+				if (location != null && !location.key.equals(key)) {
+					// The image has been modified since the entry has been written.
+					log.debug("Stale entry in metadata cache: {}", location.key);
+					unindex(id);
+					evictionCount++;
+					location = null;
+				}
+
+				if (location == null) {
+					missCount++;
+					return null;
+				}
+
+				source = channel;
+			}
+
+			try {
+				Map<Tag, String> tags = read(source, location);
+				synchronized (this) {
+					hitCount++;
+				}
+
+				return tags;
+			}
+			catch (IOException | IllegalArgumentException ex) {
+				synchronized (this) {
+					if (channel == source && index.get(id) == location) {
+						log.warn(String.format("Unable to read metadata cache entry %s, ignore it", location.key), ex);
+						unindex(id);
+						missCount++;
+						return null;
+					}
+				}
+
+				// Entry has been moved by a compaction, or removed, in the meantime.
+			}
+		}
+	}
+
+	private static Map<Tag, String> read(FileChannel channel, Location location) throws IOException {
+		byte[] payload = readRecord(channel, location.position, location.length);
+		if (payload == null) {
+			throw new IOException("Corrupted record at position " + location.position);
+		}
+
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+		input.readByte();
+		readKey(input);
+
+		int size = input.readInt();
+		Map<Tag, String> tags = new LinkedHashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			Tag tag = readTag(input);
+			tags.put(tag, readString(input));
+		}
+
+		return unmodifiableMap(tags);
+	}
+
+	/**
+	 * Add the entry: the record is appended while holding {@link #writeLock}, and the monitor
+	 * of this cache is only held to update the index.
+	 * If the log file becomes too large, compaction is submitted to the compaction executor.
+	 */
+	@Override
+	public void put(MetadataCacheKey key, Map<Tag, String> tags) {
+		boolean compact = false;
+
+		try {
+			byte[] payload = encode(key, tags);
+			if (payload == null) {
+				log.debug("Metadata of {} cannot be stored on disk (unsupported tag)", key.getPath());
+				return;
+			}
+
+			writeLock.lock();
+			try {
+				long position = append(payload);
+				synchronized (this) {
+					index(key, new Location(position, HEADER_SIZE + payload.length, key));
+				}
+
+				if (end > maximumSize && !compacting) {
+					compacting = true;
+					compact = true;
+				}
+			}
+			finally {
+				writeLock.unlock();
+			}
+		}
+		catch (IOException ex) {
+			log.warn(String.format("Unable to write metadata cache entry %s", key), ex);
+		}
+
+		if (compact) {
+			submitCompaction();
+		}
+	}
+
+	@Override
+	public void invalidate(File image) {
+		String path = MetadataCacheKey.canonicalPath(image);
+
+		writeLock.lock();
+		try {
+			boolean removed;
+			synchronized (this) {
+				removed = remove(path);
+			}
+
+			if (removed) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream output = new DataOutputStream(bytes);
+				output.writeByte(INVALIDATE);
+				writeString(output, path);
+				append(bytes.toByteArray());
+			}
+		}
+		catch (IOException ex) {
+			log.warn(String.format("Unable to invalidate metadata cache entries of %s", path), ex);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public synchronized long size() {
+		return index.size();
+	}
+
+	@Override
+	public synchronized MetadataCacheStats stats() {
+		return new MetadataCacheStats(hitCount, missCount, evictionCount);
+	}
+
+	/**
+	 * Remove all entries: waits for the pending compaction, if any.
+	 */
+	@Override
+	public void clear() {
+		writeLock.lock();
+		try {
+			awaitCompaction();
+
+			synchronized (this) {
+				index.clear();
+				liveSize = 0;
+			}
+
+			end = 0;
+			channel.truncate(0);
+		}
+		catch (IOException ex) {
+			log.warn(String.format("Unable to clear metadata cache file %s", file), ex);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Close the log file: waits for the pending compaction, if any.
+	 */
+	@Override
+	public void close() throws IOException {
+		writeLock.lock();
+		try {
+			awaitCompaction();
+			channel.close();
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Wait until the pending compaction, if any, is done.
+	 * Must be called while holding {@link #writeLock}.
+	 */
+	private void awaitCompaction() {
+		while (compacting) {
+			compacted.awaitUninterruptibly();
+		}
+	}
+
+	/**
+	 * Append record to the log file.
+	 * Must be called while holding {@link #writeLock}.
+	 *
+	 * @param payload Payload of the record.
+	 * @return Position of the record.
+	 */
+	private long append(byte[] payload) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+		buffer.putInt(payload.length);
+		buffer.putLong(checksum(payload));
+		buffer.put(payload);
+		buffer.flip();
+
+		long position = end;
+		writeFully(channel, buffer, position);
+		end += buffer.limit();
+		return position;
+	}
+
+	/**
+	 * Submit compaction of the log file to the compaction executor.
+	 * The {@link #compacting} flag is reset once compaction is done, or if it cannot be submitted.
+	 */
+	private void submitCompaction() {
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					compact();
+				}
+				catch (IOException | RuntimeException ex) {
+					log.warn(String.format("Unable to compact metadata cache file %s", file), ex);
+				}
+				finally {
+					endCompaction();
+				}
+			}
+		};
+
+		try {
+			compactionExecutor.execute(task);
+		}
+		catch (RejectedExecutionException ex) {
+			log.warn(String.format("Unable to compact metadata cache file %s", file), ex);
+			endCompaction();
+		}
+	}
+
+	private void endCompaction() {
+		writeLock.lock();
+		try {
+			compacting = false;
+			compacted.signalAll();
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Rewrite the log file with live entries only, evicting the oldest entries
+	 * until live entries use half of the maximum size.
+	 *
+	 * <br>
+	 *
+	 * Live records are copied to a temporary file without holding any lock: entries may still be
+	 * read, added or invalidated meanwhile. Then, while holding {@link #writeLock}, records
+	 * appended in the meantime are copied too, and the temporary file replaces the log file.
+	 * The index is updated only once the log file has been replaced, so that it
+	 * still matches the log file if compaction fails.
+	 */
+	private void compact() throws IOException {
+		// Snapshot of the log file, and of the records to copy.
+		long snapshotEnd;
+		FileChannel source;
+		List<String> ids;
+		List<Location> sources;
+		Map<String, Location> evicted = new HashMap<>();
+
+		writeLock.lock();
+		try {
+			snapshotEnd = end;
+			source = channel;
+
+			synchronized (this) {
+				long size = liveSize;
+				ids = new ArrayList<>(index.size());
+				sources = new ArrayList<>(index.size());
+				for (Map.Entry<String, Location> entry : index.entrySet()) {
+					if (size > maximumSize / 2) {
+						size -= entry.getValue().length;
+						evicted.put(entry.getKey(), entry.getValue());
+					}
+					else {
+						ids.add(entry.getKey());
+						sources.add(entry.getValue());
+					}
+				}
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+
+		File tmp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+		FileChannel output = open(tmp);
+		try {
+			output.truncate(0);
+
+			long position = 0;
+			List<Location> locations = new ArrayList<>(sources.size());
+			for (Location location : sources) {
+				ByteBuffer buffer = ByteBuffer.allocate(location.length);
+				readFully(source, buffer, location.position);
+				buffer.flip();
+				writeFully(output, buffer, position);
+
+				locations.add(new Location(position, location.length, location.key));
+				position += location.length;
+			}
+
+			output.force(true);
+
+			writeLock.lock();
+			try {
+				swap(tmp, output, snapshotEnd, position, ids, sources, locations, evicted);
+			}
+			finally {
+				writeLock.unlock();
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			output.close();
+			Files.deleteIfExists(tmp.toPath());
+			throw ex;
+		}
+	}
+
+	/**
+	 * Copy records appended since the snapshot, then replace the log file by the compacted file
+	 * and update the index.
+	 * Must be called while holding {@link #writeLock}.
+	 *
+	 * @param tmp The compacted file.
+	 * @param output Channel of the compacted file.
+	 * @param snapshotEnd Size of the log file when compaction started.
+	 * @param position Size of the compacted file.
+	 * @param ids Identifiers of copied entries.
+	 * @param sources Locations of copied entries in the log file.
+	 * @param locations Locations of copied entries in the compacted file.
+	 * @param evicted Evicted entries.
+	 */
+	private void swap(File tmp, FileChannel output, long snapshotEnd, long position, List<String> ids, List<Location> sources, List<Location> locations, Map<String, Location> evicted) throws IOException {
+		long tail = end - snapshotEnd;
+		if (tail > 0) {
+			ByteBuffer buffer = ByteBuffer.allocate((int) tail);
+			readFully(channel, buffer, snapshotEnd);
+			buffer.flip();
+			writeFully(output, buffer, position);
+			output.force(true);
+		}
+
+		// Lookups keep reading the previous log file until the index is updated: it is
+		// closed first only if the log file cannot be replaced while it is open.
+		boolean replaced = tryMove(tmp, file);
+
+		FileChannel previous;
+		synchronized (this) {
+			if (!replaced) {
+				replace(tmp);
+			}
+
+			// The compacted file (still locked) is now the log file.
+			previous = channel;
+			channel = output;
+			end = position + tail;
+
+			// Evict oldest entries that have not been updated in the meantime.
+			for (Map.Entry<String, Location> entry : evicted.entrySet()) {
+				if (index.get(entry.getKey()) == entry.getValue()) {
+					unindex(entry.getKey());
+					evictionCount++;
+				}
+			}
+
+			// Records appended since the snapshot have been moved with the tail.
+			long shift = position - snapshotEnd;
+			for (Map.Entry<String, Location> entry : index.entrySet()) {
+				Location location = entry.getValue();
+				if (location.position >= snapshotEnd) {
+					entry.setValue(new Location(location.position + shift, location.length, location.key));
+				}
+			}
+
+			for (int i = 0; i < ids.size(); i++) {
+				String id = ids.get(i);
+				if (index.get(id) == sources.get(i)) {
+					index.put(id, locations.get(i));
+				}
+			}
+		}
+
+		// Pending lookups of the previous log file look up their entry again.
+		try {
+			previous.close();
+		}
+		catch (IOException ex) {
+			log.warn(String.format("Unable to close previous metadata cache file %s", file), ex);
+		}
+
+		log.debug("Metadata cache compacted [{} entries, {} bytes]", size(), end);
+	}
+
+	/**
+	 * Replace the log file by the compacted file, once the log file has been closed: this is needed
+	 * if the log file cannot be replaced while it is open (on Windows for example). The log file is
+	 * opened again if it still cannot be replaced.
+	 * Must be called while holding {@link #writeLock} and the monitor of this cache, so that
+	 * lookups do not use the closed channel.
+	 *
+	 * @param tmp The compacted file.
+	 * @throws IOException If the log file cannot be replaced.
+	 */
+	private void replace(File tmp) throws IOException {
+		log.debug("Unable to replace open metadata cache file {}, close it first", file);
+		channel.close();
+
+		try {
+			move(tmp, file);
+		}
+		catch (IOException ex) {
+			channel = open(file);
+			throw ex;
+		}
+	}
+
+	private static boolean tryMove(File source, File target) {
+		try {
+			move(source, target);
+			return true;
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private static void move(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException ex) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void index(MetadataCacheKey key, Location location) {
+		String id = id(key);
+		unindex(id);
+		index.put(id, location);
+		liveSize += location.length;
+	}
+
+	private void unindex(String id) {
+		Location previous = index.remove(id);
+		if (previous != null) {
+			liveSize -= previous.length;
+		}
+	}
+
+	/**
+	 * Remove all entries of given path from the index.
+	 *
+	 * @param path Canonical path.
+	 * @return {@code true} if at least one entry has been removed, {@code false} otherwise.
+	 */
+	private boolean remove(String path) {
+		boolean removed = false;
+		Iterator<Location> it = index.values().iterator();
+		while (it.hasNext()) {
+			Location location = it.next();
+			if (Objects.equals(location.key.getPath(), path)) {
+				liveSize -= location.length;
+				it.remove();
+				removed = true;
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Identifier of entries: an entry is identified by the image, the format and the
+	 * requested tags; file identifier, size and last modification date are used to detect
+	 * stale entries.
+	 */
+	private static String id(MetadataCacheKey key) {
+		StringBuilder sb = new StringBuilder(key.getPath()).append('\0');
+		for (String arg : key.getFormat()) {
+			sb.append(arg).append('\1');
+		}
+
+		sb.append('\0');
+		for (String tag : new TreeSet<>(key.getTags())) {
+			sb.append(tag).append('\1');
+		}
+
+		return sb.toString();
+	}
+
+	private static byte[] encode(MetadataCacheKey key, Map<Tag, String> tags) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		output.writeByte(PUT);
+		writeString(output, key.getPath());
+		writeString(output, key.getFileKey() == null ? "" : key.getFileKey());
+		output.writeLong(key.getSize());
+		output.writeLong(key.getLastModified());
+		writeStrings(output, key.getFormat());
+		writeStrings(output, key.getTags());
+
+		output.writeInt(tags.size());
+		for (Map.Entry<Tag, String> entry : tags.entrySet()) {
+			if (!writeTag(output, entry.getKey())) {
+				return null;
+			}
+
+			writeString(output, entry.getValue());
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static MetadataCacheKey readKey(DataInputStream input) throws IOException {
+		String path = readString(input);
+		String fileKey = readString(input);
+		long size = input.readLong();
+		long lastModified = input.readLong();
+		List<String> format = readStrings(input);
+		List<String> tags = readStrings(input);
+		return MetadataCacheKey.of(path, fileKey.isEmpty() ? null : fileKey, size, lastModified, format, new TreeSet<>(tags));
+	}
+
+	private static boolean writeTag(DataOutputStream output, Tag tag) throws IOException {
+		if (tag instanceof StandardTag) {
+			output.writeByte(STANDARD_TAG);
+			writeString(output, ((StandardTag) tag).name());
+			return true;
+		}
+
+		if (tag instanceof UnspecifiedTag) {
+			output.writeByte(UNSPECIFIED_TAG);
+			writeString(output, tag.getName());
+			return true;
+		}
+
+		if (tag instanceof NonConvertedTag) {
+			// The original tag is not available, but its name is the display name of the non converted tag.
+			Tag original = StandardTag.fromName(tag.getDisplayName());
+			if (original == null || !NonConvertedTag.of(original).equals(tag)) {
+				original = TagDictionary.unspecifiedTag(tag.getDisplayName());
+			}
+
+			output.writeByte(NON_CONVERTED_TAG);
+			return NonConvertedTag.of(original).equals(tag) && writeTag(output, original);
+		}
+
+		return false;
+	}
+
+	private static Tag readTag(DataInputStream input) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case STANDARD_TAG:
+				return StandardTag.valueOf(readString(input));
+			case UNSPECIFIED_TAG:
+				return TagDictionary.unspecifiedTag(readString(input));
+			case NON_CONVERTED_TAG:
+				return NonConvertedTag.of(readTag(input));
+			default:
+				throw new IOException("Unknown tag type: " + type);
+		}
+	}
+
+	private static void writeStrings(DataOutputStream output, Collection<String> values) throws IOException {
+		output.writeInt(values.size());
+		for (String value : values) {
+			writeString(output, value);
+		}
+	}
+
+	private static List<String> readStrings(DataInputStream input) throws IOException {
+		int size = input.readInt();
+		List<String> values = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			values.add(readString(input));
+		}
+
+		return values;
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		byte[] bytes = new byte[input.readInt()];
+		input.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	private static long checksum(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		return crc.getValue();
+	}
+
+	/**
+	 * Position of a record in the log file.
+	 */
+	private static class Location {
+		private final long position;
+		private final int length;
+		private final MetadataCacheKey key;
+
+		private Location(long position, int length, MetadataCacheKey key) {
+			this.position = position;
+			this.length = length;
+			this.key = key;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.MetadataCacheKey;
+import com.thebuzzmedia.exiftool.MetadataCacheStats;
+import com.thebuzzmedia.exiftool.Tag;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of {@link MetadataCache} using Guava as internal
+ * implementation.
+ */
+class GuavaMetadataCache implements MetadataCache {
+
+	/**
+	 * Guava cache implementation.
+	 */
+	private final Cache<MetadataCacheKey, Map<Tag, String>> cache;
+
+	/**
+	 * Create Guava Cache.
+	 *
+	 * @param maximumSize Maximum number of entries.
+	 * @param expireAfterWrite Time to live of each entry (in milliseconds), zero or negative if entries never expire.
+	 */
+	GuavaMetadataCache(long maximumSize, long expireAfterWrite) {
+		CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+				.maximumSize(maximumSize)
+				.recordStats();
+
+		if (expireAfterWrite > 0) {
+			builder.expireAfterWrite(expireAfterWrite, TimeUnit.MILLISECONDS);
+		}
+
+		this.cache = builder.build();
+	}
+
+	@Override
+	public Map<Tag, String> get(MetadataCacheKey key) {
+		return cache.getIfPresent(key);
+	}
+
+	@Override
+	public void put(MetadataCacheKey key, Map<Tag, String> tags) {
+		cache.put(key, tags);
+	}
+
+	@Override
+	public void invalidate(File image) {
+		String path = MetadataCacheKey.canonicalPath(image);
+		Iterator<MetadataCacheKey> it = cache.asMap().keySet().iterator();
+		while (it.hasNext()) {
+			if (Objects.equals(it.next().getPath(), path)) {
+				it.remove();
+			}
+		}
+	}
+
+	@Override
+	public long size() {
+		return cache.size();
+	}
+
+	@Override
+	public MetadataCacheStats stats() {
+		CacheStats stats = cache.stats();
+		return new MetadataCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount());
+	}
+
+	@Override
+	public void clear() {
+		cache.invalidateAll();
+	}
+}
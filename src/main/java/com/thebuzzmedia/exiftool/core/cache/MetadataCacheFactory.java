@@ -0,0 +1,91 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+import static com.thebuzzmedia.exiftool.commons.reflection.DependencyUtils.isGuavaAvailable;
+
+/**
+ * {@link MetadataCache} factory.
+ */
+public final class MetadataCacheFactory {
+
+	// Ensure non instantiation.
+	private MetadataCacheFactory() {
+	}
+
+	/**
+	 * Create new cache for image metadata, entries never expire.
+	 *
+	 * @param maximumSize Maximum number of entries.
+	 * @return New instance of {@link MetadataCache}.
+	 * @throws IllegalArgumentException If {@code maximumSize} is not strictly positive.
+	 */
+	public static MetadataCache newCache(long maximumSize) {
+		return newCache(maximumSize, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Create new cache for image metadata.
+	 *
+	 * @param maximumSize Maximum number of entries.
+	 * @param expireAfterWrite Time to live of each entry, zero if entries never expire.
+	 * @param unit Unit of {@code expireAfterWrite}.
+	 * @return New instance of {@link MetadataCache}.
+	 * @throws IllegalArgumentException If {@code maximumSize} is not strictly positive.
+	 */
+	public static MetadataCache newCache(long maximumSize, long expireAfterWrite, TimeUnit unit) {
+		isPositive(maximumSize, "Maximum size of metadata cache must be strictly positive");
+		notNull(unit, "Time unit should not be null");
+
+		long ttl = unit.toMillis(expireAfterWrite);
+		return isGuavaAvailable() ? new GuavaMetadataCache(maximumSize, ttl) : new DefaultMetadataCache(maximumSize, ttl);
+	}
+
+	/**
+	 * Create new cache for image metadata, stored on disk in given directory: entries survive
+	 * restarts of the application.
+	 *
+	 * <br>
+	 *
+	 * Entries are appended to a log file, compacted when its size becomes larger than {@code maximumSize}
+	 * (oldest entries being evicted if needed). Compaction runs in a background thread, while entries can
+	 * still be read and added. The returned cache implements {@link java.io.Closeable},
+	 * it should be closed when it is not used anymore: the log file is locked until then, so that a directory
+	 * cannot be used by several caches at the same time.
+	 *
+	 * @param directory Directory of the cache (created if it does not exist).
+	 * @param maximumSize Maximum size of the cache on disk, in bytes.
+	 * @return New instance of {@link MetadataCache}.
+	 * @throws IOException If the cache cannot be opened, or is already used by another cache.
+	 * @throws IllegalArgumentException If {@code maximumSize} is not strictly positive.
+	 */
+	public static MetadataCache newFileCache(File directory, long maximumSize) throws IOException {
+		notNull(directory, "Directory should not be null");
+		isPositive(maximumSize, "Maximum size of metadata cache must be strictly positive");
+		return new FileMetadataCache(directory, maximumSize);
+	}
+}
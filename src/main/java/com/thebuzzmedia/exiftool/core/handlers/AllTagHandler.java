@@ -18,21 +18,81 @@
 package com.thebuzzmedia.exiftool.core.handlers;
 
 import com.thebuzzmedia.exiftool.Tag;
-import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.core.TagDictionary;
 
 /**
  * Read all tags line by line.
  *
  * <br>
  *
+ * Tags are canonical instances returned by {@link TagDictionary}, so the same
+ * tag is not allocated again for each line of each file:
+ *
+ * <ul>
+ *   <li>By default, tags are {@link com.thebuzzmedia.exiftool.core.UnspecifiedTag} instances.</li>
+ *   <li>If standard tags are enabled, names that match a {@link com.thebuzzmedia.exiftool.core.StandardTag}
+ *   are mapped to this constant, so that {@link Tag#parse(String)} returns a typed value.</li>
+ * </ul>
+ *
+ * Optionally, values that are frequently repeated across files (Make, Model, LensModel and FileType)
+ * are deduplicated with the same dictionary.
+ *
+ * <br>
+ *
  * This class is not thread-safe and should be used to
  * read exiftool output from one thread (should not be shared across
  * several threads).
  */
 public class AllTagHandler extends BaseTagHandler {
 
+	/**
+	 * Map names to standard tags, if {@code true}.
+	 */
+	private final boolean standardTags;
+
+	/**
+	 * Deduplicate values frequently repeated across files, if {@code true}.
+	 */
+	private final boolean deduplicateValues;
+
+	/**
+	 * Create handler, reading tags as {@link com.thebuzzmedia.exiftool.core.UnspecifiedTag}.
+	 */
+	public AllTagHandler() {
+		this(false);
+	}
+
+	/**
+	 * Create handler.
+	 *
+	 * @param standardTags If {@code true}, names that match a {@link com.thebuzzmedia.exiftool.core.StandardTag} are read as this constant.
+	 */
+	public AllTagHandler(boolean standardTags) {
+		this(standardTags, false);
+	}
+
+	/**
+	 * Create handler.
+	 *
+	 * @param standardTags If {@code true}, names that match a {@link com.thebuzzmedia.exiftool.core.StandardTag} are read as this constant.
+	 * @param deduplicateValues If {@code true}, values frequently repeated across files are read as canonical strings (see {@link TagDictionary#value(CharSequence, int, int)}).
+	 */
+	public AllTagHandler(boolean standardTags, boolean deduplicateValues) {
+		this.standardTags = standardTags;
+		this.deduplicateValues = deduplicateValues;
+	}
+
 	@Override
-	Tag toTag(String name) {
-		return new UnspecifiedTag(name);
+	Tag toTag(CharSequence name) {
+		return standardTags ? TagDictionary.tag(name) : TagDictionary.unspecifiedTag(name);
+	}
+
+	@Override
+	String toValue(Tag tag, CharSequence line, int start) {
+		if (deduplicateValues && TagDictionary.hasRepeatedValues(tag)) {
+			return TagDictionary.value(line, start, line.length());
+		}
+
+		return super.toValue(tag, line, start);
 	}
 }
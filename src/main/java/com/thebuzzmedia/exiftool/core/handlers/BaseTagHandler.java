@@ -20,10 +20,10 @@ package com.thebuzzmedia.exiftool.core.handlers;
 import com.thebuzzmedia.exiftool.Tag;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
 import static java.util.Collections.unmodifiableMap;
@@ -37,7 +37,7 @@ import static java.util.Collections.unmodifiableMap;
  * read exiftool output from one thread (should not be shared across
  * several threads).
  */
-public abstract class BaseTagHandler implements TagHandler {
+public abstract class BaseTagHandler implements TagHandler, CharSequenceOutputHandler {
 
 	/**
 	 * Class logger.
@@ -45,54 +45,116 @@ public abstract class BaseTagHandler implements TagHandler {
 	private static final Logger log = LoggerFactory.getLogger(BaseTagHandler.class);
 
 	/**
-	 * Compiled {@link Pattern} of {@code ": "} used to split compact output from
-	 * ExifTool evenly into name/value pairs.
+	 * Separator between name and value in compact output from ExifTool.
 	 */
-	private static final Pattern TAG_VALUE_PATTERN = Pattern.compile(": ");
+	private static final String TAG_VALUE_SEPARATOR = ": ";
 
 	/**
 	 * Map of tags found.
 	 * Each tags will be added one by one during line processing.
 	 */
-	private final Map<Tag, String> tags = new HashMap<>();
+	private final Map<Tag, String> tags;
+
+	/**
+	 * View over the name of the tag being read, reused for each line.
+	 */
+	private final Slice name = new Slice();
+
+	/**
+	 * Create handler, tags will be stored in a {@link HashMap}.
+	 */
+	protected BaseTagHandler() {
+		this(new HashMap<Tag, String>());
+	}
+
+	/**
+	 * Create handler storing tags in given map.
+	 *
+	 * @param tags Map of tags.
+	 */
+	BaseTagHandler(Map<Tag, String> tags) {
+		this.tags = tags;
+	}
 
 	@Override
 	public boolean readLine(String line) {
+		return readChars(line);
+	}
+
+	@Override
+	public boolean readChars(CharSequence line) {
 		// If line is null, then this is the end.
 		// If line is strictly equals to "{ready}", then it means that stay_open feature
 		// is enabled and this is the end of the output.
-		if (!stopHandler().readLine(line)) {
+		if (!stopHandler().readChars(line)) {
 			return false;
 		}
 
 		// Now, we are sure we can process line.
-		String[] pair = TAG_VALUE_PATTERN.split(line, 2);
-		if (pair != null && pair.length == 2) {
+		// The line may be a view over the reader buffer: strings are only created for
+		// tags that are kept.
+		int index = indexOfSeparator(line);
+		if (index >= 0) {
 			// Determine the tag represented by this value.
-			String name = pair[0];
-			String value = pair[1];
-
-			final Tag tag = toTag(name);
+			final Tag tag = toTag(name.reset(line, index));
 			if (tag != null) {
+				String value = toValue(tag, line, index + TAG_VALUE_SEPARATOR.length());
 				tags.put(tag, value);
-				log.debug("Read Tag [name={}, value={}]", tag, value);
+
+				if (log.isDebugEnabled()) {
+					log.debug("Read Tag [name={}, value={}]", tag, value);
+				}
 			}
-			else {
-				log.debug("Unable to read Tag: {}", line);
+			else if (log.isDebugEnabled()) {
+				log.debug("Unable to read Tag: {}", line.toString());
 			}
 		}
 		else {
-			log.warn("Skipped line: {}", line);
+			log.warn("Skipped line: {}", line.toString());
 		}
 
 		return true;
 	}
 
 	/**
-	 * Get a {@link Tag} for the given exif name
+	 * Find index of the first name/value separator in given line.
+	 *
+	 * @param line The line.
+	 * @return Index of separator, {@code -1} if line does not contain any separator.
+	 */
+	private static int indexOfSeparator(CharSequence line) {
+		for (int i = 0, max = line.length() - 1; i < max; i++) {
+			if (line.charAt(i) == ':' && line.charAt(i + 1) == ' ') {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Get a {@link Tag} for the given exif name.
+	 *
+	 * <br>
+	 *
+	 * The name may be a view over the line being read: implementations must
+	 * not keep a reference to it.
+	 *
 	 * @param name the name of the tag
 	 */
-	abstract Tag toTag(String name);
+	abstract Tag toTag(CharSequence name);
+
+	/**
+	 * Get the value of given tag, starting at given index of the line.
+	 *
+	 * @param tag The tag.
+	 * @param line The line.
+	 * @param start Index of the first char of the value.
+	 * @return The value.
+	 */
+	String toValue(Tag tag, CharSequence line, int start) {
+		return line.subSequence(start, line.length()).toString();
+	}
 
 	@Override
 	public Map<Tag, String> getTags() {
@@ -103,4 +165,54 @@ public abstract class BaseTagHandler implements TagHandler {
 	public int size() {
 		return tags.size();
 	}
+
+	/**
+	 * Mutable view over the beginning of a line.
+	 */
+	private static final class Slice implements CharSequence {
+
+		/**
+		 * The line.
+		 */
+		private CharSequence line;
+
+		/**
+		 * Length of the view.
+		 */
+		private int length;
+
+		Slice reset(CharSequence line, int length) {
+			this.line = line;
+			this.length = length;
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index >= length) {
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			}
+
+			return line.charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (end > length) {
+				throw new IndexOutOfBoundsException(String.valueOf(end));
+			}
+
+			return line.subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return line.subSequence(0, length).toString();
+		}
+	}
 }
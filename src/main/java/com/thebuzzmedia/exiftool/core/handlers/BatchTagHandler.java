@@ -0,0 +1,343 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.ImageMetaResult;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Read tags of several files line by line.
+ *
+ * <br>
+ *
+ * When several files are given to exiftool, the output of each file is preceded by
+ * a section header such as {@code ======== /path/to/file}. Each section is given to
+ * a dedicated {@link StandardTagHandler}, so tags are attributed to the file
+ * that produced them.
+ *
+ * <br>
+ *
+ * A file is considered as failed if:
+ * <ul>
+ *   <li>Its section contains an {@code Error} tag (unknown file type, corrupted file, etc.).</li>
+ *   <li>Or if exiftool did not print any section for it (file not found, etc.).</li>
+ * </ul>
+ *
+ * If output is printed in JSON format (see {@code -j} option), it is decoded with a
+ * {@link JsonTagHandler} instead, using the {@code SourceFile} and {@code Error} members
+ * of each file.
+ *
+ * <br>
+ *
+ * Lines printed by exiftool on error output are attributed to the file whose path
+ * ends the line (i.e {@code Warning: [minor] ... - /path/to/file}), and are available as
+ * warnings on results. Lines without any path cannot be attributed (error output is read
+ * after standard output, so sections cannot be used): they are kept as warnings of the whole
+ * batch (see {@link #getWarnings()}), unless a single file has been given.
+ *
+ * <br>
+ *
+ * This class is not thread-safe and should be used to
+ * read exiftool output from one thread (should not be shared across
+ * several threads).
+ */
+public class BatchTagHandler implements ErrorOutputHandler {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(BatchTagHandler.class);
+
+	/**
+	 * Prefix of section header printed by exiftool for each file.
+	 */
+	private static final String SECTION_PREFIX = "======== ";
+
+	/**
+	 * Prefix of the {@code Error} tag printed by exiftool when a file cannot be read.
+	 */
+	private static final String ERROR_PREFIX = "Error: ";
+
+	/**
+	 * Error returned for files that do not appear in exiftool output.
+	 */
+	private static final String MISSING_ERROR = "No output returned by exiftool for this file";
+
+	/**
+	 * The {@code Error} tag, printed by exiftool when a file cannot be read.
+	 */
+	private static final Tag ERROR_TAG = new UnspecifiedTag("Error");
+
+	/**
+	 * Expected tags.
+	 */
+	private final Collection<? extends Tag> tags;
+
+	/**
+	 * Files, in the order they were given to exiftool.
+	 */
+	private final List<File> files;
+
+	/**
+	 * Files indexed by the path given to exiftool (which is the path printed
+	 * in section headers).
+	 */
+	private final Map<String, File> paths;
+
+	/**
+	 * Handler of each file section found in the output.
+	 */
+	private final Map<File, StandardTagHandler> handlers;
+
+	/**
+	 * Errors found in the output for each file.
+	 */
+	private final Map<File, String> errors;
+
+	/**
+	 * Warnings found in the error output for each file.
+	 */
+	private final Map<File, List<String>> warnings;
+
+	/**
+	 * Warnings found in the error output that cannot be attributed to a file.
+	 */
+	private final List<String> batchWarnings;
+
+	/**
+	 * Handler decoding JSON output, {@code null} if output is not printed in JSON format.
+	 */
+	private final JsonTagHandler json;
+
+	/**
+	 * File of the section being currently read, {@code null} if no section
+	 * has been started yet.
+	 */
+	private File current;
+
+	/**
+	 * Create handler.
+	 *
+	 * @param files Files given to exiftool.
+	 * @param tags Expected list of tags.
+	 * @throws NullPointerException If {@code files} is {@code null}.
+	 * @throws IllegalArgumentException If {@code files} is empty.
+	 */
+	public BatchTagHandler(Collection<File> files, Collection<? extends Tag> tags) {
+		this(files, tags, false);
+	}
+
+	/**
+	 * Create handler.
+	 *
+	 * @param files Files given to exiftool.
+	 * @param tags Expected list of tags.
+	 * @param json {@code true} if output is printed in JSON format, {@code false} otherwise.
+	 * @throws NullPointerException If {@code files} is {@code null}.
+	 * @throws IllegalArgumentException If {@code files} is empty.
+	 */
+	public BatchTagHandler(Collection<File> files, Collection<? extends Tag> tags, boolean json) {
+		notEmpty(files, "Files should not be empty");
+
+		this.tags = tags;
+		this.files = new ArrayList<>(files);
+		this.paths = new HashMap<>();
+		this.handlers = new HashMap<>();
+		this.errors = new HashMap<>();
+		this.warnings = new HashMap<>();
+		this.batchWarnings = new ArrayList<>();
+
+		for (File file : files) {
+			this.paths.put(file.getAbsolutePath(), file);
+		}
+
+		if (json) {
+			List<Tag> jsonTags = new ArrayList<>(tags.size() + 1);
+			jsonTags.addAll(tags);
+			jsonTags.add(ERROR_TAG);
+			this.json = new JsonTagHandler(jsonTags);
+		}
+		else {
+			this.json = null;
+		}
+
+		// Exiftool does not print any section header when a single file is given.
+		if (this.files.size() == 1) {
+			startSection(this.files.get(0));
+		}
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		if (json != null) {
+			return json.readLine(line);
+		}
+
+		if (!stopHandler().readLine(line)) {
+			return false;
+		}
+
+		if (line.startsWith(SECTION_PREFIX)) {
+			String path = line.substring(SECTION_PREFIX.length());
+			File file = paths.get(path);
+			if (file == null) {
+				log.warn("Skipped section of unexpected file: {}", path);
+			}
+
+			startSection(file);
+			return true;
+		}
+
+		// Summary lines (i.e "    2 image files read") are indented, and cannot be a tag.
+		if (line.isEmpty() || line.charAt(0) == ' ') {
+			return true;
+		}
+
+		if (current == null) {
+			log.debug("Skipped line outside of any section: {}", line);
+			return true;
+		}
+
+		if (line.startsWith(ERROR_PREFIX)) {
+			errors.put(current, line.substring(ERROR_PREFIX.length()));
+			return true;
+		}
+
+		handlers.get(current).readLine(line);
+		return true;
+	}
+
+	@Override
+	public void readError(String line) {
+		// Summary lines (i.e "    2 image files read") are printed on error output in JSON format.
+		if (line == null || line.isEmpty() || line.charAt(0) == ' ') {
+			return;
+		}
+
+		boolean found = false;
+		for (Map.Entry<String, File> entry : paths.entrySet()) {
+			if (line.endsWith(entry.getKey())) {
+				addWarning(entry.getValue(), line);
+				found = true;
+			}
+		}
+
+		if (!found) {
+			if (files.size() == 1) {
+				addWarning(files.get(0), line);
+			}
+			else {
+				batchWarnings.add(line);
+			}
+		}
+	}
+
+	/**
+	 * Get warnings printed by exiftool that cannot be attributed to a single file.
+	 *
+	 * @return Warnings of the whole batch.
+	 */
+	public List<String> getWarnings() {
+		return Collections.unmodifiableList(batchWarnings);
+	}
+
+	/**
+	 * Get results, in the order files were given to this handler.
+	 *
+	 * @return Results, indexed by file.
+	 */
+	public Map<File, ImageMetaResult> getResults() {
+		Map<File, ImageMetaResult> results = new LinkedHashMap<>();
+		for (File file : files) {
+			results.put(file, toResult(file));
+		}
+
+		return unmodifiableMap(results);
+	}
+
+	private ImageMetaResult toResult(File file) {
+		List<String> fileWarnings = warnings.get(file);
+		if (fileWarnings == null) {
+			fileWarnings = Collections.emptyList();
+		}
+
+		if (json != null) {
+			return toJsonResult(file, fileWarnings);
+		}
+
+		String error = errors.get(file);
+		if (error != null) {
+			return ImageMetaResult.failure(file, error, fileWarnings);
+		}
+
+		StandardTagHandler handler = handlers.get(file);
+		if (handler == null) {
+			return ImageMetaResult.failure(file, MISSING_ERROR, fileWarnings);
+		}
+
+		return ImageMetaResult.success(file, handler.getTags(), fileWarnings);
+	}
+
+	private ImageMetaResult toJsonResult(File file, List<String> fileWarnings) {
+		Map<Tag, String> fileTags = json.getTags(file.getAbsolutePath());
+		if (fileTags == null) {
+			return ImageMetaResult.failure(file, MISSING_ERROR, fileWarnings);
+		}
+
+		String error = fileTags.get(ERROR_TAG);
+		if (error != null) {
+			return ImageMetaResult.failure(file, error, fileWarnings);
+		}
+
+		return ImageMetaResult.success(file, fileTags, fileWarnings);
+	}
+
+	private void addWarning(File file, String line) {
+		List<String> fileWarnings = warnings.get(file);
+		if (fileWarnings == null) {
+			fileWarnings = new ArrayList<>();
+			warnings.put(file, fileWarnings);
+		}
+
+		fileWarnings.add(line);
+	}
+
+	private void startSection(File file) {
+		current = file;
+		if (file != null && !handlers.containsKey(file)) {
+			handlers.put(file, new StandardTagHandler(tags));
+		}
+	}
+}
@@ -0,0 +1,506 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Minimal pull parser reading JSON documents printed by exiftool (with the {@code -j} option).
+ *
+ * <br>
+ *
+ * Values are decoded in a single pass over the input:
+ * <ul>
+ *   <li>Numbers are decoded to {@link Long} or {@link Double}, without intermediate {@link String}.</li>
+ *   <li>Arrays are decoded to {@link List}, objects to {@link Map}.</li>
+ *   <li>Strings are decoded to {@link String}, booleans to {@link Boolean}.</li>
+ * </ul>
+ *
+ * Values that are not needed can be skipped with {@link #skipValue()}, without
+ * any allocation.
+ *
+ * <br>
+ *
+ * This class is not thread-safe.
+ */
+final class JsonReader {
+
+	/**
+	 * Maximum number of significant digits that fit in a {@code long}.
+	 */
+	private static final int MAX_LONG_DIGITS = 18;
+
+	/**
+	 * Maximum number of significant digits exactly represented by a {@code double}.
+	 */
+	private static final int MAX_DOUBLE_DIGITS = 15;
+
+	/**
+	 * Exact powers of ten, represented as {@code double}.
+	 */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * The JSON document.
+	 */
+	private final CharSequence input;
+
+	/**
+	 * Length of the document.
+	 */
+	private final int length;
+
+	/**
+	 * Position of the next character to read.
+	 */
+	private int position;
+
+	/**
+	 * Buffer used to decode strings containing escaped characters.
+	 */
+	private final StringBuilder buffer;
+
+	/**
+	 * Create reader.
+	 *
+	 * @param input The JSON document.
+	 */
+	JsonReader(CharSequence input) {
+		this.input = input;
+		this.length = input.length();
+		this.position = 0;
+		this.buffer = new StringBuilder();
+	}
+
+	/**
+	 * Check if the document contains something else than whitespaces.
+	 *
+	 * @return {@code true} if document is empty, {@code false} otherwise.
+	 */
+	boolean isEmpty() {
+		skipWhitespaces();
+		return position >= length;
+	}
+
+	/**
+	 * Consume the beginning of an array.
+	 */
+	void beginArray() {
+		expect('[');
+	}
+
+	/**
+	 * Consume the end of an array.
+	 */
+	void endArray() {
+		expect(']');
+	}
+
+	/**
+	 * Consume the beginning of an object.
+	 */
+	void beginObject() {
+		expect('{');
+	}
+
+	/**
+	 * Consume the end of an object.
+	 */
+	void endObject() {
+		expect('}');
+	}
+
+	/**
+	 * Check if current array or object has another element, and consume
+	 * the separator before this element.
+	 *
+	 * @return {@code true} if another element is available, {@code false} otherwise.
+	 */
+	boolean hasNext() {
+		skipWhitespaces();
+		if (position < length && input.charAt(position) == ',') {
+			position++;
+			skipWhitespaces();
+		}
+
+		if (position >= length) {
+			return false;
+		}
+
+		char c = input.charAt(position);
+		return c != ']' && c != '}';
+	}
+
+	/**
+	 * Read the name of the next object member.
+	 *
+	 * @return The name.
+	 */
+	String nextName() {
+		skipWhitespaces();
+		String name = readString();
+		expect(':');
+		return name;
+	}
+
+	/**
+	 * Read the next value.
+	 *
+	 * @return The value, {@code null} for the JSON {@code null} value.
+	 */
+	Object nextValue() {
+		skipWhitespaces();
+		char c = peek();
+		switch (c) {
+			case '"':
+				return readString();
+
+			case '[':
+				return readArray();
+
+			case '{':
+				return readObject();
+
+			case 't':
+				expectWord("true");
+				return Boolean.TRUE;
+
+			case 'f':
+				expectWord("false");
+				return Boolean.FALSE;
+
+			case 'n':
+				expectWord("null");
+				return null;
+
+			default:
+				return readNumber();
+		}
+	}
+
+	/**
+	 * Skip the next value.
+	 */
+	void skipValue() {
+		skipWhitespaces();
+		char c = peek();
+		switch (c) {
+			case '"':
+				skipString();
+				break;
+
+			case '[':
+				beginArray();
+				while (hasNext()) {
+					skipValue();
+				}
+				endArray();
+				break;
+
+			case '{':
+				beginObject();
+				while (hasNext()) {
+					skipWhitespaces();
+					skipString();
+					expect(':');
+					skipValue();
+				}
+				endObject();
+				break;
+
+			default:
+				// Literals and numbers.
+				while (position < length && !isDelimiter(input.charAt(position))) {
+					position++;
+				}
+		}
+	}
+
+	private List<Object> readArray() {
+		List<Object> list = new ArrayList<>();
+		beginArray();
+		while (hasNext()) {
+			list.add(nextValue());
+		}
+		endArray();
+		return list;
+	}
+
+	private Map<String, Object> readObject() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		beginObject();
+		while (hasNext()) {
+			String name = nextName();
+			map.put(name, nextValue());
+		}
+		endObject();
+		return map;
+	}
+
+	private String readString() {
+		expect('"');
+
+		// Fast path: string without escaped characters.
+		int start = position;
+		while (position < length) {
+			char c = input.charAt(position);
+			if (c == '"') {
+				String value = input.subSequence(start, position).toString();
+				position++;
+				return value;
+			}
+
+			if (c == '\\') {
+				break;
+			}
+
+			position++;
+		}
+
+		buffer.setLength(0);
+		buffer.append(input, start, position);
+
+		while (position < length) {
+			char c = input.charAt(position++);
+			if (c == '"') {
+				return buffer.toString();
+			}
+
+			if (c == '\\') {
+				buffer.append(readEscaped());
+			}
+			else {
+				buffer.append(c);
+			}
+		}
+
+		throw error("Unterminated string");
+	}
+
+	private char readEscaped() {
+		char c = next();
+		switch (c) {
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				if (position + 4 > length) {
+					throw error("Invalid unicode escape sequence");
+				}
+
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(input.charAt(position++), 16);
+					if (digit < 0) {
+						throw error("Invalid unicode escape sequence");
+					}
+
+					code = (code << 4) + digit;
+				}
+
+				return (char) code;
+			default:
+				// Handle '"', '\\', '/' and lenient escape of any other character.
+				return c;
+		}
+	}
+
+	private void skipString() {
+		expect('"');
+		while (position < length) {
+			char c = input.charAt(position++);
+			if (c == '"') {
+				return;
+			}
+
+			if (c == '\\') {
+				position++;
+			}
+		}
+
+		throw error("Unterminated string");
+	}
+
+	private Object readNumber() {
+		int start = position;
+
+		boolean negative = false;
+		if (peek() == '-') {
+			negative = true;
+			position++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean integer = true;
+
+		// Integer part.
+		// Leading zeros are not significant, and digits are not accumulated once
+		// mantissa cannot hold them (number is then parsed by the JDK).
+		int integerStart = position;
+		char c;
+		while (position < length && isDigit(c = input.charAt(position))) {
+			if (mantissa != 0 || c != '0') {
+				digits++;
+				if (digits <= MAX_LONG_DIGITS) {
+					mantissa = mantissa * 10 + (c - '0');
+				}
+			}
+
+			position++;
+		}
+
+		if (position == integerStart) {
+			throw error("Invalid value");
+		}
+
+		// Fraction part.
+		if (position < length && input.charAt(position) == '.') {
+			integer = false;
+			position++;
+			while (position < length && isDigit(c = input.charAt(position))) {
+				if (mantissa != 0 || c != '0') {
+					digits++;
+					if (digits <= MAX_LONG_DIGITS) {
+						mantissa = mantissa * 10 + (c - '0');
+					}
+				}
+
+				exponent--;
+				position++;
+			}
+		}
+
+		// Exponent part.
+		if (position < length && (input.charAt(position) == 'e' || input.charAt(position) == 'E')) {
+			integer = false;
+			position++;
+
+			boolean negativeExponent = false;
+			if (position < length && (input.charAt(position) == '-' || input.charAt(position) == '+')) {
+				negativeExponent = input.charAt(position) == '-';
+				position++;
+			}
+
+			int value = 0;
+			int exponentStart = position;
+			while (position < length && isDigit(input.charAt(position))) {
+				value = Math.min(value * 10 + (input.charAt(position) - '0'), 10000);
+				position++;
+			}
+
+			if (position == exponentStart) {
+				throw error("Invalid number");
+			}
+
+			exponent += negativeExponent ? -value : value;
+		}
+
+		if (integer && digits <= MAX_LONG_DIGITS) {
+			return negative ? -mantissa : mantissa;
+		}
+
+		if (digits <= MAX_DOUBLE_DIGITS && Math.abs(exponent) < POWERS_OF_TEN.length) {
+			// Both mantissa and power of ten are exact doubles: result is correctly rounded.
+			double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+			return negative ? -value : value;
+		}
+
+		String number = input.subSequence(start, position).toString();
+		if (integer) {
+			try {
+				return Long.parseLong(number);
+			}
+			catch (NumberFormatException ex) {
+				// Does not fit in a long.
+			}
+		}
+
+		return Double.parseDouble(number);
+	}
+
+	private void expect(char expected) {
+		skipWhitespaces();
+		char c = next();
+		if (c != expected) {
+			position--;
+			throw error(format("Expected '%s'", expected));
+		}
+	}
+
+	private void expectWord(String word) {
+		for (int i = 0; i < word.length(); i++) {
+			if (next() != word.charAt(i)) {
+				throw error("Invalid value");
+			}
+		}
+	}
+
+	private char peek() {
+		if (position >= length) {
+			throw error("Unexpected end of document");
+		}
+
+		return input.charAt(position);
+	}
+
+	private char next() {
+		char c = peek();
+		position++;
+		return c;
+	}
+
+	private void skipWhitespaces() {
+		while (position < length && isWhitespace(input.charAt(position))) {
+			position++;
+		}
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+	}
+
+	private static boolean isDelimiter(char c) {
+		return c == ',' || c == ']' || c == '}' || isWhitespace(c);
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(format("Invalid JSON output (position %s): %s", position, message));
+	}
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.Constants;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Read tags printed by exiftool in JSON format (see {@code -j} option).
+ *
+ * <br>
+ *
+ * Contrary to {@link BaseTagHandler}, output is not split line by line: the JSON document is
+ * decoded once the whole output has been read, so multi-line values are supported, and values
+ * are typed:
+ * <ul>
+ *   <li>Numbers are decoded to {@link Long} or {@link Double}.</li>
+ *   <li>Arrays are decoded to {@link List} (including values joined with {@link Constants#SEPARATOR}).</li>
+ *   <li>Strings are decoded to {@link String}.</li>
+ * </ul>
+ *
+ * Typed values are available with {@link #getValues()}, while {@link #getTags()} returns values
+ * converted to strings (list items being joined with {@link Constants#SEPARATOR}).
+ *
+ * <br>
+ *
+ * When several files are given to exiftool, values of each file are available
+ * with {@link #getValues(String)}.
+ *
+ * <br>
+ *
+ * This class is not thread-safe and should be used to
+ * read exiftool output from one thread (should not be shared across
+ * several threads).
+ */
+public class JsonTagHandler implements TagHandler, CharSequenceOutputHandler {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(JsonTagHandler.class);
+
+	/**
+	 * Name of the member containing the file path.
+	 */
+	private static final String SOURCE_FILE = "SourceFile";
+
+	/**
+	 * Line printed at the end of a command when stay_open feature is enabled.
+	 */
+	private static final String READY = "{ready}";
+
+	/**
+	 * Expected tags, indexed by display name, {@code null} if all tags should be read.
+	 */
+	private final Map<String, Tag> inputs;
+
+	/**
+	 * Output read so far.
+	 */
+	private final StringBuilder output;
+
+	/**
+	 * Values found for each file, indexed by file path.
+	 */
+	private final Map<String, Map<Tag, Object>> values;
+
+	/**
+	 * Create handler reading all tags.
+	 */
+	public JsonTagHandler() {
+		this.inputs = null;
+		this.output = new StringBuilder();
+		this.values = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Create handler with expected list of tags to parse.
+	 *
+	 * @param tags Expected list of tags.
+	 */
+	public JsonTagHandler(Collection<? extends Tag> tags) {
+		Map<String, Tag> inputs = new HashMap<>();
+		for (Tag tag : tags) {
+			inputs.put(tag.getDisplayName(), tag);
+		}
+
+		this.inputs = unmodifiableMap(inputs);
+		this.output = new StringBuilder();
+		this.values = new LinkedHashMap<>();
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		return readChars(line);
+	}
+
+	@Override
+	public boolean readChars(CharSequence line) {
+		// If line is null, then this is the end.
+		// If line is strictly equals to "{ready}", then it means that stay_open feature
+		// is enabled and this is the end of the output.
+		if (line == null || READY.contentEquals(line)) {
+			parse();
+			return false;
+		}
+
+		output.append(line).append('\n');
+		return true;
+	}
+
+	/**
+	 * Get typed values found for the first (usually the only one) file.
+	 *
+	 * @return Values, indexed by tag.
+	 */
+	public Map<Tag, Object> getValues() {
+		return values.isEmpty() ? Collections.<Tag, Object>emptyMap() : values.values().iterator().next();
+	}
+
+	/**
+	 * Get typed values found for a given file.
+	 *
+	 * @param path File path, as given to exiftool.
+	 * @return Values, indexed by tag, {@code null} if file is not in the output.
+	 */
+	public Map<Tag, Object> getValues(String path) {
+		return values.get(path);
+	}
+
+	@Override
+	public Map<Tag, String> getTags() {
+		return toTags(getValues());
+	}
+
+	/**
+	 * Get values found for a given file, converted to strings.
+	 *
+	 * @param path File path, as given to exiftool.
+	 * @return Values, indexed by tag, {@code null} if file is not in the output.
+	 */
+	public Map<Tag, String> getTags(String path) {
+		Map<Tag, Object> fileValues = values.get(path);
+		return fileValues == null ? null : toTags(fileValues);
+	}
+
+	private static Map<Tag, String> toTags(Map<Tag, Object> fileValues) {
+		Map<Tag, String> tags = new HashMap<>(fileValues.size() * 2);
+		for (Map.Entry<Tag, Object> entry : fileValues.entrySet()) {
+			tags.put(entry.getKey(), toString(entry.getValue()));
+		}
+
+		return unmodifiableMap(tags);
+	}
+
+	@Override
+	public int size() {
+		return getValues().size();
+	}
+
+	private void parse() {
+		JsonReader reader = new JsonReader(output);
+		if (reader.isEmpty()) {
+			return;
+		}
+
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String path = null;
+			Map<Tag, Object> fileValues = new LinkedHashMap<>();
+
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if (SOURCE_FILE.equals(name)) {
+					path = String.valueOf(reader.nextValue());
+					continue;
+				}
+
+				Tag tag = toTag(name);
+				if (tag == null) {
+					reader.skipValue();
+					continue;
+				}
+
+				Object value = toValue(reader.nextValue());
+				if (value != null) {
+					fileValues.put(tag, value);
+					log.trace("Read Tag [name={}, value={}]", tag, value);
+				}
+			}
+			reader.endObject();
+
+			values.put(path, unmodifiableMap(fileValues));
+		}
+		reader.endArray();
+
+		// Output is not needed anymore.
+		output.setLength(0);
+	}
+
+	private Tag toTag(String name) {
+		return inputs == null ? new UnspecifiedTag(name) : inputs.get(name);
+	}
+
+	/**
+	 * Split strings containing {@link Constants#SEPARATOR}: list values are printed this
+	 * way when the {@code -sep} option is used.
+	 *
+	 * @param value Decoded value.
+	 * @return The value.
+	 */
+	private static Object toValue(Object value) {
+		if (value instanceof String) {
+			String str = (String) value;
+			int index = str.indexOf(Constants.SEPARATOR);
+			if (index < 0) {
+				return str;
+			}
+
+			List<Object> list = new ArrayList<>();
+			int start = 0;
+			while (index >= 0) {
+				list.add(str.substring(start, index));
+				start = index + Constants.SEPARATOR.length();
+				index = str.indexOf(Constants.SEPARATOR, start);
+			}
+
+			list.add(str.substring(start));
+			return list;
+		}
+
+		return value;
+	}
+
+	private static String toString(Object value) {
+		if (value instanceof List) {
+			StringBuilder sb = new StringBuilder();
+			for (Object item : (List<?>) value) {
+				if (sb.length() > 0) {
+					sb.append(Constants.SEPARATOR);
+				}
+
+				sb.append(item);
+			}
+
+			return sb.toString();
+		}
+
+		return String.valueOf(value);
+	}
+}
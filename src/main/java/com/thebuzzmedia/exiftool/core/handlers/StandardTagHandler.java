@@ -18,18 +18,31 @@
 package com.thebuzzmedia.exiftool.core.handlers;
 
 import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
 
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 
-import static java.util.Collections.unmodifiableMap;
-
 /**
  * Read specified input tags line by line.
  *
  * <br>
  *
+ * When all expected tags are {@link StandardTag}, names are mapped back to tags with
+ * the shared lookup of {@link StandardTag#fromName(CharSequence)}, and values
+ * are stored in an {@link EnumMap}: no map is built from the expected tags.
+ *
+ * <br>
+ *
+ * Otherwise, expected tags are stored in a small open addressing table indexed by the
+ * hash of their display name: names are looked up directly from the char sequence read,
+ * so that no string is allocated for lines that are skipped.
+ *
+ * <br>
+ *
  * This class is not thread-safe and should be used to
  * read exiftool output from one thread (should not be shared across
  * several threads).
@@ -37,9 +50,15 @@ import static java.util.Collections.unmodifiableMap;
 public class StandardTagHandler extends BaseTagHandler {
 
 	/**
-	 * List of expected inputs.
+	 * Expected inputs, indexed by hash of display name (with linear probing), {@code null}
+	 * if all expected tags are standard tags.
 	 */
-	private final Map<String, Tag> inputs;
+	private final Tag[] inputs;
+
+	/**
+	 * Expected standard tags, {@code null} if some expected tags are not standard tags.
+	 */
+	private final EnumSet<StandardTag> standardTags;
 
 	/**
 	 * Create handler with expected list of tags to parse.
@@ -47,20 +66,89 @@ public class StandardTagHandler extends BaseTagHandler {
 	 * @param tags Expected list of tags.
 	 */
 	public StandardTagHandler(Collection<? extends Tag> tags) {
-		Map<String, Tag> inputs = new HashMap<>();
+		super(areStandardTags(tags) ? StandardTagHandler.newEnumMap() : new HashMap<Tag, String>());
+
+		if (areStandardTags(tags)) {
+			EnumSet<StandardTag> standardTags = EnumSet.noneOf(StandardTag.class);
+			for (Tag tag : tags) {
+				standardTags.add((StandardTag) tag);
+			}
+
+			this.inputs = null;
+			this.standardTags = standardTags;
+		}
+		else {
+			this.inputs = newTable(tags);
+			this.standardTags = null;
+		}
+	}
+
+	private static boolean areStandardTags(Collection<? extends Tag> tags) {
+		for (Tag tag : tags) {
+			if (!(tag instanceof StandardTag)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static Tag[] newTable(Collection<? extends Tag> tags) {
+		// Keep table at most half full, so that probing sequences stay short.
+		int size = Integer.highestOneBit(Math.max(tags.size(), 1) * 2) << 1;
+		Tag[] table = new Tag[size];
 		for (Tag tag : tags) {
-			inputs.put(tag.getDisplayName(), tag);
+			String name = tag.getDisplayName();
+			int index = hash(name) & (size - 1);
+			while (table[index] != null && !table[index].getDisplayName().equals(name)) {
+				index = (index + 1) & (size - 1);
+			}
+
+			table[index] = tag;
 		}
 
-		this.inputs = unmodifiableMap(inputs);
+		return table;
+	}
+
+	/**
+	 * Compute hash of given name, same as {@link String#hashCode()} with
+	 * high bits spread to lower bits.
+	 */
+	private static int hash(CharSequence name) {
+		int h = 0;
+		for (int i = 0, length = name.length(); i < length; i++) {
+			h = 31 * h + name.charAt(i);
+		}
+
+		return h ^ (h >>> 16);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<Tag, String> newEnumMap() {
+		// Safe: EnumMap checks the type of each key, and only standard
+		// tags are returned by toTag in this case.
+		Map<? extends Tag, String> map = new EnumMap<>(StandardTag.class);
+		return (Map<Tag, String>) map;
 	}
 
 	@Override
-	Tag toTag(String name) {
+	Tag toTag(CharSequence name) {
 		// Return the tag a only if we were able to map the name back
 		// to a Tag instance. If not, then this is an unknown/unexpected
 		// tag return value and we skip it since we cannot translate it
 		// back to one of our supported tags.
-		return inputs.get(name);
+		if (standardTags != null) {
+			StandardTag tag = StandardTag.fromName(name);
+			return tag != null && standardTags.contains(tag) ? tag : null;
+		}
+
+		int mask = inputs.length - 1;
+		for (int index = hash(name) & mask; inputs[index] != null; index = (index + 1) & mask) {
+			if (inputs[index].getDisplayName().contentEquals(name)) {
+				return inputs[index];
+			}
+		}
+
+		return null;
 	}
 }
@@ -17,7 +17,7 @@
 
 package com.thebuzzmedia.exiftool.core.handlers;
 
-import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
 
 /**
  * Check if line means it is the end of the stream.
@@ -31,13 +31,18 @@ import com.thebuzzmedia.exiftool.process.OutputHandler;
  * This handler is thread safe, stateless and is implemented as
  * a singleton.
  */
-public class StopHandler implements OutputHandler {
+public class StopHandler implements CharSequenceOutputHandler {
 
 	/**
 	 * Singleton instance.
 	 */
 	private static final StopHandler INSTANCE = new StopHandler();
 
+	/**
+	 * Line printed by exiftool at the end of the output when stay_open feature is enabled.
+	 */
+	private static final String READY = "{ready}";
+
 	/**
 	 * Get instance.
 	 *
@@ -53,6 +58,11 @@ public class StopHandler implements OutputHandler {
 
 	@Override
 	public boolean readLine(String line) {
-		return line != null && !line.equals("{ready}");
+		return line != null && !line.equals(READY);
+	}
+
+	@Override
+	public boolean readChars(CharSequence line) {
+		return line != null && !READY.contentEquals(line);
 	}
 }
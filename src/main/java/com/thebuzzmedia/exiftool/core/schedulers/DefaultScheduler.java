@@ -24,6 +24,8 @@ import com.thebuzzmedia.exiftool.logs.LoggerFactory;
 import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
 import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.duration;
@@ -70,6 +72,11 @@ public class DefaultScheduler implements Scheduler {
 	 */
 	private final ScheduledThreadPoolExecutor executor;
 
+	/**
+	 * Lock guarding scheduled tasks.
+	 */
+	private final Lock lock;
+
 	/**
 	 * Create new scheduler.
 	 * Default time unit is {@link TimeUnit#MILLISECONDS}.
@@ -127,26 +134,45 @@ public class DefaultScheduler implements Scheduler {
 		// Create executor
 		this.executor = new ScheduledThreadPoolExecutor(1);
 		this.executor.setRemoveOnCancelPolicy(true);
+		this.lock = new ReentrantLock();
 	}
 
 	@Override
-	public synchronized void start(Runnable runnable) {
-		executor.schedule(runnable, executionDelay.getDelay(), executionDelay.getTimeUnit());
+	public void start(Runnable runnable) {
+		lock.lock();
+		try {
+			executor.schedule(runnable, executionDelay.getDelay(), executionDelay.getTimeUnit());
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
-	public synchronized void stop() {
-		for (Runnable runnable : executor.getQueue()) {
-			((RunnableFuture<?>) runnable).cancel(false);
-		}
+	public void stop() {
+		lock.lock();
+		try {
+			for (Runnable runnable : executor.getQueue()) {
+				((RunnableFuture<?>) runnable).cancel(false);
+			}
 
-		executor.purge();
+			executor.purge();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
-	public synchronized void shutdown() {
-		stop();
-		processShutdown();
+	public void shutdown() {
+		lock.lock();
+		try {
+			stop();
+			processShutdown();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	private void processShutdown() {
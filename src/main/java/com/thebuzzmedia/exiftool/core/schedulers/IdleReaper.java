@@ -0,0 +1,175 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.schedulers;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JVM-wide reaper checking {@link IdleScheduler} instances.
+ *
+ * <br>
+ *
+ * A single daemon thread is started with the first registered scheduler. It wakes up when the
+ * nearest task is due (at most once per second), and sleeps when there is nothing to check.
+ */
+final class IdleReaper implements Runnable {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(IdleReaper.class);
+
+	/**
+	 * Maximum time between two checks, in nanoseconds.
+	 */
+	private static final long MAX_WAIT = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * The reaper instance.
+	 */
+	private static final IdleReaper INSTANCE = new IdleReaper();
+
+	/**
+	 * Get the JVM-wide reaper.
+	 *
+	 * @return The reaper.
+	 */
+	static IdleReaper getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Schedulers with a pending task.
+	 */
+	private final Set<IdleScheduler> schedulers;
+
+	/**
+	 * Lock guarding the reaper thread.
+	 */
+	private final Lock lock;
+
+	/**
+	 * Condition signaled when a scheduler is registered.
+	 */
+	private final Condition registered;
+
+	/**
+	 * Reaper thread, started lazily.
+	 */
+	private Thread thread;
+
+	private IdleReaper() {
+		this.schedulers = Collections.newSetFromMap(new ConcurrentHashMap<IdleScheduler, Boolean>());
+		this.lock = new ReentrantLock();
+		this.registered = lock.newCondition();
+	}
+
+	/**
+	 * Register scheduler: it will be checked until it does not have a pending task anymore.
+	 *
+	 * @param scheduler The scheduler.
+	 */
+	void register(IdleScheduler scheduler) {
+		schedulers.add(scheduler);
+
+		lock.lock();
+		try {
+			if (thread == null) {
+				thread = new Thread(this, "exiftool-reaper");
+				thread.setDaemon(true);
+				thread.start();
+			}
+			else {
+				registered.signal();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			long wait = reap();
+
+			lock.lock();
+			try {
+				if (schedulers.isEmpty()) {
+					registered.await();
+				}
+				else {
+					registered.awaitNanos(wait);
+				}
+			}
+			catch (InterruptedException ex) {
+				log.warn(ex.getMessage());
+				thread = null;
+				return;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Check all registered schedulers: expired tasks are executed, and schedulers
+	 * without pending task are removed.
+	 *
+	 * @return Time to wait before next check, in nanoseconds.
+	 */
+	private long reap() {
+		long now = System.nanoTime();
+		long wait = MAX_WAIT;
+
+		for (IdleScheduler scheduler : schedulers) {
+			long remaining;
+			try {
+				remaining = scheduler.check(now);
+			}
+			catch (RuntimeException ex) {
+				log.error(ex.getMessage(), ex);
+				remaining = -1;
+			}
+
+			if (remaining >= 0) {
+				wait = Math.min(wait, remaining);
+			}
+			else {
+				// Scheduler must be removed before its flag is released, so that
+				// a concurrent start is never lost.
+				schedulers.remove(scheduler);
+				if (scheduler.release()) {
+					schedulers.add(scheduler);
+				}
+			}
+		}
+
+		return Math.max(wait, TimeUnit.MILLISECONDS.toNanos(1));
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.schedulers;
+
+import com.thebuzzmedia.exiftool.Scheduler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Scheduler executing its task once it has been idle for a given delay.
+ *
+ * <br>
+ *
+ * Unlike {@link DefaultScheduler}, this scheduler does not own any thread: each instance
+ * only keeps a volatile "last used" timestamp, and all instances are checked by a single
+ * JVM-wide reaper thread. Restarting the task (which is done on each command by execution
+ * strategies) is therefore just a couple of volatile writes:
+ *
+ * <ul>
+ *   <li>{@link #start(Runnable)} records the task and the current time.</li>
+ *   <li>{@link #stop()} forgets the pending task.</li>
+ *   <li>The reaper runs the task on its own thread once the delay is elapsed since the last call to {@link #start(Runnable)}.</li>
+ * </ul>
+ *
+ * <strong>Note:</strong> Reaper checks instances at most once per second, so a task
+ * may be executed up to one second after its delay. Since task is executed by the shared
+ * reaper thread, it should not block.
+ */
+public class IdleScheduler implements Scheduler {
+
+	/**
+	 * Delay before task execution.
+	 */
+	private final SchedulerDuration executionDelay;
+
+	/**
+	 * Delay before task execution, in nanoseconds.
+	 */
+	private final long delay;
+
+	/**
+	 * Task to execute, {@code null} if there is no pending task.
+	 */
+	private final AtomicReference<Runnable> task;
+
+	/**
+	 * Time of last call to {@link #start(Runnable)}, as returned by {@link System#nanoTime()}.
+	 */
+	private volatile long lastUsed;
+
+	/**
+	 * Flag set when this scheduler is checked by the reaper.
+	 */
+	private final AtomicBoolean registered;
+
+	/**
+	 * Flag set once scheduler has been shutdown: task will never be executed again.
+	 */
+	private volatile boolean shutdown;
+
+	/**
+	 * Create new scheduler.
+	 *
+	 * @param executionDelay The idle delay before task execution.
+	 * @throws NullPointerException If {@code executionDelay} is {@code null}.
+	 */
+	public IdleScheduler(SchedulerDuration executionDelay) {
+		this.executionDelay = notNull(executionDelay, "Execution delay must not be null");
+		this.delay = executionDelay.getTimeUnit().toNanos(executionDelay.getDelay());
+		this.task = new AtomicReference<>();
+		this.registered = new AtomicBoolean(false);
+	}
+
+	@Override
+	public void start(Runnable runnable) {
+		if (shutdown) {
+			return;
+		}
+
+		// Timestamp must be written before the task, see #check.
+		lastUsed = System.nanoTime();
+		task.set(runnable);
+
+		if (!registered.get() && registered.compareAndSet(false, true)) {
+			IdleReaper.getInstance().register(this);
+		}
+	}
+
+	@Override
+	public void stop() {
+		task.set(null);
+	}
+
+	@Override
+	public void shutdown() {
+		shutdown = true;
+		stop();
+	}
+
+	/**
+	 * Get the idle delay before task execution.
+	 *
+	 * @return Idle delay.
+	 */
+	public SchedulerDuration getExecutionDelay() {
+		return executionDelay;
+	}
+
+	/**
+	 * Execute pending task if delay is elapsed.
+	 * This method is called by the reaper thread.
+	 *
+	 * @param now Current time, as returned by {@link System#nanoTime()}.
+	 * @return Remaining time before task execution in nanoseconds, or a negative value if there is no pending task anymore.
+	 */
+	long check(long now) {
+		Runnable runnable = task.get();
+		if (runnable == null) {
+			return -1;
+		}
+
+		long used = lastUsed;
+		long remaining = used + delay - now;
+		if (remaining > 0) {
+			return remaining;
+		}
+
+		// Task may have been stopped in the meantime: run it only if it is still the pending one.
+		if (!task.compareAndSet(runnable, null)) {
+			return -1;
+		}
+
+		// Strategies restart the same task instance: if it has been restarted in the meantime,
+		// it is not idle anymore.
+		if (lastUsed != used && task.compareAndSet(null, runnable)) {
+			return lastUsed + delay - now;
+		}
+
+		runnable.run();
+		return -1;
+	}
+
+	/**
+	 * Mark this scheduler as not registered anymore, once it has been removed
+	 * from the reaper.
+	 *
+	 * @return {@code true} if a task has been started meanwhile and scheduler must be registered again.
+	 */
+	boolean release() {
+		registered.set(false);
+		return task.get() != null && registered.compareAndSet(false, true);
+	}
+}
@@ -21,6 +21,8 @@ import com.thebuzzmedia.exiftool.Scheduler;
 
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.thebuzzmedia.exiftool.commons.lang.Objects.firstNonNull;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
@@ -59,6 +61,11 @@ public class TimerScheduler implements Scheduler {
 	 */
 	private TimerTask pendingTask;
 
+	/**
+	 * Lock guarding the pending task.
+	 */
+	private final Lock lock;
+
 	/**
 	 * Create scheduler.
 	 * @param name Thread name.
@@ -69,27 +76,46 @@ public class TimerScheduler implements Scheduler {
 		this.name = firstNonNull(name, "ExifTool Cleanup Timer");
 		this.delay = isPositive(delay, "Delay must be strictly positive");
 		this.timer = new Timer(this.name, true);
+		this.lock = new ReentrantLock();
 	}
 
 	@Override
-	public synchronized void start(Runnable runnable) {
-		pendingTask = new CleanupTask(runnable);
-		timer.schedule(pendingTask, delay);
+	public void start(Runnable runnable) {
+		lock.lock();
+		try {
+			pendingTask = new CleanupTask(runnable);
+			timer.schedule(pendingTask, delay);
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
-	public synchronized void stop() {
-		if (pendingTask != null) {
-			pendingTask.cancel();
-			timer.purge();
-			pendingTask = null;
+	public void stop() {
+		lock.lock();
+		try {
+			if (pendingTask != null) {
+				pendingTask.cancel();
+				timer.purge();
+				pendingTask = null;
+			}
+		}
+		finally {
+			lock.unlock();
 		}
 	}
 
 	@Override
-	public synchronized void shutdown() {
-		stop();
-		timer.cancel();
+	public void shutdown() {
+		lock.lock();
+		try {
+			stop();
+			timer.cancel();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
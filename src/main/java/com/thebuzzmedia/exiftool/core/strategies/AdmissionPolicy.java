@@ -0,0 +1,158 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+import com.thebuzzmedia.exiftool.exceptions.PoolRejectedException;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Policy used by a pool to admit commands when all its strategies are busy.
+ *
+ * <br>
+ *
+ * A command is rejected when:
+ *
+ * <ul>
+ *   <li>The maximum number of commands waiting for an available strategy is reached.</li>
+ *   <li>No strategy became available before the acquire timeout.</li>
+ * </ul>
+ *
+ * A limit less than or equal to zero is disabled. What happens to a rejected command is
+ * defined by the {@link Rejection} of the policy.
+ *
+ * <br>
+ *
+ * Independently of this policy, a command whose deadline expires while it waits for a strategy
+ * is dropped from the queue.
+ */
+public final class AdmissionPolicy {
+
+	/**
+	 * Policy that never rejects commands: commands wait until a strategy is available.
+	 */
+	public static final AdmissionPolicy UNBOUNDED = new AdmissionPolicy(0, 0, Rejection.ABORT);
+
+	/**
+	 * Create policy.
+	 *
+	 * @param maxWaiters Maximum number of commands waiting for an available strategy.
+	 * @param acquireTimeout Maximum time to wait for an available strategy, in milliseconds.
+	 * @param rejection What to do with rejected commands.
+	 * @return The policy.
+	 * @throws NullPointerException If {@code rejection} is {@code null}.
+	 */
+	public static AdmissionPolicy admissionPolicy(int maxWaiters, long acquireTimeout, Rejection rejection) {
+		return new AdmissionPolicy(maxWaiters, acquireTimeout, notNull(rejection, "Rejection should not be null"));
+	}
+
+	/**
+	 * Create policy failing fast with a {@link PoolRejectedException}.
+	 *
+	 * @param maxWaiters Maximum number of commands waiting for an available strategy.
+	 * @param acquireTimeout Maximum time to wait for an available strategy, in milliseconds.
+	 * @return The policy.
+	 */
+	public static AdmissionPolicy admissionPolicy(int maxWaiters, long acquireTimeout) {
+		return new AdmissionPolicy(maxWaiters, acquireTimeout, Rejection.ABORT);
+	}
+
+	/**
+	 * Maximum number of commands waiting for an available strategy.
+	 */
+	private final int maxWaiters;
+
+	/**
+	 * Maximum time to wait for an available strategy, in milliseconds.
+	 */
+	private final long acquireTimeout;
+
+	/**
+	 * What to do with rejected commands.
+	 */
+	private final Rejection rejection;
+
+	private AdmissionPolicy(int maxWaiters, long acquireTimeout, Rejection rejection) {
+		this.maxWaiters = maxWaiters;
+		this.acquireTimeout = acquireTimeout;
+		this.rejection = rejection;
+	}
+
+	/**
+	 * Get the maximum number of commands waiting for an available strategy.
+	 *
+	 * @return Maximum number of waiting commands.
+	 */
+	public int getMaxWaiters() {
+		return maxWaiters;
+	}
+
+	/**
+	 * Get the maximum time to wait for an available strategy, in milliseconds.
+	 *
+	 * @return Acquire timeout.
+	 */
+	public long getAcquireTimeout() {
+		return acquireTimeout;
+	}
+
+	/**
+	 * Get what to do with rejected commands.
+	 *
+	 * @return Rejection.
+	 */
+	public Rejection getRejection() {
+		return rejection;
+	}
+
+	/**
+	 * Check if number of waiting commands is bounded.
+	 *
+	 * @param waiters Number of commands already waiting.
+	 * @return {@code true} if a new command may wait, {@code false} otherwise.
+	 */
+	boolean canWait(int waiters) {
+		return maxWaiters <= 0 || waiters < maxWaiters;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("maxWaiters", maxWaiters)
+				.append("acquireTimeout", acquireTimeout)
+				.append("rejection", rejection)
+				.build();
+	}
+
+	/**
+	 * Action applied to a rejected command.
+	 */
+	public enum Rejection {
+		/**
+		 * Fail fast with a {@link PoolRejectedException}.
+		 */
+		ABORT,
+
+		/**
+		 * Run the command in the calling thread with a new, one-shot, exiftool process.
+		 * Slower, but the command is not lost.
+		 */
+		CALLER_RUNS
+	}
+}
@@ -41,6 +41,13 @@ import java.util.List;
  *   <li>Used to execute command line.</li>
  *   <li>Closed at the end of the execution.</li>
  * </ul>
+ *
+ * <br>
+ *
+ * A command with a deadline (see {@link com.thebuzzmedia.exiftool.process.CommandContext#hasDeadline()}) is enforced
+ * by the executor: with {@link com.thebuzzmedia.exiftool.process.executor.DefaultCommandExecutor}, the process
+ * is destroyed once the deadline is missed and the command fails with a
+ * {@link com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException}.
  */
 public class DefaultStrategy implements ExecutionStrategy {
 
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Constants;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
+import com.thebuzzmedia.exiftool.process.ManagedCommandProcess;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Handler reading the error output of a command, until the {@link Constants#ERROR_MARKER}
+ * printed by exiftool (with the {@code -echo4} option) once the command has been processed.
+ *
+ * <br>
+ *
+ * Each error line is given to the command handler if it implements {@link ErrorOutputHandler},
+ * otherwise it is logged.
+ */
+final class ErrorMarkerHandler implements OutputHandler {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(ErrorMarkerHandler.class);
+
+	/**
+	 * Option used to print the marker on error output.
+	 */
+	private static final String ECHO4 = "-echo4";
+
+	/**
+	 * Check if command arguments contain the error marker: if not, exiftool does not print
+	 * the marker and the error output of this command cannot be read.
+	 *
+	 * @param arguments Command arguments.
+	 * @return {@code true} if command prints the error marker, {@code false} otherwise.
+	 */
+	static boolean hasErrorMarker(List<String> arguments) {
+		int index = arguments.lastIndexOf(ECHO4);
+		return index >= 0 && index < arguments.size() - 1 && arguments.get(index + 1).equals(Constants.ERROR_MARKER);
+	}
+
+	/**
+	 * Read the error output of a command, until the marker.
+	 *
+	 * <br>
+	 *
+	 * Error output can only be read if process drains it (see {@link ManagedCommandProcess}): with
+	 * other processes, errors are not read and are not attributed to the command.
+	 *
+	 * @param process The process.
+	 * @param handler Command handler.
+	 * @throws IOException If an error occurred while reading error output.
+	 */
+	static void readErrors(CommandProcess process, OutputHandler handler) throws IOException {
+		if (process instanceof ManagedCommandProcess) {
+			((ManagedCommandProcess) process).readError(new ErrorMarkerHandler(handler));
+		}
+		else {
+			log.debug("Error output of process {} cannot be read", process);
+		}
+	}
+
+	/**
+	 * Command handler.
+	 */
+	private final OutputHandler handler;
+
+	/**
+	 * Create handler.
+	 *
+	 * @param handler Command handler.
+	 */
+	ErrorMarkerHandler(OutputHandler handler) {
+		this.handler = handler;
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		if (line == null || line.equals(Constants.ERROR_MARKER)) {
+			return false;
+		}
+
+		if (handler instanceof ErrorOutputHandler) {
+			((ErrorOutputHandler) handler).readError(line);
+		}
+		else {
+			log.warn("exiftool: {}", line);
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keep the latencies of the most recent commands, to compute percentiles on demand.
+ *
+ * <br>
+ *
+ * Recording a latency is a single write in a ring buffer: percentiles are computed (by
+ * sorting a copy of the buffer) only when they are read.
+ */
+final class LatencySampler {
+
+	/**
+	 * Latencies, in nanoseconds.
+	 */
+	private final AtomicLongArray samples;
+
+	/**
+	 * Number of recorded latencies.
+	 */
+	private final AtomicLong count;
+
+	/**
+	 * Create sampler.
+	 *
+	 * @param capacity Number of latencies kept.
+	 */
+	LatencySampler(int capacity) {
+		this.samples = new AtomicLongArray(capacity);
+		this.count = new AtomicLong(0);
+	}
+
+	/**
+	 * Record a latency: the oldest one is discarded if sampler is full.
+	 *
+	 * @param nanos Latency, in nanoseconds.
+	 */
+	void record(long nanos) {
+		long i = count.getAndIncrement();
+		samples.set((int) (i % samples.length()), nanos);
+	}
+
+	/**
+	 * Compute a percentile of recent latencies.
+	 *
+	 * @param percentile The percentile, between {@code 0} and {@code 1}.
+	 * @return The latency, in milliseconds, {@code 0} if no latency has been recorded.
+	 */
+	double percentile(double percentile) {
+		int size = (int) Math.min(count.get(), samples.length());
+		if (size == 0) {
+			return 0;
+		}
+
+		long[] values = new long[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = samples.get(i);
+		}
+
+		Arrays.sort(values);
+
+		int index = Math.max((int) Math.ceil(percentile * size) - 1, 0);
+		return values[index] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
@@ -0,0 +1,1022 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Constants;
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.metrics.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.metrics.MetricsFactory;
+import com.thebuzzmedia.exiftool.process.CommandContext;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.CommandProcesses;
+import com.thebuzzmedia.exiftool.process.CommandWatchdog;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
+import com.thebuzzmedia.exiftool.process.command.CommandBuilder;
+import com.thebuzzmedia.exiftool.process.executor.DefaultCommandProcess;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Execution strategy that use {@code exiftool} with the {@code stay_open} feature
+ * and pipeline commands sent to the process.
+ *
+ * <br>
+ *
+ * With {@link StayOpenStrategy}, the process handles exactly one command at a time: a command
+ * is written, and the next one cannot be written before the output of the previous
+ * one has been entirely read.
+ *
+ * <br>
+ *
+ * This strategy tags each command with a numbered {@code -execute<N>} argument, so that
+ * exiftool answers with a numbered {@code {ready<N>}} line. A dedicated reader thread
+ * reads the process output and gives it back to the caller waiting for command {@code N}:
+ * callers can queue commands on the same process without waiting for the previous reply.
+ *
+ * <br>
+ *
+ * <strong>Note:</strong> given output handler is called from the reader thread, while
+ * the caller thread waits for the end of its command.
+ *
+ * <br>
+ *
+ * A command with a deadline (see {@link CommandContext#hasDeadline()}) that
+ * is not completed in time fails with a {@link CommandTimeoutException}: since exiftool executes commands
+ * in order, a hung command blocks every command queued after it, so the process is destroyed. Other
+ * commands pending on this process fail with an {@link IOException}, and next commands use a new process.
+ *
+ * <br>
+ *
+ * A {@link RecyclePolicy} may be used to retire the process after a number of commands, an amount of
+ * output or a memory threshold: a replacement process is started in background, and commands keep
+ * being queued on the current process until the replacement is started. The retired process is
+ * closed once its pending commands are completed.
+ */
+public class PipelinedStayOpenStrategy implements ExecutionStrategy {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(PipelinedStayOpenStrategy.class);
+
+	/**
+	 * Metrics.
+	 */
+	private static final ExifToolMetrics metrics = MetricsFactory.getMetrics();
+
+	/**
+	 * Minimum version of {@code exiftool} supporting numbered {@code -execute} option.
+	 */
+	private static final Version V8_64 = new Version("8.64");
+
+	/**
+	 * Argument used to execute a command.
+	 */
+	private static final String EXECUTE = "-execute";
+
+	/**
+	 * Counter used to name reader threads.
+	 */
+	private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+	/**
+	 * Scheduler: will be used to perform automatic cleanup.
+	 */
+	private final Scheduler scheduler;
+
+	/**
+	 * Cleanup task, given to {@link #scheduler} on each command: created once, so that
+	 * restarting the task does not allocate anything.
+	 */
+	private final Runnable closeTask = new Runnable() {
+		@Override
+		public void run() {
+			safeClose();
+		}
+	};
+
+	/**
+	 * Identifier of the last submitted command.
+	 */
+	private final AtomicInteger ids;
+
+	/**
+	 * Policy used to retire the process.
+	 */
+	private final RecyclePolicy recyclePolicy;
+
+	/**
+	 * Daemon started when the first execution is called.
+	 * This daemon will remain open until a call to {@link #close} is made.
+	 */
+	private Daemon daemon;
+
+	/**
+	 * Lock guarding the daemon.
+	 */
+	private final Lock lock;
+
+	/**
+	 * Flag set while a replacement daemon is being started.
+	 * Guarded by {@link #lock}.
+	 */
+	private boolean recycling;
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 * @throws NullPointerException If {@code scheduler} is {@code null}.
+	 */
+	public PipelinedStayOpenStrategy(Scheduler scheduler) {
+		this(scheduler, RecyclePolicy.NEVER);
+	}
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process), and
+	 * process will be replaced according to recycle policy.
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 * @param recyclePolicy Policy used to retire the process.
+	 * @throws NullPointerException If {@code scheduler} or {@code recyclePolicy} is {@code null}.
+	 */
+	public PipelinedStayOpenStrategy(Scheduler scheduler, RecyclePolicy recyclePolicy) {
+		this.scheduler = notNull(scheduler, "Scheduler should not be null");
+		this.recyclePolicy = notNull(recyclePolicy, "Recycle policy should not be null");
+		this.ids = new AtomicInteger(0);
+		this.lock = new ReentrantLock();
+	}
+
+	@Override
+	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
+		log.debug("Using ExifTool in pipelined daemon mode (-stay_open True)...");
+
+		long timeout = CommandWatchdog.remaining(handler);
+		if (timeout == 0) {
+			throw new CommandTimeoutException("Command deadline missed before exiftool process was available");
+		}
+
+		final int id = nextId();
+		final PendingCommand command = new PendingCommand(id, handler, ErrorMarkerHandler.hasErrorMarker(arguments));
+		final List<String> newArgs = toArguments(arguments, id);
+
+		// Daemon is shared with other commands: an aborted command is dropped (its output
+		// is skipped and caller is released), the daemon is not destroyed.
+		if (handler instanceof ProcessAwareOutputHandler) {
+			((ProcessAwareOutputHandler) handler).onAbort(new Runnable() {
+				@Override
+				public void run() {
+					command.cancel();
+				}
+			});
+		}
+
+		// A daemon may be closed between the time it is retrieved and the time the command
+		// is submitted: in this case, just try again with a new daemon.
+		Daemon daemon = null;
+		while (daemon == null) {
+			CommandProcesses.checkAborted(handler);
+			Daemon current = getDaemon(executor, exifTool);
+			if (current.submit(command, newArgs)) {
+				daemon = current;
+			}
+		}
+
+		timeout = CommandWatchdog.remaining(handler);
+		CommandWatchdog.Watch watch = timeout >= 0 ? CommandWatchdog.watch(daemon.process, timeout) : null;
+		try {
+			command.await();
+		}
+		finally {
+			if (watch != null && watch.cancel()) {
+				throw new CommandTimeoutException("Command deadline missed, exiftool process has been destroyed");
+			}
+		}
+
+		if (recyclePolicy.isEnabled() && recyclePolicy.shouldRecycle(daemon.process, daemon.getCommands())) {
+			recycle(executor, exifTool, daemon);
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		lock.lock();
+		try {
+			return daemon != null && daemon.isAlive() && daemon.process.isRunning();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isSupported(Version version) {
+		return V8_64.compareTo(version) <= 0;
+	}
+
+	@Override
+	public void close() throws Exception {
+		Daemon daemon;
+		lock.lock();
+		try {
+			daemon = this.daemon;
+			this.daemon = null;
+		}
+		finally {
+			lock.unlock();
+		}
+
+		try {
+			if (daemon != null) {
+				daemon.close();
+			}
+		}
+		finally {
+			closeScheduler();
+		}
+	}
+
+	@Override
+	public void shutdown() throws Exception {
+		try {
+			close();
+		}
+		finally {
+			shutdownScheduler();
+		}
+	}
+
+	// Implement finalizer.
+	// This is just a small security: it should not prevent caller
+	// to explicitly close the exiftool process (but add this finalizer
+	// if someone forget).
+	@Override
+	protected void finalize() throws Throwable {
+		// Just delegate to original finalizer implementation
+		super.finalize();
+
+		// Be sure process is closed
+		shutdown();
+	}
+
+	/**
+	 * Get the running daemon, or start a new one if it is not already started.
+	 * Automatic cleanup task is reset each time this method is called.
+	 *
+	 * @param executor Executor used to start process.
+	 * @param exifTool ExifTool path.
+	 * @return The running daemon.
+	 * @throws IOException If process cannot be started.
+	 */
+	private Daemon getDaemon(CommandExecutor executor, String exifTool) throws IOException {
+		lock.lock();
+		try {
+			if (daemon == null || !daemon.isAlive()) {
+				// Process may have died unexpectedly, release its resources.
+				if (daemon != null) {
+					daemon.discard();
+				}
+
+				daemon = startDaemon(executor, exifTool);
+			}
+
+			// Always reset the cleanup task.
+			scheduler.stop();
+			scheduler.start(closeTask);
+
+			return daemon;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Start a new exiftool process, and its reader thread.
+	 *
+	 * @param executor Executor used to start process.
+	 * @param exifTool ExifTool path.
+	 * @return The daemon.
+	 * @throws IOException If process cannot be started.
+	 */
+	private static Daemon startDaemon(CommandExecutor executor, String exifTool) throws IOException {
+		log.debug("Start exiftool process");
+		long start = System.nanoTime();
+		CommandProcess process = executor.start(CommandBuilder.builder(exifTool, 6)
+				.addArgument("-stay_open", "True")
+				.addArgument("-sep", Constants.SEPARATOR)
+				.addArgument("-@")
+				.addArgument("-")
+				.build());
+
+		metrics.daemonStarted(System.nanoTime() - start);
+
+		Daemon daemon = new Daemon(process);
+		Thread reader = new Thread(daemon, "exiftool-reader-" + threadCount.incrementAndGet());
+		reader.setDaemon(true);
+		reader.start();
+		return daemon;
+	}
+
+	/**
+	 * Replace given daemon: a replacement daemon is started in background, then given daemon
+	 * is closed once its pending commands are completed.
+	 * Nothing is done if daemon has already been replaced, or if it is already being replaced.
+	 *
+	 * @param executor Executor used to start process.
+	 * @param exifTool ExifTool path.
+	 * @param current The daemon to replace.
+	 */
+	private void recycle(final CommandExecutor executor, final String exifTool, final Daemon current) {
+		lock.lock();
+		try {
+			if (recycling || daemon != current) {
+				return;
+			}
+
+			recycling = true;
+		}
+		finally {
+			lock.unlock();
+		}
+
+		log.debug("Start replacement of exiftool process");
+		metrics.daemonRestarted();
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				replaceDaemon(executor, exifTool, current);
+			}
+		}, "exiftool-recycle-" + threadCount.incrementAndGet());
+
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Start a new daemon, then swap it with current daemon and close the old one.
+	 *
+	 * @param executor Executor used to start process.
+	 * @param exifTool ExifTool path.
+	 * @param current The daemon to replace.
+	 */
+	private void replaceDaemon(CommandExecutor executor, String exifTool, Daemon current) {
+		Daemon replacement = null;
+		try {
+			replacement = startDaemon(executor, exifTool);
+		}
+		catch (IOException ex) {
+			log.warn("Cannot start replacement of exiftool process, current process is kept", ex);
+		}
+
+		Daemon old;
+		lock.lock();
+		try {
+			recycling = false;
+			if (replacement == null) {
+				return;
+			}
+
+			// Strategy has been closed, or daemon has been started again meanwhile:
+			// replacement is not needed anymore.
+			if (daemon != current) {
+				old = replacement;
+			}
+			else {
+				old = daemon;
+				daemon = replacement;
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+
+		try {
+			log.debug("Close recycled exiftool process");
+			old.close();
+		}
+		catch (Exception ex) {
+			log.error(ex.getMessage(), ex);
+		}
+	}
+
+	private int nextId() {
+		// Keep identifiers strictly positive, even after an overflow.
+		int id = ids.incrementAndGet();
+		while (id <= 0) {
+			ids.compareAndSet(id, 0);
+			id = ids.incrementAndGet();
+		}
+
+		return id;
+	}
+
+	/**
+	 * Append a line break to each argument, and replace last {@code -execute}
+	 * argument with the numbered one.
+	 *
+	 * @param arguments Original arguments.
+	 * @param id Command identifier.
+	 * @return New arguments.
+	 */
+	private static List<String> toArguments(List<String> arguments, int id) {
+		int size = arguments.size();
+		boolean hasExecute = size > 0 && EXECUTE.equals(arguments.get(size - 1));
+		int nbArgs = hasExecute ? size - 1 : size;
+
+		List<String> newArgs = new ArrayList<>(nbArgs + 1);
+		for (int i = 0; i < nbArgs; i++) {
+			newArgs.add(arguments.get(i) + Constants.BR);
+		}
+
+		newArgs.add(EXECUTE + id + Constants.BR);
+		return newArgs;
+	}
+
+	/**
+	 * Close pending cleanup task.
+	 * This scheduler may be re-used if necessary.
+	 */
+	private void closeScheduler() {
+		try {
+			log.debug("Attempting to stop cleanup task");
+			scheduler.stop();
+			log.debug("Cleanup task successfully stopped");
+		}
+		catch (Exception ex) {
+			// Should not fail everything.
+			// Important to log warning at least.
+			log.warn("Cleanup task failed to stop");
+			log.warn(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Shutdown scheduler.
+	 */
+	private void shutdownScheduler() {
+		try {
+			log.debug("Attempting to shutdown cleanup task");
+			scheduler.shutdown();
+			log.debug("Cleanup task successfully shutdown");
+		}
+		catch (Exception ex) {
+			// Should not fail everything.
+			// Important to log warning at least.
+			log.warn("Cleanup task failed to shutdown");
+			log.warn(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * This is exactly the same operation as {@link #close} but catch
+	 * all exceptions and log stacktrace.
+	 *
+	 * <br>
+	 *
+	 * Process is not closed if commands are pending: this method is called by
+	 * the cleanup task, that must not wait for them.
+	 */
+	private void safeClose() {
+		Daemon daemon;
+		lock.lock();
+		try {
+			daemon = this.daemon;
+		}
+		finally {
+			lock.unlock();
+		}
+
+		if (daemon != null && !daemon.isIdle()) {
+			log.debug("ExifTool process is busy, skip cleanup");
+			return;
+		}
+
+		try {
+			close();
+		}
+		catch (Exception ex) {
+			log.error(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * An exiftool process, with commands that have been written but not
+	 * entirely read yet.
+	 *
+	 * <br>
+	 *
+	 * Commands are written by caller threads and output is read by a dedicated reader
+	 * thread (this class is the reader task). Since exiftool executes commands in the
+	 * order they have been written, pending commands are kept in a FIFO queue: output is
+	 * always given to the command at the head of the queue.
+	 *
+	 * <br>
+	 *
+	 * Writing to the process may block (if exiftool does not read its input fast enough), so
+	 * writes are serialized by a dedicated lock: the lock guarding the queue, also needed by the
+	 * reader thread, is never held during an I/O operation.
+	 */
+	private static final class Daemon implements Runnable, OutputHandler {
+
+		/**
+		 * The exiftool process.
+		 */
+		private final CommandProcess process;
+
+		/**
+		 * Commands written to the process, waiting for their output.
+		 * Guarded by {@link #lock}.
+		 */
+		private final Deque<PendingCommand> pending;
+
+		/**
+		 * Flag set when the process is about to be closed: no more commands can
+		 * be submitted.
+		 * Guarded by {@link #lock}.
+		 */
+		private boolean closing;
+
+		/**
+		 * Flag set when the reader thread has terminated.
+		 * Guarded by {@link #lock}.
+		 */
+		private boolean terminated;
+
+		/**
+		 * Flag set when the end of the output has been reached.
+		 * Only accessed by the reader thread.
+		 */
+		private boolean eos;
+
+		/**
+		 * Number of commands completed by the process.
+		 * Guarded by {@link #lock}.
+		 */
+		private long commands;
+
+		/**
+		 * Lock guarding the state of the daemon.
+		 */
+		private final Lock lock;
+
+		/**
+		 * Lock serializing writes to the process: commands must be written in the
+		 * order they are queued.
+		 */
+		private final Lock writeLock;
+
+		/**
+		 * Condition signaled when there is no more pending commands, or when reader thread has terminated.
+		 */
+		private final Condition drained;
+
+		private Daemon(CommandProcess process) {
+			this.process = process;
+			this.pending = new ArrayDeque<>();
+			this.lock = new ReentrantLock();
+			this.writeLock = new ReentrantLock();
+			this.drained = lock.newCondition();
+		}
+
+		/**
+		 * Write command to the process.
+		 *
+		 * @param command The command.
+		 * @param args Command arguments.
+		 * @return {@code true} if command has been submitted, {@code false} if daemon is closing.
+		 * @throws IOException If command cannot be written.
+		 */
+		private boolean submit(PendingCommand command, List<String> args) throws IOException {
+			writeLock.lock();
+			try {
+				lock.lock();
+				try {
+					if (closing) {
+						return false;
+					}
+
+					if (terminated) {
+						throw new IOException("ExifTool process has been terminated");
+					}
+
+					// Command must be queued before it is written, so that the reader cannot
+					// read its output before it is available in the queue.
+					if (pending.isEmpty()) {
+						metrics.daemonBusy();
+					}
+
+					pending.addLast(command);
+				}
+				finally {
+					lock.unlock();
+				}
+
+				try {
+					long writeStart = System.nanoTime();
+					process.write(args);
+					process.flush();
+					command.onSent(process, System.nanoTime() - writeStart);
+					return true;
+				}
+				catch (IOException ex) {
+					log.error(ex.getMessage(), ex);
+					remove(command);
+					throw ex;
+				}
+			}
+			finally {
+				writeLock.unlock();
+			}
+		}
+
+		/**
+		 * Remove a command that has not been written.
+		 *
+		 * @param command The command.
+		 */
+		private void remove(PendingCommand command) {
+			lock.lock();
+			try {
+				if (pending.removeLastOccurrence(command) && pending.isEmpty()) {
+					metrics.daemonIdle();
+					drained.signalAll();
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Close the process: pending commands are executed by exiftool before
+		 * the process stops.
+		 *
+		 * @throws Exception If an error occurs during the close operation.
+		 */
+		private void close() throws Exception {
+			boolean stopping = false;
+			writeLock.lock();
+			try {
+				lock.lock();
+				try {
+					closing = true;
+				}
+				finally {
+					lock.unlock();
+				}
+
+				log.debug("Attempting to close ExifTool daemon process, issuing '-stay_open\\nFalse\\n' command...");
+				process.write("-stay_open\nFalse\n");
+				process.flush();
+				stopping = true;
+			}
+			catch (Exception ex) {
+				log.warn("ExifTool daemon failed to stop");
+				log.warn(ex.getMessage(), ex);
+			}
+			finally {
+				writeLock.unlock();
+			}
+
+			// Wait for pending commands: exiftool will execute them before stopping.
+			lock.lock();
+			try {
+				while (stopping && !pending.isEmpty() && !terminated) {
+					drained.await();
+				}
+			}
+			catch (InterruptedException ex) {
+				log.warn(ex.getMessage());
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				lock.unlock();
+			}
+
+			process.close();
+			log.debug("ExifTool daemon process successfully closed");
+		}
+
+		/**
+		 * Release resources of a process that is not alive anymore.
+		 */
+		private void discard() {
+			try {
+				process.close();
+			}
+			catch (Exception ex) {
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+
+		@Override
+		public void run() {
+			IOException failure = null;
+
+			try {
+				// Each read operation stops at the end of a command output, so that
+				// output accumulated by the process is released for each command.
+				while (!process.isClosed()) {
+					process.read(this);
+					if (eos) {
+						break;
+					}
+				}
+			}
+			catch (IOException ex) {
+				failure = ex;
+			}
+			catch (RuntimeException ex) {
+				failure = new IOException(ex);
+			}
+			finally {
+				terminate(failure);
+			}
+		}
+
+		@Override
+		public boolean readLine(String line) {
+			if (line == null) {
+				eos = true;
+				return false;
+			}
+
+			PendingCommand command;
+			lock.lock();
+			try {
+				command = pending.peekFirst();
+			}
+			finally {
+				lock.unlock();
+			}
+
+			if (isReady(line)) {
+				int id = Integer.parseInt(line.substring(6, line.length() - 1));
+				if (command == null || command.id != id) {
+					log.warn("Unexpected exiftool output: {}", line);
+					return true;
+				}
+
+				command.readLine("{ready}");
+				if (command.readErrors) {
+					command.readErrors(process);
+				}
+
+				// Count command before caller is released, so that it can check recycle policy.
+				lock.lock();
+				try {
+					pending.removeFirst();
+					commands++;
+					if (pending.isEmpty()) {
+						metrics.daemonIdle();
+						drained.signalAll();
+					}
+				}
+				finally {
+					lock.unlock();
+				}
+
+				command.complete(null);
+				return false;
+			}
+
+			if (command == null) {
+				log.warn("Skipped line, no pending command: {}", line);
+			}
+			else {
+				command.readLine(line);
+			}
+
+			return true;
+		}
+
+		/**
+		 * Check if daemon can still execute commands.
+		 *
+		 * @return {@code true} if process is running and output is still read, {@code false} otherwise.
+		 */
+		private boolean isAlive() {
+			lock.lock();
+			try {
+				return !terminated && !closing && !process.isClosed();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private long getCommands() {
+			lock.lock();
+			try {
+				return commands;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private boolean isIdle() {
+			lock.lock();
+			try {
+				return pending.isEmpty();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void terminate(IOException failure) {
+			lock.lock();
+			try {
+				terminated = true;
+
+				IOException ex = failure != null ? failure : new IOException("ExifTool process has been terminated");
+				for (PendingCommand command : pending) {
+					command.complete(ex);
+				}
+
+				if (!pending.isEmpty()) {
+					metrics.daemonIdle();
+				}
+
+				pending.clear();
+				metrics.daemonStopped();
+				drained.signalAll();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private static boolean isReady(String line) {
+			if (!line.startsWith("{ready") || !line.endsWith("}") || line.length() <= 7) {
+				return false;
+			}
+
+			for (int i = 6; i < line.length() - 1; i++) {
+				if (!Character.isDigit(line.charAt(i))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * A command written to the process, waiting for its output.
+	 */
+	private static final class PendingCommand {
+
+		/**
+		 * Command identifier.
+		 */
+		private final int id;
+
+		/**
+		 * Handler given by the caller.
+		 */
+		private final OutputHandler handler;
+
+		/**
+		 * Latch released when the command is done.
+		 */
+		private final CountDownLatch done;
+
+		/**
+		 * Flag to know if error output of the command should be read.
+		 */
+		private final boolean readErrors;
+
+		/**
+		 * Flag to know if handler should still receive output.
+		 * Only accessed by the reader thread.
+		 */
+		private boolean accepting;
+
+		/**
+		 * Flag set when the command has been cancelled: its output is skipped.
+		 */
+		private volatile boolean cancelled;
+
+		/**
+		 * Failure, if command failed.
+		 * Written before the latch is released, so it is visible to the caller.
+		 */
+		private IOException failure;
+
+		private PendingCommand(int id, OutputHandler handler, boolean readErrors) {
+			this.id = id;
+			this.handler = handler;
+			this.readErrors = readErrors;
+			this.done = new CountDownLatch(1);
+			this.accepting = true;
+		}
+
+		private void readLine(String line) {
+			if (!accepting || cancelled) {
+				return;
+			}
+
+			try {
+				accepting = handler.readLine(line);
+			}
+			catch (RuntimeException ex) {
+				log.error(ex.getMessage(), ex);
+				accepting = false;
+				failure = new IOException(ex);
+			}
+		}
+
+		private void onSent(CommandProcess process, long writeTime) {
+			CommandContext context = CommandContext.of(handler);
+			if (context.isTraced()) {
+				long pid = process instanceof DefaultCommandProcess ? ((DefaultCommandProcess) process).getPid() : -1;
+				context.onSent(pid, writeTime);
+			}
+		}
+
+		private void readErrors(CommandProcess process) {
+			try {
+				ErrorMarkerHandler.readErrors(process, handler);
+			}
+			catch (IOException ex) {
+				log.error(ex.getMessage(), ex);
+				failure = ex;
+			}
+			catch (RuntimeException ex) {
+				log.error(ex.getMessage(), ex);
+				failure = new IOException(ex);
+			}
+		}
+
+		/**
+		 * Cancel the command: caller is released, and output of the command is skipped
+		 * when it is read.
+		 */
+		private void cancel() {
+			cancelled = true;
+			complete(new InterruptedIOException("Command #" + id + " has been cancelled"));
+		}
+
+		private void complete(IOException ex) {
+			if (failure == null) {
+				failure = ex;
+			}
+
+			done.countDown();
+		}
+
+		private void await() throws IOException {
+			try {
+				done.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for command #" + id);
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+}
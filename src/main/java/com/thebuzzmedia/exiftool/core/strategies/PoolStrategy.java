@@ -14,25 +14,51 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.thebuzzmedia.exiftool.core.strategies;
 
 import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Priority;
 import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.core.strategies.AdmissionPolicy.Rejection;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
 import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.exceptions.PoolRejectedException;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.metrics.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.metrics.MetricsFactory;
+import com.thebuzzmedia.exiftool.process.CommandContext;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandProcesses;
+import com.thebuzzmedia.exiftool.process.CommandWatchdog;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Arrays.asList;
 
 /**
  * Implementation of {@link ExecutionStrategy} using a pool of
@@ -44,8 +70,48 @@ import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
  *
  * This strategy should be used in a multithreaded environment, when application need to
  * extract exif data from images in parallel.
+ *
+ * <h3>Elastic pool</h3>
+ *
+ * A pool created with a minimum and a maximum size adapts its size to the load:
+ * <ul>
+ *   <li>
+ *     When a command waits for an available strategy longer than the growth threshold, a new
+ *     strategy is created (up to the maximum size). New strategies are created and started in
+ *     background: the waiting command runs on the first strategy that becomes available.
+ *   </li>
+ *   <li>
+ *     Strategies that have not been used for longer than the idle timeout are closed and removed
+ *     from the pool, until the pool is back to its minimum size.
+ *   </li>
+ * </ul>
+ *
+ * Available strategies of an elastic pool are used in LIFO order, so that the least recently used strategies are
+ * the ones that become idle. A fixed size pool uses its strategies in FIFO order, so that commands are spread
+ * across all processes.
+ *
+ * <h3>Admission control</h3>
+ *
+ * When all strategies are busy, commands wait for an available strategy. An {@link AdmissionPolicy}
+ * may bound the number of waiting commands and the time they wait: rejected commands fail with
+ * a {@link PoolRejectedException} (or run with a one-shot process, see {@link Rejection#CALLER_RUNS}).
+ *
+ * A command whose deadline expires while it is waiting is dropped with a {@link CommandTimeoutException}
+ * before it is sent to a process.
+ *
+ * <h3>Priorities</h3>
+ *
+ * By default, waiting commands are executed in arrival order. With a {@link PriorityPolicy}, waiting
+ * commands are ordered by {@link Priority} (see {@link CommandContext#getPriority()}),
+ * and some strategies may be reserved for {@link Priority#HIGH} commands.
+ *
+ * <h3>Management</h3>
+ *
+ * The pool implements {@link PoolStrategyMXBean}: it can be inspected (size, busy strategies, waiting
+ * commands, uptime of processes, latency of recent commands) and controlled (resized, recycled or drained)
+ * at runtime, for example through JMX. Commands submitted while the pool is drained are rejected.
  */
-public class PoolStrategy implements ExecutionStrategy {
+public class PoolStrategy implements ExecutionStrategy, PoolStrategyMXBean {
 
 	/**
 	 * Class Logger.
@@ -53,14 +119,124 @@ public class PoolStrategy implements ExecutionStrategy {
 	private static final Logger log = LoggerFactory.getLogger(PoolStrategy.class);
 
 	/**
-	 * Pool size (i.e number of available slot).
+	 * Metrics.
+	 */
+	private static final ExifToolMetrics metrics = MetricsFactory.getMetrics();
+
+	/**
+	 * Command executed to start the exiftool process of a new strategy.
+	 */
+	private static final List<String> WARM_UP = asList("-ver", "-execute");
+
+	/**
+	 * Counter used to name maintenance threads.
+	 */
+	private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+	/**
+	 * Number of recent commands used to compute latency percentiles.
+	 */
+	private static final int LATENCY_SAMPLES = 1024;
+
+	/**
+	 * Minimum pool size, may be changed with {@link #resize(int, int)}.
+	 */
+	private volatile int minSize;
+
+	/**
+	 * Maximum pool size, may be changed with {@link #resize(int, int)}.
+	 */
+	private volatile int maxSize;
+
+	/**
+	 * Time to wait for an available strategy before the pool grows, in milliseconds.
+	 */
+	private final long growThreshold;
+
+	/**
+	 * Time after which an unused strategy is removed from the pool, in milliseconds.
+	 */
+	private final long idleTimeout;
+
+	/**
+	 * Factory of new strategies, {@code null} if pool has been created with a collection of strategies.
+	 */
+	private final ExecutionStrategyFactory factory;
+
+	/**
+	 * Pool list: available strategies.
+	 */
+	private final BlockingDeque<ExecutionStrategy> pool;
+
+	/**
+	 * Current pool size: available strategies, running strategies and strategies being created.
+	 */
+	private final AtomicInteger size;
+
+	/**
+	 * Last time each strategy has been used.
+	 */
+	private final ConcurrentMap<ExecutionStrategy, Long> lastUsed;
+
+	/**
+	 * All strategies of the pool, available or running.
 	 */
-	private final int poolSize;
+	private final ConcurrentMap<ExecutionStrategy, Member> members;
 
 	/**
-	 * Pool list.
+	 * Counter used to name strategies.
 	 */
-	private final BlockingQueue<ExecutionStrategy> pool;
+	private final AtomicInteger memberCount;
+
+	/**
+	 * Latencies of recent commands.
+	 */
+	private final LatencySampler latencies;
+
+	/**
+	 * Time the pool has been created, in milliseconds.
+	 */
+	private final long startTime;
+
+	/**
+	 * Policy applied to commands waiting for an available strategy.
+	 */
+	private final AdmissionPolicy admission;
+
+	/**
+	 * Number of commands waiting for an available strategy.
+	 */
+	private final AtomicInteger waiters;
+
+	/**
+	 * Strategy running rejected commands, if rejection policy is {@link Rejection#CALLER_RUNS}.
+	 */
+	private final ExecutionStrategy fallback;
+
+	/**
+	 * Lanes of waiting commands, {@code null} if commands are executed in arrival order.
+	 */
+	private final PriorityLanes lanes;
+
+	/**
+	 * Lock preventing the pool to shrink while all strategies are processed.
+	 */
+	private final Lock lock;
+
+	/**
+	 * Executor creating new strategies and removing idle strategies, {@code null} if pool size is fixed.
+	 */
+	private final ScheduledExecutorService maintenance;
+
+	/**
+	 * Flag set once pool has been shutdown: pool cannot grow anymore.
+	 */
+	private volatile boolean shutdown;
+
+	/**
+	 * Flag set while pool is drained: new commands are rejected.
+	 */
+	private volatile boolean draining;
 
 	/**
 	 * Create the pool.
@@ -70,33 +246,216 @@ public class PoolStrategy implements ExecutionStrategy {
 	 * @throws IllegalArgumentException If {@code strategies} is empty.
 	 */
 	public PoolStrategy(Collection<ExecutionStrategy> strategies) {
+		this(strategies, AdmissionPolicy.UNBOUNDED);
+	}
+
+	/**
+	 * Create the pool, with an admission policy.
+	 *
+	 * @param strategies Internal strategies.
+	 * @param admission Policy applied to commands waiting for an available strategy.
+	 * @throws NullPointerException If {@code strategies} or {@code admission} is {@code null}.
+	 * @throws IllegalArgumentException If {@code strategies} is empty.
+	 */
+	public PoolStrategy(Collection<ExecutionStrategy> strategies, AdmissionPolicy admission) {
+		this(strategies, admission, null);
+	}
+
+	/**
+	 * Create the pool, with an admission policy and a priority policy.
+	 *
+	 * @param strategies Internal strategies.
+	 * @param admission Policy applied to commands waiting for an available strategy.
+	 * @param priorities Policy ordering waiting commands by priority, {@code null} to execute them in arrival order.
+	 * @throws NullPointerException If {@code strategies} or {@code admission} is {@code null}.
+	 * @throws IllegalArgumentException If {@code strategies} is empty, or if priority policy reserves all strategies.
+	 */
+	public PoolStrategy(Collection<ExecutionStrategy> strategies, AdmissionPolicy admission, PriorityPolicy priorities) {
+		this(strategies, null, admission, priorities);
+	}
+
+	/**
+	 * Create a pool of {@code size} strategies, with an admission policy and a priority policy.
+	 * Pool size is fixed, but pool may be resized with {@link #resize(int, int)}: new strategies
+	 * are created by the factory.
+	 *
+	 * @param size Pool size.
+	 * @param factory Factory of strategies.
+	 * @param admission Policy applied to commands waiting for an available strategy.
+	 * @param priorities Policy ordering waiting commands by priority, {@code null} to execute them in arrival order.
+	 * @throws NullPointerException If {@code factory} or {@code admission} is {@code null}.
+	 * @throws IllegalArgumentException If {@code size} is not strictly positive, or if priority policy reserves all strategies.
+	 */
+	public PoolStrategy(int size, ExecutionStrategyFactory factory, AdmissionPolicy admission, PriorityPolicy priorities) {
+		this(create(size, factory), factory, admission, priorities);
+	}
+
+	private PoolStrategy(Collection<ExecutionStrategy> strategies, ExecutionStrategyFactory factory, AdmissionPolicy admission, PriorityPolicy priorities) {
 		notEmpty(strategies, "Pool must not be empty");
+		checkReserved(priorities, strategies.size());
 
-		this.poolSize = strategies.size();
+		this.minSize = strategies.size();
+		this.maxSize = strategies.size();
+		this.growThreshold = 0;
+		this.idleTimeout = 0;
+		this.factory = factory;
 		this.pool = new LinkedBlockingDeque<>(strategies);
+		this.size = new AtomicInteger(strategies.size());
+		this.lastUsed = new ConcurrentHashMap<>();
+		this.members = new ConcurrentHashMap<>();
+		this.memberCount = new AtomicInteger(0);
+		this.latencies = new LatencySampler(LATENCY_SAMPLES);
+		this.startTime = System.currentTimeMillis();
+		this.admission = notNull(admission, "Admission policy should not be null");
+		this.waiters = new AtomicInteger(0);
+		this.fallback = new DefaultStrategy();
+		this.lanes = priorities == null ? null : new PriorityLanes(priorities, pool);
+		this.lock = new ReentrantLock();
+		this.maintenance = null;
+
+		for (ExecutionStrategy strategy : strategies) {
+			join(strategy);
+		}
+	}
+
+	/**
+	 * Create an elastic pool: {@code minSize} strategies are created immediately, and the pool
+	 * may grow up to {@code maxSize} strategies.
+	 *
+	 * @param minSize Minimum pool size.
+	 * @param maxSize Maximum pool size.
+	 * @param growThreshold Time to wait for an available strategy before the pool grows, in milliseconds.
+	 * @param idleTimeout Time after which an unused strategy is removed from the pool, in milliseconds.
+	 * @param factory Factory of new strategies.
+	 * @throws NullPointerException If {@code factory} is {@code null}.
+	 * @throws IllegalArgumentException If a size or a delay is not strictly positive, or if {@code maxSize} is less than {@code minSize}.
+	 */
+	public PoolStrategy(int minSize, int maxSize, long growThreshold, long idleTimeout, ExecutionStrategyFactory factory) {
+		this(minSize, maxSize, growThreshold, idleTimeout, factory, AdmissionPolicy.UNBOUNDED);
+	}
+
+	/**
+	 * Create an elastic pool, with an admission policy.
+	 *
+	 * @param minSize Minimum pool size.
+	 * @param maxSize Maximum pool size.
+	 * @param growThreshold Time to wait for an available strategy before the pool grows, in milliseconds.
+	 * @param idleTimeout Time after which an unused strategy is removed from the pool, in milliseconds.
+	 * @param factory Factory of new strategies.
+	 * @param admission Policy applied to commands waiting for an available strategy.
+	 * @throws NullPointerException If {@code factory} or {@code admission} is {@code null}.
+	 * @throws IllegalArgumentException If a size or a delay is not strictly positive, or if {@code maxSize} is less than {@code minSize}.
+	 */
+	public PoolStrategy(int minSize, int maxSize, long growThreshold, long idleTimeout, ExecutionStrategyFactory factory, AdmissionPolicy admission) {
+		this(minSize, maxSize, growThreshold, idleTimeout, factory, admission, null);
+	}
+
+	/**
+	 * Create an elastic pool, with an admission policy and a priority policy.
+	 *
+	 * @param minSize Minimum pool size.
+	 * @param maxSize Maximum pool size.
+	 * @param growThreshold Time to wait for an available strategy before the pool grows, in milliseconds.
+	 * @param idleTimeout Time after which an unused strategy is removed from the pool, in milliseconds.
+	 * @param factory Factory of new strategies.
+	 * @param admission Policy applied to commands waiting for an available strategy.
+	 * @param priorities Policy ordering waiting commands by priority, {@code null} to execute them in arrival order.
+	 * @throws NullPointerException If {@code factory} or {@code admission} is {@code null}.
+	 * @throws IllegalArgumentException If a size or a delay is not strictly positive, if {@code maxSize} is less than {@code minSize}, or if priority policy reserves all strategies.
+	 */
+	public PoolStrategy(int minSize, int maxSize, long growThreshold, long idleTimeout, ExecutionStrategyFactory factory, AdmissionPolicy admission, PriorityPolicy priorities) {
+		this.minSize = isPositive(minSize, "Pool minimum size must be positive");
+		this.maxSize = isPositive(maxSize, "Pool maximum size must be positive");
+		this.growThreshold = isPositive(growThreshold, "Grow threshold must be positive");
+		this.idleTimeout = isPositive(idleTimeout, "Idle timeout must be positive");
+		this.factory = notNull(factory, "Strategy factory should not be null");
+		this.admission = notNull(admission, "Admission policy should not be null");
+
+		if (maxSize < minSize) {
+			throw new IllegalArgumentException("Pool maximum size must be greater than minimum size");
+		}
+
+		checkReserved(priorities, minSize);
+
+		this.pool = new LinkedBlockingDeque<>();
+		this.lastUsed = new ConcurrentHashMap<>();
+		this.members = new ConcurrentHashMap<>();
+		this.memberCount = new AtomicInteger(0);
+		this.latencies = new LatencySampler(LATENCY_SAMPLES);
+		this.startTime = System.currentTimeMillis();
+		this.waiters = new AtomicInteger(0);
+		this.fallback = new DefaultStrategy();
+		this.lanes = priorities == null ? null : new PriorityLanes(priorities, pool);
+		this.lock = new ReentrantLock();
+
+		for (int i = 0; i < minSize; i++) {
+			ExecutionStrategy strategy = factory.create();
+			join(strategy);
+			lastUsed.put(strategy, System.currentTimeMillis());
+			pool.offerLast(strategy);
+		}
+
+		this.size = new AtomicInteger(minSize);
+
+		ScheduledThreadPoolExecutor maintenance = new ScheduledThreadPoolExecutor(1, new MaintenanceThreadFactory());
+		maintenance.setRemoveOnCancelPolicy(true);
+		maintenance.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				shrink();
+			}
+		}, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+
+		this.maintenance = maintenance;
 	}
 
 	@Override
 	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
-		ExecutionStrategy strategy = null;
+		long start = System.nanoTime();
+		ExecutionStrategy strategy;
 		try {
-			strategy = this.pool.take();
-			strategy.execute(executor, exifTool, arguments, handler);
+			strategy = acquire(executor, exifTool, handler);
+			long queueWait = System.nanoTime() - start;
+			metrics.queueWait(queueWait);
+			trace(strategy, handler, queueWait);
 		}
 		catch (InterruptedException ex) {
-			log.warn(ex.getMessage());
 			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for an available exiftool process");
+		}
+		catch (PoolRejectedException ex) {
+			if (admission.getRejection() != Rejection.CALLER_RUNS) {
+				throw ex;
+			}
+
+			log.warn("{}, run command with a one-shot exiftool process", ex.getMessage());
+			fallback.execute(executor, exifTool, arguments, handler);
+			return;
+		}
+
+		try {
+			// Do not waste process time if deadline has been missed while waiting.
+			if (CommandWatchdog.remaining(handler) == 0) {
+				throw new CommandTimeoutException("Command deadline missed while waiting for an available exiftool process");
+			}
+
+			CommandProcesses.checkAborted(handler);
+			strategy.execute(executor, exifTool, arguments, handler);
 		}
 		finally {
-			if (strategy != null) {
-				this.pool.offer(strategy);
+			latencies.record(System.nanoTime() - start);
+			Member member = members.get(strategy);
+			if (member != null) {
+				member.commands.incrementAndGet();
 			}
+
+			release(strategy);
 		}
 	}
 
 	@Override
 	public boolean isRunning() {
-		return pool.size() < poolSize;
+		return pool.size() < size.get();
 	}
 
 	@Override
@@ -117,23 +476,469 @@ public class PoolStrategy implements ExecutionStrategy {
 
 	@Override
 	public void shutdown() throws Exception {
-		processPool(SHUTDOWN_EXECUTION_STRATEGY);
+		shutdown = true;
+		try {
+			processPool(SHUTDOWN_EXECUTION_STRATEGY);
+		}
+		finally {
+			if (maintenance != null) {
+				maintenance.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Start the exiftool process of each available strategy, so that first commands do not
+	 * wait for process startup.
+	 *
+	 * <br>
+	 *
+	 * Processes are started in parallel, and strategies are put back in the pool as soon as
+	 * their process is started: this method returns once all processes have been started.
+	 *
+	 * @param executor Executor used to start processes.
+	 * @param exifTool ExifTool path.
+	 * @throws PoolIOException If a process cannot be started (strategy may still be used, its process will be started by the next command).
+	 * @throws InterruptedException If current thread is interrupted while processes are starting.
+	 */
+	public void prewarm(final CommandExecutor executor, final String exifTool) throws PoolIOException, InterruptedException {
+		List<ExecutionStrategy> strategies = new ArrayList<>(size.get());
+		pool.drainTo(strategies);
+
+		log.debug("Prewarm {} strategies", strategies.size());
+
+		final List<Exception> thrownExceptions = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new ArrayList<>(strategies.size());
+		for (final ExecutionStrategy strategy : strategies) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						strategy.execute(executor, exifTool, WARM_UP, stopHandler());
+					}
+					catch (Exception ex) {
+						log.warn(ex.getMessage(), ex);
+						thrownExceptions.add(ex);
+					}
+					finally {
+						release(strategy);
+					}
+				}
+			}, "exiftool-prewarm-" + threadCount.incrementAndGet());
+
+			thread.setDaemon(true);
+			thread.start();
+			threads.add(thread);
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		if (!thrownExceptions.isEmpty()) {
+			throw new PoolIOException("Some ExifTool processes cannot be started", thrownExceptions);
+		}
+	}
+
+	@Override
+	public int getMinSize() {
+		return minSize;
+	}
+
+	@Override
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	@Override
+	public int getSize() {
+		return size.get();
+	}
+
+	@Override
+	public int getBusy() {
+		return Math.max(size.get() - pool.size(), 0);
+	}
+
+	@Override
+	public int getWaiters() {
+		return waiters.get();
+	}
+
+	@Override
+	public Map<String, Long> getCommandCounts() {
+		Map<String, Long> counts = new TreeMap<>();
+		for (Member member : members.values()) {
+			counts.put(member.name, member.commands.get());
+		}
+
+		return counts;
+	}
+
+	@Override
+	public long getUptime() {
+		return System.currentTimeMillis() - startTime;
+	}
+
+	/**
+	 * Uptime of the exiftool process of each strategy of the pool: only {@link StayOpenStrategy}
+	 * instances keep a process between commands, other strategies are reported with a zero uptime.
+	 *
+	 * @return Uptime in milliseconds (zero if process is not started), indexed by strategy name.
+	 */
+	@Override
+	public Map<String, Long> getUptimes() {
+		Map<String, Long> uptimes = new TreeMap<>();
+		for (Map.Entry<ExecutionStrategy, Member> entry : members.entrySet()) {
+			ExecutionStrategy strategy = entry.getKey();
+			long uptime = strategy instanceof StayOpenStrategy ? ((StayOpenStrategy) strategy).getUptime() : 0;
+			uptimes.put(entry.getValue().name, uptime);
+		}
+
+		return uptimes;
+	}
+
+	@Override
+	public double getLatencyP50() {
+		return latencies.percentile(0.5);
+	}
+
+	@Override
+	public double getLatencyP95() {
+		return latencies.percentile(0.95);
+	}
+
+	@Override
+	public double getLatencyP99() {
+		return latencies.percentile(0.99);
+	}
+
+	/**
+	 * Change the bounds of the pool.
+	 *
+	 * <br>
+	 *
+	 * If pool is smaller than the new minimum size, new strategies are created immediately (their
+	 * process is started by the first command). If pool is larger than the new maximum size,
+	 * available strategies are shutdown immediately, and running strategies are shutdown once
+	 * their command is completed.
+	 *
+	 * <br>
+	 *
+	 * A pool that is not elastic has a fixed size: both sizes must be equal.
+	 *
+	 * @param minSize New minimum size.
+	 * @param maxSize New maximum size.
+	 * @throws IllegalArgumentException If a size is not strictly positive, if {@code maxSize} is less than {@code minSize}, if sizes of a fixed size pool are different, or if priority policy reserves all strategies.
+	 * @throws UnsupportedOperationException If pool must grow, but has been created without a factory of strategies.
+	 */
+	@Override
+	public void resize(int minSize, int maxSize) {
+		isPositive(minSize, "Pool minimum size must be positive");
+		isPositive(maxSize, "Pool maximum size must be positive");
+
+		if (maxSize < minSize) {
+			throw new IllegalArgumentException("Pool maximum size must be greater than minimum size");
+		}
+
+		if (maintenance == null && minSize != maxSize) {
+			throw new IllegalArgumentException("Fixed size pool must have the same minimum and maximum size");
+		}
+
+		checkReserved(lanes == null ? null : lanes.getPolicy(), minSize);
+
+		if (factory == null && minSize > size.get()) {
+			throw new UnsupportedOperationException("Pool created without a strategy factory cannot grow");
+		}
+
+		log.info("Resize pool to [{}, {}]", minSize, maxSize);
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+
+		// Create missing strategies.
+		int current = size.get();
+		while (current < minSize) {
+			if (size.compareAndSet(current, current + 1)) {
+				ExecutionStrategy strategy = factory.create();
+				join(strategy);
+				release(strategy);
+			}
+
+			current = size.get();
+		}
+
+		// Remove available strategies, least recently used first (see release): running strategies are removed once released.
+		while (size.get() > maxSize) {
+			ExecutionStrategy strategy = maintenance == null ? pool.pollFirst() : pool.pollLast();
+			if (strategy == null) {
+				break;
+			}
+
+			if (!removeAbove(maxSize)) {
+				release(strategy);
+				break;
+			}
+
+			retire(strategy);
+		}
+	}
+
+	/**
+	 * Replace the exiftool process of each strategy: with a {@link StayOpenStrategy}, replacement
+	 * process is started in background, and current process is closed once the replacement
+	 * is ready (see {@link StayOpenStrategy#recycle()}).
+	 * Other strategies are not recycled.
+	 */
+	@Override
+	public void recycle() {
+		log.info("Recycle exiftool processes of the pool");
+		for (ExecutionStrategy strategy : members.keySet()) {
+			if (strategy instanceof StayOpenStrategy) {
+				((StayOpenStrategy) strategy).recycle();
+			}
+			else {
+				log.debug("Strategy {} cannot be recycled", strategy);
+			}
+		}
+	}
+
+	/**
+	 * Drain the pool: new commands are rejected (see {@link AdmissionPolicy#getRejection()}) while
+	 * commands already running or waiting for a strategy are completed, then the exiftool process
+	 * of each strategy is closed. Once drained, pool accepts commands again: processes are
+	 * started again by next commands.
+	 *
+	 * @throws Exception If a strategy cannot be closed.
+	 */
+	@Override
+	public void drain() throws Exception {
+		log.info("Drain exiftool processes of the pool");
+		lock.lock();
+		try {
+			draining = true;
+			doProcessPool(CLOSE_EXECUTION_STRATEGY);
+		}
+		finally {
+			draining = false;
+			lock.unlock();
+		}
+
+		log.info("Pool has been drained");
+	}
+
+	private ExecutionStrategy acquire(CommandExecutor executor, String exifTool, OutputHandler handler) throws IOException, InterruptedException {
+		if (draining) {
+			throw new PoolRejectedException("Pool is being drained, command is rejected");
+		}
+
+		Priority priority = PriorityLanes.priority(handler);
+		ExecutionStrategy strategy = poll(priority, 0);
+		if (strategy != null) {
+			return strategy;
+		}
+
+		if (!admit()) {
+			throw new PoolRejectedException("Too many commands waiting for an available exiftool process");
+		}
+
+		try {
+			return tryAcquire(executor, exifTool, handler, priority);
+		}
+		finally {
+			waiters.decrementAndGet();
+		}
+	}
+
+	private ExecutionStrategy tryAcquire(CommandExecutor executor, String exifTool, OutputHandler handler, Priority priority) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+
+		// Command may wait until its deadline, or until the acquire timeout.
+		long deadline = CommandWatchdog.remaining(handler);
+		long acquireTimeout = admission.getAcquireTimeout() > 0 ? TimeUnit.MILLISECONDS.toNanos(admission.getAcquireTimeout()) : -1;
+		boolean expires = deadline >= 0 && (acquireTimeout < 0 || deadline <= acquireTimeout);
+		long timeout = expires ? deadline : acquireTimeout;
+
+		ExecutionStrategy strategy;
+		if (maintenance != null && size.get() < maxSize) {
+			long threshold = TimeUnit.MILLISECONDS.toNanos(growThreshold);
+			strategy = poll(priority, timeout < 0 ? threshold : Math.min(threshold, timeout));
+			if (strategy != null) {
+				return strategy;
+			}
+
+			if (System.nanoTime() - start >= threshold) {
+				grow(executor, exifTool);
+			}
+		}
+
+		if (timeout < 0) {
+			return poll(priority, -1);
+		}
+
+		strategy = poll(priority, Math.max(timeout - (System.nanoTime() - start), 0));
+		if (strategy != null) {
+			return strategy;
+		}
+
+		if (expires) {
+			throw new CommandTimeoutException("Command deadline missed while waiting for an available exiftool process");
+		}
+
+		throw new PoolRejectedException("No exiftool process available after " + admission.getAcquireTimeout() + " ms");
+	}
+
+	private ExecutionStrategy poll(Priority priority, long timeout) throws InterruptedException {
+		if (lanes != null) {
+			return lanes.acquire(priority, timeout);
+		}
+
+		if (timeout < 0) {
+			return pool.takeFirst();
+		}
+
+		return timeout == 0 ? pool.pollFirst() : pool.pollFirst(timeout, TimeUnit.NANOSECONDS);
+	}
+
+	private boolean admit() {
+		int current = waiters.get();
+		while (admission.canWait(current)) {
+			if (waiters.compareAndSet(current, current + 1)) {
+				return true;
+			}
+
+			current = waiters.get();
+		}
+
+		return false;
+	}
+
+	private void release(ExecutionStrategy strategy) {
+		// Pool has been resized: strategy is removed instead of being available again.
+		if (size.get() > maxSize && removeAbove(maxSize)) {
+			retire(strategy);
+			return;
+		}
+
+		// Elastic pool reuses the most recently used strategy (LIFO), so that other strategies become idle and
+		// can be removed; fixed pool keeps using all strategies in turn (FIFO).
+		if (maintenance != null) {
+			lastUsed.put(strategy, System.currentTimeMillis());
+			pool.offerFirst(strategy);
+		}
+		else {
+			pool.offerLast(strategy);
+		}
+
+		if (lanes != null) {
+			lanes.signal();
+		}
+	}
+
+	private void grow(final CommandExecutor executor, final String exifTool) {
+		int current = size.get();
+		while (current < maxSize) {
+			if (size.compareAndSet(current, current + 1)) {
+				log.debug("Grow pool to {} strategies", current + 1);
+				try {
+					maintenance.execute(new Runnable() {
+						@Override
+						public void run() {
+							spawn(executor, exifTool);
+						}
+					});
+				}
+				catch (RuntimeException ex) {
+					// Pool has been shutdown.
+					size.decrementAndGet();
+					log.debug(ex.getMessage());
+				}
+
+				return;
+			}
+
+			current = size.get();
+		}
+	}
+
+	private void spawn(CommandExecutor executor, String exifTool) {
+		if (shutdown) {
+			size.decrementAndGet();
+			return;
+		}
+
+		ExecutionStrategy strategy;
+		try {
+			strategy = factory.create();
+			join(strategy);
+		}
+		catch (RuntimeException ex) {
+			log.error(ex.getMessage(), ex);
+			size.decrementAndGet();
+			return;
+		}
+
+		try {
+			// Start exiftool process before the strategy is used by a command.
+			strategy.execute(executor, exifTool, WARM_UP, stopHandler());
+		}
+		catch (Exception ex) {
+			// Strategy may still be used, process will be started by the next command.
+			log.warn(ex.getMessage(), ex);
+		}
+
+		release(strategy);
+	}
+
+	private void shrink() {
+		if (!lock.tryLock()) {
+			return;
+		}
+
+		try {
+			long now = System.currentTimeMillis();
+			while (size.get() > minSize) {
+				ExecutionStrategy strategy = pool.peekLast();
+				if (strategy == null || now - lastUsed.get(strategy) < idleTimeout || !pool.removeLastOccurrence(strategy)) {
+					break;
+				}
+
+				size.decrementAndGet();
+				log.debug("Remove idle strategy from pool, pool size is now {}", size.get());
+				retire(strategy);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	private void processPool(ExecutionStrategyFunction function) throws Exception {
-		List<ExecutionStrategy> strategies = new ArrayList<>(poolSize);
+		lock.lock();
+		try {
+			doProcessPool(function);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void doProcessPool(ExecutionStrategyFunction function) throws Exception {
+		List<ExecutionStrategy> strategies = new ArrayList<>(size.get());
 
 		// Get all strategies from the pool.
-		// We need to be sure that all strategies are available.
+		// We need to be sure that all strategies are available (pool cannot
+		// shrink during this operation, but a new strategy may still be created).
 		log.debug("Retrieve all pending strategies");
 		int added = 0;
-		while (added != poolSize) {
+		while (added < size.get()) {
 			try {
 				added += this.pool.drainTo(strategies);
-				if (added < poolSize) {
-					ExecutionStrategy strategy = this.pool.take();
-					strategies.add(strategy);
-					added++;
+				if (added < size.get()) {
+					ExecutionStrategy strategy = this.pool.poll(100, TimeUnit.MILLISECONDS);
+					if (strategy != null) {
+						strategies.add(strategy);
+						added++;
+					}
 				}
 			}
 			catch (InterruptedException ex) {
@@ -157,6 +962,9 @@ public class PoolStrategy implements ExecutionStrategy {
 
 				// Strategy is now available.
 				this.pool.offer(strategy);
+				if (lanes != null) {
+					lanes.signal();
+				}
 			}
 		}
 
@@ -165,6 +973,72 @@ public class PoolStrategy implements ExecutionStrategy {
 		}
 	}
 
+	private void join(ExecutionStrategy strategy) {
+		members.put(strategy, new Member("strategy-" + memberCount.incrementAndGet()));
+	}
+
+	/**
+	 * Decrement pool size if it is greater than given size.
+	 *
+	 * @param maxSize The size.
+	 * @return {@code true} if pool size has been decremented, {@code false} otherwise.
+	 */
+	private boolean removeAbove(int maxSize) {
+		int current = size.get();
+		while (current > maxSize) {
+			if (size.compareAndSet(current, current - 1)) {
+				return true;
+			}
+
+			current = size.get();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Shutdown a strategy removed from the pool: pool size must have been decremented.
+	 *
+	 * @param strategy The strategy.
+	 */
+	private void retire(ExecutionStrategy strategy) {
+		lastUsed.remove(strategy);
+		members.remove(strategy);
+
+		try {
+			strategy.shutdown();
+		}
+		catch (Exception ex) {
+			log.warn(ex.getMessage(), ex);
+		}
+	}
+
+	private void trace(ExecutionStrategy strategy, OutputHandler handler, long queueWait) {
+		CommandContext context = CommandContext.of(handler);
+		if (context.isTraced()) {
+			Member member = members.get(strategy);
+			context.onAcquired(member == null ? null : member.name, queueWait);
+		}
+	}
+
+	private static List<ExecutionStrategy> create(int size, ExecutionStrategyFactory factory) {
+		isPositive(size, "Pool size must be positive");
+		notNull(factory, "Strategy factory should not be null");
+
+		List<ExecutionStrategy> strategies = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strategies.add(factory.create());
+		}
+
+		return strategies;
+	}
+
+	private static void checkReserved(PriorityPolicy priorities, int size) {
+		if (priorities != null && priorities.getReserved() >= size) {
+			throw new IllegalArgumentException("Reserved strategies must be less than pool size");
+		}
+	}
+
 	private interface ExecutionStrategyFunction {
 		void apply(ExecutionStrategy strategy, int i) throws Exception;
 	}
@@ -184,4 +1058,36 @@ public class PoolStrategy implements ExecutionStrategy {
 			strategy.shutdown();
 		}
 	};
+
+	/**
+	 * A strategy of the pool.
+	 */
+	private static class Member {
+		/**
+		 * Strategy name.
+		 */
+		private final String name;
+
+		/**
+		 * Number of commands executed by the strategy.
+		 */
+		private final AtomicLong commands;
+
+		private Member(String name) {
+			this.name = name;
+			this.commands = new AtomicLong(0);
+		}
+	}
+
+	/**
+	 * Factory creating daemon threads: maintenance of the pool should not prevent the JVM from exiting.
+	 */
+	private static class MaintenanceThreadFactory implements ThreadFactory {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "exiftool-pool-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
 }
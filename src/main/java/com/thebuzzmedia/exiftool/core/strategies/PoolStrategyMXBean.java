@@ -0,0 +1,126 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import java.util.Map;
+
+/**
+ * Management interface of a {@link PoolStrategy}: it can be registered in a JMX server
+ * (see {@link com.thebuzzmedia.exiftool.ExifToolBuilder#enableJmx(String)}) to inspect and
+ * control the pool at runtime.
+ */
+public interface PoolStrategyMXBean {
+
+	/**
+	 * Minimum pool size.
+	 *
+	 * @return Minimum pool size.
+	 */
+	int getMinSize();
+
+	/**
+	 * Maximum pool size.
+	 *
+	 * @return Maximum pool size.
+	 */
+	int getMaxSize();
+
+	/**
+	 * Current pool size, including running strategies and strategies being created.
+	 *
+	 * @return Pool size.
+	 */
+	int getSize();
+
+	/**
+	 * Number of strategies that are not available: running a command, or being created.
+	 *
+	 * @return Number of busy strategies.
+	 */
+	int getBusy();
+
+	/**
+	 * Number of commands currently waiting for an available strategy.
+	 *
+	 * @return Number of waiting commands.
+	 */
+	int getWaiters();
+
+	/**
+	 * Number of commands executed by each strategy of the pool.
+	 *
+	 * @return Number of commands, indexed by strategy name.
+	 */
+	Map<String, Long> getCommandCounts();
+
+	/**
+	 * Time elapsed since the pool has been created.
+	 *
+	 * @return Uptime, in milliseconds.
+	 */
+	long getUptime();
+
+	/**
+	 * Time elapsed since the exiftool process of each strategy of the pool has been started.
+	 *
+	 * @return Uptime in milliseconds, indexed by strategy name.
+	 */
+	Map<String, Long> getUptimes();
+
+	/**
+	 * Median latency of recent commands, including time waiting for an available strategy.
+	 *
+	 * @return Latency, in milliseconds.
+	 */
+	double getLatencyP50();
+
+	/**
+	 * 95th percentile of the latency of recent commands.
+	 *
+	 * @return Latency, in milliseconds.
+	 */
+	double getLatencyP95();
+
+	/**
+	 * 99th percentile of the latency of recent commands.
+	 *
+	 * @return Latency, in milliseconds.
+	 */
+	double getLatencyP99();
+
+	/**
+	 * Change the bounds of the pool.
+	 *
+	 * @param minSize New minimum size.
+	 * @param maxSize New maximum size.
+	 */
+	void resize(int minSize, int maxSize);
+
+	/**
+	 * Replace the exiftool process of each strategy.
+	 */
+	void recycle();
+
+	/**
+	 * Reject new commands, wait for running commands, and close the exiftool process of each
+	 * strategy: pool accepts commands again once it has been drained.
+	 *
+	 * @throws Exception If a strategy cannot be closed.
+	 */
+	void drain() throws Exception;
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Priority;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.CommandContext;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lanes of commands waiting for an available strategy of a pool, one lane per {@link Priority}.
+ *
+ * <br>
+ *
+ * A strategy is only taken by a command of the lane selected by the {@link PriorityPolicy}: once a
+ * strategy is released to the pool, the selected lane is signaled. With weighted ordering, the lane
+ * with the lowest ratio of served commands to its weight is selected; a lane that starts waiting
+ * catches up with the other waiting lanes, so that it cannot monopolize the pool.
+ */
+final class PriorityLanes {
+
+	/**
+	 * Priorities, from highest to lowest.
+	 */
+	private static final Priority[] PRIORITIES = Priority.values();
+
+	/**
+	 * Get the priority of a command.
+	 *
+	 * @param handler Command handler.
+	 * @return The priority, {@link Priority#NORMAL} if handler does not define it.
+	 */
+	static Priority priority(OutputHandler handler) {
+		return CommandContext.of(handler).getPriority();
+	}
+
+	/**
+	 * The policy.
+	 */
+	private final PriorityPolicy policy;
+
+	/**
+	 * Available strategies.
+	 */
+	private final BlockingDeque<ExecutionStrategy> pool;
+
+	/**
+	 * Lock guarding lanes.
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * Condition of each lane, indexed by priority ordinal.
+	 */
+	private final Condition[] conditions;
+
+	/**
+	 * Number of waiting commands of each lane.
+	 */
+	private final int[] waiting;
+
+	/**
+	 * Number of commands served by each lane, used with weighted ordering.
+	 */
+	private final long[] served;
+
+	/**
+	 * Create lanes.
+	 *
+	 * @param policy The policy.
+	 * @param pool Available strategies.
+	 */
+	PriorityLanes(PriorityPolicy policy, BlockingDeque<ExecutionStrategy> pool) {
+		this.policy = policy;
+		this.pool = pool;
+		this.lock = new ReentrantLock();
+		this.conditions = new Condition[PRIORITIES.length];
+		this.waiting = new int[PRIORITIES.length];
+		this.served = new long[PRIORITIES.length];
+
+		for (int i = 0; i < PRIORITIES.length; i++) {
+			conditions[i] = lock.newCondition();
+		}
+	}
+
+	/**
+	 * Get the policy.
+	 *
+	 * @return The policy.
+	 */
+	PriorityPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Take an available strategy once the lane of the command is selected.
+	 *
+	 * @param priority Command priority.
+	 * @param timeout Maximum time to wait in nanoseconds, wait indefinitely if it is negative.
+	 * @return The strategy, {@code null} if timeout elapsed.
+	 * @throws InterruptedException If current thread is interrupted while waiting.
+	 */
+	ExecutionStrategy acquire(Priority priority, long timeout) throws InterruptedException {
+		int lane = priority.ordinal();
+		long nanos = timeout;
+
+		lock.lockInterruptibly();
+		try {
+			join(lane);
+			try {
+				ExecutionStrategy strategy;
+				while (select() != lane || (strategy = pool.pollFirst()) == null) {
+					if (timeout < 0) {
+						conditions[lane].await();
+					}
+					else if (nanos <= 0) {
+						return null;
+					}
+					else {
+						nanos = conditions[lane].awaitNanos(nanos);
+					}
+				}
+
+				served[lane]++;
+				return strategy;
+			}
+			finally {
+				waiting[lane]--;
+
+				// Another strategy may be available, or this command may have been signaled
+				// before leaving: pass the signal to the next selected lane.
+				signalSelected();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Signal the selected lane: must be called once a strategy has been added to the pool.
+	 */
+	void signal() {
+		lock.lock();
+		try {
+			signalSelected();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Number of commands waiting in a lane.
+	 *
+	 * @param priority Lane priority.
+	 * @return Number of waiting commands.
+	 */
+	int getWaiting(Priority priority) {
+		lock.lock();
+		try {
+			return waiting[priority.ordinal()];
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void join(int lane) {
+		if (waiting[lane]++ > 0 || !policy.isWeighted()) {
+			return;
+		}
+
+		// Lane starts waiting: it should not be given the strategies it did not use
+		// while it was empty, catch up with the waiting lane served the least.
+		int least = -1;
+		for (int i = 0; i < PRIORITIES.length; i++) {
+			if (i != lane && waiting[i] > 0 && (least < 0 || ratioLessThan(i, least))) {
+				least = i;
+			}
+		}
+
+		if (least >= 0) {
+			long catchUp = served[least] * policy.getWeight(PRIORITIES[lane]) / policy.getWeight(PRIORITIES[least]);
+			served[lane] = Math.max(served[lane], catchUp);
+		}
+	}
+
+	private boolean ratioLessThan(int lane, int other) {
+		return served[lane] * policy.getWeight(PRIORITIES[other]) < served[other] * policy.getWeight(PRIORITIES[lane]);
+	}
+
+	private void signalSelected() {
+		int lane = select();
+		if (lane >= 0) {
+			conditions[lane].signal();
+		}
+	}
+
+	private int select() {
+		int available = pool.size();
+		if (available == 0) {
+			return -1;
+		}
+
+		int selected = -1;
+		for (int i = 0; i < PRIORITIES.length; i++) {
+			if (waiting[i] == 0 || (PRIORITIES[i] != Priority.HIGH && available <= policy.getReserved())) {
+				continue;
+			}
+
+			if (!policy.isWeighted()) {
+				return i;
+			}
+
+			// Select lowest served / weight ratio, highest priority first on equality.
+			if (selected < 0 || ratioLessThan(i, selected)) {
+				selected = i;
+			}
+		}
+
+		return selected;
+	}
+}
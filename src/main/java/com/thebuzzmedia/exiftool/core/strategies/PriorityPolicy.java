@@ -0,0 +1,138 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Priority;
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+
+/**
+ * Policy used by a pool to order commands waiting for an available strategy according to
+ * their {@link Priority}.
+ *
+ * <ul>
+ *   <li>
+ *     A number of strategies may be reserved for {@link Priority#HIGH} commands: other commands
+ *     only run while more strategies than this number are available.
+ *   </li>
+ *   <li>
+ *     With strict ordering, an available strategy is always given to the highest priority
+ *     waiting command: lower priority commands may starve under load.
+ *   </li>
+ *   <li>
+ *     With weighted ordering, available strategies are shared between waiting priorities
+ *     proportionally to their weights.
+ *   </li>
+ * </ul>
+ */
+public final class PriorityPolicy {
+
+	/**
+	 * Create policy giving available strategies to the highest priority waiting command.
+	 *
+	 * @param reserved Number of strategies reserved for {@link Priority#HIGH} commands.
+	 * @return The policy.
+	 * @throws IllegalArgumentException If {@code reserved} is negative.
+	 */
+	public static PriorityPolicy strict(int reserved) {
+		return new PriorityPolicy(reserved, false, 1, 1, 1);
+	}
+
+	/**
+	 * Create policy sharing available strategies between waiting priorities.
+	 *
+	 * @param reserved Number of strategies reserved for {@link Priority#HIGH} commands.
+	 * @param high Weight of {@link Priority#HIGH} commands.
+	 * @param normal Weight of {@link Priority#NORMAL} commands.
+	 * @param low Weight of {@link Priority#LOW} commands.
+	 * @return The policy.
+	 * @throws IllegalArgumentException If {@code reserved} is negative or if a weight is not strictly positive.
+	 */
+	public static PriorityPolicy weighted(int reserved, int high, int normal, int low) {
+		return new PriorityPolicy(reserved, true, high, normal, low);
+	}
+
+	/**
+	 * Number of strategies reserved for {@link Priority#HIGH} commands.
+	 */
+	private final int reserved;
+
+	/**
+	 * Weighted ordering if {@code true}, strict ordering otherwise.
+	 */
+	private final boolean weighted;
+
+	/**
+	 * Weights, indexed by priority ordinal.
+	 */
+	private final int[] weights;
+
+	private PriorityPolicy(int reserved, boolean weighted, int high, int normal, int low) {
+		if (reserved < 0) {
+			throw new IllegalArgumentException("Reserved strategies must not be negative");
+		}
+
+		this.reserved = reserved;
+		this.weighted = weighted;
+		this.weights = new int[] {
+				isPositive(high, "Weight must be positive"),
+				isPositive(normal, "Weight must be positive"),
+				isPositive(low, "Weight must be positive")
+		};
+	}
+
+	/**
+	 * Get the number of strategies reserved for {@link Priority#HIGH} commands.
+	 *
+	 * @return Number of reserved strategies.
+	 */
+	public int getReserved() {
+		return reserved;
+	}
+
+	/**
+	 * Check if available strategies are shared between priorities according to their weights.
+	 *
+	 * @return {@code true} with weighted ordering, {@code false} with strict ordering.
+	 */
+	public boolean isWeighted() {
+		return weighted;
+	}
+
+	/**
+	 * Get the weight of a priority, always one with strict ordering.
+	 *
+	 * @param priority The priority.
+	 * @return The weight.
+	 */
+	public int getWeight(Priority priority) {
+		return weights[priority.ordinal()];
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("reserved", reserved)
+				.append("weighted", weighted)
+				.append("high", weights[0])
+				.append("normal", weights[1])
+				.append("low", weights[2])
+				.build();
+	}
+}
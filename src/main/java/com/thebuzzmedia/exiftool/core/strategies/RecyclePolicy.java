@@ -0,0 +1,230 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.executor.DefaultCommandProcess;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Policy used to retire long-lived {@code exiftool} processes.
+ *
+ * <br>
+ *
+ * A process is recycled once one of these limits is reached:
+ *
+ * <ul>
+ *   <li>Number of commands executed by the process.</li>
+ *   <li>Number of bytes read from the process output.</li>
+ *   <li>Resident memory of the process (only available on Linux, checked every {@value #MEMORY_CHECK_INTERVAL} commands).</li>
+ * </ul>
+ *
+ * Resident memory is read from {@code /proc}: on other platforms (such as macOS or Windows), memory limit
+ * is ignored and a warning is logged the first time it is checked.
+ *
+ * A limit less than or equal to zero is disabled.
+ */
+public final class RecyclePolicy {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(RecyclePolicy.class);
+
+	/**
+	 * Number of commands between two checks of process memory.
+	 */
+	static final int MEMORY_CHECK_INTERVAL = 100;
+
+	/**
+	 * Policy that never recycles processes.
+	 */
+	public static final RecyclePolicy NEVER = new RecyclePolicy(0, 0, 0);
+
+	/**
+	 * Create policy.
+	 *
+	 * @param maxCommands Maximum number of commands executed by a process.
+	 * @param maxOutputSize Maximum number of bytes read from a process.
+	 * @param maxMemory Maximum resident memory of a process, in bytes.
+	 * @return The policy.
+	 */
+	public static RecyclePolicy recyclePolicy(long maxCommands, long maxOutputSize, long maxMemory) {
+		return new RecyclePolicy(maxCommands, maxOutputSize, maxMemory);
+	}
+
+	/**
+	 * Create policy recycling processes after a number of commands.
+	 *
+	 * @param maxCommands Maximum number of commands executed by a process.
+	 * @return The policy.
+	 */
+	public static RecyclePolicy afterCommands(long maxCommands) {
+		return new RecyclePolicy(maxCommands, 0, 0);
+	}
+
+	/**
+	 * Maximum number of commands executed by a process.
+	 */
+	private final long maxCommands;
+
+	/**
+	 * Maximum number of bytes read from a process.
+	 */
+	private final long maxOutputSize;
+
+	/**
+	 * Maximum resident memory of a process, in bytes.
+	 */
+	private final long maxMemory;
+
+	/**
+	 * Flag set once a warning has been logged because resident memory of a process cannot be read.
+	 */
+	private final AtomicBoolean memoryUnavailable;
+
+	private RecyclePolicy(long maxCommands, long maxOutputSize, long maxMemory) {
+		this.maxCommands = maxCommands;
+		this.maxOutputSize = maxOutputSize;
+		this.maxMemory = maxMemory;
+		this.memoryUnavailable = new AtomicBoolean(false);
+	}
+
+	/**
+	 * Get the maximum number of commands executed by a process.
+	 *
+	 * @return Maximum number of commands.
+	 */
+	public long getMaxCommands() {
+		return maxCommands;
+	}
+
+	/**
+	 * Get the maximum number of bytes read from a process.
+	 *
+	 * @return Maximum output size.
+	 */
+	public long getMaxOutputSize() {
+		return maxOutputSize;
+	}
+
+	/**
+	 * Get the maximum resident memory of a process, in bytes.
+	 *
+	 * @return Maximum memory.
+	 */
+	public long getMaxMemory() {
+		return maxMemory;
+	}
+
+	/**
+	 * Check if at least one limit is enabled.
+	 *
+	 * @return {@code true} if processes may be recycled, {@code false} otherwise.
+	 */
+	public boolean isEnabled() {
+		return maxCommands > 0 || maxOutputSize > 0 || maxMemory > 0;
+	}
+
+	/**
+	 * Check if process should be recycled.
+	 *
+	 * @param process The process.
+	 * @param commands Number of commands executed by the process.
+	 * @return {@code true} if process should be recycled, {@code false} otherwise.
+	 */
+	boolean shouldRecycle(CommandProcess process, long commands) {
+		if (maxCommands > 0 && commands >= maxCommands) {
+			log.debug("Process has executed {} commands, recycle it", commands);
+			return true;
+		}
+
+		// Output size and memory are only available with default implementation.
+		if (!(process instanceof DefaultCommandProcess)) {
+			return false;
+		}
+
+		DefaultCommandProcess p = (DefaultCommandProcess) process;
+		if (maxOutputSize > 0 && p.getOutputSize() >= maxOutputSize) {
+			log.debug("Process output size is {}, recycle it", p.getOutputSize());
+			return true;
+		}
+
+		if (maxMemory > 0 && commands % MEMORY_CHECK_INTERVAL == 0) {
+			long memory = residentMemory(p.getPid());
+			if (memory < 0 && memoryUnavailable.compareAndSet(false, true)) {
+				log.warn("Resident memory of exiftool processes cannot be read (only available on Linux), memory limit of recycle policy is ignored");
+			}
+
+			if (memory >= maxMemory) {
+				log.debug("Process resident memory is {}, recycle it", memory);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Read resident memory of a process from {@code /proc/[pid]/status}.
+	 *
+	 * @param pid Process identifier.
+	 * @return Resident memory in bytes, or {@code -1} if it is not available.
+	 */
+	static long residentMemory(long pid) {
+		File status = new File("/proc/" + pid + "/status");
+		if (pid <= 0 || !status.isFile()) {
+			return -1;
+		}
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(status), Charset.forName("UTF-8")))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// Line is formatted as: "VmRSS:	   12345 kB"
+				if (line.startsWith("VmRSS:")) {
+					String value = line.substring(6).replace("kB", "").trim();
+					return Long.parseLong(value) * 1024;
+				}
+			}
+		}
+		catch (IOException | NumberFormatException ex) {
+			log.debug("Cannot read process memory: {}", ex.getMessage());
+		}
+
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("maxCommands", maxCommands)
+				.append("maxOutputSize", maxOutputSize)
+				.append("maxMemory", maxMemory)
+				.build();
+	}
+}
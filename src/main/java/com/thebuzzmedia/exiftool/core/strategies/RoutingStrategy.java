@@ -0,0 +1,303 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CommandContext;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Implementation of {@link ExecutionStrategy} routing each command to a dedicated strategy
+ * according to its workload: files processed by the command (type, size) and read or write
+ * access (see {@link WorkloadMatcher}).
+ *
+ * <br>
+ *
+ * This strategy is typically used with one {@link PoolStrategy} per workload class, each
+ * one with its own size and admission policy, so that slow commands (writes, videos, RAW
+ * files) do not delay cheap reads:
+ *
+ * <pre><code>
+ *   new RoutingStrategy(asList(
+ *     route(writes(), writePool),
+ *     route(anyOf(extensions("mp4", "mov", "cr2", "nef"), largerThan(50 * 1024 * 1024)), heavyPool)
+ *   ), readPool);
+ * </code></pre>
+ *
+ * Routes are evaluated in order, the first matching route is used. Commands that do not
+ * match any route, or that do not describe their workload (see {@link CommandContext#getFiles()}),
+ * are executed by the default strategy.
+ */
+public class RoutingStrategy implements ExecutionStrategy {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(RoutingStrategy.class);
+
+	/**
+	 * Command executed to start the exiftool process of a strategy.
+	 */
+	private static final List<String> WARM_UP = asList("-ver", "-execute");
+
+	/**
+	 * Create a route.
+	 *
+	 * @param matcher Matcher of commands.
+	 * @param strategy Strategy executing matching commands.
+	 * @return The route.
+	 * @throws NullPointerException If {@code matcher} or {@code strategy} is {@code null}.
+	 */
+	public static Route route(WorkloadMatcher matcher, ExecutionStrategy strategy) {
+		return new Route(
+				notNull(matcher, "Matcher should not be null"),
+				notNull(strategy, "Strategy should not be null")
+		);
+	}
+
+	/**
+	 * Routes, evaluated in order.
+	 */
+	private final List<Route> routes;
+
+	/**
+	 * Strategy executing commands that do not match any route.
+	 */
+	private final ExecutionStrategy defaultStrategy;
+
+	/**
+	 * All strategies, without duplicates (a strategy may be used by several routes).
+	 */
+	private final List<ExecutionStrategy> strategies;
+
+	/**
+	 * Create strategy.
+	 *
+	 * @param routes Routes, evaluated in order.
+	 * @param defaultStrategy Strategy executing commands that do not match any route.
+	 * @throws NullPointerException If {@code routes}, one of them or {@code defaultStrategy} is {@code null}.
+	 */
+	public RoutingStrategy(List<Route> routes, ExecutionStrategy defaultStrategy) {
+		notNull(routes, "Routes should not be null");
+		this.defaultStrategy = notNull(defaultStrategy, "Default strategy should not be null");
+		this.routes = unmodifiableList(new ArrayList<>(routes));
+
+		Set<ExecutionStrategy> distinct = Collections.newSetFromMap(new IdentityHashMap<ExecutionStrategy, Boolean>());
+		List<ExecutionStrategy> strategies = new ArrayList<>(routes.size() + 1);
+		for (Route route : this.routes) {
+			notNull(route, "Route should not be null");
+			if (distinct.add(route.strategy)) {
+				strategies.add(route.strategy);
+			}
+		}
+
+		if (distinct.add(defaultStrategy)) {
+			strategies.add(defaultStrategy);
+		}
+
+		this.strategies = unmodifiableList(strategies);
+	}
+
+	@Override
+	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
+		select(handler).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Override
+	public boolean isRunning() {
+		for (ExecutionStrategy strategy : strategies) {
+			if (strategy.isRunning()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public boolean isSupported(Version version) {
+		for (ExecutionStrategy strategy : strategies) {
+			if (!strategy.isSupported(version)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public void close() throws Exception {
+		List<Exception> thrownExceptions = new ArrayList<>();
+		for (ExecutionStrategy strategy : strategies) {
+			try {
+				strategy.close();
+			}
+			catch (Exception ex) {
+				log.error(ex.getMessage(), ex);
+				thrownExceptions.add(ex);
+			}
+		}
+
+		if (!thrownExceptions.isEmpty()) {
+			throw new PoolIOException("Some strategies failed to close properly", thrownExceptions);
+		}
+	}
+
+	@Override
+	public void shutdown() throws Exception {
+		List<Exception> thrownExceptions = new ArrayList<>();
+		for (ExecutionStrategy strategy : strategies) {
+			try {
+				strategy.shutdown();
+			}
+			catch (Exception ex) {
+				log.error(ex.getMessage(), ex);
+				thrownExceptions.add(ex);
+			}
+		}
+
+		if (!thrownExceptions.isEmpty()) {
+			throw new PoolIOException("Some strategies failed to shutdown properly", thrownExceptions);
+		}
+	}
+
+	/**
+	 * Start the exiftool processes of all strategies, so that first commands do not
+	 * wait for process startup.
+	 *
+	 * @param executor Executor used to start processes.
+	 * @param exifTool ExifTool path.
+	 * @throws PoolIOException If a process cannot be started.
+	 * @throws InterruptedException If current thread is interrupted while processes are starting.
+	 */
+	public void prewarm(CommandExecutor executor, String exifTool) throws PoolIOException, InterruptedException {
+		List<Exception> thrownExceptions = new ArrayList<>();
+		for (ExecutionStrategy strategy : strategies) {
+			try {
+				if (strategy instanceof PoolStrategy) {
+					((PoolStrategy) strategy).prewarm(executor, exifTool);
+				}
+				else {
+					strategy.execute(executor, exifTool, WARM_UP, stopHandler());
+				}
+			}
+			catch (IOException ex) {
+				log.warn(ex.getMessage(), ex);
+				thrownExceptions.add(ex);
+			}
+		}
+
+		if (!thrownExceptions.isEmpty()) {
+			throw new PoolIOException("Some ExifTool processes cannot be started", thrownExceptions);
+		}
+	}
+
+	/**
+	 * Get the routes.
+	 *
+	 * @return Routes, in evaluation order.
+	 */
+	public List<Route> getRoutes() {
+		return routes;
+	}
+
+	/**
+	 * Get the strategy executing commands that do not match any route.
+	 *
+	 * @return Default strategy.
+	 */
+	public ExecutionStrategy getDefaultStrategy() {
+		return defaultStrategy;
+	}
+
+	private ExecutionStrategy select(OutputHandler handler) {
+		CommandContext context = CommandContext.of(handler);
+		if (context.getFiles().isEmpty() || routes.isEmpty()) {
+			return defaultStrategy;
+		}
+
+		List<File> files = context.getFiles();
+		boolean write = context.isWrite();
+
+		for (Route route : routes) {
+			if (route.matcher.matches(files, write)) {
+				return route.strategy;
+			}
+		}
+
+		return defaultStrategy;
+	}
+
+	/**
+	 * Route of a {@link RoutingStrategy}: commands matching the route are executed
+	 * by its strategy.
+	 */
+	public static final class Route {
+
+		/**
+		 * Matcher of commands.
+		 */
+		private final WorkloadMatcher matcher;
+
+		/**
+		 * Strategy executing matching commands.
+		 */
+		private final ExecutionStrategy strategy;
+
+		private Route(WorkloadMatcher matcher, ExecutionStrategy strategy) {
+			this.matcher = matcher;
+			this.strategy = strategy;
+		}
+
+		/**
+		 * Get the matcher of commands.
+		 *
+		 * @return The matcher.
+		 */
+		public WorkloadMatcher getMatcher() {
+			return matcher;
+		}
+
+		/**
+		 * Get the strategy executing matching commands.
+		 *
+		 * @return The strategy.
+		 */
+		public ExecutionStrategy getStrategy() {
+			return strategy;
+		}
+	}
+}
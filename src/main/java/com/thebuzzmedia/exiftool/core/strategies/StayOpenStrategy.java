@@ -22,20 +22,54 @@ import com.thebuzzmedia.exiftool.ExecutionStrategy;
 import com.thebuzzmedia.exiftool.Scheduler;
 import com.thebuzzmedia.exiftool.Version;
 import com.thebuzzmedia.exiftool.commons.iterables.Mapper;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.metrics.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.metrics.MetricsFactory;
+import com.thebuzzmedia.exiftool.process.CommandContext;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.CommandProcesses;
+import com.thebuzzmedia.exiftool.process.CommandWatchdog;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 import com.thebuzzmedia.exiftool.process.command.CommandBuilder;
+import com.thebuzzmedia.exiftool.process.executor.DefaultCommandProcess;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.thebuzzmedia.exiftool.commons.iterables.Collections.map;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Arrays.asList;
 
 /**
  * Execution strategy that use {@code exiftool} with the {@code stay_open} feature.
+ *
+ * <br>
+ *
+ * Commands are executed one at a time, guarded by a {@link Lock} rather than a monitor: a thread
+ * waiting for the daemon is parked (it does not pin its carrier thread if it is a virtual thread),
+ * and may be interrupted while it waits.
+ *
+ * <br>
+ *
+ * A {@link RecyclePolicy} may be used to retire the process after a number of commands, an amount of
+ * output or a memory threshold: a replacement process is started in background, and commands keep
+ * using the current process until the replacement is ready.
+ *
+ * <br>
+ *
+ * A command with a deadline (see {@link CommandContext#hasDeadline()}) that
+ * is not completed in time fails with a {@link CommandTimeoutException}: the process running the command
+ * is destroyed (so that a hung process does not block next commands forever) and a replacement is
+ * started in background.
  */
 public class StayOpenStrategy implements ExecutionStrategy {
 
@@ -44,6 +78,11 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 */
 	private static final Logger log = LoggerFactory.getLogger(StayOpenStrategy.class);
 
+	/**
+	 * Metrics.
+	 */
+	private static final ExifToolMetrics metrics = MetricsFactory.getMetrics();
+
 	/**
 	 * Mapper to use to append a line break to each
 	 * arguments.
@@ -55,6 +94,16 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 */
 	private static final Version V8_36 = new Version("8.36");
 
+	/**
+	 * Command executed to check that a replacement process is ready.
+	 */
+	private static final List<String> WARM_UP = asList("-ver" + Constants.BR, "-execute" + Constants.BR);
+
+	/**
+	 * Counter used to name recycling threads.
+	 */
+	private static final AtomicInteger threadCount = new AtomicInteger(0);
+
 	/**
 	 * Scheduler: will be used to perform automatic cleanup.
 	 * If automatic cleanup is disabled (if delay is equal or less than zero),
@@ -62,12 +111,67 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 */
 	private final Scheduler scheduler;
 
+	/**
+	 * Cleanup task, given to {@link #scheduler} on each command: created once, so that
+	 * restarting the task does not allocate anything.
+	 */
+	private final Runnable closeTask = new Runnable() {
+		@Override
+		public void run() {
+			safeClose();
+		}
+	};
+
 	/**
 	 * Process opened when the first execution is called.
 	 * This process will remain open until a call to {@link #close} is made.
 	 */
 	private CommandProcess process;
 
+	/**
+	 * Lock guarding the process: held during each command, and while process is started or closed.
+	 */
+	private final Lock lock;
+
+	/**
+	 * Condition signalled once a replacement process has been started (or has failed to start).
+	 */
+	private final Condition replaced;
+
+	/**
+	 * Policy used to retire the process.
+	 */
+	private final RecyclePolicy recyclePolicy;
+
+	/**
+	 * Number of commands executed by current process.
+	 * Guarded by {@link #lock}.
+	 */
+	private long commands;
+
+	/**
+	 * Flag set while a replacement process is being started.
+	 * Guarded by {@link #lock}.
+	 */
+	private boolean recycling;
+
+	/**
+	 * Executor used to start current process.
+	 * Guarded by {@link #lock}.
+	 */
+	private CommandExecutor processExecutor;
+
+	/**
+	 * ExifTool path used to start current process.
+	 * Guarded by {@link #lock}.
+	 */
+	private String processPath;
+
+	/**
+	 * Time current process has been started, in milliseconds, zero if process is not started.
+	 */
+	private volatile long startTime;
+
 	/**
 	 * Create strategy.
 	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
@@ -75,53 +179,176 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 * @param scheduler Delay between automatic cleanup.
 	 */
 	public StayOpenStrategy(Scheduler scheduler) {
+		this(scheduler, RecyclePolicy.NEVER);
+	}
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process), and
+	 * process will be replaced according to recycle policy.
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 * @param recyclePolicy Policy used to retire the process.
+	 * @throws NullPointerException If {@code recyclePolicy} is {@code null}.
+	 */
+	public StayOpenStrategy(Scheduler scheduler, RecyclePolicy recyclePolicy) {
 		this.scheduler = scheduler;
+		this.recyclePolicy = notNull(recyclePolicy, "Recycle policy should not be null");
+		this.lock = new ReentrantLock();
+		this.replaced = lock.newCondition();
 	}
 
 	@Override
 	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
 		log.debug("Using ExifTool in daemon mode (-stay_open True)...");
 		List<String> newArgs = map(arguments, MAPPER);
+		boolean readErrors = ErrorMarkerHandler.hasErrorMarker(arguments);
+
+		try {
+			lock.lockInterruptibly();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for exiftool process");
+		}
+
+		try {
+			// Process destroyed after a missed deadline is being replaced: wait for the
+			// replacement instead of starting another process.
+			awaitReplacement(handler);
+
+			// Command may have been aborted while waiting for the process: do not run it.
+			CommandProcesses.checkAborted(handler);
 
-		synchronized (this) {
 			// Start daemon process if it is not already started.
 			// If this is our first time calling getImageMeta with a "stayOpen"
 			// connection, set up the persistent process and run it so it is
 			// ready to receive commands from us.
 			if (process == null || process.isClosed()) {
-				log.debug("Start exiftool process");
-				process = executor.start(CommandBuilder.builder(exifTool, 6)
-						.addArgument("-stay_open", "True")
-						.addArgument("-sep", Constants.SEPARATOR)
-						.addArgument("-@")
-						.addArgument("-")
-						.build());
+				process = startProcess(executor, exifTool);
+				processExecutor = executor;
+				processPath = exifTool;
+				commands = 0;
+				startTime = System.currentTimeMillis();
 			}
 
 			// Always reset the cleanup task.
 			scheduler.stop();
-			scheduler.start(new Runnable() {
-				@Override
-				public void run() {
-					safeClose();
-				}
-			});
+			scheduler.start(closeTask);
+
+			// Deadline may have been missed while waiting for the process.
+			long timeout = CommandWatchdog.remaining(handler);
+			if (timeout == 0) {
+				throw new CommandTimeoutException("Command deadline missed before exiftool process was available");
+			}
 
+			CommandWatchdog.Watch watch = timeout > 0 ? CommandWatchdog.watch(process, timeout) : null;
+			IOException failure = null;
+			RuntimeException unchecked = null;
+			boolean expired;
+			metrics.daemonBusy();
 			try {
+				long writeStart = System.nanoTime();
 				process.write(newArgs);
 				process.flush();
+				CommandContext context = CommandContext.of(handler);
+				if (context.isTraced()) {
+					long pid = process instanceof DefaultCommandProcess ? ((DefaultCommandProcess) process).getPid() : -1;
+					context.onSent(pid, System.nanoTime() - writeStart);
+				}
+
 				process.read(handler);
+
+				// Error output of this command ends with the marker.
+				if (readErrors) {
+					ErrorMarkerHandler.readErrors(process, handler);
+				}
 			}
 			catch (IOException ex) {
-				log.error(ex.getMessage(), ex);
-				throw ex;
+				failure = ex;
+			}
+			catch (RuntimeException ex) {
+				unchecked = ex;
+			}
+			finally {
+				// Watch must always be cancelled: otherwise, it would destroy the process
+				// while it runs another command.
+				expired = watch != null && watch.cancel();
+				metrics.daemonIdle();
+			}
+
+			// If deadline has been missed, process has been destroyed: replace it.
+			// Destroyed process is closed: reading or writing to it may have failed with
+			// a state exception, report the missed deadline instead.
+			if (expired) {
+				metrics.daemonStopped();
+				if (!recycling) {
+					recycle(executor, exifTool);
+				}
+
+				throw new CommandTimeoutException("Command deadline missed, exiftool process has been destroyed");
+			}
+
+			if (unchecked != null) {
+				throw unchecked;
+			}
+
+			if (failure != null) {
+				log.error(failure.getMessage(), failure);
+				throw failure;
+			}
+
+			commands++;
+			if (!recycling && recyclePolicy.isEnabled() && recyclePolicy.shouldRecycle(process, commands)) {
+				recycle(executor, exifTool);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Replace the exiftool process: a replacement process is started in background, and current
+	 * process is closed once replacement is ready.
+	 * Nothing is done if process is not started, or if it is already being replaced.
+	 *
+	 * <br>
+	 *
+	 * This method waits for the running command (if any) to complete.
+	 */
+	public void recycle() {
+		lock.lock();
+		try {
+			if (process != null && !process.isClosed() && !recycling) {
+				recycle(processExecutor, processPath);
 			}
 		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the time elapsed since current exiftool process has been started: a replacement
+	 * process (see {@link #recycle()}) starts with a new uptime.
+	 *
+	 * @return Uptime, in milliseconds, zero if process is not started.
+	 */
+	public long getUptime() {
+		long start = startTime;
+		return start == 0 ? 0 : System.currentTimeMillis() - start;
 	}
 
 	@Override
-	public synchronized boolean isRunning() {
-		return process != null && process.isRunning();
+	public boolean isRunning() {
+		lock.lock();
+		try {
+			return process != null && process.isRunning();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
@@ -130,18 +357,37 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	}
 
 	@Override
-	public synchronized void close() throws Exception {
-		if (process != null) {
-			closeProcess();
-		}
+	public void close() throws Exception {
+		lock.lock();
+		try {
+			if (process != null) {
+				try {
+					closeProcess(process);
+				}
+				finally {
+					// Dot not forget to set it to null.
+					process = null;
+					startTime = 0;
+				}
+			}
 
-		closeScheduler();
+			closeScheduler();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
-	public synchronized void shutdown() throws Exception {
-		close();
-		shutdownScheduler();
+	public void shutdown() throws Exception {
+		lock.lock();
+		try {
+			close();
+			shutdownScheduler();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	// Implement finalizer.
@@ -161,7 +407,7 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 * Close pending cleanup task and stop scheduler.
 	 * This scheduler may be re-used if necessary.
 	 */
-	private synchronized void closeScheduler() {
+	private void closeScheduler() {
 		// Try to stop cleanup task
 		// Note: If task is not stopped, it may be executed later
 
@@ -182,7 +428,7 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 * Close pending cleanup task and stop scheduler.
 	 * This scheduler may be re-used if necessary.
 	 */
-	private synchronized void shutdownScheduler() {
+	private void shutdownScheduler() {
 		// Try to stop cleanup task
 		// Note: If task is not stopped, it may be executed later
 
@@ -199,13 +445,157 @@ public class StayOpenStrategy implements ExecutionStrategy {
 		}
 	}
 
+	/**
+	 * Start a new exiftool process, in {@code stay_open} mode.
+	 *
+	 * @param executor Executor used to start process.
+	 * @param exifTool ExifTool path.
+	 * @return The process.
+	 * @throws IOException If process cannot be started.
+	 */
+	private static CommandProcess startProcess(CommandExecutor executor, String exifTool) throws IOException {
+		log.debug("Start exiftool process");
+		long start = System.nanoTime();
+		CommandProcess process = executor.start(CommandBuilder.builder(exifTool, 6)
+				.addArgument("-stay_open", "True")
+				.addArgument("-sep", Constants.SEPARATOR)
+				.addArgument("-@")
+				.addArgument("-")
+				.build());
+
+		metrics.daemonStarted(System.nanoTime() - start);
+		return process;
+	}
+
+	/**
+	 * Wait for the replacement of a destroyed process, if any.
+	 * Must be called while {@link #lock} is held.
+	 *
+	 * @param handler Command handler, used to get the deadline of the command.
+	 * @throws IOException If deadline is missed or thread is interrupted while waiting.
+	 */
+	private void awaitReplacement(OutputHandler handler) throws IOException {
+		try {
+			while (recycling && process != null && process.isClosed()) {
+				long timeout = CommandWatchdog.remaining(handler);
+				if (timeout < 0) {
+					replaced.await();
+				}
+				else if (timeout == 0 || replaced.awaitNanos(timeout) <= 0) {
+					throw new CommandTimeoutException("Command deadline missed while waiting for replacement of exiftool process");
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for exiftool process");
+		}
+	}
+
+	/**
+	 * Start a replacement process in background: current process is closed once
+	 * replacement is ready, until then it is still used by commands (if it has not
+	 * been destroyed).
+	 * Must be called while {@link #lock} is held.
+	 *
+	 * @param executor Executor used to start process.
+	 * @param exifTool ExifTool path.
+	 */
+	private void recycle(final CommandExecutor executor, final String exifTool) {
+		log.debug("Start replacement of exiftool process");
+		metrics.daemonRestarted();
+		recycling = true;
+
+		final CommandProcess current = process;
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				replaceProcess(executor, exifTool, current);
+			}
+		}, "exiftool-recycle-" + threadCount.incrementAndGet());
+
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Start a new process, wait for it to be ready, then swap it with current process and close
+	 * the old one.
+	 *
+	 * @param executor Executor used to start process.
+	 * @param exifTool ExifTool path.
+	 * @param current The process to replace.
+	 */
+	private void replaceProcess(CommandExecutor executor, String exifTool, CommandProcess current) {
+		CommandProcess replacement = null;
+		try {
+			replacement = startProcess(executor, exifTool);
+			replacement.write(WARM_UP);
+			replacement.flush();
+			replacement.read(stopHandler());
+		}
+		catch (IOException ex) {
+			log.warn("Cannot start replacement of exiftool process, current process is kept", ex);
+			if (replacement != null) {
+				CommandProcesses.destroy(replacement);
+				metrics.daemonStopped();
+			}
+
+			replacement = null;
+		}
+
+		CommandProcess old;
+		lock.lock();
+		try {
+			recycling = false;
+			replaced.signalAll();
+			if (replacement == null) {
+				return;
+			}
+
+			// Strategy has been closed, or process has been started again meanwhile:
+			// replacement is not needed anymore.
+			if (process != current) {
+				old = replacement;
+			}
+			else {
+				old = process;
+				process = replacement;
+				commands = 0;
+				startTime = System.currentTimeMillis();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+
+		// Process may already have been destroyed.
+		if (old.isClosed()) {
+			return;
+		}
+
+		try {
+			log.debug("Close recycled exiftool process");
+			closeProcess(old);
+		}
+		catch (Exception ex) {
+			log.error(ex.getMessage(), ex);
+		}
+	}
+
 	/**
 	 * Close ExifTool process.
 	 * Process may be re-used if necessary.
 	 *
+	 * @param process The process.
 	 * @throws Exception If an error occurs during the close operation.
 	 */
-	private synchronized void closeProcess() throws Exception {
+	private static void closeProcess(CommandProcess process) throws Exception {
+		// Destroyed process has already been reported as stopped.
+		if (!process.isClosed()) {
+			metrics.daemonStopped();
+		}
+
 		try {
 			// If ExifTool was used in stayOpen mode but getImageMeta was never
 			// called then the streams were never initialized and there is nothing
@@ -225,10 +615,6 @@ public class StayOpenStrategy implements ExecutionStrategy {
 			// Re-throw the error, this will let the caller do what he wants with the exception.
 			throw ex;
 		}
-		finally {
-			// Dot not forget to set it to null.
-			process = null;
-		}
 	}
 
 	/**
@@ -236,14 +622,28 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 * all exceptions and log stacktrace.
 	 * This method should be used internally to perform a close operation
 	 * without catching or propagate exceptions.
+	 *
+	 * <br>
+	 *
+	 * Process is not closed if a command is running: this method is called by
+	 * the cleanup task, that must not block scheduler thread, and process
+	 * is not idle anyway.
 	 */
-	private synchronized void safeClose() {
+	private void safeClose() {
+		if (!lock.tryLock()) {
+			log.debug("ExifTool process is busy, skip cleanup");
+			return;
+		}
+
 		try {
 			close();
 		}
 		catch (Exception ex) {
 			log.error(ex.getMessage(), ex);
 		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Matcher of commands, used by {@link RoutingStrategy} to select the strategy
+ * executing a command.
+ *
+ * <br>
+ *
+ * Default implementations are available in {@link WorkloadMatchers}.
+ */
+public interface WorkloadMatcher {
+
+	/**
+	 * Check if a command matches.
+	 *
+	 * @param files Files processed by the command, empty if they are not known.
+	 * @param write {@code true} if command writes metadata, {@code false} if it only reads metadata.
+	 * @return {@code true} if command matches, {@code false} otherwise.
+	 */
+	boolean matches(List<File> files, boolean write);
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Default implementations of {@link WorkloadMatcher}.
+ */
+public final class WorkloadMatchers {
+
+	// Ensure non instantiation.
+	private WorkloadMatchers() {
+	}
+
+	/**
+	 * Match commands writing metadata.
+	 *
+	 * @return The matcher.
+	 */
+	public static WorkloadMatcher writes() {
+		return WRITES;
+	}
+
+	/**
+	 * Match commands processing a file with one of given extensions (case insensitive),
+	 * such as video or RAW files.
+	 *
+	 * @param extensions Extensions, without the leading dot.
+	 * @return The matcher.
+	 * @throws NullPointerException If {@code extensions} is {@code null}.
+	 * @throws IllegalArgumentException If {@code extensions} is empty.
+	 */
+	public static WorkloadMatcher extensions(String... extensions) {
+		notEmpty(extensions, "Extensions should not be empty");
+
+		final Set<String> set = new HashSet<>(extensions.length);
+		for (String extension : extensions) {
+			set.add(extension.toLowerCase(Locale.ROOT));
+		}
+
+		return new WorkloadMatcher() {
+			@Override
+			public boolean matches(List<File> files, boolean write) {
+				for (File file : files) {
+					String name = file.getName();
+					int dot = name.lastIndexOf('.');
+					if (dot >= 0 && set.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))) {
+						return true;
+					}
+				}
+
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Match commands processing files larger than given size (sum of file sizes if command
+	 * processes several files).
+	 *
+	 * @param size Size, in bytes.
+	 * @return The matcher.
+	 * @throws IllegalArgumentException If {@code size} is not strictly positive.
+	 */
+	public static WorkloadMatcher largerThan(final long size) {
+		isPositive(size, "Size must be positive");
+
+		return new WorkloadMatcher() {
+			@Override
+			public boolean matches(List<File> files, boolean write) {
+				long total = 0;
+				for (File file : files) {
+					total += file.length();
+					if (total > size) {
+						return true;
+					}
+				}
+
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Match commands matched by at least one of given matchers.
+	 *
+	 * @param matchers Matchers.
+	 * @return The matcher.
+	 * @throws NullPointerException If {@code matchers} or one of them is {@code null}.
+	 * @throws IllegalArgumentException If {@code matchers} is empty.
+	 */
+	public static WorkloadMatcher anyOf(final WorkloadMatcher... matchers) {
+		notEmpty(matchers, "Matchers should not be empty");
+		for (WorkloadMatcher matcher : matchers) {
+			notNull(matcher, "Matcher should not be null");
+		}
+
+		return new WorkloadMatcher() {
+			@Override
+			public boolean matches(List<File> files, boolean write) {
+				for (WorkloadMatcher matcher : matchers) {
+					if (matcher.matches(files, write)) {
+						return true;
+					}
+				}
+
+				return false;
+			}
+		};
+	}
+
+	private static final WorkloadMatcher WRITES = new WorkloadMatcher() {
+		@Override
+		public boolean matches(List<File> files, boolean write) {
+			return write;
+		}
+	};
+}
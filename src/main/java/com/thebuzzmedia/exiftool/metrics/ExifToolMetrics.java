@@ -0,0 +1,106 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.metrics;
+
+/**
+ * Metrics reported by exiftool components: implementations may forward them to a metrics library
+ * (Micrometer, Dropwizard Metrics, etc.).
+ *
+ * <br>
+ *
+ * Implementation is discovered using the Service Provider Interface (see {@link MetricsFactory}),
+ * and must be thread safe: methods are called by concurrent commands, on the hot path, so they
+ * should not block.
+ *
+ * <br>
+ *
+ * Daemons are {@code exiftool} processes started in {@code stay_open} mode: the number of active
+ * daemons is the number of {@link #daemonBusy()} calls not followed by a {@link #daemonIdle()} call,
+ * the number of idle daemons is the number of started daemons that are neither stopped nor active.
+ */
+public interface ExifToolMetrics {
+
+	/**
+	 * Report the time a command waited for an available daemon.
+	 *
+	 * @param nanos Waiting time, in nanoseconds.
+	 */
+	void queueWait(long nanos);
+
+	/**
+	 * Report that a daemon has been started.
+	 *
+	 * @param nanos Time spent to spawn the daemon, in nanoseconds.
+	 */
+	void daemonStarted(long nanos);
+
+	/**
+	 * Report that a daemon has been stopped (closed or destroyed).
+	 */
+	void daemonStopped();
+
+	/**
+	 * Report that a daemon is being replaced (because of a recycle policy, or
+	 * because it has been destroyed after a missed deadline).
+	 */
+	void daemonRestarted();
+
+	/**
+	 * Report that a daemon starts executing a command.
+	 */
+	void daemonBusy();
+
+	/**
+	 * Report that a daemon has finished executing a command.
+	 */
+	void daemonIdle();
+
+	/**
+	 * Report that a command has been executed.
+	 *
+	 * @param nanos Command latency (including time waiting for a daemon), in nanoseconds.
+	 * @param success {@code true} if command succeeded, {@code false} if it failed.
+	 */
+	void commandCompleted(long nanos, boolean success);
+
+	/**
+	 * Report that a command failed because its deadline has been missed.
+	 */
+	void commandTimedOut();
+
+	/**
+	 * Report data written to the input of an exiftool process.
+	 *
+	 * @param bytes Number of bytes.
+	 */
+	void bytesWritten(long bytes);
+
+	/**
+	 * Report data read from the output of an exiftool process.
+	 *
+	 * @param bytes Number of bytes (characters, including line breaks).
+	 */
+	void bytesRead(long bytes);
+
+	/**
+	 * Report lines read from the output of an exiftool process.
+	 *
+	 * @param lines Number of lines.
+	 */
+	void linesParsed(long lines);
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Factory to use to get the {@link ExifToolMetrics} instance.
+ *
+ * <br>
+ *
+ * Implementation is discovered once, in the following order:
+ * <ul>
+ *   <li>Check from {@link ExifToolMetrics} registered using Java Service Provider Interface (see {@link ServiceLoader}).</li>
+ *   <li>Finally, {@link NoOpMetrics} is used.</li>
+ * </ul>
+ *
+ * An adapter is registered by adding its class name to a
+ * {@code META-INF/services/com.thebuzzmedia.exiftool.metrics.ExifToolMetrics} file.
+ */
+public final class MetricsFactory {
+
+	// Ensure non instantiation.
+	private MetricsFactory() {
+	}
+
+	/**
+	 * The metrics implementation.
+	 */
+	private static final ExifToolMetrics metrics;
+
+	static {
+		// First, discover using the ServiceProvider API.
+		ServiceLoader<ExifToolMetrics> providers = ServiceLoader.load(ExifToolMetrics.class);
+		Iterator<ExifToolMetrics> it = providers.iterator();
+		metrics = it.hasNext() ? it.next() : NoOpMetrics.INSTANCE;
+	}
+
+	/**
+	 * Get metrics implementation.
+	 *
+	 * @return Metrics implementation.
+	 */
+	public static ExifToolMetrics getMetrics() {
+		return metrics;
+	}
+}
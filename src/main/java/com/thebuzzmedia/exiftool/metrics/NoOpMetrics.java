@@ -0,0 +1,78 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.metrics;
+
+/**
+ * Metrics implementation that ignores everything: used when no implementation
+ * has been registered.
+ */
+public final class NoOpMetrics implements ExifToolMetrics {
+
+	/**
+	 * Shared instance: this implementation is stateless.
+	 */
+	public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+	// Ensure non instantiation.
+	private NoOpMetrics() {
+	}
+
+	@Override
+	public void queueWait(long nanos) {
+	}
+
+	@Override
+	public void daemonStarted(long nanos) {
+	}
+
+	@Override
+	public void daemonStopped() {
+	}
+
+	@Override
+	public void daemonRestarted() {
+	}
+
+	@Override
+	public void daemonBusy() {
+	}
+
+	@Override
+	public void daemonIdle() {
+	}
+
+	@Override
+	public void commandCompleted(long nanos, boolean success) {
+	}
+
+	@Override
+	public void commandTimedOut() {
+	}
+
+	@Override
+	public void bytesWritten(long bytes) {
+	}
+
+	@Override
+	public void bytesRead(long bytes) {
+	}
+
+	@Override
+	public void linesParsed(long lines) {
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.process;
+
+/**
+ * Handler that receives command line output as {@link CharSequence} instead
+ * of {@link String}.
+ *
+ * <br>
+ *
+ * When a process supports it, {@link #readChars(CharSequence)} is called instead of
+ * {@link #readLine(String)}: given sequence is a view of the process internal buffer,
+ * so no {@link String} is allocated for each line of output. This sequence is only valid
+ * during the call and must be copied (using {@link CharSequence#toString()}) if it should
+ * be kept.
+ *
+ * <br>
+ *
+ * {@link #readLine(String)} may still be called by processes that do not support this
+ * handler, so implementations should handle both (usually by delegating one to the other).
+ */
+public interface CharSequenceOutputHandler extends OutputHandler {
+
+	/**
+	 * Read a line from command output.
+	 * Returned value is a boolean: it should indicate if next line should be
+	 * read or if output is finished.
+	 *
+	 * @param line Line output, {@code null} if no more output is available.
+	 * @return Boolean indicating if next line should be read.
+	 */
+	boolean readChars(CharSequence line);
+}
@@ -0,0 +1,293 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+import com.thebuzzmedia.exiftool.Priority;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
+
+/**
+ * Context of a command, given by the caller to execution strategies: deadline, priority and
+ * workload of the command. When command is traced, strategies also report how the command
+ * has been executed on its context (see {@link com.thebuzzmedia.exiftool.ExecutionListener}).
+ *
+ * <br>
+ *
+ * The context is carried by the handler of the command (see {@link ContextOutputHandler}):
+ * a command run with another handler uses a default context, without deadline, with a
+ * {@link Priority#NORMAL} priority and an unknown workload.
+ */
+public final class CommandContext {
+
+	/**
+	 * Context of commands run with a handler that does not carry a context.
+	 */
+	private static final CommandContext DEFAULT = new CommandContext(0, 0, Priority.NORMAL, Collections.<File>emptyList(), false, false);
+
+	/**
+	 * Get the context of a command.
+	 *
+	 * @param handler Command handler.
+	 * @return The context, never {@code null}.
+	 */
+	public static CommandContext of(OutputHandler handler) {
+		if (handler instanceof ContextOutputHandler) {
+			CommandContext context = ((ContextOutputHandler) handler).getContext();
+			if (context != null) {
+				return context;
+			}
+		}
+
+		return DEFAULT;
+	}
+
+	/**
+	 * Start of the command, as a value of {@link System#nanoTime()}.
+	 */
+	private final long start;
+
+	/**
+	 * Flag set if command has a deadline.
+	 */
+	private final boolean hasDeadline;
+
+	/**
+	 * Command deadline, as a value of {@link System#nanoTime()}.
+	 */
+	private final long deadline;
+
+	/**
+	 * Command priority.
+	 */
+	private final Priority priority;
+
+	/**
+	 * Files processed by the command.
+	 */
+	private final List<File> files;
+
+	/**
+	 * Flag set if command writes metadata.
+	 */
+	private final boolean write;
+
+	/**
+	 * Flag set if execution of the command is traced.
+	 */
+	private final boolean traced;
+
+	/**
+	 * Name of the strategy that has been acquired to run the command.
+	 */
+	private volatile String strategy;
+
+	/**
+	 * Identifier of the process that ran the command.
+	 */
+	private volatile long pid;
+
+	/**
+	 * Time spent waiting for the strategy, in nanoseconds.
+	 */
+	private volatile long queueWait;
+
+	/**
+	 * Time spent writing the command, in nanoseconds.
+	 */
+	private volatile long writeTime;
+
+	/**
+	 * Date the command has been written, as a value of {@link System#nanoTime()}, zero if not reported.
+	 */
+	private volatile long sentAt;
+
+	/**
+	 * Create context.
+	 *
+	 * @param start Start of the command, as a value of {@link System#nanoTime()}.
+	 * @param timeout Timeout in nanoseconds, the command does not have a deadline if it is less than or equal to zero.
+	 * @param priority Command priority.
+	 * @param files Files processed by the command, empty if they are not known.
+	 * @param write {@code true} if command writes metadata, {@code false} if it only reads metadata.
+	 * @param traced {@code true} if execution of the command is traced.
+	 * @throws NullPointerException If {@code priority} or {@code files} is {@code null}.
+	 */
+	public CommandContext(long start, long timeout, Priority priority, List<File> files, boolean write, boolean traced) {
+		this.start = start;
+		this.hasDeadline = timeout > 0;
+		this.deadline = timeout > 0 ? start + timeout : 0;
+		this.priority = notNull(priority, "Priority should not be null");
+		this.files = notNull(files, "Files should not be null");
+		this.write = write;
+		this.traced = traced;
+		this.pid = -1;
+	}
+
+	/**
+	 * Get the start of the command.
+	 *
+	 * @return The start, as a value of {@link System#nanoTime()}.
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * Check if command has a deadline: execution strategies supporting deadlines destroy the
+	 * process running the command once the deadline is missed.
+	 *
+	 * @return {@code true} if command has a deadline, {@code false} otherwise.
+	 */
+	public boolean hasDeadline() {
+		return hasDeadline;
+	}
+
+	/**
+	 * Get the command deadline, as a value of {@link System#nanoTime()}.
+	 * This value is meaningless if {@link #hasDeadline()} returns {@code false}.
+	 *
+	 * @return The deadline.
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Get the time remaining before the deadline of the command.
+	 *
+	 * @return Remaining time in nanoseconds ({@code 0} if deadline has been missed), or {@code -1} if command does not have a deadline.
+	 */
+	public long getRemaining() {
+		return hasDeadline ? Math.max(deadline - System.nanoTime(), 0) : -1;
+	}
+
+	/**
+	 * Get the command priority: execution strategies supporting priorities use it to order
+	 * commands waiting for an available process.
+	 *
+	 * @return The priority, never {@code null}.
+	 */
+	public Priority getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Get the files processed by the command: execution strategies may use them to route
+	 * commands according to their workload (see {@link com.thebuzzmedia.exiftool.core.strategies.RoutingStrategy}).
+	 *
+	 * @return The files, empty if they are not known.
+	 */
+	public List<File> getFiles() {
+		return files;
+	}
+
+	/**
+	 * Check if command writes metadata.
+	 *
+	 * @return {@code true} if command writes metadata, {@code false} if it only reads metadata.
+	 */
+	public boolean isWrite() {
+		return write;
+	}
+
+	/**
+	 * Check if execution of the command is traced: if not, reported events are ignored.
+	 *
+	 * @return {@code true} if command is traced, {@code false} otherwise.
+	 */
+	public boolean isTraced() {
+		return traced;
+	}
+
+	/**
+	 * Report that a strategy of a pool has been acquired to run the command.
+	 *
+	 * @param strategy Name of the strategy in the pool.
+	 * @param queueWait Time spent waiting for the strategy, in nanoseconds.
+	 */
+	public void onAcquired(String strategy, long queueWait) {
+		if (traced) {
+			this.strategy = strategy;
+			this.queueWait = queueWait;
+		}
+	}
+
+	/**
+	 * Report that the command has been written to an exiftool process: exiftool
+	 * is now running the command.
+	 *
+	 * @param pid Identifier of the process, {@code -1} if it is not known.
+	 * @param writeTime Time spent writing the command, in nanoseconds.
+	 */
+	public void onSent(long pid, long writeTime) {
+		if (traced) {
+			this.pid = pid;
+			this.writeTime = writeTime;
+			this.sentAt = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Get the name of the strategy that has been acquired to run the command.
+	 *
+	 * @return The name, {@code null} if command has not been run by a pool.
+	 */
+	public String getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Get the identifier of the process that ran the command.
+	 *
+	 * @return The process identifier, {@code -1} if it is not known.
+	 */
+	public long getPid() {
+		return pid;
+	}
+
+	/**
+	 * Get the time spent waiting for a strategy of a pool.
+	 *
+	 * @return Time in nanoseconds.
+	 */
+	public long getQueueWait() {
+		return queueWait;
+	}
+
+	/**
+	 * Get the time spent writing the command.
+	 *
+	 * @return Time in nanoseconds.
+	 */
+	public long getWriteTime() {
+		return writeTime;
+	}
+
+	/**
+	 * Get the date the command has been written.
+	 *
+	 * @return The date, as a value of {@link System#nanoTime()}, or zero if it has not been reported.
+	 */
+	public long getSentAt() {
+		return sentAt;
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Static utilities for {@link CommandProcess}, and commands run by processes.
+ */
+public final class CommandProcesses {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(CommandProcesses.class);
+
+	// Ensure non instantiation.
+	private CommandProcesses() {
+	}
+
+	/**
+	 * Terminate a process as soon as possible: the process is destroyed if it can be (see
+	 * {@link ManagedCommandProcess#destroy()}), otherwise it is closed.
+	 *
+	 * <br>
+	 *
+	 * This method never fails: an error while closing the process is logged.
+	 *
+	 * @param process The process.
+	 */
+	public static void destroy(CommandProcess process) {
+		if (process instanceof ManagedCommandProcess) {
+			((ManagedCommandProcess) process).destroy();
+			return;
+		}
+
+		try {
+			process.close();
+		}
+		catch (Exception ex) {
+			log.warn(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Ensure a command has not been aborted (see {@link ProcessAwareOutputHandler#isAborted()}): execution
+	 * strategies call this method once a process is available, before the command is written, so that
+	 * a command aborted while it was waiting is not run.
+	 *
+	 * @param handler Command handler.
+	 * @throws InterruptedIOException If command has been aborted.
+	 */
+	public static void checkAborted(OutputHandler handler) throws InterruptedIOException {
+		if (handler instanceof ProcessAwareOutputHandler && ((ProcessAwareOutputHandler) handler).isAborted()) {
+			throw new InterruptedIOException("Command has been cancelled before it was written");
+		}
+	}
+}
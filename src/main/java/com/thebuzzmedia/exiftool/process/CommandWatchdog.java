@@ -0,0 +1,142 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watchdog destroying processes running a command that missed its deadline.
+ *
+ * <br>
+ *
+ * A single daemon thread is shared by all strategies and executors: a command with a deadline
+ * schedules the destruction of its process, and cancels it once its output has been read.
+ */
+public final class CommandWatchdog {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(CommandWatchdog.class);
+
+	/**
+	 * Executor running the watchdog tasks, created lazily.
+	 */
+	private static ScheduledThreadPoolExecutor executor;
+
+	// Ensure non instantiation.
+	private CommandWatchdog() {
+	}
+
+	/**
+	 * Get the time remaining before the deadline of a command.
+	 *
+	 * @param handler Command handler.
+	 * @return Remaining time in nanoseconds, or {@code -1} if command does not have a deadline.
+	 */
+	public static long remaining(OutputHandler handler) {
+		return CommandContext.of(handler).getRemaining();
+	}
+
+	/**
+	 * Destroy given process once the timeout is elapsed, unless the watch is cancelled before.
+	 *
+	 * @param process The process.
+	 * @param timeout Timeout in nanoseconds.
+	 * @return The watch, to cancel once command is completed.
+	 */
+	public static Watch watch(CommandProcess process, long timeout) {
+		Watch watch = new Watch(process);
+		watch.future = getExecutor().schedule(watch, timeout, TimeUnit.NANOSECONDS);
+		return watch;
+	}
+
+	private static synchronized ScheduledThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "exiftool-watchdog");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+			executor.setRemoveOnCancelPolicy(true);
+		}
+
+		return executor;
+	}
+
+	/**
+	 * Watch of a running command.
+	 */
+	public static final class Watch implements Runnable {
+
+		/**
+		 * Process running the command.
+		 */
+		private final CommandProcess process;
+
+		/**
+		 * Flag set once deadline has been missed and process has been destroyed.
+		 */
+		private volatile boolean expired;
+
+		/**
+		 * Scheduled destruction.
+		 */
+		private ScheduledFuture<?> future;
+
+		private Watch(CommandProcess process) {
+			this.process = process;
+		}
+
+		@Override
+		public void run() {
+			log.warn("Command deadline missed, destroy exiftool process");
+			expired = true;
+			CommandProcesses.destroy(process);
+		}
+
+		/**
+		 * Cancel the watch, once command is completed.
+		 *
+		 * @return {@code true} if deadline has been missed (process has been destroyed), {@code false} otherwise.
+		 */
+		public boolean cancel() {
+			if (!future.cancel(false)) {
+				// Process may be being destroyed: wait for it.
+				try {
+					future.get();
+				}
+				catch (Exception ex) {
+					log.debug(ex.getMessage());
+				}
+			}
+
+			return expired;
+		}
+	}
+}
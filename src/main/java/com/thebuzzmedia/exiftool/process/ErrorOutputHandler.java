@@ -0,0 +1,38 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.process;
+
+/**
+ * Handler that also receives lines written by the command on error output
+ * (warnings, errors on a given file, etc.).
+ *
+ * <br>
+ *
+ * Error lines of a command are given to {@link #readError(String)} once the
+ * standard output of this command has been read.
+ */
+public interface ErrorOutputHandler extends OutputHandler {
+
+	/**
+	 * Read a line from command error output.
+	 *
+	 * @param line Line output.
+	 */
+	void readError(String line);
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+import java.io.IOException;
+
+/**
+ * Process whose streams are managed by the library: error output is continuously drained,
+ * so that errors of each command can be read separately, and process may be destroyed
+ * without waiting for it (for example, when a command deadline is missed).
+ *
+ * <br>
+ *
+ * These operations are not part of {@link CommandProcess}, so that existing implementations
+ * keep compiling: execution strategies check if a process implements this interface, and fall back
+ * to a degraded behavior otherwise (for example, errors are not attributed to commands).
+ */
+public interface ManagedCommandProcess extends CommandProcess {
+
+	/**
+	 * Read error output until:
+	 * <ul>
+	 *   <li>A null line is read (error output is closed).</li>
+	 *   <li>Handler returns false when line is read.</li>
+	 * </ul>
+	 *
+	 * Error output is continuously drained while the process is running (so that the
+	 * process never blocks on a full error stream): this method reads lines that have been
+	 * drained and waits for the next ones if needed.
+	 *
+	 * @param handler Output handler.
+	 * @return Full error output.
+	 * @throws java.io.IOException If an error occurred during operation.
+	 */
+	String readError(OutputHandler handler) throws IOException;
+
+	/**
+	 * Forcibly terminate the process and release its resources: unlike {@link #close()},
+	 * this method does not wait for the process to stop by itself, and pending read
+	 * operations are aborted. Process is then considered as closed.
+	 */
+	void destroy();
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+/**
+ * Handler that is given the process running the command before the command
+ * output is read, so that the command may be aborted while it is running
+ * (see {@link ManagedCommandProcess#destroy()}).
+ *
+ * <br>
+ *
+ * A command aborted before it is written is not run at all: execution strategies
+ * check {@link #isAborted()} once a process is available (see {@link CommandProcesses#checkAborted(OutputHandler)}).
+ */
+public interface ProcessAwareOutputHandler extends OutputHandler {
+
+	/**
+	 * Check if the command has been aborted.
+	 *
+	 * @return {@code true} if the command has been aborted, {@code false} otherwise.
+	 */
+	boolean isAborted();
+
+	/**
+	 * Called before output of the command is read from given process: the process is
+	 * destroyed if the command is aborted before the end of its output.
+	 *
+	 * @param process The process.
+	 */
+	void onRead(CommandProcess process);
+
+	/**
+	 * Called before the command is written to a process shared with other commands (see
+	 * {@link com.thebuzzmedia.exiftool.core.strategies.PipelinedStayOpenStrategy}): if the command
+	 * is aborted before the end of its output, given task is run instead of destroying the process.
+	 *
+	 * @param task Task dropping the command, run immediately if the command has already been aborted.
+	 */
+	void onAbort(Runnable task);
+}
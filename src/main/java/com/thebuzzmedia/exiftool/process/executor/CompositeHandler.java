@@ -17,6 +17,7 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 
 import java.util.ArrayList;
@@ -41,7 +42,7 @@ import static java.util.Collections.unmodifiableList;
  * <strong>Note:</strong> this class is thread safe if (and only if)
  * internal handlers are thread safe.
  */
-class CompositeHandler implements OutputHandler {
+class CompositeHandler implements CharSequenceOutputHandler {
 
 	/**
 	 * List of internal handlers.
@@ -76,4 +77,31 @@ class CompositeHandler implements OutputHandler {
 
 		return hasNext;
 	}
+
+	@Override
+	public boolean readChars(CharSequence line) {
+		// String is only created if (and once) an internal handler needs it.
+		String str = null;
+
+		boolean hasNext = true;
+		for (OutputHandler handler : handlers) {
+			boolean next;
+			if (handler instanceof CharSequenceOutputHandler) {
+				next = ((CharSequenceOutputHandler) handler).readChars(line);
+			}
+			else {
+				if (str == null && line != null) {
+					str = line.toString();
+				}
+
+				next = handler.readLine(str);
+			}
+
+			if (!next) {
+				hasNext = false;
+			}
+		}
+
+		return hasNext;
+	}
 }
@@ -17,23 +17,39 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.Constants;
+import com.thebuzzmedia.exiftool.commons.io.LineReader;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.metrics.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.metrics.MetricsFactory;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.CommandProcesses;
 import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.CommandWatchdog;
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.thebuzzmedia.exiftool.commons.io.IOs.closeQuietly;
-import static com.thebuzzmedia.exiftool.commons.io.IOs.readInputStream;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
 
 /**
  * Default Executor.
+ *
+ * <br>
+ *
+ * When a command is executed, its error output is read concurrently with its standard output
+ * (so that the process never blocks on a full error stream) and is given to the handler
+ * if it implements {@link ErrorOutputHandler}.
  */
 public class DefaultCommandExecutor implements CommandExecutor {
 
@@ -42,6 +58,11 @@ public class DefaultCommandExecutor implements CommandExecutor {
 	 */
 	private static final Logger log = LoggerFactory.getLogger(DefaultCommandExecutor.class);
 
+	/**
+	 * Metrics.
+	 */
+	private static final ExifToolMetrics metrics = MetricsFactory.getMetrics();
+
 	/**
 	 * Create default executor.
 	 */
@@ -61,20 +82,61 @@ public class DefaultCommandExecutor implements CommandExecutor {
 	@Override
 	public CommandProcess start(Command command) throws IOException {
 		final Process proc = createProcess(command);
-		return new DefaultCommandProcess(proc.getInputStream(), proc.getOutputStream(), proc.getErrorStream());
+		return new DefaultCommandProcess(proc);
 	}
 
 	private CommandResult readProcessOutput(Command cmd, OutputHandler h) throws IOException {
+		// If handler has a deadline, process is destroyed once it is missed.
+		long timeout = CommandWatchdog.remaining(h);
+		if (timeout == 0) {
+			throw new CommandTimeoutException("Command deadline missed before exiftool process was started");
+		}
+
+		CommandProcesses.checkAborted(h);
 		final Process proc = createProcess(cmd);
+		final boolean abortable = h instanceof ProcessAwareOutputHandler;
+		final DefaultCommandProcess process = timeout > 0 || abortable ? new DefaultCommandProcess(proc) : null;
+		final CommandWatchdog.Watch watch = timeout > 0 ? CommandWatchdog.watch(process, timeout) : null;
+
+		// Process is destroyed if command is aborted while it is running.
+		if (abortable) {
+			((ProcessAwareOutputHandler) h).onRead(process);
+		}
+
+		CommandResult result = null;
+		try {
+			result = readProcessOutput(proc, h);
+		}
+		finally {
+			if (watch != null && watch.cancel()) {
+				throw new CommandTimeoutException("Command deadline missed, exiftool process has been destroyed");
+			}
+		}
+
+		return result;
+	}
+
+	private CommandResult readProcessOutput(Process proc, OutputHandler h) throws IOException {
 		final ResultHandler h1 = new ResultHandler();
 		final OutputHandler handler = h == null ? h1 : new CompositeHandler(h, h1);
 
-		readInputStream(proc.getInputStream(), handler);
+		final ErrorReader errorReader = new ErrorReader(proc.getErrorStream());
+		final Thread errorThread = new Thread(errorReader, "exiftool-stderr");
+		errorThread.setDaemon(true);
+		errorThread.start();
+
+		long size = readOutput(proc.getInputStream(), handler);
 
 		// Wait for end of process
 		try {
 			proc.waitFor();
-			return new DefaultCommandResult(proc.exitValue(), h1.getOutput());
+			errorThread.join();
+			readErrors(errorReader.lines, h);
+
+			String output = h1.getOutput();
+			metrics.bytesRead(size);
+			metrics.linesParsed(h1.getLines());
+			return new DefaultCommandResult(proc.exitValue(), output);
 		}
 		catch (InterruptedException ex) {
 			log.error(ex.getMessage(), ex);
@@ -88,6 +150,49 @@ public class DefaultCommandExecutor implements CommandExecutor {
 		}
 	}
 
+	/**
+	 * Read output stream until the end, or until the handler stops reading.
+	 *
+	 * @param is Output stream of the process.
+	 * @param handler Output handler.
+	 * @return Number of bytes read, including line breaks.
+	 * @throws IOException If an error occurred while reading stream.
+	 */
+	private static long readOutput(InputStream is, OutputHandler handler) throws IOException {
+		LineReader reader = new LineReader(is);
+
+		try {
+			boolean hasNext = true;
+			while (hasNext) {
+				String line = reader.readLine();
+				hasNext = handler.readLine(line);
+				log.trace("  - Line: {}", line);
+				log.trace("  - Continue: {}", hasNext);
+			}
+
+			return reader.getBytesRead();
+		}
+		catch (IOException ex) {
+			log.error(ex.getMessage(), ex);
+			throw ex;
+		}
+	}
+
+	private static void readErrors(List<String> lines, OutputHandler handler) {
+		for (String line : lines) {
+			if (line.equals(Constants.ERROR_MARKER)) {
+				continue;
+			}
+
+			if (handler instanceof ErrorOutputHandler) {
+				((ErrorOutputHandler) handler).readError(line);
+			}
+			else {
+				log.warn("exiftool: {}", line);
+			}
+		}
+	}
+
 	private Process createProcess(Command command) throws IOException {
 		try {
 			List<String> args = command.getArguments();
@@ -98,4 +203,39 @@ public class DefaultCommandExecutor implements CommandExecutor {
 			throw ex;
 		}
 	}
+
+	/**
+	 * Task reading error stream until it is closed.
+	 */
+	private static class ErrorReader implements Runnable {
+		/**
+		 * Error stream.
+		 */
+		private final InputStream err;
+
+		/**
+		 * Error lines.
+		 */
+		private final List<String> lines;
+
+		private ErrorReader(InputStream err) {
+			this.err = err;
+			this.lines = new ArrayList<>();
+		}
+
+		@Override
+		public void run() {
+			LineReader reader = new LineReader(err);
+
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					lines.add(line);
+				}
+			}
+			catch (IOException ex) {
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+	}
 }
@@ -17,17 +17,29 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.commons.io.LineReader;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.metrics.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.metrics.MetricsFactory;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.ManagedCommandProcess;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static com.thebuzzmedia.exiftool.commons.io.IOs.readInputStream;
 import static com.thebuzzmedia.exiftool.commons.lang.Objects.firstNonNull;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
@@ -43,21 +55,72 @@ import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notNull;
  *
  * <br>
  *
+ * Output is read using a single {@link LineReader} for the whole lifetime of the
+ * process: bytes read after the end of a command output are not lost, and are returned
+ * by the next read operation. Handlers implementing {@link CharSequenceOutputHandler}
+ * receive lines as views of the reader buffer, without allocating a {@link String} per line.
+ *
+ * <br>
+ *
+ * Error stream is drained by a background thread, started with the first write
+ * operation: error lines are kept in memory (up to {@link #MAX_ERROR_LINES} lines) until
+ * they are read with {@link #readError(OutputHandler)}, so the process never blocks
+ * because nobody reads its error output.
+ *
+ * <br>
+ *
+ * When created from a {@link Process}, {@link #destroy()} kills the process, which
+ * ends a pending read operation.
+ *
+ * <br>
+ *
  * <strong>Note:</strong> This implementation is not thread safe.
  */
-public class DefaultCommandProcess implements CommandProcess {
+public class DefaultCommandProcess implements ManagedCommandProcess {
 
 	/**
 	 * Class Logger.
 	 */
 	private static final Logger log = LoggerFactory.getLogger(DefaultCommandProcess.class);
 
+	/**
+	 * Metrics.
+	 */
+	private static final ExifToolMetrics metrics = MetricsFactory.getMetrics();
+
+	/**
+	 * Maximum number of error lines kept in memory: when this limit is reached, oldest
+	 * lines are logged and discarded.
+	 */
+	private static final int MAX_ERROR_LINES = 1000;
+
+	/**
+	 * Delay (in milliseconds) between two checks of the error stream state, while
+	 * waiting for error lines.
+	 */
+	private static final long ERROR_POLL_DELAY = 100;
+
+	/**
+	 * Counter used to name error reader threads.
+	 */
+	private static final AtomicInteger errorThreadCount = new AtomicInteger(0);
+
+	/**
+	 * The process, may be {@code null} if only its streams are known.
+	 */
+	private final Process process;
+
 	/**
 	 * Instance of {@link InputStream}.
 	 * This stream will be used to handle read operation.
 	 */
 	private final InputStream is;
 
+	/**
+	 * Reader of input stream, used for each read operation.
+	 */
+	private final LineReader reader;
+
 	/**
 	 * Output stream.
 	 * This stream will be used to handle write operation.
@@ -69,10 +132,35 @@ public class DefaultCommandProcess implements CommandProcess {
 	 */
 	private final InputStream err;
 
+	/**
+	 * Error lines drained from error stream, not read yet.
+	 */
+	private final BlockingQueue<String> errors;
+
+	/**
+	 * Thread draining error stream, {@code null} until first write operation.
+	 */
+	private volatile Thread errorReader;
+
+	/**
+	 * Flag set when error stream has been entirely drained.
+	 */
+	private volatile boolean errorsEnd;
+
 	/**
 	 * Flag to know if a given process has been closed.
 	 */
-	private boolean close;
+	private volatile boolean close;
+
+	/**
+	 * Number of bytes read from output stream (including line breaks).
+	 */
+	private volatile long outputSize;
+
+	/**
+	 * Process identifier: {@code 0} if it has not been resolved yet, {@code -1} if it is not available.
+	 */
+	private volatile long pid;
 
 	/**
 	 * Create process.
@@ -81,9 +169,25 @@ public class DefaultCommandProcess implements CommandProcess {
 	 * @param err Error stream.
 	 */
 	public DefaultCommandProcess(InputStream is, OutputStream os, InputStream err) {
+		this(null, is, os, err);
+	}
+
+	/**
+	 * Create process reading and writing streams of given process.
+	 *
+	 * @param process The process.
+	 */
+	public DefaultCommandProcess(Process process) {
+		this(process, process.getInputStream(), process.getOutputStream(), process.getErrorStream());
+	}
+
+	private DefaultCommandProcess(Process process, InputStream is, OutputStream os, InputStream err) {
+		this.process = process;
 		this.is = notNull(is, "Input stream should not be null");
+		this.reader = new LineReader(is);
 		this.os = notNull(os, "Output stream should not be null");
 		this.err = notNull(err, "Error stream should not be null");
+		this.errors = new LinkedBlockingQueue<>();
 		this.close = false;
 	}
 
@@ -97,6 +201,28 @@ public class DefaultCommandProcess implements CommandProcess {
 		return doRead(notNull(handler, "Handler should not be null"));
 	}
 
+	@Override
+	public String readError(OutputHandler handler) throws IOException {
+		notNull(handler, "Handler should not be null");
+
+		if (isClosed()) {
+			throw new IllegalStateException("Cannot read from closed process");
+		}
+
+		log.debug("Read command error output");
+
+		final ResultHandler out = new ResultHandler();
+
+		boolean hasNext = true;
+		while (hasNext) {
+			String line = nextError();
+			out.readLine(line);
+			hasNext = handler.readLine(line);
+		}
+
+		return out.getOutput();
+	}
+
 	@Override
 	public void write(String input, String... others) throws IOException {
 		doWrite(input);
@@ -144,6 +270,43 @@ public class DefaultCommandProcess implements CommandProcess {
 		}
 	}
 
+	/**
+	 * Get the number of bytes read from the output stream since process has been started.
+	 *
+	 * @return Output size.
+	 */
+	public long getOutputSize() {
+		return outputSize;
+	}
+
+	/**
+	 * Get the operating system identifier of the process.
+	 *
+	 * @return The process identifier, or {@code -1} if it is not available (for example if this
+	 * instance has been created with streams only).
+	 */
+	public long getPid() {
+		if (pid == 0) {
+			pid = process == null ? -1 : pidOf(process);
+		}
+
+		return pid;
+	}
+
+	@Override
+	public void destroy() {
+		log.debug("Destroy process");
+
+		close = true;
+		if (process != null) {
+			process.destroy();
+		}
+
+		close(os);
+		close(is);
+		close(err);
+	}
+
 	private IOException close(Closeable closeable) {
 		try {
 			closeable.close();
@@ -162,23 +325,116 @@ public class DefaultCommandProcess implements CommandProcess {
 
 		log.debug("Read command output");
 
+		if (h instanceof ProcessAwareOutputHandler) {
+			((ProcessAwareOutputHandler) h).onRead(this);
+		}
+
 		// Create result handler, and wrap it in a composite
 		// handler if one is specified in parameter.
 		final ResultHandler out = new ResultHandler();
 		final OutputHandler handler = h == null ? out : new CompositeHandler(out, h);
 
 		// Read output stream until the end
-		readInputStream(is, handler);
+		readLines(handler);
 
 		// We can return the output
 		return out.getOutput();
 	}
 
+	private void readLines(OutputHandler handler) throws IOException {
+		long start = reader.getBytesRead();
+		long lines = 0;
+		try {
+			boolean hasNext = true;
+			while (hasNext) {
+				CharSequence line = reader.readChars();
+				if (line != null) {
+					lines++;
+				}
+
+				if (handler instanceof CharSequenceOutputHandler) {
+					hasNext = ((CharSequenceOutputHandler) handler).readChars(line);
+				}
+				else {
+					hasNext = handler.readLine(line == null ? null : line.toString());
+				}
+
+				log.trace("  - Line: {}", line);
+				log.trace("  - Continue: {}", hasNext);
+			}
+		}
+		catch (IOException ex) {
+			log.error(ex.getMessage(), ex);
+			throw ex;
+		}
+		finally {
+			long size = reader.getBytesRead() - start;
+			outputSize += size;
+			metrics.bytesRead(size);
+			metrics.linesParsed(lines);
+		}
+	}
+
+	private static long pidOf(Process process) {
+		// Process#pid is available since Java 9, older JDK store it in a private field.
+		try {
+			Method method = Process.class.getMethod("pid");
+			return ((Number) method.invoke(process)).longValue();
+		}
+		catch (NoSuchMethodException ex) {
+			try {
+				Field field = process.getClass().getDeclaredField("pid");
+				field.setAccessible(true);
+				return field.getInt(process);
+			}
+			catch (Exception e) {
+				log.debug("Cannot get process identifier: {}", e.getMessage());
+				return -1;
+			}
+		}
+		catch (Exception ex) {
+			log.debug("Cannot get process identifier: {}", ex.getMessage());
+			return -1;
+		}
+	}
+
+	private String nextError() throws IOException {
+		try {
+			while (errorReader != null) {
+				String line = errors.poll(ERROR_POLL_DELAY, TimeUnit.MILLISECONDS);
+				if (line != null) {
+					return line;
+				}
+
+				if (errorsEnd && errors.isEmpty()) {
+					break;
+				}
+			}
+
+			return null;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading error output");
+		}
+	}
+
+	private void startErrorReader() {
+		if (errorReader == null) {
+			errorReader = new Thread(new ErrorReader(), "exiftool-stderr-" + errorThreadCount.incrementAndGet());
+			errorReader.setDaemon(true);
+			errorReader.start();
+		}
+	}
+
 	private void doWrite(String input) throws IOException {
 		if (isClosed()) {
 			throw new IllegalStateException("Cannot write from closed process");
 		}
 
+		// Error stream must be drained as soon as the process may write on it.
+		startErrorReader();
+
 		// Check valid input.
 		notNull(input, "Write input should not be null");
 
@@ -186,11 +442,46 @@ public class DefaultCommandProcess implements CommandProcess {
 		log.debug("Send command input: {}", input);
 
 		try {
-			os.write(input.getBytes());
+			byte[] bytes = input.getBytes();
+			os.write(bytes);
+			metrics.bytesWritten(bytes.length);
 		}
 		catch (IOException ex) {
 			log.error(ex.getMessage(), ex);
 			throw ex;
 		}
 	}
+
+	/**
+	 * Task draining error stream until it is closed.
+	 */
+	private class ErrorReader implements Runnable {
+		@Override
+		public void run() {
+			LineReader reader = new LineReader(err);
+
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					while (errors.size() >= MAX_ERROR_LINES) {
+						String discarded = errors.poll();
+						if (discarded != null) {
+							log.warn("Error output not read, discard line: {}", discarded);
+						}
+					}
+
+					errors.add(line);
+				}
+			}
+			catch (IOException ex) {
+				// Stream is closed when process is closed, failure is expected in this case.
+				if (!isClosed()) {
+					log.warn(ex.getMessage(), ex);
+				}
+			}
+			finally {
+				errorsEnd = true;
+			}
+		}
+	}
 }
@@ -18,7 +18,7 @@
 package com.thebuzzmedia.exiftool.process.executor;
 
 import com.thebuzzmedia.exiftool.Constants;
-import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
 
 /**
  * Simple command handler that just read output line by line
@@ -30,13 +30,18 @@ import com.thebuzzmedia.exiftool.process.OutputHandler;
  * <strong>Note:</strong> that this handler is not thread safe and should be
  * synchronized if needed.
  */
-class ResultHandler implements OutputHandler {
+class ResultHandler implements CharSequenceOutputHandler {
 
 	/**
 	 * Current output.
 	 */
 	private final StringBuilder output;
 
+	/**
+	 * Number of lines read.
+	 */
+	private long lines;
+
 	/**
 	 * Create new handler.
 	 */
@@ -46,12 +51,18 @@ class ResultHandler implements OutputHandler {
 
 	@Override
 	public boolean readLine(String line) {
+		return readChars(line);
+	}
+
+	@Override
+	public boolean readChars(CharSequence line) {
 		if (line != null) {
 			if (output.length() > 0) {
 				output.append(Constants.BR);
 			}
 
 			output.append(line);
+			lines++;
 		}
 
 		return line != null;
@@ -65,4 +76,13 @@ class ResultHandler implements OutputHandler {
 	public String getOutput() {
 		return output.toString();
 	}
+
+	/**
+	 * Get number of lines read.
+	 *
+	 * @return Number of lines.
+	 */
+	public long getLines() {
+		return lines;
+	}
 }
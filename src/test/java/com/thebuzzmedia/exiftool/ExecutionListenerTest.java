@@ -0,0 +1,105 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ExecutionListenerTest {
+
+	@Test
+	public void it_should_create_slow_execution_listener() {
+		SlowExecutionListener listener = new SlowExecutionListener(100);
+		assertThat(listener.getThreshold()).isEqualTo(100);
+
+		// Listener only logs commands, whatever their duration.
+		listener.onStart(event(0, null));
+		listener.onComplete(event(TimeUnit.MILLISECONDS.toNanos(50), ExecutionEvent.Outcome.SUCCESS));
+		listener.onComplete(event(TimeUnit.MILLISECONDS.toNanos(150), ExecutionEvent.Outcome.SUCCESS));
+	}
+
+	@Test
+	public void it_should_not_create_slow_execution_listener_with_negative_threshold() {
+		ThrowingCallable create = new ThrowingCallable() {
+			@Override
+			public void call() {
+				new SlowExecutionListener(0);
+			}
+		};
+
+		assertThatThrownBy(create)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Threshold must be positive");
+	}
+
+	@Test
+	public void it_should_notify_all_listeners_even_if_one_fails() {
+		ExecutionListener l1 = mock(ExecutionListener.class);
+		ExecutionListener l2 = mock(ExecutionListener.class);
+		ExecutionEvent start = event(0, null);
+		ExecutionEvent complete = event(10, ExecutionEvent.Outcome.SUCCESS);
+
+		doThrow(new IllegalStateException("Listener failure")).when(l1).onStart(start);
+		doThrow(new IllegalStateException("Listener failure")).when(l1).onComplete(complete);
+
+		ExecutionListener listener = new CompositeExecutionListener(asList(l1, l2));
+		listener.onStart(start);
+		listener.onComplete(complete);
+
+		verify(l2).onStart(start);
+		verify(l2).onComplete(complete);
+	}
+
+	@Test
+	public void it_should_describe_execution_event() {
+		ExecutionEvent event = new ExecutionEvent(4, Collections.singletonList(new File("foo.png")), false, Priority.HIGH, "strategy-1", 42, TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(2), TimeUnit.MILLISECONDS.toNanos(30), TimeUnit.MILLISECONDS.toNanos(4), TimeUnit.MILLISECONDS.toNanos(37), 120, ExecutionEvent.Outcome.SUCCESS, null);
+
+		assertThat(event.toString()).isEqualTo(
+				"ExecutionEvent{" +
+						"arguments: 4, " +
+						"files: [foo.png], " +
+						"write: false, " +
+						"priority: HIGH, " +
+						"strategy: \"strategy-1\", " +
+						"pid: 42, " +
+						"queueWait: 1, " +
+						"writeTime: 2, " +
+						"computeTime: 30, " +
+						"readTime: 4, " +
+						"duration: 37, " +
+						"outputSize: 120, " +
+						"outcome: SUCCESS" +
+				"}"
+		);
+	}
+
+	private static ExecutionEvent event(long duration, ExecutionEvent.Outcome outcome) {
+		return new ExecutionEvent(2, Collections.<File>emptyList(), false, Priority.NORMAL, null, -1, 0, 0, 0, 0, duration, 0, outcome, null);
+	}
+}
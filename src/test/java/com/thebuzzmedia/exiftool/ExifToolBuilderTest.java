@@ -17,15 +17,20 @@
 
 package com.thebuzzmedia.exiftool;
 
-import com.thebuzzmedia.exiftool.core.schedulers.DefaultScheduler;
+import com.thebuzzmedia.exiftool.core.schedulers.IdleScheduler;
 import com.thebuzzmedia.exiftool.core.schedulers.NoOpScheduler;
 import com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration;
+import com.thebuzzmedia.exiftool.core.strategies.AdmissionPolicy;
 import com.thebuzzmedia.exiftool.core.strategies.DefaultStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.PipelinedStayOpenStrategy;
 import com.thebuzzmedia.exiftool.core.strategies.PoolStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.PriorityPolicy;
+import com.thebuzzmedia.exiftool.core.strategies.RecyclePolicy;
 import com.thebuzzmedia.exiftool.core.strategies.StayOpenStrategy;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
 import com.thebuzzmedia.exiftool.process.executor.DefaultCommandExecutor;
 import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
 import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
@@ -37,13 +42,24 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.duration;
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -145,6 +161,99 @@ public class ExifToolBuilderTest {
 		assertThat(readPrivateField(builder, "scheduler")).isSameAs(scheduler);
 	}
 
+	@Test
+	public void it_should_enable_pipelining() {
+		assertThat(readPrivateField(builder, "stayOpen")).isNull();
+		assertThat(readPrivateField(builder, "pipelining")).isNull();
+
+		ExifToolBuilder r1 = builder.enablePipelining();
+
+		assertThat(r1).isSameAs(builder);
+		assertThat(readPrivateField(builder, "stayOpen")).isEqualTo(true);
+		assertThat(readPrivateField(builder, "pipelining")).isEqualTo(true);
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_pipelining() {
+		ExifTool exifTool = builder
+				.withPath(path)
+				.withExecutor(executor)
+				.enablePipelining()
+				.build();
+
+		ExecutionStrategy strategy = readPrivateField(exifTool, "strategy");
+		assertThat(strategy).isExactlyInstanceOf(PipelinedStayOpenStrategy.class);
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_pipelining_and_recycle_policy() {
+		RecyclePolicy recyclePolicy = RecyclePolicy.afterCommands(100);
+		ExifTool exifTool = builder
+				.withPath(path)
+				.withExecutor(executor)
+				.enablePipelining()
+				.withRecyclePolicy(recyclePolicy)
+				.build();
+
+		ExecutionStrategy strategy = readPrivateField(exifTool, "strategy");
+		assertThat(strategy).isExactlyInstanceOf(PipelinedStayOpenStrategy.class);
+		assertThat(readPrivateField(strategy, "recyclePolicy")).isSameAs(recyclePolicy);
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_standard_tags() {
+		ExifToolBuilder r1 = builder.enableStandardTags();
+		assertThat(r1).isSameAs(builder);
+
+		ExifTool exifTool = builder
+				.withPath(path)
+				.withExecutor(executor)
+				.build();
+
+		assertThat(readPrivateField(exifTool, "standardTags")).isEqualTo(true);
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_value_deduplication() {
+		ExifToolBuilder r1 = builder.enableValueDeduplication();
+		assertThat(r1).isSameAs(builder);
+
+		ExifTool exifTool = builder
+				.withPath(path)
+				.withExecutor(executor)
+				.build();
+
+		assertThat(readPrivateField(exifTool, "deduplicateValues")).isEqualTo(true);
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_metadata_cache() {
+		ExifToolBuilder r1 = builder.enableMetadataCache(100, 1, TimeUnit.MINUTES);
+		assertThat(r1).isSameAs(builder);
+
+		ExifTool exifTool = builder
+				.withPath(path)
+				.withExecutor(executor)
+				.build();
+
+		assertThat(exifTool.getMetadataCache()).isNotNull();
+		assertThat(exifTool.getMetadataCache().size()).isZero();
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_custom_metadata_cache() {
+		MetadataCache cache = mock(MetadataCache.class);
+		ExifToolBuilder r1 = builder.withMetadataCache(cache);
+		assertThat(r1).isSameAs(builder);
+
+		ExifTool exifTool = builder
+				.withPath(path)
+				.withExecutor(executor)
+				.build();
+
+		assertThat(exifTool.getMetadataCache()).isSameAs(cache);
+	}
+
 	@Test
 	public void it_should_override_strategy() {
 		assertThat(readPrivateField(builder, "strategy")).isNull();
@@ -286,7 +395,7 @@ public class ExifToolBuilderTest {
 					public boolean matches(ExecutionStrategy value) {
 						StayOpenStrategy stayOpenStrategy = (StayOpenStrategy) value;
 						Scheduler scheduler = readPrivateField(stayOpenStrategy, "scheduler");
-						return scheduler instanceof DefaultScheduler;
+						return scheduler instanceof IdleScheduler;
 					}
 				});
 	}
@@ -342,4 +451,199 @@ public class ExifToolBuilderTest {
 					}
 				});
 	}
+
+	@Test
+	public void it_should_create_exiftool_with_async_dispatcher() {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withAsyncDispatcher(4, 20)
+				.build();
+
+		AsyncDispatcher dispatcher = readPrivateField(exifTool, "dispatcher");
+		assertThat((Integer) readPrivateField(dispatcher, "threads")).isEqualTo(4);
+		assertThat((Integer) readPrivateField(dispatcher, "queueSize")).isEqualTo(20);
+	}
+
+	@Test
+	public void it_should_create_async_dispatcher_with_pool_size() {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withPoolSize(3)
+				.build();
+
+		AsyncDispatcher dispatcher = readPrivateField(exifTool, "dispatcher");
+		assertThat((Integer) readPrivateField(dispatcher, "threads")).isEqualTo(3);
+		assertThat((Integer) readPrivateField(dispatcher, "queueSize")).isEqualTo(1000);
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_async_executor() {
+		Executor asyncExecutor = mock(Executor.class);
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withAsyncDispatcher(asyncExecutor, 100)
+				.build();
+
+		AsyncDispatcher dispatcher = readPrivateField(exifTool, "dispatcher");
+		assertThat((Executor) readPrivateField(dispatcher, "executor")).isSameAs(asyncExecutor);
+		assertThat((Integer) readPrivateField(dispatcher, "queueSize")).isEqualTo(100);
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_command_timeout() {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withCommandTimeout(500)
+				.build();
+
+		assertThat((Long) readPrivateField(exifTool, "commandTimeout")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+	}
+
+	@Test
+	public void it_should_enable_prewarm() {
+		ExifToolBuilder res = builder.enablePrewarm(true);
+
+		assertThat(res).isSameAs(builder);
+		assertThat((Boolean) readPrivateField(builder, "prewarm")).isTrue();
+		assertThat((Boolean) readPrivateField(builder, "prewarmInBackground")).isTrue();
+	}
+
+	@Test
+	public void it_should_create_exiftool_and_prewarm_strategy() throws Exception {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withStrategy(strategy)
+				.enablePrewarm(false)
+				.build();
+
+		assertThat(exifTool.getReadiness().isDone()).isTrue();
+		verify(strategy).execute(same(executor), anyString(), eq(asList("-ver", "-execute")), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_create_with_elastic_pool_strategy() throws Exception {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withPoolSize(2, 5, 100, 60000)
+				.build();
+
+		ExecutionStrategy strategy = readPrivateField(exifTool, "strategy");
+		assertThat(strategy).isExactlyInstanceOf(PoolStrategy.class);
+		assertThat(((PoolStrategy) strategy).getSize()).isEqualTo(2);
+		assertThat((Integer) readPrivateField(strategy, "maxSize")).isEqualTo(5);
+
+		BlockingQueue<ExecutionStrategy> pool = readPrivateField(strategy, "pool");
+		assertThat(pool).hasSize(2);
+		for (ExecutionStrategy s : pool) {
+			assertThat(s).isExactlyInstanceOf(StayOpenStrategy.class);
+			assertThat((Scheduler) readPrivateField(s, "scheduler")).isInstanceOf(NoOpScheduler.class);
+		}
+
+		AsyncDispatcher dispatcher = readPrivateField(exifTool, "dispatcher");
+		assertThat((Integer) readPrivateField(dispatcher, "threads")).isEqualTo(5);
+
+		exifTool.close();
+	}
+
+	@Test
+	public void it_should_create_resizable_pool_strategy() throws Exception {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withPoolSize(2)
+				.build();
+
+		PoolStrategy strategy = readPrivateField(exifTool, "strategy");
+		strategy.resize(3, 3);
+		assertThat(strategy.getSize()).isEqualTo(3);
+
+		BlockingQueue<ExecutionStrategy> pool = readPrivateField(strategy, "pool");
+		assertThat(pool).hasSize(3).hasOnlyElementsOfType(StayOpenStrategy.class);
+
+		exifTool.close();
+	}
+
+	@Test
+	public void it_should_register_pool_in_jmx_server() throws Exception {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withPoolSize(2)
+				.enableJmx("builder-test")
+				.build();
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("com.thebuzzmedia.exiftool:type=PoolStrategy,name=\"builder-test\"");
+		assertThat(server.isRegistered(name)).isTrue();
+		assertThat(server.getAttribute(name, "Size")).isEqualTo(2);
+		assertThat(server.getAttribute(name, "Busy")).isEqualTo(0);
+
+		server.invoke(name, "resize", new Object[]{3, 3}, new String[]{"int", "int"});
+		assertThat(server.getAttribute(name, "Size")).isEqualTo(3);
+
+		exifTool.close();
+		assertThat(server.isRegistered(name)).isFalse();
+	}
+
+	@Test
+	public void it_should_create_exiftool_with_execution_listeners() throws Exception {
+		ExecutionListener listener = mock(ExecutionListener.class);
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withExecutionListener(listener)
+				.enableSlowExecutionLog(500)
+				.build();
+
+		CompositeExecutionListener composite = readPrivateField(exifTool, "listener");
+		List<ExecutionListener> listeners = readPrivateField(composite, "listeners");
+		assertThat(listeners).hasSize(2);
+		assertThat(listeners.get(0)).isSameAs(listener);
+		assertThat(listeners.get(1)).isExactlyInstanceOf(SlowExecutionListener.class);
+		assertThat(((SlowExecutionListener) listeners.get(1)).getThreshold()).isEqualTo(500);
+
+		exifTool.close();
+	}
+
+	@Test
+	public void it_should_create_exiftool_without_execution_listener() throws Exception {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.build();
+
+		assertThat((ExecutionListener) readPrivateField(exifTool, "listener")).isNull();
+
+		exifTool.close();
+	}
+
+	@Test
+	public void it_should_create_pool_strategy_with_admission_policy() throws Exception {
+		AdmissionPolicy admissionPolicy = AdmissionPolicy.admissionPolicy(10, 500);
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withPoolSize(2)
+				.withAdmissionPolicy(admissionPolicy)
+				.build();
+
+		ExecutionStrategy strategy = readPrivateField(exifTool, "strategy");
+		assertThat(strategy).isExactlyInstanceOf(PoolStrategy.class);
+		assertThat((AdmissionPolicy) readPrivateField(strategy, "admission")).isSameAs(admissionPolicy);
+
+		exifTool.close();
+	}
+
+	@Test
+	public void it_should_create_pool_strategy_with_priority_policy() throws Exception {
+		PriorityPolicy priorityPolicy = PriorityPolicy.strict(1);
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withPoolSize(2)
+				.withPriorityPolicy(priorityPolicy)
+				.withPriority(Priority.LOW)
+				.build();
+
+		ExecutionStrategy strategy = readPrivateField(exifTool, "strategy");
+		assertThat(strategy).isExactlyInstanceOf(PoolStrategy.class);
+		assertThat(readPrivateField(strategy, "lanes")).isNotNull();
+		assertThat(exifTool.getPriority()).isEqualTo(Priority.LOW);
+
+		exifTool.close();
+	}
 }
@@ -17,10 +17,12 @@
 
 package com.thebuzzmedia.exiftool;
 
+import com.thebuzzmedia.exiftool.core.strategies.DefaultStrategy;
 import com.thebuzzmedia.exiftool.exceptions.UnsupportedFeatureException;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
 import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.Before;
@@ -31,11 +33,20 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readStaticPrivateField;
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -77,17 +88,12 @@ public class ExifToolTest {
 	}
 
 	@Test
-	public void it_should_not_create_exiftool_if_path_is_null() {
-		ThrowingCallable newExifTool = new ThrowingCallable() {
-			@Override
-			public void call() {
-				new ExifTool(null, executor, strategy);
-			}
-		};
+	public void it_should_create_exiftool_with_default_path_if_path_is_null() throws Exception {
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		ExifTool exifTool = new ExifToolBuilder().withPath((String) null).withExecutor(executor).withStrategy(strategy).build();
 
-		assertThatThrownBy(newExifTool)
-				.isInstanceOf(NullPointerException.class)
-				.hasMessage("ExifTool path should not be null");
+		String path = readPrivateField(exifTool, "path");
+		assertThat(path).isEqualTo(System.getProperty("exiftool.path", "exiftool"));
 	}
 
 	@Test
@@ -95,7 +101,7 @@ public class ExifToolTest {
 		ThrowingCallable newExifTool = new ThrowingCallable() {
 			@Override
 			public void call() {
-				new ExifTool("", executor, strategy);
+				new ExifToolBuilder().withPath("").withExecutor(executor).withStrategy(strategy).build();
 			}
 		};
 
@@ -109,7 +115,7 @@ public class ExifToolTest {
 		ThrowingCallable newExifTool = new ThrowingCallable() {
 			@Override
 			public void call() {
-				new ExifTool("  ", executor, strategy);
+				new ExifToolBuilder().withPath("  ").withExecutor(executor).withStrategy(strategy).build();
 			}
 		};
 
@@ -119,31 +125,26 @@ public class ExifToolTest {
 	}
 
 	@Test
-	public void it_should_not_create_exiftool_if_executor_is_null() {
-		ThrowingCallable newExifTool = new ThrowingCallable() {
-			@Override
-			public void call() {
-				new ExifTool(path, null, strategy);
-			}
-		};
+	public void it_should_create_exiftool_with_default_executor_if_executor_is_null() throws Exception {
+		// Load version with the mock, so that the default executor is never run.
+		VersionCache cache = readStaticPrivateField(ExifTool.class, "cache");
+		cache.load(path, executor);
 
-		assertThatThrownBy(newExifTool)
-				.isInstanceOf(NullPointerException.class)
-				.hasMessage("Executor should not be null");
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(null).withStrategy(strategy).build();
+
+		CommandExecutor executor = readPrivateField(exifTool, "executor");
+		assertThat(executor)
+				.isNotNull()
+				.isNotSameAs(this.executor);
 	}
 
 	@Test
-	public void it_should_not_create_exiftool_if_strategy_is_null() {
-		ThrowingCallable newExifTool = new ThrowingCallable() {
-			@Override
-			public void call() {
-				new ExifTool(path, executor, null);
-			}
-		};
+	public void it_should_create_exiftool_with_default_strategy_if_strategy_is_null() throws Exception {
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(null).build();
 
-		assertThatThrownBy(newExifTool)
-				.isInstanceOf(NullPointerException.class)
-				.hasMessage("Execution strategy should not be null");
+		ExecutionStrategy strategy = readPrivateField(exifTool, "strategy");
+		assertThat(strategy).isInstanceOf(DefaultStrategy.class);
 	}
 
 	@Test
@@ -156,7 +157,7 @@ public class ExifToolTest {
 
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
 
-		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 		assertThat(exifTool.getVersion()).isNotNull();
 
 		cache = readStaticPrivateField(ExifTool.class, "cache");
@@ -167,7 +168,7 @@ public class ExifToolTest {
 	@Test
 	public void it_should_check_if_exiftool_is_running() {
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
-		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 
 		when(strategy.isRunning()).thenReturn(false);
 		assertThat(exifTool.isRunning()).isFalse();
@@ -183,7 +184,7 @@ public class ExifToolTest {
 	@Test
 	public void it_should_close_exiftool() throws Exception {
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
-		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 		exifTool.close();
 		verify(strategy).shutdown();
 	}
@@ -191,7 +192,7 @@ public class ExifToolTest {
 	@Test
 	public void it_should_stop_exiftool() throws Exception {
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
-		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 		exifTool.stop();
 		verify(strategy).close();
 		verify(strategy, never()).shutdown();
@@ -200,7 +201,7 @@ public class ExifToolTest {
 	@Test
 	public void it_should_get_exiftool_version() {
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
-		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 		Version version = exifTool.getVersion();
 		assertThat(version).isEqualTo(new Version("9.36"));
 	}
@@ -208,7 +209,7 @@ public class ExifToolTest {
 	@Test
 	public void it_should_create_exiftool_instance_and_get_version() throws Exception {
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
-		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 
 		String path = readPrivateField(exifTool, "path");
 		CommandExecutor executor = readPrivateField(exifTool, "executor");
@@ -238,7 +239,7 @@ public class ExifToolTest {
 		ThrowingCallable newExifTool = new ThrowingCallable() {
 			@Override
 			public void call() {
-				new ExifTool(path, executor, strategy);
+				new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 			}
 		};
 
@@ -250,4 +251,57 @@ public class ExifToolTest {
 								"You can either upgrade the install of ExifTool or avoid using this feature to workaround this exception."
 				);
 	}
+
+	@Test
+	public void it_should_be_ready_without_prewarm() throws Exception {
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
+
+		assertThat(exifTool.getReadiness().isDone()).isTrue();
+		assertThat(exifTool.getReadiness().get()).isNull();
+		verify(strategy, never()).execute(any(CommandExecutor.class), any(String.class), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_prewarm_exiftool() throws Exception {
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
+
+		exifTool.prewarm(false);
+
+		assertThat(exifTool.getReadiness().isDone()).isTrue();
+		verify(strategy).execute(same(executor), eq(path), eq(asList("-ver", "-execute")), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_prewarm_exiftool_in_background() throws Exception {
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
+
+		exifTool.prewarm(true);
+
+		assertThat(exifTool.getReadiness().get(5, TimeUnit.SECONDS)).isNull();
+		verify(strategy).execute(same(executor), eq(path), eq(asList("-ver", "-execute")), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_report_prewarm_failure() throws Exception {
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		IOException ex = new IOException("Cannot start exiftool");
+		doThrow(ex).when(strategy).execute(any(CommandExecutor.class), any(String.class), anyListOf(String.class), any(OutputHandler.class));
+		final ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
+
+		exifTool.prewarm(false);
+
+		ThrowingCallable readiness = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getReadiness().get();
+			}
+		};
+
+		assertThatThrownBy(readiness)
+				.isInstanceOf(ExecutionException.class)
+				.hasCause(ex);
+	}
 }
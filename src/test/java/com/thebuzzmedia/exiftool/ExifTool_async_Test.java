@@ -0,0 +1,388 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.core.StandardFormat;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandProcesses;
+import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.ManagedCommandProcess;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
+import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ExifTool_async_Test {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private String path;
+
+	@Mock
+	private CommandExecutor executor;
+
+	@Mock
+	private ExecutionStrategy strategy;
+
+	private ExifTool exifTool;
+
+	private File image;
+
+	private List<Tag> tags;
+
+	@Before
+	public void setUp() throws Exception {
+		path = "exiftool";
+
+		CommandResult cmd = new CommandResultBuilder()
+				.output("9.36")
+				.build();
+
+		when(executor.execute(any(Command.class))).thenReturn(cmd);
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy)
+				.withAsyncDispatcher(1, 1)
+				.build();
+		image = tmp.newFile("image.jpg");
+		tags = asList((Tag) StandardTag.ISO, StandardTag.ARTIST);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		exifTool.close();
+	}
+
+	@Test
+	public void it_should_get_image_metadata_asynchronously() throws Exception {
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				handler.readLine("ISO: 100");
+				handler.readLine("{ready}");
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Map<Tag, String> meta = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags).get(5, TimeUnit.SECONDS);
+
+		assertThat(meta).hasSize(1).containsEntry(StandardTag.ISO, "100");
+	}
+
+	@Test
+	public void it_should_set_image_metadata_asynchronously() throws Exception {
+		Future<Void> future = exifTool.setImageMetaAsync(image, Collections.singletonMap(StandardTag.ARTIST, "foo"));
+
+		assertThat(future.get(5, TimeUnit.SECONDS)).isNull();
+		verify(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_remove_pending_request_when_it_is_cancelled() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Exception {
+				started.countDown();
+				release.await();
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Future<Map<Tag, String>> f1 = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		Future<Map<Tag, String>> f2 = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(f2.cancel(true)).isTrue();
+		assertThat(f2.isCancelled()).isTrue();
+
+		release.countDown();
+		f1.get(5, TimeUnit.SECONDS);
+
+		// Queue is empty again.
+		exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags).get(5, TimeUnit.SECONDS);
+		verify(strategy, times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_destroy_process_when_running_request_is_cancelled() throws Exception {
+		final ManagedCommandProcess process = mock(ManagedCommandProcess.class);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch destroyed = new CountDownLatch(1);
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				destroyed.countDown();
+				return null;
+			}
+		}).when(process).destroy();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Exception {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				((ProcessAwareOutputHandler) handler).onRead(process);
+				started.countDown();
+
+				// Output ends when process is destroyed.
+				destroyed.await();
+				handler.readLine(null);
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Future<Map<Tag, String>> future = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(future.cancel(true)).isTrue();
+		verify(process, timeout(5000)).destroy();
+	}
+
+	@Test
+	public void it_should_drop_command_on_shared_process_when_running_request_is_cancelled() throws Exception {
+		final Runnable drop = mock(Runnable.class);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch dropped = new CountDownLatch(1);
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				dropped.countDown();
+				return null;
+			}
+		}).when(drop).run();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Exception {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				((ProcessAwareOutputHandler) handler).onAbort(drop);
+				started.countDown();
+
+				// Caller is released once command has been dropped.
+				dropped.await();
+				throw new InterruptedIOException("Command has been cancelled");
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Future<Map<Tag, String>> future = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(future.cancel(true)).isTrue();
+		verify(drop, timeout(5000)).run();
+
+		// Dispatcher thread is available again once the command has been dropped.
+		exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		verify(strategy, timeout(5000).times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_not_run_command_of_request_cancelled_while_waiting_for_a_process() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch cancelled = new CountDownLatch(1);
+		final List<Exception> failures = new CopyOnWriteArrayList<>();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Exception {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				started.countDown();
+
+				// Process becomes available once request has been cancelled.
+				cancelled.await();
+				try {
+					CommandProcesses.checkAborted(handler);
+				}
+				catch (InterruptedIOException ex) {
+					failures.add(ex);
+					throw ex;
+				}
+
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Future<Map<Tag, String>> future = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(future.cancel(false)).isTrue();
+		cancelled.countDown();
+
+		// Dispatcher thread is available again once the request has been aborted.
+		exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		verify(strategy, timeout(5000).times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+		assertThat(failures).hasSize(1);
+	}
+
+	@Test
+	public void it_should_not_destroy_process_once_command_is_complete() throws Exception {
+		final ManagedCommandProcess process = mock(ManagedCommandProcess.class);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch read = new CountDownLatch(1);
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Exception {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				((ProcessAwareOutputHandler) handler).onRead(process);
+				handler.readLine("ISO: 100");
+				handler.readLine("{ready}");
+				read.countDown();
+				release.await();
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Future<Map<Tag, String>> future = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+
+		future.cancel(true);
+		release.countDown();
+
+		verify(process, times(0)).destroy();
+	}
+
+	@Test
+	public void it_should_reject_request_if_queue_is_full() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Exception {
+				started.countDown();
+				release.await();
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+
+		ThrowingCallable getImageMetaAsync = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+			}
+		};
+
+		try {
+			assertThatThrownBy(getImageMetaAsync)
+					.isInstanceOf(RejectedExecutionException.class);
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void it_should_reject_request_once_closed() throws Exception {
+		exifTool.close();
+
+		ThrowingCallable getImageMetaAsync = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getImageMetaAsync(image);
+			}
+		};
+
+		assertThatThrownBy(getImageMetaAsync)
+				.isInstanceOf(RejectedExecutionException.class)
+				.hasMessage("ExifTool has been closed");
+	}
+
+	@Test
+	public void it_should_run_requests_with_given_executor() throws Exception {
+		final List<Runnable> tasks = new ArrayList<>();
+		Executor taskExecutor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		};
+
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy)
+				.withAsyncDispatcher(taskExecutor, 2)
+				.build();
+
+		Future<Map<Tag, String>> f1 = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		Future<Map<Tag, String>> f2 = exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		ThrowingCallable getImageMetaAsync = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+			}
+		};
+
+		assertThatThrownBy(getImageMetaAsync)
+				.isInstanceOf(RejectedExecutionException.class)
+				.hasMessage("Too many pending requests");
+
+		// Completed and cancelled requests are not pending anymore.
+		tasks.get(0).run();
+		assertThat(f1.isDone()).isTrue();
+		assertThat(f2.cancel(false)).isTrue();
+
+		exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		exifTool.getImageMetaAsync(image, StandardFormat.NUMERIC, tags);
+		assertThat(tasks).hasSize(4);
+	}
+}
@@ -19,11 +19,17 @@ package com.thebuzzmedia.exiftool;
 
 import com.thebuzzmedia.exiftool.core.StandardFormat;
 import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.StandardTagValues;
 import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
 import com.thebuzzmedia.exiftool.exceptions.UnreadableFileException;
+import com.thebuzzmedia.exiftool.metrics.RecordingMetrics;
 import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandContext;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
 import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
@@ -39,11 +45,14 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import static com.thebuzzmedia.exiftool.metrics.RecordingMetrics.recordingMetrics;
 import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
 import static com.thebuzzmedia.exiftool.tests.TagTestUtils.parseTags;
 import static java.util.Arrays.asList;
@@ -52,7 +61,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -84,7 +95,7 @@ public class ExifTool_getImageMeta_Test {
 		when(executor.execute(any(Command.class))).thenReturn(cmd);
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
 
-		exifTool = new ExifTool(path, executor, strategy);
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 
 		reset(executor);
 	}
@@ -94,7 +105,7 @@ public class ExifTool_getImageMeta_Test {
 		ThrowingCallable getImageMeta = new ThrowingCallable() {
 			@Override
 			public void call() throws Throwable {
-				exifTool.getImageMeta(null, StandardFormat.HUMAN_READABLE, asList((Tag[]) StandardTag.values()));
+				exifTool.getImageMeta((File) null, StandardFormat.HUMAN_READABLE, asList((Tag[]) StandardTag.values()));
 			}
 		};
 
@@ -210,6 +221,257 @@ public class ExifTool_getImageMeta_Test {
 				.isEqualTo(tags);
 	}
 
+	@Test
+	public void it_should_get_image_metadata_with_timeout() throws Exception {
+		// Given
+		final Format format = StandardFormat.HUMAN_READABLE;
+		final File image = new FileBuilder("foo.png").build();
+		final Map<Tag, String> tags = new HashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}"))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		long start = System.nanoTime();
+		Map<Tag, String> results = exifTool.getImageMeta(image, format, tags.keySet(), 5, TimeUnit.SECONDS);
+		long end = System.nanoTime();
+
+		// Then
+		ArgumentCaptor<OutputHandler> handlerCaptor = ArgumentCaptor.forClass(OutputHandler.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), handlerCaptor.capture());
+
+		assertThat(handlerCaptor.getValue()).isInstanceOf(ContextOutputHandler.class);
+		CommandContext context = CommandContext.of(handlerCaptor.getValue());
+		assertThat(context.hasDeadline()).isTrue();
+		assertThat(context.getDeadline() - TimeUnit.SECONDS.toNanos(5)).isBetween(start, end);
+		assertThat(results).isEqualTo(tags);
+	}
+
+	@Test
+	public void it_should_report_command_metrics() throws Exception {
+		final File image = new FileBuilder("foo.png").build();
+		final Map<Tag, String> tags = new HashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+
+		RecordingMetrics metrics = recordingMetrics();
+		long commands = metrics.getCommands();
+		long failures = metrics.getFailures();
+		long timeouts = metrics.getTimeouts();
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}"))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags.keySet());
+
+		assertThat(metrics.getCommands()).isEqualTo(commands + 1);
+		assertThat(metrics.getFailures()).isEqualTo(failures);
+		assertThat(metrics.getTimeouts()).isEqualTo(timeouts);
+
+		doThrow(new CommandTimeoutException("Command deadline missed"))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		ThrowingCallable getImageMeta = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags.keySet(), 5, TimeUnit.SECONDS);
+			}
+		};
+
+		assertThatThrownBy(getImageMeta).isInstanceOf(CommandTimeoutException.class);
+		assertThat(metrics.getCommands()).isEqualTo(commands + 2);
+		assertThat(metrics.getFailures()).isEqualTo(failures + 1);
+		assertThat(metrics.getTimeouts()).isEqualTo(timeouts + 1);
+	}
+
+	@Test
+	public void it_should_notify_execution_listener() throws Exception {
+		final File image = new FileBuilder("foo.png").build();
+		final Map<Tag, String> tags = new HashMap<>();
+		tags.put(StandardTag.ARTIST, "bär");
+
+		ExecutionListener listener = mock(ExecutionListener.class);
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy)
+				.withAsyncDispatcher(1, 1)
+				.withExecutionListener(listener)
+				.build();
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}") {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				CommandContext context = CommandContext.of((OutputHandler) invocation.getArguments()[3]);
+				context.onAcquired("strategy-1", 5);
+				context.onSent(42, 3);
+				return super.answer(invocation);
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags.keySet());
+
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+
+		ArgumentCaptor<ExecutionEvent> startCaptor = ArgumentCaptor.forClass(ExecutionEvent.class);
+		verify(listener).onStart(startCaptor.capture());
+
+		ExecutionEvent start = startCaptor.getValue();
+		assertThat(start.getArguments()).isEqualTo(argsCaptor.getValue().size());
+		assertThat(start.getFiles()).containsExactly(image);
+		assertThat(start.isWrite()).isFalse();
+		assertThat(start.getPriority()).isEqualTo(Priority.NORMAL);
+		assertThat(start.getOutcome()).isNull();
+
+		ArgumentCaptor<ExecutionEvent> completeCaptor = ArgumentCaptor.forClass(ExecutionEvent.class);
+		verify(listener).onComplete(completeCaptor.capture());
+
+		ExecutionEvent complete = completeCaptor.getValue();
+		assertThat(complete.getArguments()).isEqualTo(argsCaptor.getValue().size());
+		assertThat(complete.getFiles()).containsExactly(image);
+		assertThat(complete.getStrategy()).isEqualTo("strategy-1");
+		assertThat(complete.getPid()).isEqualTo(42);
+		assertThat(complete.getQueueWait()).isEqualTo(5);
+		assertThat(complete.getWriteTime()).isEqualTo(3);
+		assertThat(complete.getComputeTime()).isGreaterThanOrEqualTo(0);
+		assertThat(complete.getReadTime()).isGreaterThanOrEqualTo(0);
+		assertThat(complete.getDuration()).isGreaterThanOrEqualTo(complete.getComputeTime() + complete.getReadTime());
+		assertThat(complete.getOutputSize()).isEqualTo("Artist: bär\n{ready}\n".getBytes("UTF-8").length);
+		assertThat(complete.getOutcome()).isEqualTo(ExecutionEvent.Outcome.SUCCESS);
+		assertThat(complete.getFailure()).isNull();
+	}
+
+	@Test
+	public void it_should_notify_execution_listener_of_failure() throws Exception {
+		final File image = new FileBuilder("foo.png").build();
+		final IOException failure = new IOException("exiftool failed");
+
+		ExecutionListener listener = mock(ExecutionListener.class);
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy)
+				.withAsyncDispatcher(1, 1)
+				.withExecutionListener(listener)
+				.build();
+
+		doThrow(failure)
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		ThrowingCallable getImageMeta = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, asList((Tag) StandardTag.ARTIST));
+			}
+		};
+
+		assertThatThrownBy(getImageMeta).isSameAs(failure);
+
+		ArgumentCaptor<ExecutionEvent> completeCaptor = ArgumentCaptor.forClass(ExecutionEvent.class);
+		verify(listener).onComplete(completeCaptor.capture());
+
+		ExecutionEvent complete = completeCaptor.getValue();
+		assertThat(complete.getOutcome()).isEqualTo(ExecutionEvent.Outcome.FAILURE);
+		assertThat(complete.getFailure()).isSameAs(failure);
+		assertThat(complete.getStrategy()).isNull();
+		assertThat(complete.getPid()).isEqualTo(-1);
+		assertThat(complete.getOutputSize()).isZero();
+	}
+
+	@Test
+	public void it_should_notify_execution_listener_of_timeout() throws Exception {
+		final File image = new FileBuilder("foo.png").build();
+
+		ExecutionListener listener = mock(ExecutionListener.class);
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy)
+				.withAsyncDispatcher(1, 1)
+				.withExecutionListener(listener)
+				.build();
+
+		doThrow(new CommandTimeoutException("Command deadline missed"))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		ThrowingCallable getImageMeta = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, asList((Tag) StandardTag.ARTIST), 5, TimeUnit.SECONDS);
+			}
+		};
+
+		assertThatThrownBy(getImageMeta).isInstanceOf(CommandTimeoutException.class);
+
+		ArgumentCaptor<ExecutionEvent> completeCaptor = ArgumentCaptor.forClass(ExecutionEvent.class);
+		verify(listener).onComplete(completeCaptor.capture());
+		assertThat(completeCaptor.getValue().getOutcome()).isEqualTo(ExecutionEvent.Outcome.TIMEOUT);
+		assertThat(completeCaptor.getValue().getFailure()).isInstanceOf(CommandTimeoutException.class);
+	}
+
+	@Test
+	public void it_should_not_get_image_metadata_with_negative_timeout() {
+		ThrowingCallable getImageMeta = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				exifTool.getImageMeta(mock(File.class), StandardFormat.HUMAN_READABLE, asList((Tag[]) StandardTag.values()), -1, TimeUnit.SECONDS);
+			}
+		};
+
+		assertThatThrownBy(getImageMeta)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Timeout must be positive");
+	}
+
+	@Test
+	public void it_should_get_image_metadata_with_default_timeout() throws Exception {
+		// Given
+		CommandResult cmd = new CommandResultBuilder()
+				.output("9.36")
+				.build();
+
+		when(executor.execute(any(Command.class))).thenReturn(cmd);
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy)
+				.withAsyncDispatcher(1, 1)
+				.withCommandTimeout(1000)
+				.build();
+
+		final File image = new FileBuilder("foo.png").build();
+		final Map<Tag, String> tags = new HashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}"))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags.keySet());
+
+		// Then
+		ArgumentCaptor<OutputHandler> handlerCaptor = ArgumentCaptor.forClass(OutputHandler.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), handlerCaptor.capture());
+		assertThat(CommandContext.of(handlerCaptor.getValue()).hasDeadline()).isTrue();
+	}
+
+	@Test
+	public void it_should_get_image_metadata_with_priority() throws Exception {
+		// Given
+		final File image = new FileBuilder("foo.png").build();
+		final Map<Tag, String> tags = new HashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}"))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		ExifTool highPriority = exifTool.withPriority(Priority.HIGH);
+		Map<Tag, String> results = highPriority.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags.keySet());
+
+		// Then
+		assertThat(highPriority.getPriority()).isEqualTo(Priority.HIGH);
+		assertThat(exifTool.getPriority()).isEqualTo(Priority.NORMAL);
+		assertThat(exifTool.withPriority(Priority.NORMAL)).isSameAs(exifTool);
+
+		ArgumentCaptor<OutputHandler> handlerCaptor = ArgumentCaptor.forClass(OutputHandler.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), handlerCaptor.capture());
+		CommandContext context = CommandContext.of(handlerCaptor.getValue());
+		assertThat(context.getPriority()).isEqualTo(Priority.HIGH);
+		assertThat(context.hasDeadline()).isFalse();
+		assertThat(context.isWrite()).isFalse();
+		assertThat(context.getFiles()).containsExactly(image);
+		assertThat(results).isEqualTo(tags);
+	}
+
 	@Test
 	public void it_should_get_image_metadata_in_numeric_format() throws Exception {
 		// Given
@@ -314,6 +576,191 @@ public class ExifTool_getImageMeta_Test {
 				.containsAllEntriesOf(parseTags(tags));
 	}
 
+	@Test
+	public void it_should_get_metadata_of_several_images() throws Exception {
+		// Given
+		final Format format = StandardFormat.NUMERIC;
+		final File f1 = new FileBuilder("f1.png").build();
+		final File f2 = new FileBuilder("f2.png").build();
+		final File f3 = new FileBuilder("f3.png").exists(false).build();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				handler.readLine("======== /tmp/f1.png");
+				handler.readLine("Artist: foo");
+				handler.readLine("======== /tmp/f2.png");
+				handler.readLine("Error: Unknown file type");
+				handler.readLine("    2 image files read");
+				handler.readLine("{ready}");
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		Map<File, ImageMetaResult> results = exifTool.getImageMeta(asList(f1, f2, f3), format, asList(StandardTag.ARTIST));
+
+		// Then
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-n", "-S", "-Artist", "-Error", "/tmp/f1.png", "/tmp/f2.png", "-execute"
+		);
+
+		assertThat(results.keySet()).containsExactly(f1, f2, f3);
+		assertThat(results.get(f1).getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "foo");
+		assertThat(results.get(f2).isFailure()).isTrue();
+		assertThat(results.get(f2).getError()).isEqualTo("Unknown file type");
+		assertThat(results.get(f3).isFailure()).isTrue();
+	}
+
+	@Test
+	public void it_should_get_metadata_of_several_images_with_warnings() throws Exception {
+		// Given
+		final String path = "exiftool-10.16";
+		final CommandResult cmd = new CommandResultBuilder()
+				.output("10.16")
+				.build();
+
+		when(executor.execute(any(Command.class))).thenReturn(cmd);
+		final ExifTool exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
+
+		final File f1 = new FileBuilder("f1.png").build();
+		final File f2 = new FileBuilder("f2.png").build();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				ErrorOutputHandler handler = (ErrorOutputHandler) invocation.getArguments()[3];
+				handler.readLine("======== /tmp/f1.png");
+				handler.readLine("Artist: foo");
+				handler.readLine("======== /tmp/f2.png");
+				handler.readLine("Artist: bar");
+				handler.readLine("{ready}");
+				handler.readError("Warning: [minor] Bad MakerNotes directory - /tmp/f2.png");
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		Map<File, ImageMetaResult> results = exifTool.getImageMeta(asList(f1, f2), StandardFormat.NUMERIC, asList(StandardTag.ARTIST));
+
+		// Then
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-n", "-S", "-Artist", "-Error", "/tmp/f1.png", "/tmp/f2.png", "-echo4", "{ready_errors}", "-execute"
+		);
+
+		assertThat(results.get(f1).isSuccess()).isTrue();
+		assertThat(results.get(f1).getWarnings()).isEmpty();
+		assertThat(results.get(f2).isSuccess()).isTrue();
+		assertThat(results.get(f2).getWarnings()).containsExactly("Warning: [minor] Bad MakerNotes directory - /tmp/f2.png");
+	}
+
+	@Test
+	public void it_should_get_image_metadata_in_json_format() throws Exception {
+		// Given
+		final Format format = StandardFormat.NUMERIC_JSON;
+		final File image = new FileBuilder("foo.png").build();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				handler.readLine("[{");
+				handler.readLine("  \"SourceFile\": \"/tmp/foo.png\",");
+				handler.readLine("  \"ISO\": 100,");
+				handler.readLine("  \"Artist\": \"multi\\nline\"");
+				handler.readLine("}]");
+				handler.readLine("{ready}");
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		Map<Tag, String> meta = exifTool.getImageMeta(image, format, asList(StandardTag.ISO, StandardTag.ARTIST));
+
+		// Then
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-j", "-n", "-S", "-ISO", "-Artist", "/tmp/foo.png", "-execute"
+		);
+
+		assertThat(meta)
+				.hasSize(2)
+				.containsEntry(StandardTag.ISO, "100")
+				.containsEntry(StandardTag.ARTIST, "multi\nline");
+	}
+
+	@Test
+	public void it_should_get_typed_image_values() throws Exception {
+		// Given
+		final Format format = StandardFormat.NUMERIC;
+		final File image = new FileBuilder("foo.png").build();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				handler.readLine("ISO: 100");
+				handler.readLine("FNumber: 2.8");
+				handler.readLine("{ready}");
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		StandardTagValues values = exifTool.getImageValues(image, format, asList(StandardTag.ISO, StandardTag.FNUMBER, StandardTag.ARTIST));
+
+		// Then
+		assertThat(values.size()).isEqualTo(2);
+		assertThat(values.getInt(StandardTag.ISO)).isEqualTo(100);
+		assertThat(values.getDouble(StandardTag.FNUMBER)).isEqualTo(2.8);
+		assertThat(values.has(StandardTag.ARTIST)).isFalse();
+	}
+
+	@Test
+	public void it_should_get_typed_image_values_in_json_format() throws Exception {
+		// Given
+		final Format format = StandardFormat.NUMERIC_JSON;
+		final File image = new FileBuilder("foo.png").build();
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				handler.readLine("[{");
+				handler.readLine("  \"SourceFile\": \"/tmp/foo.png\",");
+				handler.readLine("  \"ISO\": 100,");
+				handler.readLine("  \"GPSLatitude\": 48.8577");
+				handler.readLine("}]");
+				handler.readLine("{ready}");
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// When
+		StandardTagValues values = exifTool.getImageValues(image, format, asList(StandardTag.ISO, StandardTag.GPS_LATITUDE));
+
+		// Then
+		assertThat(values.size()).isEqualTo(2);
+		assertThat(values.getLong(StandardTag.ISO)).isEqualTo(100L);
+		assertThat(values.getDouble(StandardTag.GPS_LATITUDE)).isEqualTo(48.8577);
+	}
+
+	@Test
+	public void it_should_not_execute_exiftool_if_all_images_are_unreadable() throws Exception {
+		final File image = new FileBuilder("foo.png").canRead(false).build();
+
+		Map<File, ImageMetaResult> results = exifTool.getImageMeta(asList(image), StandardFormat.NUMERIC, asList(StandardTag.ARTIST));
+
+		assertThat(results).hasSize(1);
+		assertThat(results.get(image).isFailure()).isTrue();
+		verify(strategy, never()).execute(any(CommandExecutor.class), any(String.class), anyListOf(String.class), any(OutputHandler.class));
+	}
+
 	private static class ReadTagsAnswer implements Answer<Void> {
 		private final Map<Tag, String> tags;
 
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.core.StandardFormat;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.cache.MetadataCacheFactory;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ExifTool_metadataCache_Test {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private String path;
+
+	@Mock
+	private CommandExecutor executor;
+
+	@Mock
+	private ExecutionStrategy strategy;
+
+	private MetadataCache cache;
+
+	private ExifTool exifTool;
+
+	private File image;
+
+	private List<Tag> tags;
+
+	@Before
+	public void setUp() throws Exception {
+		path = "exiftool";
+
+		CommandResult cmd = new CommandResultBuilder()
+				.output("9.36")
+				.build();
+
+		when(executor.execute(any(Command.class))).thenReturn(cmd);
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+
+		cache = MetadataCacheFactory.newCache(10);
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy)
+				.withMetadataCache(cache)
+				.build();
+		image = tmp.newFile("image.jpg");
+		tags = asList((Tag) StandardTag.ISO, StandardTag.ARTIST);
+
+		reset(executor);
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+				handler.readLine("ISO: 100");
+				handler.readLine("{ready}");
+				return null;
+			}
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_get_image_metadata_from_cache() throws Exception {
+		Map<Tag, String> m1 = exifTool.getImageMeta(image, StandardFormat.NUMERIC, tags);
+		Map<Tag, String> m2 = exifTool.getImageMeta(image, StandardFormat.NUMERIC, tags);
+
+		verify(strategy, times(1)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+		assertThat(m1).hasSize(1).containsEntry(StandardTag.ISO, "100");
+		assertThat(m2).isSameAs(m1);
+		assertThat(exifTool.getMetadataCache()).isSameAs(cache);
+		assertThat(cache.stats().getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void it_should_not_get_image_metadata_from_cache_with_other_format() throws Exception {
+		exifTool.getImageMeta(image, StandardFormat.NUMERIC, tags);
+		exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags);
+
+		verify(strategy, times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	public void it_should_get_typed_values_from_cache() throws Exception {
+		List<StandardTag> standardTags = asList(StandardTag.ISO, StandardTag.ARTIST);
+
+		exifTool.getImageValues(image, StandardFormat.NUMERIC, standardTags);
+		int iso = exifTool.getImageValues(image, StandardFormat.NUMERIC, standardTags).getInt(StandardTag.ISO);
+
+		verify(strategy, times(1)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+		assertThat(iso).isEqualTo(100);
+	}
+
+	@Test
+	public void it_should_invalidate_cache_when_image_is_updated() throws Exception {
+		exifTool.getImageMeta(image, StandardFormat.NUMERIC, tags);
+		exifTool.setImageMeta(image, Collections.singletonMap(StandardTag.ARTIST, "foo"));
+		exifTool.getImageMeta(image, StandardFormat.NUMERIC, tags);
+
+		verify(strategy, times(3)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+		assertThat(cache.size()).isEqualTo(1);
+	}
+}
@@ -21,6 +21,7 @@ import com.thebuzzmedia.exiftool.core.StandardFormat;
 import com.thebuzzmedia.exiftool.core.StandardTag;
 import com.thebuzzmedia.exiftool.exceptions.UnwritableFileException;
 import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandContext;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandResult;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
@@ -87,7 +88,7 @@ public class ExifTool_setImageMeta_Test {
 		when(executor.execute(any(Command.class))).thenReturn(result);
 		when(strategy.isSupported(any(Version.class))).thenReturn(true);
 
-		exifTool = new ExifTool(path, executor, strategy);
+		exifTool = new ExifToolBuilder().withPath(path).withExecutor(executor).withStrategy(strategy).build();
 
 		reset(executor);
 	}
@@ -214,6 +215,23 @@ public class ExifTool_setImageMeta_Test {
 				);
 	}
 
+	@Test
+	public void it_should_describe_workload_of_write_command() throws Exception {
+		final File image = new FileBuilder("foo.png").build();
+
+		doAnswer(new WriteTagsAnswer())
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		exifTool.setImageMeta(image, StandardFormat.HUMAN_READABLE, tags);
+
+		ArgumentCaptor<OutputHandler> handlerCaptor = ArgumentCaptor.forClass(OutputHandler.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), handlerCaptor.capture());
+
+		CommandContext context = CommandContext.of(handlerCaptor.getValue());
+		assertThat(context.isWrite()).isTrue();
+		assertThat(context.getFiles()).containsExactly(image);
+	}
+
 	@Test
 	public void it_should_set_image_meta_data_in_numeric_format() throws Exception {
 		final File image = new FileBuilder("foo.png").build();
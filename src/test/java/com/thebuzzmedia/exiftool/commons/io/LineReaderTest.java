@@ -0,0 +1,110 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LineReaderTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Test
+	public void it_should_read_lines() throws Exception {
+		LineReader reader = create("first-line\nsecond-line\r\nthird-line\rlast-line");
+
+		assertThat(reader.readLine()).isEqualTo("first-line");
+		assertThat(reader.readLine()).isEqualTo("second-line");
+		assertThat(reader.readLine()).isEqualTo("third-line");
+		assertThat(reader.readLine()).isEqualTo("last-line");
+		assertThat(reader.readLine()).isNull();
+		assertThat(reader.readLine()).isNull();
+	}
+
+	@Test
+	public void it_should_read_empty_lines() throws Exception {
+		LineReader reader = create("\n\nfoo\n");
+
+		assertThat(reader.readLine()).isEmpty();
+		assertThat(reader.readLine()).isEmpty();
+		assertThat(reader.readLine()).isEqualTo("foo");
+		assertThat(reader.readLine()).isNull();
+	}
+
+	@Test
+	public void it_should_read_lines_larger_than_buffer() throws Exception {
+		LineReader reader = create("line-larger-than-buffer\r\nfoo\r\n", 4);
+
+		assertThat(reader.readLine()).isEqualTo("line-larger-than-buffer");
+		assertThat(reader.readLine()).isEqualTo("foo");
+		assertThat(reader.readLine()).isNull();
+	}
+
+	@Test
+	public void it_should_read_utf8_lines() throws Exception {
+		LineReader reader = create("line-with-accent: àéê\nfoo", 5);
+
+		assertThat(reader.readLine()).isEqualTo("line-with-accent: àéê");
+		assertThat(reader.readLine()).isEqualTo("foo");
+	}
+
+	@Test
+	public void it_should_count_bytes_read() throws Exception {
+		LineReader reader = create("àé\nfoo\r\nbar", 4);
+
+		assertThat(reader.getBytesRead()).isZero();
+		assertThat(reader.readLine()).isEqualTo("àé");
+		assertThat(reader.getBytesRead()).isEqualTo(5);
+		assertThat(reader.readLine()).isEqualTo("foo");
+		assertThat(reader.readLine()).isEqualTo("bar");
+		assertThat(reader.readLine()).isNull();
+		assertThat(reader.getBytesRead()).isEqualTo(13);
+	}
+
+	@Test
+	public void it_should_reuse_char_sequence() throws Exception {
+		LineReader reader = create("foo\nbar\n");
+
+		CharSequence first = reader.readChars();
+		assertThat(first.toString()).isEqualTo("foo");
+
+		CharSequence second = reader.readChars();
+		assertThat(second.toString()).isEqualTo("bar");
+		assertThat(second).isSameAs(first);
+
+		assertThat(reader.readChars()).isNull();
+	}
+
+	private static LineReader create(String output) {
+		return new LineReader(stream(output));
+	}
+
+	private static LineReader create(String output, int bufferSize) {
+		return new LineReader(stream(output), bufferSize);
+	}
+
+	private static InputStream stream(String output) {
+		return new ByteArrayInputStream(output.getBytes(UTF_8));
+	}
+}
@@ -44,4 +44,20 @@ public class StandardTagTest {
 				.hasSize(2)
 				.contains("foo", "bar");
 	}
+
+	@Test
+	public void it_should_find_tag_from_name() {
+		for (StandardTag tag : StandardTag.values()) {
+			assertThat(StandardTag.fromName(tag.getDisplayName())).isSameAs(tag);
+			assertThat(StandardTag.fromName(new StringBuilder(tag.getDisplayName()))).isSameAs(tag);
+		}
+	}
+
+	@Test
+	public void it_should_not_find_unknown_tag_from_name() {
+		assertThat(StandardTag.fromName("Foo")).isNull();
+		assertThat(StandardTag.fromName("IS")).isNull();
+		assertThat(StandardTag.fromName("ISOS")).isNull();
+		assertThat(StandardTag.fromName("")).isNull();
+	}
 }
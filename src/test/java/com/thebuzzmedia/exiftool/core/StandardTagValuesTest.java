@@ -0,0 +1,128 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Tag;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StandardTagValuesTest {
+
+	@Test
+	public void it_should_parse_string_values() {
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, "100");
+		tags.put(StandardTag.FNUMBER, "2.8");
+		tags.put(StandardTag.GPS_LONGITUDE, "-2.5");
+		tags.put(StandardTag.FILE_SIZE, "5000000000");
+		tags.put(StandardTag.MAKE, "Apple");
+
+		StandardTagValues values = StandardTagValues.of(tags);
+
+		assertThat(values.size()).isEqualTo(5);
+		assertThat(values.getInt(StandardTag.ISO)).isEqualTo(100);
+		assertThat(values.getDouble(StandardTag.ISO)).isEqualTo(100.0);
+		assertThat(values.getDouble(StandardTag.FNUMBER)).isEqualTo(2.8);
+		assertThat(values.getDouble(StandardTag.GPS_LONGITUDE)).isEqualTo(-2.5);
+		assertThat(values.getLong(StandardTag.FILE_SIZE)).isEqualTo(5000000000L);
+		assertThat(values.getString(StandardTag.MAKE)).isEqualTo("Apple");
+		assertThat(values.getString(StandardTag.FNUMBER)).isEqualTo("2.8");
+		assertThat(values.isNumber(StandardTag.FNUMBER)).isTrue();
+		assertThat(values.isNumber(StandardTag.MAKE)).isFalse();
+	}
+
+	@Test
+	public void it_should_use_decoded_values() {
+		Map<Tag, Object> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, 100L);
+		tags.put(StandardTag.GPS_LATITUDE, 48.8577);
+		tags.put(StandardTag.IPTC_KEYWORDS, asList("foo", "bar"));
+
+		StandardTagValues values = StandardTagValues.of(tags);
+
+		assertThat(values.getInt(StandardTag.ISO)).isEqualTo(100);
+		assertThat(values.getString(StandardTag.ISO)).isEqualTo("100");
+		assertThat(values.getDouble(StandardTag.GPS_LATITUDE)).isEqualTo(48.8577);
+		assertThat(values.getString(StandardTag.IPTC_KEYWORDS)).isEqualTo("foo|>☃bar");
+	}
+
+	@Test
+	public void it_should_map_tags_by_name() {
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(new UnspecifiedTag("ISO"), "200");
+		tags.put(new UnspecifiedTag("Unknown"), "foo");
+
+		StandardTagValues values = StandardTagValues.of(tags);
+
+		assertThat(values.size()).isEqualTo(1);
+		assertThat(values.getInt(StandardTag.ISO)).isEqualTo(200);
+	}
+
+	@Test
+	public void it_should_keep_values_that_are_not_numbers() {
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.EXPOSURE_TIME, "1/60");
+
+		final StandardTagValues values = StandardTagValues.of(tags);
+
+		assertThat(values.has(StandardTag.EXPOSURE_TIME)).isTrue();
+		assertThat(values.isNumber(StandardTag.EXPOSURE_TIME)).isFalse();
+		assertThat(values.getString(StandardTag.EXPOSURE_TIME)).isEqualTo("1/60");
+		assertThat(values.getDouble(StandardTag.EXPOSURE_TIME, -1.0)).isEqualTo(-1.0);
+
+		ThrowingCallable getDouble = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				values.getDouble(StandardTag.EXPOSURE_TIME);
+			}
+		};
+
+		assertThatThrownBy(getDouble)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Value of tag EXPOSURE_TIME is not a number: 1/60");
+	}
+
+	@Test
+	public void it_should_fail_to_get_missing_values() {
+		final StandardTagValues values = StandardTagValues.of(new LinkedHashMap<Tag, String>());
+
+		assertThat(values.has(StandardTag.ISO)).isFalse();
+		assertThat(values.getString(StandardTag.ISO)).isNull();
+		assertThat(values.getInt(StandardTag.ISO, 0)).isEqualTo(0);
+
+		ThrowingCallable getInt = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				values.getInt(StandardTag.ISO);
+			}
+		};
+
+		assertThatThrownBy(getInt)
+				.isInstanceOf(NoSuchElementException.class)
+				.hasMessage("No value available for tag ISO");
+	}
+}
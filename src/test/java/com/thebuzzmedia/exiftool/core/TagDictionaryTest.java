@@ -0,0 +1,60 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagDictionaryTest {
+
+	@Test
+	public void it_should_get_standard_tag() {
+		assertThat(TagDictionary.tag("ISO")).isSameAs(StandardTag.ISO);
+		assertThat(TagDictionary.tag(new StringBuilder("Make"))).isSameAs(StandardTag.MAKE);
+	}
+
+	@Test
+	public void it_should_get_canonical_unspecified_tag() {
+		UnspecifiedTag t1 = TagDictionary.unspecifiedTag("CustomTag");
+		UnspecifiedTag t2 = TagDictionary.unspecifiedTag(new StringBuilder("CustomTag"));
+
+		assertThat(t1).isEqualTo(new UnspecifiedTag("CustomTag")).isSameAs(t2);
+		assertThat(TagDictionary.tag("CustomTag")).isSameAs(t1);
+		assertThat(TagDictionary.unspecifiedTag("ISO")).isEqualTo(new UnspecifiedTag("ISO"));
+	}
+
+	@Test
+	public void it_should_get_canonical_value() {
+		String v1 = TagDictionary.value("Make: Canon", 6, 11);
+		String v2 = TagDictionary.value(new StringBuilder("Canon"), 0, 5);
+
+		assertThat(v1).isEqualTo("Canon").isSameAs(v2);
+		assertThat(TagDictionary.value("Make: Cano", 6, 10)).isEqualTo("Cano");
+	}
+
+	@Test
+	public void it_should_check_tags_with_repeated_values() {
+		assertThat(TagDictionary.hasRepeatedValues(StandardTag.MODEL)).isTrue();
+		assertThat(TagDictionary.hasRepeatedValues(new UnspecifiedTag("LensModel"))).isTrue();
+		assertThat(TagDictionary.hasRepeatedValues(StandardTag.ISO)).isFalse();
+		assertThat(TagDictionary.hasRepeatedValues(new UnspecifiedTag("Foo"))).isFalse();
+		assertThat(TagDictionary.hasRepeatedValues(TagDictionary.unspecifiedTag("FileType"))).isTrue();
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.MetadataCacheKey;
+import com.thebuzzmedia.exiftool.MetadataCacheStats;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardFormat;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public abstract class AbstractMetadataCacheTest<T extends MetadataCache> {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File image;
+
+	private MetadataCacheKey key;
+
+	private Map<Tag, String> tags;
+
+	@Before
+	public void setUp() throws Exception {
+		image = tmp.newFile("image.jpg");
+		key = MetadataCacheKey.of(image, StandardFormat.NUMERIC, asList(StandardTag.ISO, StandardTag.ARTIST));
+		tags = Collections.<Tag, String>singletonMap(StandardTag.ISO, "100");
+	}
+
+	@Test
+	public void it_should_get_cached_metadata() {
+		MetadataCache cache = create(10, 0);
+		assertThat(cache.get(key)).isNull();
+
+		cache.put(key, tags);
+
+		MetadataCacheKey other = MetadataCacheKey.of(image, StandardFormat.NUMERIC, asList(StandardTag.ARTIST, StandardTag.ISO));
+		assertThat(cache.get(other)).isSameAs(tags);
+		assertThat(cache.size()).isEqualTo(1);
+
+		MetadataCacheStats stats = cache.stats();
+		assertThat(stats.getHitCount()).isEqualTo(1);
+		assertThat(stats.getMissCount()).isEqualTo(1);
+		assertThat(stats.getHitRate()).isEqualTo(0.5);
+	}
+
+	@Test
+	public void it_should_not_get_metadata_of_other_format_or_tags() {
+		MetadataCache cache = create(10, 0);
+		cache.put(key, tags);
+
+		assertThat(cache.get(MetadataCacheKey.of(image, StandardFormat.HUMAN_READABLE, asList(StandardTag.ISO, StandardTag.ARTIST)))).isNull();
+		assertThat(cache.get(MetadataCacheKey.of(image, StandardFormat.NUMERIC, asList(StandardTag.ISO)))).isNull();
+	}
+
+	@Test
+	public void it_should_not_get_metadata_of_modified_image() {
+		MetadataCache cache = create(10, 0);
+		cache.put(key, tags);
+
+		assertThat(image.setLastModified(image.lastModified() - 10000)).isTrue();
+
+		assertThat(cache.get(MetadataCacheKey.of(image, StandardFormat.NUMERIC, asList(StandardTag.ISO, StandardTag.ARTIST)))).isNull();
+	}
+
+	@Test
+	public void it_should_invalidate_image() throws Exception {
+		MetadataCache cache = create(10, 0);
+		cache.put(key, tags);
+
+		File other = tmp.newFile("other.jpg");
+		MetadataCacheKey otherKey = MetadataCacheKey.of(other, StandardFormat.NUMERIC, asList(StandardTag.ISO));
+		cache.put(otherKey, tags);
+
+		cache.invalidate(new File(image.getParentFile(), "../" + image.getParentFile().getName() + "/image.jpg"));
+
+		assertThat(cache.get(key)).isNull();
+		assertThat(cache.get(otherKey)).isSameAs(tags);
+	}
+
+	@Test
+	public void it_should_evict_entries_when_maximum_size_is_reached() throws Exception {
+		MetadataCache cache = create(1, 0);
+		cache.put(key, tags);
+
+		MetadataCacheKey otherKey = MetadataCacheKey.of(tmp.newFile("other.jpg"), StandardFormat.NUMERIC, asList(StandardTag.ISO));
+		cache.put(otherKey, tags);
+
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.get(key)).isNull();
+		assertThat(cache.get(otherKey)).isSameAs(tags);
+		assertThat(cache.stats().getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void it_should_expire_entries() throws Exception {
+		MetadataCache cache = create(10, 10);
+		cache.put(key, tags);
+
+		Thread.sleep(50);
+
+		assertThat(cache.get(key)).isNull();
+	}
+
+	@Test
+	public void it_should_clear_cache() {
+		MetadataCache cache = create(10, 0);
+		cache.put(key, tags);
+		assertThat(cache.size()).isEqualTo(1);
+
+		cache.clear();
+		assertThat(cache.size()).isZero();
+	}
+
+	/**
+	 * Create the cache implementation.
+	 *
+	 * @param maximumSize Maximum number of entries.
+	 * @param expireAfterWrite Time to live of entries, in milliseconds.
+	 * @return Cache implementation.
+	 */
+	protected abstract T create(long maximumSize, long expireAfterWrite);
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCacheKey;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.NonConvertedTag;
+import com.thebuzzmedia.exiftool.core.StandardFormat;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FileMetadataCacheTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File directory;
+
+	private File image;
+
+	private MetadataCacheKey key;
+
+	private Map<Tag, String> tags;
+
+	private FileMetadataCache cache;
+
+	private Executor directExecutor;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = tmp.newFolder("cache");
+		image = tmp.newFile("image.jpg");
+		key = MetadataCacheKey.of(image, StandardFormat.NUMERIC, asList(StandardTag.ISO, StandardTag.ARTIST));
+
+		tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, "100");
+		tags.put(new UnspecifiedTag("Custom"), "foo\nbar");
+		tags.put(NonConvertedTag.of(StandardTag.ARTIST), "☃");
+
+		cache = new FileMetadataCache(directory, 1024 * 1024);
+
+		directExecutor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		cache.close();
+	}
+
+	@Test
+	public void it_should_get_cached_metadata() {
+		assertThat(cache.get(key)).isNull();
+
+		cache.put(key, tags);
+
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.get(key)).isEqualTo(tags);
+		assertThat(cache.stats().getHitCount()).isEqualTo(1);
+		assertThat(cache.stats().getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void it_should_load_entries_after_restart() throws Exception {
+		cache.put(key, tags);
+		cache.close();
+
+		cache = new FileMetadataCache(directory, 1024 * 1024);
+
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.get(key)).isEqualTo(tags);
+	}
+
+	@Test
+	public void it_should_detect_stale_entries() throws Exception {
+		cache.put(key, tags);
+
+		assertThat(image.setLastModified(image.lastModified() - 10000)).isTrue();
+		MetadataCacheKey newKey = MetadataCacheKey.of(image, StandardFormat.NUMERIC, asList(StandardTag.ISO, StandardTag.ARTIST));
+
+		assertThat(cache.get(newKey)).isNull();
+		assertThat(cache.size()).isZero();
+		assertThat(cache.stats().getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void it_should_invalidate_entries_after_restart() throws Exception {
+		cache.put(key, tags);
+		cache.invalidate(image);
+		assertThat(cache.get(key)).isNull();
+		cache.close();
+
+		cache = new FileMetadataCache(directory, 1024 * 1024);
+
+		assertThat(cache.size()).isZero();
+		assertThat(cache.get(key)).isNull();
+	}
+
+	@Test
+	public void it_should_ignore_truncated_records() throws Exception {
+		cache.put(key, tags);
+		cache.close();
+
+		File file = new File(directory, FileMetadataCache.FILE_NAME);
+		long size = file.length();
+		try (OutputStream output = new FileOutputStream(file, true)) {
+			output.write(new byte[]{0, 0, 1, 0, 1, 2});
+		}
+
+		cache = new FileMetadataCache(directory, 1024 * 1024);
+
+		assertThat(cache.get(key)).isEqualTo(tags);
+		assertThat(file.length()).isEqualTo(size);
+	}
+
+	@Test
+	public void it_should_compact_file_and_evict_oldest_entries() throws Exception {
+		cache.close();
+		cache = new FileMetadataCache(directory, 2048, directExecutor);
+
+		for (int i = 0; i < 100; i++) {
+			File other = tmp.newFile("image-" + i + ".jpg");
+			cache.put(MetadataCacheKey.of(other, StandardFormat.NUMERIC, asList(StandardTag.ISO)), tags);
+		}
+
+		File file = new File(directory, FileMetadataCache.FILE_NAME);
+		assertThat(file.length()).isLessThanOrEqualTo(2048);
+		assertThat(cache.size()).isPositive().isLessThan(100);
+		assertThat(cache.stats().getEvictionCount()).isEqualTo(100 - cache.size());
+
+		File last = new File(tmp.getRoot(), "image-99.jpg");
+		assertThat(cache.get(MetadataCacheKey.of(last, StandardFormat.NUMERIC, asList(StandardTag.ISO)))).isEqualTo(tags);
+		assertThat(new File(directory, FileMetadataCache.FILE_NAME + ".tmp")).doesNotExist();
+	}
+
+	@Test
+	public void it_should_keep_entries_if_compaction_fails() throws Exception {
+		cache.close();
+		cache = new FileMetadataCache(directory, 2048, directExecutor);
+
+		// The compacted file cannot be created.
+		File tmpFile = new File(directory, FileMetadataCache.FILE_NAME + ".tmp");
+		assertThat(tmpFile.mkdir()).isTrue();
+
+		for (int i = 0; i < 20; i++) {
+			File other = tmp.newFile("image-" + i + ".jpg");
+			cache.put(MetadataCacheKey.of(other, StandardFormat.NUMERIC, asList(StandardTag.ISO)), tags);
+		}
+
+		assertThat(cache.size()).isEqualTo(20);
+		assertThat(cache.stats().getEvictionCount()).isZero();
+
+		File first = new File(tmp.getRoot(), "image-0.jpg");
+		assertThat(cache.get(MetadataCacheKey.of(first, StandardFormat.NUMERIC, asList(StandardTag.ISO)))).isEqualTo(tags);
+
+		// Compaction succeeds once the compacted file can be created.
+		assertThat(tmpFile.delete()).isTrue();
+		cache.put(key, tags);
+
+		assertThat(new File(directory, FileMetadataCache.FILE_NAME).length()).isLessThanOrEqualTo(2048);
+		assertThat(cache.get(key)).isEqualTo(tags);
+		assertThat(cache.stats().getEvictionCount()).isEqualTo(21 - cache.size());
+	}
+
+	@Test
+	public void it_should_compact_file_in_background() throws Exception {
+		cache.close();
+		cache = new FileMetadataCache(directory, 4096);
+
+		final List<MetadataCacheKey> keys = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			File other = tmp.newFile("image-" + i + ".jpg");
+			MetadataCacheKey otherKey = MetadataCacheKey.of(other, StandardFormat.NUMERIC, asList(StandardTag.ISO));
+			keys.add(otherKey);
+			cache.put(otherKey, tags);
+
+			// Entries added while the log file is being compacted must not be lost.
+			assertThat(cache.get(otherKey)).isEqualTo(tags);
+		}
+
+		// Wait for the pending compaction, then check the log file matches the index.
+		cache.close();
+		cache = new FileMetadataCache(directory, 4096, directExecutor);
+
+		assertThat(cache.size()).isPositive().isLessThan(300);
+		assertThat(cache.get(keys.get(299))).isEqualTo(tags);
+		for (MetadataCacheKey otherKey : keys) {
+			Map<Tag, String> values = cache.get(otherKey);
+			assertThat(values == null || values.equals(tags)).isTrue();
+		}
+
+		assertThat(cache.stats().getHitCount()).isEqualTo(cache.size() + 1);
+		assertThat(new File(directory, FileMetadataCache.FILE_NAME + ".tmp")).doesNotExist();
+	}
+
+	@Test
+	public void it_should_read_entries_while_compaction_is_pending() throws Exception {
+		final List<Runnable> tasks = new ArrayList<>();
+		cache.close();
+		cache = new FileMetadataCache(directory, 2048, new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		});
+
+		for (int i = 0; i < 20; i++) {
+			File other = tmp.newFile("image-" + i + ".jpg");
+			cache.put(MetadataCacheKey.of(other, StandardFormat.NUMERIC, asList(StandardTag.ISO)), tags);
+		}
+
+		// Only one compaction is submitted, and entries are still available until it runs.
+		assertThat(tasks).hasSize(1);
+		assertThat(cache.size()).isEqualTo(20);
+		assertThat(new File(directory, FileMetadataCache.FILE_NAME).length()).isGreaterThan(2048);
+
+		File first = new File(tmp.getRoot(), "image-0.jpg");
+		assertThat(cache.get(MetadataCacheKey.of(first, StandardFormat.NUMERIC, asList(StandardTag.ISO)))).isEqualTo(tags);
+
+		tasks.get(0).run();
+
+		assertThat(new File(directory, FileMetadataCache.FILE_NAME).length()).isLessThanOrEqualTo(2048);
+		assertThat(cache.size()).isLessThan(20);
+		assertThat(cache.stats().getEvictionCount()).isEqualTo(20 - cache.size());
+
+		File last = new File(tmp.getRoot(), "image-19.jpg");
+		assertThat(cache.get(MetadataCacheKey.of(last, StandardFormat.NUMERIC, asList(StandardTag.ISO)))).isEqualTo(tags);
+	}
+
+	@Test
+	public void it_should_not_open_cache_used_by_another_cache() {
+		ThrowingCallable newCache = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				new FileMetadataCache(directory, 1024 * 1024);
+			}
+		};
+
+		assertThatThrownBy(newCache)
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("is already used by another cache");
+	}
+
+	@Test
+	public void it_should_lock_compacted_file() throws Exception {
+		cache.close();
+		cache = new FileMetadataCache(directory, 2048, directExecutor);
+
+		for (int i = 0; i < 100; i++) {
+			File other = tmp.newFile("image-" + i + ".jpg");
+			cache.put(MetadataCacheKey.of(other, StandardFormat.NUMERIC, asList(StandardTag.ISO)), tags);
+		}
+
+		ThrowingCallable newCache = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				new FileMetadataCache(directory, 2048, directExecutor);
+			}
+		};
+
+		assertThatThrownBy(newCache)
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("is already used by another cache");
+	}
+
+	@Test
+	public void it_should_not_store_unsupported_tags() {
+		Tag custom = mock(Tag.class);
+		when(custom.getName()).thenReturn("Custom");
+		when(custom.getDisplayName()).thenReturn("Custom");
+
+		Map<Tag, String> values = new LinkedHashMap<>();
+		values.put(custom, "foo");
+		cache.put(key, values);
+
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void it_should_clear_cache() {
+		cache.put(key, tags);
+		cache.clear();
+
+		assertThat(cache.size()).isZero();
+		assertThat(new File(directory, FileMetadataCache.FILE_NAME)).hasContent("");
+	}
+}
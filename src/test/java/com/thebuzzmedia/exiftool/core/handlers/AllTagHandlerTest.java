@@ -19,6 +19,7 @@ package com.thebuzzmedia.exiftool.core.handlers;
 
 import com.thebuzzmedia.exiftool.Constants;
 import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
 import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
 import org.junit.Test;
 
@@ -109,4 +110,61 @@ public class AllTagHandlerTest {
 		assertThat(tag.parse(results.get(tag)))
 				.isEqualTo(new String[]{"foo", "bar"});
 	}
+
+	@Test
+	public void it_should_read_canonical_tags() {
+		AllTagHandler h1 = new AllTagHandler();
+		h1.readLine("baz: foo");
+
+		AllTagHandler h2 = new AllTagHandler();
+		h2.readLine("baz: bar");
+
+		Tag t1 = h1.getTags().keySet().iterator().next();
+		Tag t2 = h2.getTags().keySet().iterator().next();
+		assertThat(t1)
+				.isEqualTo(new UnspecifiedTag("baz"))
+				.isSameAs(t2);
+	}
+
+	@Test
+	public void it_should_read_standard_tags() {
+		AllTagHandler handler = new AllTagHandler(true);
+		handler.readLine("ISO: 100");
+		handler.readLine("baz: foo");
+
+		Map<Tag, String> results = handler.getTags();
+		assertThat(results)
+				.hasSize(2)
+				.containsEntry(StandardTag.ISO, "100")
+				.containsEntry(new UnspecifiedTag("baz"), "foo");
+
+		Integer iso = StandardTag.ISO.parse(results.get(StandardTag.ISO));
+		assertThat(iso).isEqualTo(100);
+	}
+
+	@Test
+	public void it_should_deduplicate_repeated_values() {
+		AllTagHandler h1 = new AllTagHandler(false, true);
+		h1.readLine("Make: Canon");
+
+		AllTagHandler h2 = new AllTagHandler(true, true);
+		h2.readLine("Make: Canon");
+
+		assertThat(h1.getTags().get(new UnspecifiedTag("Make")))
+				.isEqualTo("Canon")
+				.isSameAs(h2.getTags().get(StandardTag.MAKE));
+	}
+
+	@Test
+	public void it_should_not_deduplicate_repeated_values_by_default() {
+		AllTagHandler h1 = new AllTagHandler();
+		h1.readLine("Make: Nikon");
+
+		AllTagHandler h2 = new AllTagHandler(true);
+		h2.readLine("Make: Nikon");
+
+		assertThat(h1.getTags().get(new UnspecifiedTag("Make")))
+				.isEqualTo("Nikon")
+				.isNotSameAs(h2.getTags().get(StandardTag.MAKE));
+	}
 }
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.ImageMetaResult;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchTagHandlerTest {
+
+	private List<? extends Tag> inputs;
+	private File f1;
+	private File f2;
+
+	@Before
+	public void setUp() {
+		inputs = asList(
+				StandardTag.APERTURE,
+				StandardTag.ARTIST
+		);
+
+		f1 = new FileBuilder("f1.jpg").build();
+		f2 = new FileBuilder("f2.jpg").build();
+	}
+
+	@Test
+	public void it_should_stop_on_last_line() {
+		BatchTagHandler handler = new BatchTagHandler(asList(f1, f2), inputs);
+		assertThat(handler.readLine("{ready}")).isFalse();
+		assertThat(handler.readLine(null)).isFalse();
+	}
+
+	@Test
+	public void it_should_read_tags_of_each_section() {
+		BatchTagHandler handler = new BatchTagHandler(asList(f1, f2), inputs);
+		handler.readLine("======== /tmp/f1.jpg");
+		handler.readLine("Artist: foo");
+		handler.readLine("======== /tmp/f2.jpg");
+		handler.readLine("Artist: bar");
+		handler.readLine("ApertureValue: 2.8");
+		handler.readLine("    2 image files read");
+		handler.readLine("{ready}");
+
+		Map<File, ImageMetaResult> results = handler.getResults();
+		assertThat(results).hasSize(2);
+		assertThat(results.keySet()).containsExactly(f1, f2);
+
+		ImageMetaResult r1 = results.get(f1);
+		assertThat(r1.isSuccess()).isTrue();
+		assertThat(r1.getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "foo");
+
+		ImageMetaResult r2 = results.get(f2);
+		assertThat(r2.isSuccess()).isTrue();
+		assertThat(r2.getTags()).hasSize(2)
+				.containsEntry(StandardTag.ARTIST, "bar")
+				.containsEntry(StandardTag.APERTURE, "2.8");
+	}
+
+	@Test
+	public void it_should_read_tags_of_single_file_without_section() {
+		BatchTagHandler handler = new BatchTagHandler(singletonList(f1), inputs);
+		handler.readLine("Artist: foo");
+		handler.readLine("{ready}");
+
+		ImageMetaResult result = handler.getResults().get(f1);
+		assertThat(result.isSuccess()).isTrue();
+		assertThat(result.getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "foo");
+	}
+
+	@Test
+	public void it_should_return_failure_for_file_with_error() {
+		BatchTagHandler handler = new BatchTagHandler(asList(f1, f2), inputs);
+		handler.readLine("======== /tmp/f1.jpg");
+		handler.readLine("Error: Unknown file type");
+		handler.readLine("======== /tmp/f2.jpg");
+		handler.readLine("Artist: bar");
+		handler.readLine("{ready}");
+
+		Map<File, ImageMetaResult> results = handler.getResults();
+		assertThat(results.get(f1).isFailure()).isTrue();
+		assertThat(results.get(f1).getError()).isEqualTo("Unknown file type");
+		assertThat(results.get(f1).getTags()).isEmpty();
+		assertThat(results.get(f2).isSuccess()).isTrue();
+	}
+
+	@Test
+	public void it_should_return_failure_for_missing_file() {
+		BatchTagHandler handler = new BatchTagHandler(asList(f1, f2), inputs);
+		handler.readLine("======== /tmp/f2.jpg");
+		handler.readLine("Artist: bar");
+		handler.readLine("{ready}");
+
+		Map<File, ImageMetaResult> results = handler.getResults();
+		assertThat(results.get(f1).isFailure()).isTrue();
+		assertThat(results.get(f2).isSuccess()).isTrue();
+	}
+
+	@Test
+	public void it_should_attribute_warnings_to_files() {
+		BatchTagHandler handler = new BatchTagHandler(asList(f1, f2), inputs);
+		handler.readLine("======== /tmp/f1.jpg");
+		handler.readLine("Artist: foo");
+		handler.readLine("{ready}");
+
+		handler.readError("Error: File not found - /tmp/f2.jpg");
+		handler.readError("Warning: Invalid -echo number");
+
+		Map<File, ImageMetaResult> results = handler.getResults();
+		assertThat(results.get(f1).getWarnings()).isEmpty();
+		assertThat(results.get(f2).isFailure()).isTrue();
+		assertThat(results.get(f2).getWarnings()).containsExactly(
+				"Error: File not found - /tmp/f2.jpg"
+		);
+
+		assertThat(handler.getWarnings()).containsExactly(
+				"Warning: Invalid -echo number"
+		);
+	}
+
+	@Test
+	public void it_should_attribute_warnings_to_single_file() {
+		BatchTagHandler handler = new BatchTagHandler(singletonList(f1), inputs);
+		handler.readLine("Artist: foo");
+		handler.readLine("{ready}");
+
+		handler.readError("Warning: Invalid -echo number");
+
+		Map<File, ImageMetaResult> results = handler.getResults();
+		assertThat(results.get(f1).getWarnings()).containsExactly(
+				"Warning: Invalid -echo number"
+		);
+
+		assertThat(handler.getWarnings()).isEmpty();
+	}
+
+	@Test
+	public void it_should_read_json_output() {
+		BatchTagHandler handler = new BatchTagHandler(asList(f1, f2), inputs, true);
+		handler.readLine("[{");
+		handler.readLine("  \"SourceFile\": \"/tmp/f1.jpg\",");
+		handler.readLine("  \"Artist\": \"foo\"");
+		handler.readLine("},");
+		handler.readLine("{");
+		handler.readLine("  \"SourceFile\": \"/tmp/f2.jpg\",");
+		handler.readLine("  \"Error\": \"Unknown file type\"");
+		handler.readLine("}]");
+		assertThat(handler.readLine("{ready}")).isFalse();
+		handler.readError("    2 image files read");
+
+		Map<File, ImageMetaResult> results = handler.getResults();
+		assertThat(results.get(f1).isSuccess()).isTrue();
+		assertThat(results.get(f1).getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "foo");
+		assertThat(results.get(f2).isFailure()).isTrue();
+		assertThat(results.get(f2).getError()).isEqualTo("Unknown file type");
+		assertThat(results.get(f2).getWarnings()).isEmpty();
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonReaderTest {
+
+	@Test
+	public void it_should_read_object() {
+		JsonReader reader = new JsonReader("[{\"SourceFile\": \"/tmp/foo.jpg\", \"ISO\": 40, \"FNumber\": 2.4, \"Flag\": true, \"None\": null}]");
+
+		reader.beginArray();
+		assertThat(reader.hasNext()).isTrue();
+
+		reader.beginObject();
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("SourceFile");
+		assertThat(reader.nextValue()).isEqualTo("/tmp/foo.jpg");
+
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("ISO");
+		assertThat(reader.nextValue()).isEqualTo(40L);
+
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("FNumber");
+		assertThat(reader.nextValue()).isEqualTo(2.4);
+
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("Flag");
+		assertThat(reader.nextValue()).isEqualTo(true);
+
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("None");
+		assertThat(reader.nextValue()).isNull();
+
+		assertThat(reader.hasNext()).isFalse();
+		reader.endObject();
+
+		assertThat(reader.hasNext()).isFalse();
+		reader.endArray();
+	}
+
+	@Test
+	public void it_should_read_numbers() {
+		assertThat(read("0")).isEqualTo(0L);
+		assertThat(read("-12")).isEqualTo(-12L);
+		assertThat(read("9223372036854775807")).isEqualTo(Long.MAX_VALUE);
+		assertThat(read("0.0005379236148")).isEqualTo(0.0005379236148);
+		assertThat(read("1.525878906e-08")).isEqualTo(1.525878906e-08);
+		assertThat(read("-32.8011111111111")).isEqualTo(-32.8011111111111);
+		assertThat(read("5.0")).isEqualTo(5.0);
+		assertThat(read("1E3")).isEqualTo(1000.0);
+		assertThat(read("0.12345678901234567890")).isEqualTo(0.12345678901234567890);
+		assertThat(read("123456789012345678901234")).isEqualTo(123456789012345678901234.0);
+	}
+
+	@Test
+	public void it_should_read_strings() {
+		assertThat(read("\"foo\"")).isEqualTo("foo");
+		assertThat(read("\"multi\\nline\"")).isEqualTo("multi\nline");
+		assertThat(read("\"32 deg 48' 4.00\\\" N\"")).isEqualTo("32 deg 48' 4.00\" N");
+		assertThat(read("\"caf\\u00e9 \\/ \\\\\"")).isEqualTo("café / \\");
+	}
+
+	@Test
+	public void it_should_read_arrays_and_objects() {
+		assertThat(read("[\"a\", 1, [2.5]]")).isEqualTo(asList("a", 1L, asList(2.5)));
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> map = (Map<String, Object>) read("{\"a\": [], \"b\": {\"c\": \"d\"}}");
+		assertThat(map).containsOnlyKeys("a", "b");
+		assertThat((List<?>) map.get("a")).isEmpty();
+		assertThat(map.get("b").toString()).isEqualTo("{c=d}");
+	}
+
+	@Test
+	public void it_should_skip_values() {
+		JsonReader reader = new JsonReader("{\"a\": {\"b\": [1, \"x\\\"]\", {}]}, \"c\": -1.5e3, \"d\": false, \"e\": \"f\"}");
+
+		reader.beginObject();
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("a");
+		reader.skipValue();
+
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("c");
+		reader.skipValue();
+
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("d");
+		reader.skipValue();
+
+		assertThat(reader.hasNext()).isTrue();
+		assertThat(reader.nextName()).isEqualTo("e");
+		assertThat(reader.nextValue()).isEqualTo("f");
+
+		assertThat(reader.hasNext()).isFalse();
+		reader.endObject();
+	}
+
+	@Test
+	public void it_should_check_if_document_is_empty() {
+		assertThat(new JsonReader(" \n").isEmpty()).isTrue();
+		assertThat(new JsonReader(" []").isEmpty()).isFalse();
+	}
+
+	@Test
+	public void it_should_fail_with_invalid_document() {
+		ThrowingCallable read = new ThrowingCallable() {
+			@Override
+			public void call() {
+				new JsonReader("[\"foo").nextValue();
+			}
+		};
+
+		assertThatThrownBy(read)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid JSON output (position 5): Unterminated string");
+	}
+
+	private static Object read(String json) {
+		return new JsonReader(json).nextValue();
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonTagHandlerTest {
+
+	private List<? extends Tag> inputs;
+
+	@Before
+	public void setUp() {
+		inputs = asList(
+				StandardTag.ISO,
+				StandardTag.ARTIST,
+				StandardTag.IPTC_KEYWORDS
+		);
+	}
+
+	@Test
+	public void it_should_read_null_line() {
+		JsonTagHandler handler = new JsonTagHandler(inputs);
+		assertThat(handler.readLine(null)).isFalse();
+		assertThat(handler.getTags()).isEmpty();
+		assertThat(handler.getValues()).isEmpty();
+	}
+
+	@Test
+	public void it_should_read_typed_values() {
+		JsonTagHandler handler = new JsonTagHandler(inputs);
+
+		assertThat(handler.readLine("[{")).isTrue();
+		assertThat(handler.readLine("  \"SourceFile\": \"/tmp/foo.jpg\",")).isTrue();
+		assertThat(handler.readLine("  \"ISO\": 40,")).isTrue();
+		assertThat(handler.readLine("  \"Artist\": \"multi\\nline\",")).isTrue();
+		assertThat(handler.readLine("  \"Keywords\": [\"a\",\"b\"],")).isTrue();
+		assertThat(handler.readLine("  \"Make\": \"Sony\"")).isTrue();
+		assertThat(handler.readLine("}]")).isTrue();
+		assertThat(handler.readLine("{ready}")).isFalse();
+
+		assertThat(handler.size()).isEqualTo(3);
+		assertThat(handler.getValues())
+				.hasSize(3)
+				.containsEntry(StandardTag.ISO, 40L)
+				.containsEntry(StandardTag.ARTIST, "multi\nline")
+				.containsEntry(StandardTag.IPTC_KEYWORDS, asList("a", "b"));
+
+		assertThat(handler.getTags())
+				.hasSize(3)
+				.containsEntry(StandardTag.ISO, "40")
+				.containsEntry(StandardTag.ARTIST, "multi\nline")
+				.containsEntry(StandardTag.IPTC_KEYWORDS, "a|>☃b");
+
+		assertThat(handler.getValues("/tmp/foo.jpg")).isEqualTo(handler.getValues());
+	}
+
+	@Test
+	public void it_should_split_values_joined_with_separator() {
+		JsonTagHandler handler = new JsonTagHandler(inputs);
+		handler.readLine("[{\"SourceFile\": \"/tmp/foo.jpg\", \"Keywords\": \"a|>☃b\"}]");
+		handler.readLine(null);
+
+		assertThat(handler.getValues()).containsEntry(StandardTag.IPTC_KEYWORDS, asList("a", "b"));
+		assertThat(handler.getTags()).containsEntry(StandardTag.IPTC_KEYWORDS, "a|>☃b");
+	}
+
+	@Test
+	public void it_should_read_all_tags() {
+		JsonTagHandler handler = new JsonTagHandler();
+		handler.readChars(new StringBuilder("[{\"SourceFile\": \"/tmp/foo.jpg\", \"ISO\": 40, \"FNumber\": 2.4}]"));
+		handler.readChars(new StringBuilder("{ready}"));
+
+		assertThat(handler.getValues())
+				.hasSize(2)
+				.containsEntry(new UnspecifiedTag("ISO"), 40L)
+				.containsEntry(new UnspecifiedTag("FNumber"), 2.4);
+	}
+
+	@Test
+	public void it_should_read_values_of_several_files() {
+		JsonTagHandler handler = new JsonTagHandler(inputs);
+		handler.readLine("[{\"SourceFile\": \"/tmp/foo.jpg\", \"ISO\": 40},");
+		handler.readLine("{\"SourceFile\": \"/tmp/bar.jpg\", \"ISO\": 100}]");
+		handler.readLine("{ready}");
+
+		assertThat(handler.getValues("/tmp/foo.jpg")).containsEntry(StandardTag.ISO, 40L);
+		assertThat(handler.getValues("/tmp/bar.jpg")).containsEntry(StandardTag.ISO, 100L);
+		assertThat(handler.getTags("/tmp/bar.jpg")).containsEntry(StandardTag.ISO, "100");
+		assertThat(handler.getValues("/tmp/none.jpg")).isNull();
+		assertThat(handler.getTags("/tmp/none.jpg")).isNull();
+	}
+}
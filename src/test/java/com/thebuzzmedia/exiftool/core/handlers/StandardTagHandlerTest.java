@@ -19,9 +19,12 @@ package com.thebuzzmedia.exiftool.core.handlers;
 
 import com.thebuzzmedia.exiftool.Tag;
 import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Arrays.asList;
@@ -89,4 +92,84 @@ public class StandardTagHandlerTest {
 				.hasSize(1)
 				.containsEntry(tag, value);
 	}
+
+	@Test
+	public void it_should_skip_standard_tags_that_are_not_expected() {
+		StandardTagHandler handler = new StandardTagHandler(inputs);
+		handler.readLine("ISO: 100");
+		handler.readLine("Foo: bar");
+		handler.readLine("ApertureValue: 2.8");
+
+		assertThat(handler.getTags())
+				.hasSize(1)
+				.containsEntry(StandardTag.APERTURE, "2.8");
+	}
+
+	@Test
+	public void it_should_read_standard_tags_and_other_tags() {
+		Tag tag = new UnspecifiedTag("Foo");
+
+		StandardTagHandler handler = new StandardTagHandler(asList(StandardTag.ARTIST, tag));
+		handler.readLine("Artist: foobar");
+		handler.readLine("Foo: bar");
+		handler.readLine("ISO: 100");
+
+		assertThat(handler.getTags())
+				.hasSize(2)
+				.containsEntry(StandardTag.ARTIST, "foobar")
+				.containsEntry(tag, "bar");
+	}
+
+	@Test
+	public void it_should_read_expected_tags_from_a_reused_buffer() {
+		List<Tag> tags = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			tags.add(new UnspecifiedTag("Tag" + i));
+		}
+
+		CharBuffer buffer = CharBuffer.allocate(64);
+		StandardTagHandler handler = new StandardTagHandler(tags);
+		for (int i = 0; i < 40; i++) {
+			handler.readChars(fill(buffer, "Tag" + i + ": " + i));
+		}
+
+		assertThat(handler.getTags()).hasSize(20);
+		for (int i = 0; i < 20; i++) {
+			assertThat(handler.getTags()).containsEntry(tags.get(i), String.valueOf(i));
+		}
+	}
+
+	@Test
+	public void it_should_read_tag_chars_from_a_reused_buffer() {
+		CharBuffer buffer = CharBuffer.allocate(64);
+
+		StandardTagHandler handler = new StandardTagHandler(inputs);
+		boolean hasNext = handler.readChars(fill(buffer, "Artist: foobar"));
+		handler.readChars(fill(buffer, "ISO: 100"));
+		handler.readChars(fill(buffer, "ApertureValue: 2.8"));
+		fill(buffer, "ApertureValue: 5.6");
+
+		assertThat(hasNext).isTrue();
+		assertThat(handler.readChars(fill(buffer, "{ready}"))).isFalse();
+		assertThat(handler.getTags())
+				.hasSize(2)
+				.containsEntry(StandardTag.ARTIST, "foobar")
+				.containsEntry(StandardTag.APERTURE, "2.8");
+	}
+
+	@Test
+	public void it_should_skip_line_without_separator() {
+		StandardTagHandler handler = new StandardTagHandler(inputs);
+		boolean hasNext = handler.readLine("Artist:foobar");
+
+		assertThat(hasNext).isTrue();
+		assertThat(handler.getTags()).isEmpty();
+	}
+
+	private static CharBuffer fill(CharBuffer buffer, String line) {
+		buffer.clear();
+		buffer.put(line);
+		buffer.flip();
+		return buffer;
+	}
 }
@@ -31,4 +31,12 @@ public class StopHandlerTest {
 		assertThat(stopHandler().readLine("foo")).isTrue();
 		assertThat(stopHandler().readLine("")).isTrue();
 	}
+
+	@Test
+	public void it_should_detect_end_of_stream_from_chars() {
+		assertThat(stopHandler().readChars(null)).isFalse();
+		assertThat(stopHandler().readChars(new StringBuilder("{ready}"))).isFalse();
+		assertThat(stopHandler().readChars(new StringBuilder("foo"))).isTrue();
+		assertThat(stopHandler().readChars(new StringBuilder())).isTrue();
+	}
 }
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.schedulers;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.duration;
+import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.millis;
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdleSchedulerTest {
+
+	@Test
+	public void it_should_not_create_idle_scheduler_with_null_delay() {
+		ThrowingCallable newIdleScheduler = new ThrowingCallable() {
+			@Override
+			public void call() {
+				new IdleScheduler(null);
+			}
+		};
+
+		assertThatThrownBy(newIdleScheduler)
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Execution delay must not be null");
+	}
+
+	@Test
+	public void it_should_create_idle_scheduler() {
+		long delay = 10000;
+		IdleScheduler scheduler = new IdleScheduler(millis(delay));
+
+		SchedulerDuration expectedDelay = duration(delay, TimeUnit.MILLISECONDS);
+		assertThat(scheduler.getExecutionDelay()).isEqualTo(expectedDelay);
+		assertThat(readPrivateField(scheduler, "executionDelay")).isEqualTo(expectedDelay);
+		assertThat((Long) readPrivateField(scheduler, "delay")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(delay));
+	}
+
+	@Test
+	public void it_should_execute_task_once_idle() throws Exception {
+		IdleScheduler scheduler = new IdleScheduler(millis(50));
+		CountingTask task = new CountingTask();
+
+		scheduler.start(task);
+
+		assertThat(task.latch.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(200);
+		assertThat(task.count.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void it_should_only_execute_last_started_task() throws Exception {
+		IdleScheduler scheduler = new IdleScheduler(millis(50));
+		CountingTask t1 = new CountingTask();
+		CountingTask t2 = new CountingTask();
+
+		scheduler.start(t1);
+		scheduler.start(t2);
+
+		assertThat(t2.latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(t1.count.get()).isZero();
+	}
+
+	@Test
+	public void it_should_execute_task_started_again_after_execution() throws Exception {
+		IdleScheduler scheduler = new IdleScheduler(millis(50));
+		CountingTask t1 = new CountingTask();
+		CountingTask t2 = new CountingTask();
+
+		scheduler.start(t1);
+		assertThat(t1.latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		scheduler.start(t2);
+		assertThat(t2.latch.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void it_should_not_execute_stopped_task() throws Exception {
+		IdleScheduler scheduler = new IdleScheduler(millis(50));
+		CountingTask task = new CountingTask();
+
+		scheduler.start(task);
+		scheduler.stop();
+
+		assertThat(task.latch.await(300, TimeUnit.MILLISECONDS)).isFalse();
+	}
+
+	@Test
+	public void it_should_not_execute_task_after_shutdown() throws Exception {
+		IdleScheduler scheduler = new IdleScheduler(millis(50));
+		CountingTask t1 = new CountingTask();
+		CountingTask t2 = new CountingTask();
+
+		scheduler.start(t1);
+		scheduler.shutdown();
+		scheduler.start(t2);
+
+		assertThat(t1.latch.await(300, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(t2.count.get()).isZero();
+	}
+
+	@Test
+	public void it_should_check_pending_task() {
+		IdleScheduler scheduler = new IdleScheduler(millis(10000));
+		CountingTask task = new CountingTask();
+		long now = System.nanoTime();
+
+		assertThat(scheduler.check(now)).isNegative();
+
+		scheduler.start(task);
+		assertThat(scheduler.check(now)).isPositive();
+		assertThat(task.count.get()).isZero();
+
+		assertThat(scheduler.check(now + TimeUnit.SECONDS.toNanos(20))).isNegative();
+		assertThat(task.count.get()).isEqualTo(1);
+		assertThat(scheduler.check(now + TimeUnit.SECONDS.toNanos(40))).isNegative();
+		assertThat(task.count.get()).isEqualTo(1);
+	}
+
+	private static class CountingTask implements Runnable {
+		private final AtomicInteger count = new AtomicInteger(0);
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		@Override
+		public void run() {
+			count.incrementAndGet();
+			latch.countDown();
+		}
+	}
+}
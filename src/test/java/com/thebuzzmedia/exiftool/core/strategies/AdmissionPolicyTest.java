@@ -0,0 +1,74 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.core.strategies.AdmissionPolicy.Rejection;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdmissionPolicyTest {
+
+	@Test
+	public void it_should_never_reject_commands() {
+		assertThat(AdmissionPolicy.UNBOUNDED.getMaxWaiters()).isZero();
+		assertThat(AdmissionPolicy.UNBOUNDED.getAcquireTimeout()).isZero();
+		assertThat(AdmissionPolicy.UNBOUNDED.canWait(Integer.MAX_VALUE)).isTrue();
+	}
+
+	@Test
+	public void it_should_create_policy() {
+		AdmissionPolicy policy = AdmissionPolicy.admissionPolicy(10, 500, Rejection.CALLER_RUNS);
+
+		assertThat(policy.getMaxWaiters()).isEqualTo(10);
+		assertThat(policy.getAcquireTimeout()).isEqualTo(500);
+		assertThat(policy.getRejection()).isEqualTo(Rejection.CALLER_RUNS);
+		assertThat(policy.toString()).isEqualTo("AdmissionPolicy{maxWaiters: 10, acquireTimeout: 500, rejection: CALLER_RUNS}");
+	}
+
+	@Test
+	public void it_should_create_policy_failing_fast() {
+		AdmissionPolicy policy = AdmissionPolicy.admissionPolicy(10, 500);
+
+		assertThat(policy.getRejection()).isEqualTo(Rejection.ABORT);
+	}
+
+	@Test
+	public void it_should_bound_waiting_commands() {
+		AdmissionPolicy policy = AdmissionPolicy.admissionPolicy(2, 0);
+
+		assertThat(policy.canWait(1)).isTrue();
+		assertThat(policy.canWait(2)).isFalse();
+	}
+
+	@Test
+	public void it_should_not_create_policy_without_rejection() {
+		ThrowingCallable create = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				AdmissionPolicy.admissionPolicy(1, 1, null);
+			}
+		};
+
+		assertThatThrownBy(create)
+				.isExactlyInstanceOf(NullPointerException.class)
+				.hasMessage("Rejection should not be null");
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ErrorMarkerHandlerTest {
+
+	@Test
+	public void it_should_check_if_arguments_contain_error_marker() {
+		assertThat(ErrorMarkerHandler.hasErrorMarker(asList("-S", "-echo4", "{ready_errors}", "-execute"))).isTrue();
+		assertThat(ErrorMarkerHandler.hasErrorMarker(asList("-S", "-echo4", "foo", "-execute"))).isFalse();
+		assertThat(ErrorMarkerHandler.hasErrorMarker(asList("-S", "-execute"))).isFalse();
+		assertThat(ErrorMarkerHandler.hasErrorMarker(asList("-S", "-echo4"))).isFalse();
+	}
+
+	@Test
+	public void it_should_give_error_lines_to_handler_until_marker() {
+		ErrorOutputHandler handler = mock(ErrorOutputHandler.class);
+		ErrorMarkerHandler errorHandler = new ErrorMarkerHandler(handler);
+
+		assertThat(errorHandler.readLine("Warning: foo")).isTrue();
+		assertThat(errorHandler.readLine("{ready_errors}")).isFalse();
+		assertThat(errorHandler.readLine(null)).isFalse();
+
+		verify(handler).readError("Warning: foo");
+		verify(handler, never()).readError("{ready_errors}");
+		verify(handler, never()).readLine(anyString());
+	}
+
+	@Test
+	public void it_should_skip_error_lines_if_handler_does_not_read_errors() {
+		OutputHandler handler = mock(OutputHandler.class);
+		ErrorMarkerHandler errorHandler = new ErrorMarkerHandler(handler);
+
+		assertThat(errorHandler.readLine("Warning: foo")).isTrue();
+		assertThat(errorHandler.readLine("{ready_errors}")).isFalse();
+
+		verify(handler, never()).readLine(anyString());
+	}
+}
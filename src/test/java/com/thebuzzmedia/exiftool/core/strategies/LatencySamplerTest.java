@@ -0,0 +1,56 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencySamplerTest {
+
+	@Test
+	public void it_should_return_zero_without_latency() {
+		LatencySampler sampler = new LatencySampler(10);
+		assertThat(sampler.percentile(0.5)).isZero();
+	}
+
+	@Test
+	public void it_should_compute_percentiles() {
+		LatencySampler sampler = new LatencySampler(100);
+		for (int i = 1; i <= 100; i++) {
+			sampler.record(TimeUnit.MILLISECONDS.toNanos(i));
+		}
+
+		assertThat(sampler.percentile(0.5)).isEqualTo(50.0);
+		assertThat(sampler.percentile(0.95)).isEqualTo(95.0);
+		assertThat(sampler.percentile(0.99)).isEqualTo(99.0);
+		assertThat(sampler.percentile(1)).isEqualTo(100.0);
+	}
+
+	@Test
+	public void it_should_keep_most_recent_latencies() {
+		LatencySampler sampler = new LatencySampler(2);
+		sampler.record(TimeUnit.MILLISECONDS.toNanos(100));
+		sampler.record(TimeUnit.MILLISECONDS.toNanos(1));
+		sampler.record(TimeUnit.MILLISECONDS.toNanos(2));
+
+		assertThat(sampler.percentile(1)).isEqualTo(2.0);
+	}
+}
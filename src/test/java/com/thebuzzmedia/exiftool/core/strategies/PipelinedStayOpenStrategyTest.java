@@ -0,0 +1,501 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Priority;
+import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandContext;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
+import com.thebuzzmedia.exiftool.process.ManagedCommandProcess;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static com.thebuzzmedia.exiftool.tests.TestConstants.BR;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PipelinedStayOpenStrategyTest {
+
+	@Mock
+	private Scheduler scheduler;
+
+	@Mock
+	private CommandExecutor executor;
+
+	private FakeProcess process;
+	private String exifTool;
+	private PipelinedStayOpenStrategy strategy;
+
+	@Before
+	public void setUp() throws Exception {
+		exifTool = "exiftool";
+		process = new FakeProcess();
+		when(executor.start(any(Command.class))).thenReturn(process);
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		strategy.close();
+	}
+
+	@Test
+	public void it_should_check_if_version_is_supported() {
+		assertThat(strategy.isSupported(new Version("8.63"))).isFalse();
+		assertThat(strategy.isSupported(new Version("8.64"))).isTrue();
+		assertThat(strategy.isSupported(new Version("10.16"))).isTrue();
+	}
+
+	@Test
+	public void it_should_execute_command_with_numbered_execute() throws Exception {
+		CollectingHandler handler = new CollectingHandler();
+
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "/tmp/foo.png", "-execute"), handler);
+
+		assertThat(process.written).containsExactly(
+				"-S" + BR, "-Artist" + BR, "/tmp/foo.png" + BR, "-execute1" + BR
+		);
+
+		assertThat(handler.lines).containsExactly("Command: 1", "{ready}");
+		assertThat(strategy.isRunning()).isTrue();
+
+		verify(scheduler).stop();
+		verify(scheduler).start(any(Runnable.class));
+	}
+
+	@Test
+	public void it_should_restart_same_cleanup_task_on_each_command() throws Exception {
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), new CollectingHandler());
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), new CollectingHandler());
+
+		Runnable closeTask = readPrivateField(strategy, "closeTask");
+		verify(scheduler, times(2)).start(closeTask);
+	}
+
+	@Test
+	public void it_should_not_write_command_if_it_is_aborted() throws Exception {
+		final ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+		when(handler.isAborted()).thenReturn(true);
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(InterruptedIOException.class)
+				.hasMessage("Command has been cancelled before it was written");
+
+		verify(executor, never()).start(any(Command.class));
+		assertThat(process.written).isEmpty();
+	}
+
+	@Test
+	public void it_should_drop_aborted_command_without_destroying_process() throws Exception {
+		process.hung = true;
+		final ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+
+		// Request is cancelled after command has been written.
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				Runnable task = invocation.getArgument(0);
+				task.run();
+				return null;
+			}
+		}).when(handler).onAbort(any(Runnable.class));
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(InterruptedIOException.class)
+				.hasMessage("Command #1 has been cancelled");
+
+		// Output of dropped command is skipped, next command is run by the same process.
+		process.output.add("Command: 1");
+		process.output.add("{ready1}");
+		process.hung = false;
+
+		CollectingHandler next = new CollectingHandler();
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), next);
+
+		assertThat(next.lines).containsExactly("Command: 2", "{ready}");
+		assertThat(process.closed).isFalse();
+		verify(handler, never()).readLine(any(String.class));
+		verify(executor, times(1)).start(any(Command.class));
+	}
+
+	@Test
+	public void it_should_dispatch_output_of_concurrent_commands() throws Exception {
+		final int nbThreads = 10;
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<CollectingHandler> handlers = new CopyOnWriteArrayList<>();
+		final List<Throwable> errors = new CopyOnWriteArrayList<>();
+		final List<Thread> threads = new ArrayList<>(nbThreads);
+
+		for (int i = 0; i < nbThreads; i++) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					CollectingHandler handler = new CollectingHandler();
+					handlers.add(handler);
+
+					try {
+						start.await();
+						strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), handler);
+					}
+					catch (Throwable ex) {
+						errors.add(ex);
+					}
+				}
+			});
+
+			thread.start();
+			threads.add(thread);
+		}
+
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join(TimeUnit.SECONDS.toMillis(10));
+		}
+
+		assertThat(errors).isEmpty();
+		assertThat(handlers).hasSize(nbThreads);
+
+		List<String> outputs = new ArrayList<>();
+		for (CollectingHandler handler : handlers) {
+			assertThat(handler.lines).hasSize(2).endsWith("{ready}");
+			outputs.add(handler.lines.get(0));
+		}
+
+		// Each command received its own output.
+		Collections.sort(outputs);
+		assertThat(outputs).doesNotHaveDuplicates().hasSize(nbThreads);
+	}
+
+	@Test
+	public void it_should_read_output_while_a_command_is_being_written() throws Exception {
+		// Write of second command blocks until output of first command has been read.
+		process.writeGate = new CountDownLatch(1);
+		final List<Throwable> errors = new CopyOnWriteArrayList<>();
+		final OutputHandler first = new OutputHandler() {
+			@Override
+			public boolean readLine(String line) {
+				process.writeGate.countDown();
+				return line != null && !line.equals("{ready}");
+			}
+		};
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), first);
+				}
+				catch (Throwable ex) {
+					errors.add(ex);
+				}
+			}
+		});
+
+		thread.start();
+		while (!process.written.contains("-execute1" + BR)) {
+			Thread.sleep(10);
+		}
+
+		CollectingHandler second = new CollectingHandler();
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), second);
+		thread.join(TimeUnit.SECONDS.toMillis(10));
+
+		assertThat(process.writeBlocked).isFalse();
+		assertThat(errors).isEmpty();
+		assertThat(second.lines).containsExactly("Command: 2", "{ready}");
+	}
+
+	@Test
+	public void it_should_fail_pending_commands_if_process_terminates() throws Exception {
+		process.terminated = true;
+
+		try {
+			strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), new CollectingHandler());
+		}
+		catch (IOException ex) {
+			assertThat(ex).hasMessage("ExifTool process has been terminated");
+			return;
+		}
+
+		throw new AssertionError("Execution should have failed");
+	}
+
+	@Test
+	public void it_should_destroy_process_when_deadline_is_missed() throws Exception {
+		process.hung = true;
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(100));
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed, exiftool process has been destroyed");
+
+		assertThat(process.closed).isTrue();
+	}
+
+	@Test
+	public void it_should_not_execute_command_if_deadline_is_already_missed() throws Exception {
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime() - 2, 1);
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed before exiftool process was available");
+
+		assertThat(process.written).isEmpty();
+	}
+
+	@Test
+	public void it_should_trace_sent_command() throws Exception {
+		CommandContext context = new CommandContext(System.nanoTime(), 0, Priority.NORMAL, Collections.<File>emptyList(), false, true);
+		ContextOutputHandler handler = mock(ContextOutputHandler.class);
+		when(handler.getContext()).thenReturn(context);
+
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), handler);
+
+		assertThat(context.getSentAt()).isNotZero();
+		assertThat(context.getPid()).isEqualTo(-1L);
+	}
+
+	@Test
+	public void it_should_recycle_process() throws Exception {
+		FakeProcess replacement = new FakeProcess();
+		when(executor.start(any(Command.class))).thenReturn(process, replacement);
+		strategy = new PipelinedStayOpenStrategy(scheduler, RecyclePolicy.afterCommands(2));
+
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), new CollectingHandler());
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), new CollectingHandler());
+
+		// Replacement is started in background, then recycled process is closed.
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!process.closed && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+
+		assertThat(process.closed).isTrue();
+		assertThat(process.written).endsWith("-stay_open\nFalse\n");
+
+		CollectingHandler handler = new CollectingHandler();
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), handler);
+
+		assertThat(handler.lines).containsExactly("Command: 3", "{ready}");
+		assertThat(replacement.written).endsWith("-execute3" + BR);
+	}
+
+	@Test
+	public void it_should_close_process() throws Exception {
+		strategy.execute(executor, exifTool, asList("-S", "-Artist", "-execute"), new CollectingHandler());
+		strategy.close();
+
+		assertThat(process.closed).isTrue();
+		assertThat(process.written).endsWith("-stay_open\nFalse\n");
+		assertThat(strategy.isRunning()).isFalse();
+	}
+
+	private static ContextOutputHandler deadlineHandler(long start, long timeout) {
+		CommandContext context = new CommandContext(start, timeout, Priority.NORMAL, Collections.<File>emptyList(), false, false);
+		ContextOutputHandler handler = mock(ContextOutputHandler.class);
+		when(handler.getContext()).thenReturn(context);
+		return handler;
+	}
+
+	private static class CollectingHandler implements OutputHandler {
+		private final List<String> lines = new ArrayList<>();
+
+		@Override
+		public boolean readLine(String line) {
+			lines.add(line);
+			return line != null && !line.equals("{ready}");
+		}
+	}
+
+	/**
+	 * Fake exiftool process: each numbered {@code -execute} argument produces one line of
+	 * output, followed by the numbered {@code {ready}} line.
+	 */
+	private static class FakeProcess implements ManagedCommandProcess {
+		private static final String EOF = "<eof>";
+
+		private final List<String> written = new CopyOnWriteArrayList<>();
+		private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+		private volatile boolean closed;
+		private volatile boolean terminated;
+		private volatile boolean hung;
+		private volatile CountDownLatch writeGate;
+		private volatile boolean writeBlocked;
+		private final List<String> held = new ArrayList<>();
+
+		@Override
+		public String read() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String read(OutputHandler handler) throws IOException {
+			if (terminated) {
+				handler.readLine(null);
+				return "";
+			}
+
+			try {
+				boolean hasNext = true;
+				while (hasNext) {
+					String line = output.take();
+					hasNext = handler.readLine(EOF.equals(line) ? null : line);
+				}
+			}
+			catch (InterruptedException ex) {
+				throw new IOException(ex);
+			}
+
+			return "";
+		}
+
+		@Override
+		public String readError(OutputHandler handler) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void write(String input, String... others) {
+			written.add(input);
+			if (input.startsWith("-stay_open")) {
+				output.add(EOF);
+			}
+		}
+
+		@Override
+		public void write(Iterable<String> inputs) {
+			for (String input : inputs) {
+				written.add(input);
+				if (input.startsWith("-execute") && !hung) {
+					String id = input.substring(8).trim();
+					List<String> lines = asList("Command: " + id, "{ready" + id + "}");
+					if (writeGate == null) {
+						output.addAll(lines);
+					}
+					else if (held.isEmpty()) {
+						held.addAll(lines);
+					}
+					else {
+						// Release output of first command, and wait for it to be read.
+						output.addAll(held);
+						writeBlocked = !await(writeGate);
+						output.addAll(lines);
+					}
+				}
+			}
+		}
+
+		private static boolean await(CountDownLatch latch) {
+			try {
+				return latch.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public boolean isRunning() {
+			return !closed;
+		}
+
+		@Override
+		public boolean isClosed() {
+			return closed;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			output.add(EOF);
+		}
+
+		@Override
+		public void destroy() {
+			close();
+		}
+	}
+}
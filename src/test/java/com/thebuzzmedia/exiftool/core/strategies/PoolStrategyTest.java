@@ -18,31 +18,56 @@
 package com.thebuzzmedia.exiftool.core.strategies;
 
 import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Priority;
 import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.core.strategies.AdmissionPolicy.Rejection;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
 import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.exceptions.PoolRejectedException;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandContext;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static com.thebuzzmedia.exiftool.core.strategies.AdmissionPolicy.admissionPolicy;
 import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
 import static java.lang.Thread.sleep;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -101,6 +126,30 @@ public class PoolStrategyTest {
 		verify(s1).execute(executor, exifTool, arguments, handler);
 	}
 
+	@Test
+	public void it_should_not_execute_strategy_if_command_is_aborted() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		final ProcessAwareOutputHandler aborted = mock(ProcessAwareOutputHandler.class);
+		when(aborted.isAborted()).thenReturn(true);
+
+		pool = new PoolStrategy(singletonList(s1));
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				pool.execute(executor, exifTool, arguments, aborted);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(InterruptedIOException.class);
+
+		verify(s1, never()).execute(executor, exifTool, arguments, aborted);
+
+		// Strategy has been released.
+		pool.execute(executor, exifTool, arguments, handler);
+		verify(s1).execute(executor, exifTool, arguments, handler);
+	}
+
 	@Test
 	public void it_should_check_that_version_is_not_supported() {
 		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
@@ -395,6 +444,112 @@ public class PoolStrategyTest {
 				.contains(ex1, ex2);
 	}
 
+	@Test
+	public void it_should_create_elastic_pool_with_minimum_size() {
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(mock(ExecutionStrategy.class), mock(ExecutionStrategy.class));
+
+		pool = new PoolStrategy(2, 4, 100, 60000, factory);
+
+		assertThat(pool.getSize()).isEqualTo(2);
+		assertThat(pool.isRunning()).isFalse();
+		verify(factory, times(2)).create();
+	}
+
+	@Test
+	public void it_should_grow_elastic_pool_when_command_waits() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(s1, s2);
+
+		pool = new PoolStrategy(1, 2, 50, 60000, factory);
+
+		CountDownLatch lock = new CountDownLatch(1);
+		ExecuteTask r1 = new ExecuteTask(1, lock, pool, executor, exifTool, arguments, handler);
+		ExecuteTask r2 = new ExecuteTask(2, lock, pool, executor, exifTool, arguments, handler);
+		new Thread(r1).start();
+		new Thread(r2).start();
+		lock.countDown();
+
+		// New strategy is started in background, then used by the waiting command.
+		verify(s2, timeout(5000)).execute(same(executor), same(exifTool), eq(asList("-ver", "-execute")), any(OutputHandler.class));
+		verify(s2, timeout(5000)).execute(executor, exifTool, arguments, handler);
+		assertThat(pool.getSize()).isEqualTo(2);
+
+		execLock.countDown();
+		sleep(500);
+
+		assertThat(r1.getThrown()).isNull();
+		assertThat(r2.getThrown()).isNull();
+		assertThat(pool.isRunning()).isFalse();
+	}
+
+	@Test
+	public void it_should_not_grow_elastic_pool_above_maximum_size() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(s1);
+
+		pool = new PoolStrategy(1, 1, 50, 60000, factory);
+
+		CountDownLatch lock = new CountDownLatch(1);
+		new Thread(new ExecuteTask(1, lock, pool, executor, exifTool, arguments, handler)).start();
+		new Thread(new ExecuteTask(2, lock, pool, executor, exifTool, arguments, handler)).start();
+		lock.countDown();
+		sleep(500);
+
+		verify(factory, times(1)).create();
+		assertThat(pool.getSize()).isEqualTo(1);
+
+		execLock.countDown();
+		verify(s1, timeout(5000).times(2)).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_remove_idle_strategies_from_elastic_pool() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(s1, s2);
+
+		pool = new PoolStrategy(1, 2, 50, 300, factory);
+
+		CountDownLatch lock = new CountDownLatch(1);
+		new Thread(new ExecuteTask(1, lock, pool, executor, exifTool, arguments, handler)).start();
+		new Thread(new ExecuteTask(2, lock, pool, executor, exifTool, arguments, handler)).start();
+		lock.countDown();
+
+		verify(s2, timeout(5000)).execute(executor, exifTool, arguments, handler);
+		assertThat(pool.getSize()).isEqualTo(2);
+
+		// Strategy #1 is used again, strategy #2 becomes idle.
+		execLock.countDown();
+		for (int i = 0; i < 10; i++) {
+			pool.execute(executor, exifTool, arguments, handler);
+			sleep(100);
+		}
+
+		verify(s2).shutdown();
+		verify(s1, never()).shutdown();
+		assertThat(pool.getSize()).isEqualTo(1);
+	}
+
 	private void runPool(ExecutionStrategy s1, ExecutionStrategy s2, TaskFactory taskFactory) throws Exception {
 		pool = new PoolStrategy(asList(s1, s2));
 
@@ -420,4 +575,594 @@ public class PoolStrategyTest {
 	private interface TaskFactory {
 		Runnable create(PoolStrategy pool);
 	}
+
+	@Test
+	public void it_should_prewarm_all_strategies_in_parallel() throws Exception {
+		final CountDownLatch started = new CountDownLatch(3);
+		Answer<Void> answer = new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				// Each strategy waits for the others: strategies must be started in parallel.
+				started.countDown();
+				started.await();
+				return null;
+			}
+		};
+
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s3 = mock(ExecutionStrategy.class);
+		for (ExecutionStrategy s : asList(s1, s2, s3)) {
+			doAnswer(answer).when(s).execute(same(executor), eq(exifTool), anyListOf(String.class), any(OutputHandler.class));
+		}
+
+		pool = new PoolStrategy(asList(s1, s2, s3));
+		pool.prewarm(executor, exifTool);
+
+		List<String> warmUp = asList("-ver", "-execute");
+		verify(s1).execute(same(executor), eq(exifTool), eq(warmUp), any(OutputHandler.class));
+		verify(s2).execute(same(executor), eq(exifTool), eq(warmUp), any(OutputHandler.class));
+		verify(s3).execute(same(executor), eq(exifTool), eq(warmUp), any(OutputHandler.class));
+		assertThat(pool.isRunning()).isFalse();
+	}
+
+	@Test
+	public void it_should_prewarm_strategies_and_keep_failed_strategies_in_pool() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		IOException ex = new IOException("Cannot start exiftool");
+		doThrow(ex).when(s2).execute(same(executor), eq(exifTool), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(asList(s1, s2));
+
+		try {
+			pool.prewarm(executor, exifTool);
+			failBecauseExceptionWasNotThrown(PoolIOException.class);
+		}
+		catch (PoolIOException e) {
+			assertThat(e.getThrownExceptions()).containsExactly(ex);
+		}
+
+		assertThat(pool.isRunning()).isFalse();
+		assertThat(pool.getSize()).isEqualTo(2);
+	}
+
+	@Test
+	public void it_should_reject_command_after_acquire_timeout() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(singletonList(s1), admissionPolicy(0, 50));
+
+		ExecuteTask r1 = new ExecuteTask(1, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t1 = new Thread(r1);
+		t1.start();
+		verify(s1, timeout(1000)).execute(executor, exifTool, arguments, handler);
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				pool.execute(executor, exifTool, arguments, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isExactlyInstanceOf(PoolRejectedException.class)
+				.hasMessage("No exiftool process available after 50 ms");
+
+		assertThat(pool.getWaiters()).isZero();
+
+		execLock.countDown();
+		t1.join();
+		verify(s1, times(1)).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_reject_command_when_too_many_commands_are_waiting() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(singletonList(s1), admissionPolicy(1, 0));
+
+		ExecuteTask r1 = new ExecuteTask(1, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t1 = new Thread(r1);
+		t1.start();
+		verify(s1, timeout(1000)).execute(executor, exifTool, arguments, handler);
+
+		ExecuteTask r2 = new ExecuteTask(2, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t2 = new Thread(r2);
+		t2.start();
+		while (pool.getWaiters() == 0) {
+			sleep(10);
+		}
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				pool.execute(executor, exifTool, arguments, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isExactlyInstanceOf(PoolRejectedException.class)
+				.hasMessage("Too many commands waiting for an available exiftool process");
+
+		// Waiting command is executed once strategy is available.
+		execLock.countDown();
+		t1.join();
+		t2.join();
+		verify(s1, times(2)).execute(executor, exifTool, arguments, handler);
+		assertThat(r1.getThrown()).isNull();
+		assertThat(r2.getThrown()).isNull();
+		assertThat(pool.getWaiters()).isZero();
+	}
+
+	@Test
+	public void it_should_run_rejected_command_with_a_one_shot_process() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(singletonList(s1), admissionPolicy(0, 50, Rejection.CALLER_RUNS));
+
+		ExecuteTask r1 = new ExecuteTask(1, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t1 = new Thread(r1);
+		t1.start();
+		verify(s1, timeout(1000)).execute(executor, exifTool, arguments, handler);
+
+		pool.execute(executor, exifTool, arguments, handler);
+
+		verify(executor).execute(any(Command.class), same(handler));
+		verify(s1, times(1)).execute(executor, exifTool, arguments, handler);
+
+		execLock.countDown();
+		t1.join();
+	}
+
+	@Test
+	public void it_should_drop_command_when_deadline_expires_while_waiting() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(singletonList(s1), admissionPolicy(0, 10000));
+
+		ExecuteTask r1 = new ExecuteTask(1, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t1 = new Thread(r1);
+		t1.start();
+		verify(s1, timeout(1000)).execute(executor, exifTool, arguments, handler);
+
+		final ContextOutputHandler deadlineHandler = contextHandler(new CommandContext(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(50), Priority.NORMAL, Collections.<File>emptyList(), false, false));
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				pool.execute(executor, exifTool, arguments, deadlineHandler);
+			}
+		};
+
+		long start = System.nanoTime();
+		assertThatThrownBy(execute)
+				.isExactlyInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed while waiting for an available exiftool process");
+
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+
+		execLock.countDown();
+		t1.join();
+		verify(s1, never()).execute(executor, exifTool, arguments, deadlineHandler);
+	}
+
+	@Test
+	public void it_should_throw_interrupted_exception_when_interrupted_while_waiting() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(singletonList(s1));
+
+		ExecuteTask r1 = new ExecuteTask(1, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t1 = new Thread(r1);
+		t1.start();
+		verify(s1, timeout(1000)).execute(executor, exifTool, arguments, handler);
+
+		ExecuteTask r2 = new ExecuteTask(2, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t2 = new Thread(r2);
+		t2.start();
+		while (pool.getWaiters() == 0) {
+			sleep(10);
+		}
+
+		t2.interrupt();
+		t2.join();
+
+		assertThat(r2.getThrown()).isInstanceOf(InterruptedIOException.class);
+
+		execLock.countDown();
+		t1.join();
+		verify(s1, times(1)).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_keep_reserved_strategies_for_high_priority_commands() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(asList(s1, s2), AdmissionPolicy.UNBOUNDED, PriorityPolicy.strict(1));
+
+		ExecuteTask r1 = new ExecuteTask(1, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t1 = new Thread(r1);
+		t1.start();
+		verify(s1, timeout(1000)).execute(executor, exifTool, arguments, handler);
+
+		// Normal priority commands cannot use the last strategy.
+		OutputHandler normal = priorityHandler(Priority.NORMAL);
+		ExecuteTask r2 = new ExecuteTask(2, new CountDownLatch(0), pool, executor, exifTool, arguments, normal);
+		Thread t2 = new Thread(r2);
+		t2.start();
+		while (pool.getWaiters() == 0) {
+			sleep(10);
+		}
+
+		OutputHandler high = priorityHandler(Priority.HIGH);
+		pool.execute(executor, exifTool, arguments, high);
+		verify(s2).execute(executor, exifTool, arguments, high);
+		verify(s2, never()).execute(executor, exifTool, arguments, normal);
+
+		execLock.countDown();
+		t1.join();
+		t2.join();
+		assertThat(r2.getThrown()).isNull();
+		assertThat(pool.getWaiters()).isZero();
+	}
+
+	@Test
+	public void it_should_execute_waiting_commands_by_strict_priority() throws Exception {
+		List<Priority> executed = executeWaitingCommands(PriorityPolicy.strict(0));
+		assertThat(executed).containsExactly(Priority.HIGH, Priority.HIGH, Priority.LOW, Priority.LOW);
+	}
+
+	@Test
+	public void it_should_execute_waiting_commands_by_weighted_priority() throws Exception {
+		List<Priority> executed = executeWaitingCommands(PriorityPolicy.weighted(0, 1, 1, 1));
+		assertThat(executed).containsExactly(Priority.HIGH, Priority.LOW, Priority.HIGH, Priority.LOW);
+	}
+
+	@Test
+	public void it_should_create_fixed_pool_with_factory() {
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(mock(ExecutionStrategy.class), mock(ExecutionStrategy.class));
+
+		pool = new PoolStrategy(2, factory, AdmissionPolicy.UNBOUNDED, null);
+
+		assertThat(pool.getSize()).isEqualTo(2);
+		assertThat(pool.getMinSize()).isEqualTo(2);
+		assertThat(pool.getMaxSize()).isEqualTo(2);
+		verify(factory, times(2)).create();
+	}
+
+	@Test
+	public void it_should_resize_fixed_pool() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s3 = mock(ExecutionStrategy.class);
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(s1, s2, s3);
+
+		pool = new PoolStrategy(2, factory, AdmissionPolicy.UNBOUNDED, null);
+
+		pool.resize(3, 3);
+		assertThat(pool.getSize()).isEqualTo(3);
+		assertThat(pool.getCommandCounts()).hasSize(3);
+		verify(factory, times(3)).create();
+
+		// Least recently used strategies are removed.
+		pool.resize(1, 1);
+		assertThat(pool.getSize()).isEqualTo(1);
+		assertThat(pool.getMaxSize()).isEqualTo(1);
+		assertThat(pool.getCommandCounts()).hasSize(1);
+		verify(s1).shutdown();
+		verify(s2).shutdown();
+		verify(s3, never()).shutdown();
+
+		pool.execute(executor, exifTool, arguments, handler);
+		verify(s3).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_remove_running_strategy_once_released_when_pool_is_resized() throws Exception {
+		final ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		final ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		pool = new PoolStrategy(asList(s1, s2));
+
+		// Both strategies are running when pool is resized.
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				pool.execute(executor, exifTool, arguments, handler);
+				return null;
+			}
+		}).when(s1).execute(executor, exifTool, arguments, handler);
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				pool.resize(1, 1);
+				return null;
+			}
+		}).when(s2).execute(executor, exifTool, arguments, handler);
+
+		pool.execute(executor, exifTool, arguments, handler);
+
+		// First released strategy has been removed.
+		assertThat(pool.getSize()).isEqualTo(1);
+		verify(s2).shutdown();
+		verify(s1, never()).shutdown();
+	}
+
+	@Test
+	public void it_should_not_resize_fixed_pool_with_different_sizes() {
+		pool = new PoolStrategy(asList(mock(ExecutionStrategy.class), mock(ExecutionStrategy.class)));
+
+		ThrowingCallable resize = new ThrowingCallable() {
+			@Override
+			public void call() {
+				pool.resize(1, 2);
+			}
+		};
+
+		assertThatThrownBy(resize)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Fixed size pool must have the same minimum and maximum size");
+	}
+
+	@Test
+	public void it_should_not_grow_pool_without_factory() {
+		pool = new PoolStrategy(asList(mock(ExecutionStrategy.class), mock(ExecutionStrategy.class)));
+
+		ThrowingCallable resize = new ThrowingCallable() {
+			@Override
+			public void call() {
+				pool.resize(3, 3);
+			}
+		};
+
+		assertThatThrownBy(resize)
+				.isInstanceOf(UnsupportedOperationException.class)
+				.hasMessage("Pool created without a strategy factory cannot grow");
+
+		assertThat(pool.getSize()).isEqualTo(2);
+	}
+
+	@Test
+	public void it_should_resize_elastic_pool() throws Exception {
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(mock(ExecutionStrategy.class), mock(ExecutionStrategy.class), mock(ExecutionStrategy.class));
+
+		pool = new PoolStrategy(1, 2, 100, 60000, factory);
+		pool.resize(3, 5);
+
+		assertThat(pool.getMinSize()).isEqualTo(3);
+		assertThat(pool.getMaxSize()).isEqualTo(5);
+		assertThat(pool.getSize()).isEqualTo(3);
+	}
+
+	@Test
+	public void it_should_report_pool_state() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		pool = new PoolStrategy(asList(s1, s2));
+
+		assertThat(pool.getLatencyP50()).isZero();
+
+		pool.execute(executor, exifTool, arguments, handler);
+		pool.execute(executor, exifTool, arguments, handler);
+
+		// Fixed size pool uses its strategies in turn.
+		Map<String, Long> counts = pool.getCommandCounts();
+		assertThat(counts).hasSize(2).containsEntry("strategy-1", 1L).containsEntry("strategy-2", 1L);
+		assertThat(pool.getBusy()).isZero();
+		assertThat(pool.getWaiters()).isZero();
+		assertThat(pool.getUptime()).isNotNegative();
+		assertThat(pool.getLatencyP50()).isPositive();
+		assertThat(pool.getLatencyP99()).isGreaterThanOrEqualTo(pool.getLatencyP50());
+	}
+
+	@Test
+	public void it_should_reuse_most_recently_used_strategy_of_elastic_pool() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		ExecutionStrategyFactory factory = mock(ExecutionStrategyFactory.class);
+		when(factory.create()).thenReturn(s1, s2);
+		pool = new PoolStrategy(2, 2, 1000, 60000, factory);
+
+		pool.execute(executor, exifTool, arguments, handler);
+		pool.execute(executor, exifTool, arguments, handler);
+
+		// Other strategy may become idle.
+		verify(s1, times(2)).execute(executor, exifTool, arguments, handler);
+		verify(s2, never()).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_report_acquired_strategy_to_traced_handler() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		pool = new PoolStrategy(asList(s1, s2));
+
+		CommandContext context = new CommandContext(System.nanoTime(), 0, Priority.NORMAL, Collections.<File>emptyList(), false, true);
+		ContextOutputHandler traced = contextHandler(context);
+		pool.execute(executor, exifTool, arguments, traced);
+
+		assertThat(context.getStrategy()).isEqualTo("strategy-1");
+		verify(s1).execute(executor, exifTool, arguments, traced);
+	}
+
+	@Test
+	public void it_should_recycle_stay_open_strategies() {
+		StayOpenStrategy s1 = mock(StayOpenStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		pool = new PoolStrategy(asList(s1, s2));
+
+		pool.recycle();
+
+		verify(s1).recycle();
+	}
+
+	@Test
+	public void it_should_drain_pool() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		pool = new PoolStrategy(asList(s1, s2));
+
+		pool.drain();
+
+		verify(s1).close();
+		verify(s2).close();
+		assertThat(pool.getSize()).isEqualTo(2);
+
+		// Pool can still be used.
+		pool.execute(executor, exifTool, arguments, handler);
+		verify(s1).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_reject_commands_while_pool_is_drained() throws Exception {
+		CountDownLatch execLock = new CountDownLatch(1);
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new LockAnswer(1, execLock))
+				.when(s1)
+				.execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(singletonList(s1));
+
+		ExecuteTask r1 = new ExecuteTask(1, new CountDownLatch(0), pool, executor, exifTool, arguments, handler);
+		Thread t1 = new Thread(r1);
+		t1.start();
+		verify(s1, timeout(1000)).execute(executor, exifTool, arguments, handler);
+
+		final List<Exception> drainFailures = new CopyOnWriteArrayList<>();
+		Thread drain = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					pool.drain();
+				}
+				catch (Exception ex) {
+					drainFailures.add(ex);
+				}
+			}
+		});
+
+		drain.start();
+		while (!(Boolean) readPrivateField(pool, "draining")) {
+			sleep(10);
+		}
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				pool.execute(executor, exifTool, arguments, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isExactlyInstanceOf(PoolRejectedException.class)
+				.hasMessage("Pool is being drained, command is rejected");
+
+		// Running command is completed before its process is closed.
+		verify(s1, never()).close();
+		execLock.countDown();
+		t1.join();
+		drain.join();
+
+		assertThat(r1.getThrown()).isNull();
+		assertThat(drainFailures).isEmpty();
+		verify(s1).close();
+
+		// Pool accepts commands again.
+		pool.execute(executor, exifTool, arguments, handler);
+		verify(s1, times(2)).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_report_uptime_of_stay_open_strategies() {
+		StayOpenStrategy s1 = mock(StayOpenStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		when(s1.getUptime()).thenReturn(42L);
+		pool = new PoolStrategy(asList(s1, s2));
+
+		Map<String, Long> uptimes = pool.getUptimes();
+
+		assertThat(uptimes).hasSize(2).containsEntry("strategy-1", 42L).containsEntry("strategy-2", 0L);
+	}
+
+	private List<Priority> executeWaitingCommands(PriorityPolicy policy) throws Exception {
+		final CountDownLatch execLock = new CountDownLatch(1);
+		final List<Priority> executed = new CopyOnWriteArrayList<>();
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				Priority priority = CommandContext.of((OutputHandler) invocation.getArguments()[3]).getPriority();
+				if (priority == Priority.NORMAL) {
+					execLock.await();
+				}
+				else {
+					executed.add(priority);
+				}
+
+				return null;
+			}
+		}).when(s1).execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+
+		pool = new PoolStrategy(singletonList(s1), AdmissionPolicy.UNBOUNDED, policy);
+
+		List<Thread> threads = new ArrayList<>();
+		List<Priority> priorities = asList(Priority.NORMAL, Priority.LOW, Priority.LOW, Priority.HIGH, Priority.HIGH);
+		for (int i = 0; i < priorities.size(); i++) {
+			ExecuteTask task = new ExecuteTask(i, new CountDownLatch(0), pool, executor, exifTool, arguments, priorityHandler(priorities.get(i)));
+			Thread thread = new Thread(task);
+			thread.start();
+			threads.add(thread);
+
+			// Wait for the first command to run, and next ones to wait for the strategy.
+			while (i == 0 ? !pool.isRunning() : pool.getWaiters() < i) {
+				sleep(10);
+			}
+		}
+
+		execLock.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		return executed;
+	}
+
+	private static OutputHandler priorityHandler(Priority priority) {
+		return contextHandler(new CommandContext(System.nanoTime(), 0, priority, Collections.<File>emptyList(), false, false));
+	}
+
+	private static ContextOutputHandler contextHandler(CommandContext context) {
+		ContextOutputHandler handler = mock(ContextOutputHandler.class);
+		when(handler.getContext()).thenReturn(context);
+		return handler;
+	}
 }
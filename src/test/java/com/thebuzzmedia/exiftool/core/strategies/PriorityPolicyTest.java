@@ -0,0 +1,78 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Priority;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PriorityPolicyTest {
+
+	@Test
+	public void it_should_create_strict_policy() {
+		PriorityPolicy policy = PriorityPolicy.strict(2);
+
+		assertThat(policy.getReserved()).isEqualTo(2);
+		assertThat(policy.isWeighted()).isFalse();
+		assertThat(policy.getWeight(Priority.HIGH)).isEqualTo(1);
+		assertThat(policy.getWeight(Priority.LOW)).isEqualTo(1);
+	}
+
+	@Test
+	public void it_should_create_weighted_policy() {
+		PriorityPolicy policy = PriorityPolicy.weighted(0, 8, 4, 1);
+
+		assertThat(policy.getReserved()).isZero();
+		assertThat(policy.isWeighted()).isTrue();
+		assertThat(policy.getWeight(Priority.HIGH)).isEqualTo(8);
+		assertThat(policy.getWeight(Priority.NORMAL)).isEqualTo(4);
+		assertThat(policy.getWeight(Priority.LOW)).isEqualTo(1);
+		assertThat(policy.toString()).isEqualTo("PriorityPolicy{reserved: 0, weighted: true, high: 8, normal: 4, low: 1}");
+	}
+
+	@Test
+	public void it_should_not_create_policy_with_negative_reserved_strategies() {
+		ThrowingCallable create = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				PriorityPolicy.strict(-1);
+			}
+		};
+
+		assertThatThrownBy(create)
+				.isExactlyInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Reserved strategies must not be negative");
+	}
+
+	@Test
+	public void it_should_not_create_policy_with_zero_weight() {
+		ThrowingCallable create = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				PriorityPolicy.weighted(0, 1, 0, 1);
+			}
+		};
+
+		assertThatThrownBy(create)
+				.isExactlyInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Weight must be positive");
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.executor.DefaultCommandProcess;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecyclePolicyTest {
+
+	@Test
+	public void it_should_never_recycle_process() {
+		CommandProcess process = mock(CommandProcess.class);
+
+		assertThat(RecyclePolicy.NEVER.isEnabled()).isFalse();
+		assertThat(RecyclePolicy.NEVER.shouldRecycle(process, Long.MAX_VALUE)).isFalse();
+	}
+
+	@Test
+	public void it_should_create_policy() {
+		RecyclePolicy policy = RecyclePolicy.recyclePolicy(1, 2, 3);
+
+		assertThat(policy.isEnabled()).isTrue();
+		assertThat(policy.getMaxCommands()).isEqualTo(1);
+		assertThat(policy.getMaxOutputSize()).isEqualTo(2);
+		assertThat(policy.getMaxMemory()).isEqualTo(3);
+		assertThat(policy.toString()).isEqualTo("RecyclePolicy{maxCommands: 1, maxOutputSize: 2, maxMemory: 3}");
+	}
+
+	@Test
+	public void it_should_recycle_process_after_commands() {
+		CommandProcess process = mock(CommandProcess.class);
+		RecyclePolicy policy = RecyclePolicy.afterCommands(10);
+
+		assertThat(policy.shouldRecycle(process, 9)).isFalse();
+		assertThat(policy.shouldRecycle(process, 10)).isTrue();
+	}
+
+	@Test
+	public void it_should_recycle_process_after_output_size() {
+		DefaultCommandProcess process = mock(DefaultCommandProcess.class);
+		RecyclePolicy policy = RecyclePolicy.recyclePolicy(0, 1000, 0);
+
+		when(process.getOutputSize()).thenReturn(999L);
+		assertThat(policy.shouldRecycle(process, 1)).isFalse();
+
+		when(process.getOutputSize()).thenReturn(1000L);
+		assertThat(policy.shouldRecycle(process, 1)).isTrue();
+	}
+
+	@Test
+	public void it_should_not_check_output_size_of_custom_process() {
+		CommandProcess process = mock(CommandProcess.class);
+		RecyclePolicy policy = RecyclePolicy.recyclePolicy(0, 1, 1);
+
+		assertThat(policy.shouldRecycle(process, RecyclePolicy.MEMORY_CHECK_INTERVAL)).isFalse();
+	}
+
+	@Test
+	public void it_should_recycle_process_above_memory() {
+		long pid = currentPid();
+		assumeTrue(new File("/proc/" + pid + "/status").isFile());
+
+		DefaultCommandProcess process = mock(DefaultCommandProcess.class);
+		when(process.getPid()).thenReturn(pid);
+
+		RecyclePolicy policy = RecyclePolicy.recyclePolicy(0, 0, 1024);
+
+		// Memory is not checked on each command.
+		assertThat(policy.shouldRecycle(process, RecyclePolicy.MEMORY_CHECK_INTERVAL - 1)).isFalse();
+		assertThat(policy.shouldRecycle(process, RecyclePolicy.MEMORY_CHECK_INTERVAL)).isTrue();
+	}
+
+	@Test
+	public void it_should_ignore_memory_limit_if_resident_memory_is_not_available() {
+		DefaultCommandProcess process = mock(DefaultCommandProcess.class);
+		when(process.getPid()).thenReturn(-1L);
+
+		RecyclePolicy policy = RecyclePolicy.recyclePolicy(0, 0, 1024);
+		AtomicBoolean memoryUnavailable = readPrivateField(policy, "memoryUnavailable");
+		assertThat(memoryUnavailable.get()).isFalse();
+
+		assertThat(policy.shouldRecycle(process, RecyclePolicy.MEMORY_CHECK_INTERVAL)).isFalse();
+		assertThat(memoryUnavailable.get()).isTrue();
+
+		assertThat(policy.shouldRecycle(process, 2 * RecyclePolicy.MEMORY_CHECK_INTERVAL)).isFalse();
+	}
+
+	@Test
+	public void it_should_read_resident_memory() {
+		long pid = currentPid();
+		assumeTrue(new File("/proc/" + pid + "/status").isFile());
+
+		assertThat(RecyclePolicy.residentMemory(pid)).isPositive();
+	}
+
+	@Test
+	public void it_should_not_read_resident_memory_of_unknown_process() {
+		assertThat(RecyclePolicy.residentMemory(-1)).isEqualTo(-1);
+	}
+
+	private static long currentPid() {
+		// Runtime name is formatted as "pid@hostname".
+		String name = ManagementFactory.getRuntimeMXBean().getName();
+		return Long.parseLong(name.substring(0, name.indexOf('@')));
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Priority;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.process.CommandContext;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.thebuzzmedia.exiftool.core.strategies.RoutingStrategy.route;
+import static com.thebuzzmedia.exiftool.core.strategies.WorkloadMatchers.extensions;
+import static com.thebuzzmedia.exiftool.core.strategies.WorkloadMatchers.writes;
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RoutingStrategyTest {
+
+	private CommandExecutor executor;
+	private String exifTool;
+	private List<String> arguments;
+
+	private ExecutionStrategy writeStrategy;
+	private ExecutionStrategy videoStrategy;
+	private ExecutionStrategy defaultStrategy;
+
+	private RoutingStrategy strategy;
+
+	@Before
+	public void setUp() {
+		executor = mock(CommandExecutor.class);
+		exifTool = "exiftool";
+		arguments = singletonList("-ver");
+
+		writeStrategy = mock(ExecutionStrategy.class);
+		videoStrategy = mock(ExecutionStrategy.class);
+		defaultStrategy = mock(ExecutionStrategy.class);
+
+		strategy = new RoutingStrategy(asList(
+				route(writes(), writeStrategy),
+				route(extensions("mp4", "mov"), videoStrategy)
+		), defaultStrategy);
+	}
+
+	@Test
+	public void it_should_route_write_commands() throws Exception {
+		OutputHandler handler = workloadHandler("foo.mp4", true);
+
+		strategy.execute(executor, exifTool, arguments, handler);
+
+		verify(writeStrategy).execute(executor, exifTool, arguments, handler);
+		verify(videoStrategy, never()).execute(executor, exifTool, arguments, handler);
+		verify(defaultStrategy, never()).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_route_read_commands_by_extension() throws Exception {
+		OutputHandler handler = workloadHandler("foo.mp4", false);
+
+		strategy.execute(executor, exifTool, arguments, handler);
+
+		verify(videoStrategy).execute(executor, exifTool, arguments, handler);
+		verify(writeStrategy, never()).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_route_unmatched_commands_to_default_strategy() throws Exception {
+		OutputHandler handler = workloadHandler("foo.jpg", false);
+
+		strategy.execute(executor, exifTool, arguments, handler);
+
+		verify(defaultStrategy).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_route_commands_without_workload_to_default_strategy() throws Exception {
+		OutputHandler handler = mock(OutputHandler.class);
+
+		strategy.execute(executor, exifTool, arguments, handler);
+
+		verify(defaultStrategy).execute(executor, exifTool, arguments, handler);
+	}
+
+	@Test
+	public void it_should_check_version_and_running_state_of_all_strategies() {
+		Version version = new Version("10.16");
+		when(writeStrategy.isSupported(version)).thenReturn(true);
+		when(videoStrategy.isSupported(version)).thenReturn(true);
+		when(defaultStrategy.isSupported(version)).thenReturn(false);
+		when(videoStrategy.isRunning()).thenReturn(true);
+
+		assertThat(strategy.isSupported(version)).isFalse();
+		assertThat(strategy.isRunning()).isTrue();
+	}
+
+	@Test
+	public void it_should_close_each_strategy_once() throws Exception {
+		strategy = new RoutingStrategy(asList(
+				route(writes(), writeStrategy),
+				route(extensions("mp4"), writeStrategy)
+		), defaultStrategy);
+
+		strategy.close();
+
+		verify(writeStrategy, times(1)).close();
+		verify(defaultStrategy, times(1)).close();
+	}
+
+	@Test
+	public void it_should_shutdown_all_strategies_and_collect_exceptions() throws Exception {
+		Exception ex = new Exception("fail");
+		doThrow(ex).when(writeStrategy).shutdown();
+
+		ThrowingCallable shutdown = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.shutdown();
+			}
+		};
+
+		assertThatThrownBy(shutdown)
+				.isExactlyInstanceOf(PoolIOException.class)
+				.hasMessage("Some strategies failed to shutdown properly");
+
+		verify(videoStrategy).shutdown();
+		verify(defaultStrategy).shutdown();
+	}
+
+	@Test
+	public void it_should_prewarm_all_strategies() throws Exception {
+		strategy.prewarm(executor, exifTool);
+
+		verify(writeStrategy).execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+		verify(videoStrategy).execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+		verify(defaultStrategy).execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	private static OutputHandler workloadHandler(String name, boolean write) {
+		List<File> files = singletonList(new FileBuilder(name).build());
+		ContextOutputHandler handler = mock(ContextOutputHandler.class);
+		when(handler.getContext()).thenReturn(new CommandContext(System.nanoTime(), 0, Priority.NORMAL, files, write, false));
+		return handler;
+	}
+}
@@ -17,12 +17,20 @@
 
 package com.thebuzzmedia.exiftool.core.strategies;
 
+import com.thebuzzmedia.exiftool.Priority;
 import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
+import com.thebuzzmedia.exiftool.metrics.RecordingMetrics;
 import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandContext;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
+import com.thebuzzmedia.exiftool.process.ManagedCommandProcess;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
 import org.assertj.core.api.Condition;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,19 +39,34 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static com.thebuzzmedia.exiftool.metrics.RecordingMetrics.recordingMetrics;
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.writePrivateField;
 import static com.thebuzzmedia.exiftool.tests.TestConstants.BR;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -55,7 +78,7 @@ public class StayOpenStrategyTest {
 	private Scheduler scheduler;
 
 	@Mock
-	private CommandProcess process;
+	private ManagedCommandProcess process;
 
 	@Mock
 	private CommandExecutor executor;
@@ -122,6 +145,81 @@ public class StayOpenStrategyTest {
 		verifyExecutionArguments();
 	}
 
+	@Test
+	public void it_should_restart_same_cleanup_task_on_each_command() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+		when(process.isClosed()).thenReturn(false);
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		Runnable closeTask = readPrivateField(strategy, "closeTask");
+		verify(scheduler, times(2)).start(closeTask);
+	}
+
+	@Test
+	public void it_should_not_start_process_if_command_is_aborted() throws Exception {
+		final ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+		when(handler.isAborted()).thenReturn(true);
+		strategy = new StayOpenStrategy(scheduler);
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, args, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(InterruptedIOException.class)
+				.hasMessage("Command has been cancelled before it was written");
+
+		verify(executor, never()).start(any(Command.class));
+	}
+
+	@Test
+	public void it_should_not_write_command_aborted_while_waiting_for_process() throws Exception {
+		final ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+		when(handler.isAborted()).thenReturn(true);
+		strategy = new StayOpenStrategy(scheduler);
+		writePrivateField(strategy, "process", process);
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, args, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(InterruptedIOException.class);
+
+		verify(process, never()).write(anyListOf(String.class));
+		verify(process, never()).destroy();
+		verify(handler, never()).onRead(any(CommandProcess.class));
+	}
+
+	@Test
+	public void it_should_execute_command_and_read_error_output() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+		strategy.execute(executor, exifTool, asList("-S", "-echo4", "{ready_errors}", "-execute"), outputHandler);
+
+		InOrder inOrder = inOrder(process);
+		inOrder.verify(process).read(outputHandler);
+		inOrder.verify(process).readError(any(ErrorMarkerHandler.class));
+	}
+
+	@Test
+	public void it_should_not_read_error_output_of_unmanaged_process() throws Exception {
+		CommandProcess unmanaged = mock(CommandProcess.class);
+		when(executor.start(any(Command.class))).thenReturn(unmanaged);
+
+		strategy = new StayOpenStrategy(scheduler);
+		strategy.execute(executor, exifTool, asList("-S", "-echo4", "{ready_errors}", "-execute"), outputHandler);
+
+		verify(unmanaged).read(outputHandler);
+	}
+
 	@Test
 	public void it_should_not_start_process_twice_if_it_is_running() throws Exception {
 		strategy = new StayOpenStrategy(scheduler);
@@ -183,6 +281,67 @@ public class StayOpenStrategyTest {
 		verify(scheduler).shutdown();
 	}
 
+	@Test
+	public void it_should_report_sent_command_to_traced_handler() throws Exception {
+		final CommandContext context = new CommandContext(System.nanoTime(), 0, Priority.NORMAL, Collections.<File>emptyList(), false, true);
+		final ContextOutputHandler traced = mock(ContextOutputHandler.class);
+		when(traced.getContext()).thenReturn(context);
+
+		// Command must be reported as sent before its output is read.
+		final List<Long> sentAt = new ArrayList<>();
+		doAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) {
+				sentAt.add(context.getSentAt());
+				return "";
+			}
+		}).when(process).read(traced);
+
+		strategy = new StayOpenStrategy(scheduler);
+		strategy.execute(executor, exifTool, args, traced);
+
+		InOrder inOrder = inOrder(process);
+		inOrder.verify(process).flush();
+		inOrder.verify(process).read(traced);
+		assertThat(sentAt).hasSize(1);
+		assertThat(sentAt.get(0)).isNotZero();
+		assertThat(context.getPid()).isEqualTo(-1L);
+	}
+
+	@Test
+	public void it_should_report_daemon_metrics() throws Exception {
+		RecordingMetrics metrics = recordingMetrics();
+		long started = metrics.getDaemonsStarted();
+		long stopped = metrics.getDaemonsStopped();
+		long active = metrics.getActiveDaemons();
+
+		strategy = new StayOpenStrategy(scheduler);
+		strategy.execute(executor, exifTool, args, outputHandler);
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		assertThat(metrics.getDaemonsStarted()).isEqualTo(started + 1);
+		assertThat(metrics.getActiveDaemons()).isEqualTo(active);
+
+		strategy.close();
+
+		assertThat(metrics.getDaemonsStopped()).isEqualTo(stopped + 1);
+	}
+
+	@Test
+	public void it_should_report_uptime_of_process() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+		assertThat(strategy.getUptime()).isZero();
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		long startTime = readPrivateField(strategy, "startTime");
+		assertThat(startTime).isPositive();
+		assertThat(strategy.getUptime()).isNotNegative();
+
+		strategy.close();
+		assertThat(strategy.getUptime()).isZero();
+	}
+
 	@Test
 	public void it_should_close_process_if_it_is_started() throws Exception {
 		strategy = new StayOpenStrategy(scheduler);
@@ -190,6 +349,7 @@ public class StayOpenStrategyTest {
 		strategy.close();
 
 		InOrder inOrder = inOrder(scheduler, process);
+		inOrder.verify(process).isClosed();
 		inOrder.verify(process).write("-stay_open\nFalse\n");
 		inOrder.verify(process).flush();
 		inOrder.verify(process).close();
@@ -206,6 +366,7 @@ public class StayOpenStrategyTest {
 		strategy.shutdown();
 
 		InOrder inOrder = inOrder(scheduler, process);
+		inOrder.verify(process).isClosed();
 		inOrder.verify(process).write("-stay_open\nFalse\n");
 		inOrder.verify(process).flush();
 		inOrder.verify(process).close();
@@ -253,6 +414,31 @@ public class StayOpenStrategyTest {
 				.isEqualTo(appendBr(args));
 	}
 
+	@Test
+	public void it_should_not_execute_command_if_thread_is_interrupted() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				Thread.currentThread().interrupt();
+				strategy.execute(executor, exifTool, args, outputHandler);
+			}
+		};
+
+		try {
+			assertThatThrownBy(execute)
+					.isInstanceOf(InterruptedIOException.class)
+					.hasMessage("Interrupted while waiting for exiftool process");
+		}
+		finally {
+			// Clear interrupted flag.
+			assertThat(Thread.interrupted()).isTrue();
+		}
+
+		verify(executor, never()).start(any(Command.class));
+	}
+
 	private List<String> appendBr(List<String> list) {
 		List<String> results = new ArrayList<>(list.size());
 		for (String input : list) {
@@ -261,4 +447,242 @@ public class StayOpenStrategyTest {
 
 		return results;
 	}
+
+	@Test
+	public void it_should_create_stay_open_strategy_with_recycle_policy() {
+		RecyclePolicy recyclePolicy = RecyclePolicy.afterCommands(10);
+		strategy = new StayOpenStrategy(scheduler, recyclePolicy);
+		assertThat(readPrivateField(strategy, "recyclePolicy")).isSameAs(recyclePolicy);
+	}
+
+	@Test
+	public void it_should_recycle_process_after_commands() throws Exception {
+		CommandProcess replacement = mock(CommandProcess.class);
+		when(executor.start(any(Command.class))).thenReturn(process, replacement);
+
+		strategy = new StayOpenStrategy(scheduler, RecyclePolicy.afterCommands(2));
+		strategy.execute(executor, exifTool, args, outputHandler);
+		verify(executor).start(any(Command.class));
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		// Replacement is started in background, then old process is closed.
+		verify(replacement, timeout(5000)).write(asList("-ver" + BR, "-execute" + BR));
+		verify(replacement, timeout(5000)).read(any(OutputHandler.class));
+		verify(process, timeout(5000)).write("-stay_open\nFalse\n");
+		verify(process, timeout(5000)).close();
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		verify(replacement, times(2)).write(argsCaptor.capture());
+		assertThat(argsCaptor.getValue()).hasSize(args.size());
+		assertThat(readPrivateField(strategy, "process")).isSameAs(replacement);
+		assertThat((Long) readPrivateField(strategy, "commands")).isEqualTo(1L);
+	}
+
+	@Test
+	public void it_should_recycle_process_on_demand() throws Exception {
+		CommandProcess replacement = mock(CommandProcess.class);
+		when(executor.start(any(Command.class))).thenReturn(process, replacement);
+
+		strategy = new StayOpenStrategy(scheduler);
+		strategy.execute(executor, exifTool, args, outputHandler);
+		strategy.recycle();
+
+		verify(replacement, timeout(5000)).write(asList("-ver" + BR, "-execute" + BR));
+		verify(process, timeout(5000)).close();
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		assertThat(readPrivateField(strategy, "process")).isSameAs(replacement);
+	}
+
+	@Test
+	public void it_should_not_recycle_process_if_it_is_not_started() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+		strategy.recycle();
+
+		verify(executor, never()).start(any(Command.class));
+	}
+
+	@Test
+	public void it_should_keep_process_if_replacement_cannot_be_started() throws Exception {
+		when(executor.start(any(Command.class)))
+				.thenReturn(process)
+				.thenThrow(new IOException("Cannot start exiftool"));
+
+		strategy = new StayOpenStrategy(scheduler, RecyclePolicy.afterCommands(1));
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		verify(executor, timeout(5000).times(2)).start(any(Command.class));
+		Thread.sleep(100);
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		verify(process, times(2)).write(argsCaptor.capture());
+		verify(process, never()).close();
+		assertThat(readPrivateField(strategy, "process")).isSameAs(process);
+	}
+
+	@Test
+	public void it_should_destroy_process_when_deadline_is_missed() throws Exception {
+		final CountDownLatch destroyed = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				destroyed.countDown();
+				return null;
+			}
+		}).when(process).destroy();
+
+		// Hung process: output is never read until process is destroyed.
+		when(process.read(any(OutputHandler.class))).thenAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				destroyed.await();
+				throw new IOException("Stream closed");
+			}
+		});
+
+		CommandProcess replacement = mock(CommandProcess.class);
+		when(executor.start(any(Command.class))).thenReturn(process, replacement);
+
+		strategy = new StayOpenStrategy(scheduler);
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(50));
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, args, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed, exiftool process has been destroyed");
+
+		verify(process).destroy();
+
+		// A replacement is started in background.
+		verify(replacement, timeout(5000)).read(any(OutputHandler.class));
+		verify(executor, times(2)).start(any(Command.class));
+	}
+
+	@Test
+	public void it_should_wait_for_replacement_of_destroyed_process() throws Exception {
+		final CountDownLatch destroyed = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				destroyed.countDown();
+				return null;
+			}
+		}).when(process).destroy();
+
+		when(process.isClosed()).thenAnswer(new Answer<Boolean>() {
+			@Override
+			public Boolean answer(InvocationOnMock invocation) {
+				return destroyed.getCount() == 0;
+			}
+		});
+
+		when(process.read(any(OutputHandler.class))).thenAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				destroyed.await();
+				throw new IOException("Stream closed");
+			}
+		});
+
+		// Replacement is slow to start.
+		CommandProcess replacement = mock(CommandProcess.class);
+		when(replacement.read(any(OutputHandler.class))).thenAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				Thread.sleep(100);
+				return "";
+			}
+		});
+
+		when(executor.start(any(Command.class))).thenReturn(process, replacement);
+
+		strategy = new StayOpenStrategy(scheduler);
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(500));
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, args, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed, exiftool process has been destroyed");
+
+		// Next command is run by the replacement, no other process is started.
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		verify(replacement).read(outputHandler);
+		verify(executor, times(2)).start(any(Command.class));
+		assertThat(readPrivateField(strategy, "process")).isSameAs(replacement);
+	}
+
+	@Test
+	public void it_should_cancel_watch_if_handler_fails() throws Exception {
+		when(process.read(any(OutputHandler.class))).thenThrow(new IllegalArgumentException("Invalid output"));
+
+		strategy = new StayOpenStrategy(scheduler);
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(50));
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, args, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid output");
+
+		// Process is still used: it must not be destroyed once deadline is elapsed.
+		Thread.sleep(200);
+		verify(process, never()).destroy();
+	}
+
+	@Test
+	public void it_should_not_execute_command_if_deadline_is_already_missed() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime() - 2, 1);
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				strategy.execute(executor, exifTool, args, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed before exiftool process was available");
+
+		verify(process, never()).write(anyListOf(String.class));
+		verify(process, never()).destroy();
+	}
+
+	@Test
+	public void it_should_execute_command_before_deadline() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+		ContextOutputHandler handler = deadlineHandler(System.nanoTime(), TimeUnit.SECONDS.toNanos(10));
+
+		strategy.execute(executor, exifTool, args, handler);
+
+		verify(process).read(handler);
+		verify(process, never()).destroy();
+	}
+
+	private static ContextOutputHandler deadlineHandler(long start, long timeout) {
+		CommandContext context = new CommandContext(start, timeout, Priority.NORMAL, Collections.<File>emptyList(), false, false);
+		ContextOutputHandler handler = mock(ContextOutputHandler.class);
+		when(handler.getContext()).thenReturn(context);
+		return handler;
+	}
 }
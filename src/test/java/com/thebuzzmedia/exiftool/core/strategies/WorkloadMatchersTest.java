@@ -0,0 +1,97 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import static com.thebuzzmedia.exiftool.core.strategies.WorkloadMatchers.anyOf;
+import static com.thebuzzmedia.exiftool.core.strategies.WorkloadMatchers.extensions;
+import static com.thebuzzmedia.exiftool.core.strategies.WorkloadMatchers.largerThan;
+import static com.thebuzzmedia.exiftool.core.strategies.WorkloadMatchers.writes;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+public class WorkloadMatchersTest {
+
+	@Test
+	public void it_should_match_write_commands() {
+		List<File> files = singletonList(new FileBuilder("foo.jpg").build());
+
+		assertThat(writes().matches(files, true)).isTrue();
+		assertThat(writes().matches(files, false)).isFalse();
+	}
+
+	@Test
+	public void it_should_match_extensions() {
+		WorkloadMatcher matcher = extensions("mp4", "CR2");
+
+		assertThat(matcher.matches(singletonList(new FileBuilder("foo.MP4").build()), false)).isTrue();
+		assertThat(matcher.matches(singletonList(new FileBuilder("foo.cr2").build()), false)).isTrue();
+		assertThat(matcher.matches(asList(new FileBuilder("foo.jpg").build(), new FileBuilder("bar.mp4").build()), false)).isTrue();
+		assertThat(matcher.matches(singletonList(new FileBuilder("foo.jpg").build()), false)).isFalse();
+		assertThat(matcher.matches(singletonList(new FileBuilder("mp4").build()), false)).isFalse();
+		assertThat(matcher.matches(Collections.<File>emptyList(), false)).isFalse();
+	}
+
+	@Test
+	public void it_should_match_large_files() {
+		File small = new FileBuilder("small.jpg").build();
+		when(small.length()).thenReturn(600L);
+
+		File large = new FileBuilder("large.jpg").build();
+		when(large.length()).thenReturn(1001L);
+
+		WorkloadMatcher matcher = largerThan(1000);
+
+		assertThat(matcher.matches(singletonList(small), false)).isFalse();
+		assertThat(matcher.matches(singletonList(large), false)).isTrue();
+		assertThat(matcher.matches(asList(small, small), false)).isTrue();
+	}
+
+	@Test
+	public void it_should_match_any_matcher() {
+		WorkloadMatcher matcher = anyOf(writes(), extensions("mp4"));
+
+		assertThat(matcher.matches(singletonList(new FileBuilder("foo.jpg").build()), true)).isTrue();
+		assertThat(matcher.matches(singletonList(new FileBuilder("foo.mp4").build()), false)).isTrue();
+		assertThat(matcher.matches(singletonList(new FileBuilder("foo.jpg").build()), false)).isFalse();
+	}
+
+	@Test
+	public void it_should_not_create_matcher_without_extensions() {
+		ThrowingCallable create = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				extensions();
+			}
+		};
+
+		assertThatThrownBy(create)
+				.isExactlyInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Extensions should not be empty");
+	}
+}
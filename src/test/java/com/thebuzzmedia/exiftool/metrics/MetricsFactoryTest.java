@@ -0,0 +1,32 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsFactoryTest {
+
+	@Test
+	public void it_should_get_metrics_registered_with_service_loader() {
+		ExifToolMetrics metrics = MetricsFactory.getMetrics();
+		assertThat(metrics).isExactlyInstanceOf(RecordingMetrics.class);
+		assertThat(MetricsFactory.getMetrics()).isSameAs(metrics);
+	}
+}
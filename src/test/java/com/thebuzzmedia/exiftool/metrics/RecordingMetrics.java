@@ -0,0 +1,155 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics implementation registered (using the Service Provider Interface) for unit tests:
+ * it counts reported events.
+ *
+ * <br>
+ *
+ * This instance is shared by all tests: tests must compare counters before and after the
+ * tested operation.
+ */
+public class RecordingMetrics implements ExifToolMetrics {
+
+	private final AtomicLong queueWaits = new AtomicLong();
+	private final AtomicLong daemonsStarted = new AtomicLong();
+	private final AtomicLong daemonsStopped = new AtomicLong();
+	private final AtomicLong daemonsRestarted = new AtomicLong();
+	private final AtomicLong activeDaemons = new AtomicLong();
+	private final AtomicLong commands = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong bytesWritten = new AtomicLong();
+	private final AtomicLong bytesRead = new AtomicLong();
+	private final AtomicLong lines = new AtomicLong();
+
+	/**
+	 * Get registered instance.
+	 *
+	 * @return Registered instance.
+	 */
+	public static RecordingMetrics recordingMetrics() {
+		return (RecordingMetrics) MetricsFactory.getMetrics();
+	}
+
+	@Override
+	public void queueWait(long nanos) {
+		queueWaits.incrementAndGet();
+	}
+
+	@Override
+	public void daemonStarted(long nanos) {
+		daemonsStarted.incrementAndGet();
+	}
+
+	@Override
+	public void daemonStopped() {
+		daemonsStopped.incrementAndGet();
+	}
+
+	@Override
+	public void daemonRestarted() {
+		daemonsRestarted.incrementAndGet();
+	}
+
+	@Override
+	public void daemonBusy() {
+		activeDaemons.incrementAndGet();
+	}
+
+	@Override
+	public void daemonIdle() {
+		activeDaemons.decrementAndGet();
+	}
+
+	@Override
+	public void commandCompleted(long nanos, boolean success) {
+		commands.incrementAndGet();
+		if (!success) {
+			failures.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void commandTimedOut() {
+		timeouts.incrementAndGet();
+	}
+
+	@Override
+	public void bytesWritten(long bytes) {
+		bytesWritten.addAndGet(bytes);
+	}
+
+	@Override
+	public void bytesRead(long bytes) {
+		bytesRead.addAndGet(bytes);
+	}
+
+	@Override
+	public void linesParsed(long lines) {
+		this.lines.addAndGet(lines);
+	}
+
+	public long getQueueWaits() {
+		return queueWaits.get();
+	}
+
+	public long getDaemonsStarted() {
+		return daemonsStarted.get();
+	}
+
+	public long getDaemonsStopped() {
+		return daemonsStopped.get();
+	}
+
+	public long getDaemonsRestarted() {
+		return daemonsRestarted.get();
+	}
+
+	public long getActiveDaemons() {
+		return activeDaemons.get();
+	}
+
+	public long getCommands() {
+		return commands.get();
+	}
+
+	public long getFailures() {
+		return failures.get();
+	}
+
+	public long getTimeouts() {
+		return timeouts.get();
+	}
+
+	public long getBytesWritten() {
+		return bytesWritten.get();
+	}
+
+	public long getBytesRead() {
+		return bytesRead.get();
+	}
+
+	public long getLines() {
+		return lines.get();
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+import com.thebuzzmedia.exiftool.Priority;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommandContextTest {
+
+	@Test
+	public void it_should_get_default_context_of_handler_without_context() {
+		CommandContext context = CommandContext.of(mock(OutputHandler.class));
+
+		assertThat(context.hasDeadline()).isFalse();
+		assertThat(context.getRemaining()).isEqualTo(-1L);
+		assertThat(context.getPriority()).isEqualTo(Priority.NORMAL);
+		assertThat(context.getFiles()).isEmpty();
+		assertThat(context.isWrite()).isFalse();
+		assertThat(context.isTraced()).isFalse();
+	}
+
+	@Test
+	public void it_should_get_context_of_handler() {
+		File file = new File("/tmp/foo.png");
+		CommandContext context = new CommandContext(System.nanoTime(), TimeUnit.SECONDS.toNanos(10), Priority.HIGH, singletonList(file), true, false);
+		ContextOutputHandler handler = mock(ContextOutputHandler.class);
+		when(handler.getContext()).thenReturn(context);
+
+		assertThat(CommandContext.of(handler)).isSameAs(context);
+		assertThat(context.hasDeadline()).isTrue();
+		assertThat(context.getDeadline()).isEqualTo(context.getStart() + TimeUnit.SECONDS.toNanos(10));
+		assertThat(context.getRemaining()).isPositive();
+		assertThat(context.getPriority()).isEqualTo(Priority.HIGH);
+		assertThat(context.getFiles()).containsExactly(file);
+		assertThat(context.isWrite()).isTrue();
+	}
+
+	@Test
+	public void it_should_get_zero_remaining_time_once_deadline_is_missed() {
+		CommandContext context = new CommandContext(System.nanoTime() - 2, 1, Priority.NORMAL, Collections.<File>emptyList(), false, false);
+
+		assertThat(context.hasDeadline()).isTrue();
+		assertThat(context.getRemaining()).isZero();
+	}
+
+	@Test
+	public void it_should_record_trace_of_traced_command() {
+		CommandContext context = new CommandContext(System.nanoTime(), 0, Priority.NORMAL, Collections.<File>emptyList(), false, true);
+
+		context.onAcquired("strategy-1", 5);
+		context.onSent(42, 3);
+
+		assertThat(context.getStrategy()).isEqualTo("strategy-1");
+		assertThat(context.getQueueWait()).isEqualTo(5L);
+		assertThat(context.getPid()).isEqualTo(42L);
+		assertThat(context.getWriteTime()).isEqualTo(3L);
+		assertThat(context.getSentAt()).isNotZero();
+	}
+
+	@Test
+	public void it_should_ignore_trace_of_command_not_traced() {
+		CommandContext context = new CommandContext(System.nanoTime(), 0, Priority.NORMAL, Collections.<File>emptyList(), false, false);
+
+		context.onAcquired("strategy-1", 5);
+		context.onSent(42, 3);
+
+		assertThat(context.getStrategy()).isNull();
+		assertThat(context.getQueueWait()).isZero();
+		assertThat(context.getPid()).isEqualTo(-1L);
+		assertThat(context.getSentAt()).isZero();
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CommandProcessesTest {
+
+	@Test
+	public void it_should_destroy_managed_process() throws Exception {
+		ManagedCommandProcess process = mock(ManagedCommandProcess.class);
+
+		CommandProcesses.destroy(process);
+
+		verify(process).destroy();
+		verify(process, never()).close();
+	}
+
+	@Test
+	public void it_should_close_unmanaged_process() throws Exception {
+		CommandProcess process = mock(CommandProcess.class);
+		doThrow(new IllegalStateException("Process already closed")).when(process).close();
+
+		CommandProcesses.destroy(process);
+
+		verify(process).close();
+	}
+
+	@Test
+	public void it_should_check_that_command_is_not_aborted() throws Exception {
+		final ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+
+		CommandProcesses.checkAborted(mock(OutputHandler.class));
+		CommandProcesses.checkAborted(handler);
+
+		when(handler.isAborted()).thenReturn(true);
+		ThrowingCallable checkAborted = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				CommandProcesses.checkAborted(handler);
+			}
+		};
+
+		assertThatThrownBy(checkAborted)
+				.isInstanceOf(InterruptedIOException.class)
+				.hasMessage("Command has been cancelled before it was written");
+	}
+}
@@ -17,10 +17,12 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -73,4 +75,23 @@ public class CompositeHandlerTest {
 		verify(h1).readLine(end);
 		verify(h2).readLine(end);
 	}
+
+	@Test
+	public void it_should_read_chars() {
+		StringBuilder line = new StringBuilder("foo");
+
+		OutputHandler h1 = mock(OutputHandler.class);
+		CharSequenceOutputHandler h2 = mock(CharSequenceOutputHandler.class);
+
+		when(h1.readLine(anyString())).thenReturn(true);
+		when(h2.readChars(any(CharSequence.class))).thenReturn(true);
+
+		CompositeHandler handler = new CompositeHandler(h1, h2);
+
+		boolean result = handler.readChars(line);
+
+		assertThat(result).isTrue();
+		verify(h1).readLine("foo");
+		verify(h2).readChars(line);
+	}
 }
@@ -17,21 +17,39 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.Priority;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
 import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandContext;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.CommandProcesses;
 import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.ContextOutputHandler;
+import com.thebuzzmedia.exiftool.process.ErrorOutputHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import static com.thebuzzmedia.exiftool.tests.TestConstants.IS_WINDOWS;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assume.assumeFalse;
 import static org.junit.Assume.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -85,6 +103,25 @@ public class DefaultCommandExecutorTest {
 		assertThat(result.getOutput()).isEqualTo("Hello World");
 	}
 
+	@Test
+	public void it_should_execute_command_line_and_read_error_output() throws Exception {
+		assumeFalse(IS_WINDOWS);
+
+		File script = new File(getClass().getResource("/processes/warning.sh").getFile());
+		Command command = createUnixCommand(script.getAbsolutePath());
+		ErrorOutputHandler handler = mock(ErrorOutputHandler.class);
+
+		CommandExecutor executor = new DefaultCommandExecutor();
+		CommandResult result = executor.execute(command, handler);
+
+		verify(handler).readLine("Hello World");
+		verify(handler).readError("Warning: Hello World");
+		verify(handler, never()).readError("{ready_errors}");
+
+		assertThat(result.getExitStatus()).isZero();
+		assertThat(result.getOutput()).isEqualTo("Hello World");
+	}
+
 	@Test
 	public void it_should_start_command_line() throws Exception {
 		assumeFalse(IS_WINDOWS);
@@ -101,6 +138,127 @@ public class DefaultCommandExecutorTest {
 		assertThat(output).isNotNull().isEqualTo("Hello World");
 	}
 
+	@Test
+	public void it_should_destroy_process_when_deadline_is_missed() throws Exception {
+		assumeFalse(IS_WINDOWS);
+
+		final Command command = mock(Command.class);
+		when(command.getArguments()).thenReturn(asList("sleep", "10"));
+
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(200));
+		final CommandExecutor executor = new DefaultCommandExecutor();
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				executor.execute(command, handler);
+			}
+		};
+
+		long start = System.nanoTime();
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed, exiftool process has been destroyed");
+
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+	}
+
+	@Test
+	public void it_should_destroy_process_when_command_is_aborted() throws Exception {
+		assumeFalse(IS_WINDOWS);
+
+		Command command = mock(Command.class);
+		when(command.getArguments()).thenReturn(asList("sleep", "10"));
+
+		// Request is cancelled once process is attached to the handler.
+		ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				CommandProcess process = invocation.getArgument(0);
+				CommandProcesses.destroy(process);
+				return null;
+			}
+		}).when(handler).onRead(any(CommandProcess.class));
+
+		long start = System.nanoTime();
+
+		try {
+			new DefaultCommandExecutor().execute(command, handler);
+		}
+		catch (IOException ex) {
+			// Output may not be readable once process has been destroyed.
+		}
+
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+		verify(handler).onRead(any(CommandProcess.class));
+	}
+
+	@Test
+	public void it_should_not_start_process_if_deadline_is_already_missed() throws Exception {
+		final Command command = mock(Command.class);
+		final ContextOutputHandler handler = deadlineHandler(System.nanoTime() - 2, 1);
+		final CommandExecutor executor = new DefaultCommandExecutor();
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				executor.execute(command, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(CommandTimeoutException.class)
+				.hasMessage("Command deadline missed before exiftool process was started");
+
+		verify(command, never()).getArguments();
+	}
+
+	@Test
+	public void it_should_not_start_process_if_command_is_aborted() throws Exception {
+		final Command command = mock(Command.class);
+		final ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+		when(handler.isAborted()).thenReturn(true);
+		final CommandExecutor executor = new DefaultCommandExecutor();
+
+		ThrowingCallable execute = new ThrowingCallable() {
+			@Override
+			public void call() throws Throwable {
+				executor.execute(command, handler);
+			}
+		};
+
+		assertThatThrownBy(execute)
+				.isInstanceOf(InterruptedIOException.class)
+				.hasMessage("Command has been cancelled before it was written");
+
+		verify(command, never()).getArguments();
+	}
+
+	@Test
+	public void it_should_execute_command_line_before_deadline() throws Exception {
+		assumeFalse(IS_WINDOWS);
+
+		File script = new File(getClass().getResource("/processes/success.sh").getFile());
+		Command command = createUnixCommand(script.getAbsolutePath());
+		ContextOutputHandler handler = deadlineHandler(System.nanoTime(), TimeUnit.SECONDS.toNanos(10));
+
+		CommandExecutor executor = new DefaultCommandExecutor();
+		CommandResult result = executor.execute(command, handler);
+
+		verify(handler).readLine("Hello World");
+		assertThat(result.getExitStatus()).isZero();
+		assertThat(result.getOutput()).isEqualTo("Hello World");
+	}
+
+	private static ContextOutputHandler deadlineHandler(long start, long timeout) {
+		CommandContext context = new CommandContext(start, timeout, Priority.NORMAL, Collections.<File>emptyList(), false, false);
+		ContextOutputHandler handler = mock(ContextOutputHandler.class);
+		when(handler.getContext()).thenReturn(context);
+		return handler;
+	}
+
 	private Command createUnixCommand(String script) {
 		Command command = mock(Command.class);
 		when(command.getArguments()).thenReturn(asList("/bin/sh", script));
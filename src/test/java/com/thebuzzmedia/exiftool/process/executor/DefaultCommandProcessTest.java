@@ -17,7 +17,10 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.metrics.RecordingMetrics;
+import com.thebuzzmedia.exiftool.process.CharSequenceOutputHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.ProcessAwareOutputHandler;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -29,8 +32,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.thebuzzmedia.exiftool.metrics.RecordingMetrics.recordingMetrics;
 import static com.thebuzzmedia.exiftool.tests.TestConstants.BR;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -111,6 +116,43 @@ public class DefaultCommandProcessTest {
 		assertThat(process.isRunning()).isFalse();
 	}
 
+	@Test
+	public void it_should_destroy_process() throws Exception {
+		OutputStream os = mock(OutputStream.class);
+		InputStream is = mock(InputStream.class);
+		InputStream err = mock(InputStream.class);
+		Process proc = mock(Process.class);
+		when(proc.getInputStream()).thenReturn(is);
+		when(proc.getOutputStream()).thenReturn(os);
+		when(proc.getErrorStream()).thenReturn(err);
+
+		DefaultCommandProcess process = new DefaultCommandProcess(proc);
+		assertThat(process.isClosed()).isFalse();
+
+		process.destroy();
+
+		verify(proc).destroy();
+		verify(is).close();
+		verify(os).close();
+		verify(err).close();
+		assertThat(process.isClosed()).isTrue();
+		assertThat(process.isRunning()).isFalse();
+	}
+
+	@Test
+	public void it_should_give_process_to_process_aware_handler() throws Exception {
+		String output = "first-line" + BR + "{ready}" + BR;
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+		ProcessAwareOutputHandler handler = mock(ProcessAwareOutputHandler.class);
+		when(handler.readLine(anyString())).thenReturn(true, false);
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+		process.read(handler);
+
+		verify(handler).onRead(process);
+		verify(handler).readLine("first-line");
+	}
+
 	@Test
 	public void it_should_close_process_with_first_failure() throws Exception {
 		OutputStream os = mock(OutputStream.class);
@@ -249,6 +291,48 @@ public class DefaultCommandProcessTest {
 				.isEqualTo(output);
 	}
 
+	@Test
+	public void it_should_report_io_metrics() throws Exception {
+		String firstLine = "first-line";
+		String secondLine = "second-line";
+		String output = firstLine + BR + secondLine;
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+
+		RecordingMetrics metrics = recordingMetrics();
+		long written = metrics.getBytesWritten();
+		long read = metrics.getBytesRead();
+		long lines = metrics.getLines();
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, new ByteArrayOutputStream(), mock(InputStream.class));
+		process.write("-ver" + BR, "-execute" + BR);
+		process.read();
+
+		assertThat(metrics.getBytesWritten()).isEqualTo(written + 14);
+		assertThat(metrics.getBytesRead()).isEqualTo(read + output.getBytes(StandardCharsets.UTF_8).length);
+		assertThat(metrics.getLines()).isEqualTo(lines + 2);
+	}
+
+	@Test
+	public void it_should_count_output_size() throws Exception {
+		String firstLine = "first-line-é";
+		String secondLine = "second-line";
+		String output = firstLine + BR + secondLine;
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+		assertThat(process.getOutputSize()).isZero();
+
+		process.read();
+
+		assertThat(process.getOutputSize()).isEqualTo(output.getBytes(StandardCharsets.UTF_8).length);
+	}
+
+	@Test
+	public void it_should_not_get_pid_without_process() {
+		DefaultCommandProcess process = new DefaultCommandProcess(mock(InputStream.class), mock(OutputStream.class), mock(InputStream.class));
+		assertThat(process.getPid()).isEqualTo(-1);
+	}
+
 	@Test
 	public void it_should_not_read_from_closed_process() throws Exception {
 		final DefaultCommandProcess process = new DefaultCommandProcess(mock(InputStream.class), mock(OutputStream.class), mock(InputStream.class));
@@ -298,6 +382,71 @@ public class DefaultCommandProcessTest {
 		verify(handler, never()).readLine(thirdLine);
 	}
 
+	@Test
+	public void it_should_keep_output_between_read_operations() throws Exception {
+		String output = "first-line" + BR + "{ready}" + BR + "second-line" + BR + "{ready}" + BR;
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+
+		OutputHandler handler = new OutputHandler() {
+			@Override
+			public boolean readLine(String line) {
+				return line != null && !line.equals("{ready}");
+			}
+		};
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+
+		assertThat(process.read(handler)).isEqualTo("first-line" + BR + "{ready}");
+		assertThat(process.read(handler)).isEqualTo("second-line" + BR + "{ready}");
+	}
+
+	@Test
+	public void it_should_read_from_input_and_use_char_sequence_handler() throws Exception {
+		String output = "first-line" + BR + "{ready}" + BR + "third-line";
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+
+		final List<String> lines = new ArrayList<>();
+		CharSequenceOutputHandler handler = new CharSequenceOutputHandler() {
+			@Override
+			public boolean readChars(CharSequence line) {
+				lines.add(line.toString());
+				return !"{ready}".contentEquals(line);
+			}
+
+			@Override
+			public boolean readLine(String line) {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+		String out = process.read(handler);
+
+		assertThat(out).isEqualTo("first-line" + BR + "{ready}");
+		assertThat(lines).containsExactly("first-line", "{ready}");
+	}
+
+	@Test
+	public void it_should_read_error_output() throws Exception {
+		String errors = "first-warning" + BR + "{ready_errors}" + BR + "second-warning" + BR;
+		InputStream err = new ByteArrayInputStream(errors.getBytes(StandardCharsets.UTF_8));
+
+		OutputHandler handler = new OutputHandler() {
+			@Override
+			public boolean readLine(String line) {
+				return line != null && !line.equals("{ready_errors}");
+			}
+		};
+
+		DefaultCommandProcess process = new DefaultCommandProcess(mock(InputStream.class), mock(OutputStream.class), err);
+
+		// Error output is drained once process has received some inputs.
+		process.write("foo");
+
+		assertThat(process.readError(handler)).isEqualTo("first-warning" + BR + "{ready_errors}");
+		assertThat(process.readError(handler)).isEqualTo("second-warning");
+	}
+
 	@Test
 	public void it_should_write_from_output() throws Exception {
 		ByteArrayOutputStream os = new ByteArrayOutputStream();
@@ -41,4 +41,17 @@ public class ResultHandlerTest {
 						"foo" + TestConstants.BR + "bar"
 				);
 	}
+
+	@Test
+	public void it_should_handle_chars() {
+		ResultHandler handler = new ResultHandler();
+
+		assertThat(handler.readChars(new StringBuilder("foo"))).isTrue();
+		assertThat(handler.readChars(new StringBuilder("bar"))).isTrue();
+		assertThat(handler.readChars(null)).isFalse();
+
+		assertThat(handler.getOutput()).isEqualTo(
+				"foo" + TestConstants.BR + "bar"
+		);
+	}
 }
@@ -0,0 +1,6 @@
+#!/bin/sh
+
+echo "Hello World"
+echo "Warning: Hello World" >&2
+echo "{ready_errors}" >&2
+exit 0